@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+
+/**
+ * A {@link Condition} bound to the layout of the rows it is evaluated on. The work which doesn't
+ * depend on the row is done once when the condition is compiled: the field indexes are looked up,
+ * the constant values are created and converted to the type of the field they are compared with,
+ * regular expressions are compiled and the values of an IN LIST are put in a hash set.
+ *
+ * <p>The result of {@link #evaluate(Object[])} is the same as {@link Condition#evaluate(IRowMeta,
+ * Object[])} for the row metadata the condition was compiled with. Conditions which can't be
+ * prepared, for example because a field doesn't exist, are evaluated by the condition itself.
+ *
+ * <p>Compile the condition when the layout of the rows is known, typically on the first row a
+ * transform receives, and evaluate it for every row.
+ */
+public class CompiledCondition {
+
+  private interface Node {
+    boolean evaluate(Object[] row) throws HopException;
+  }
+
+  private final Condition condition;
+  private final Node root;
+
+  private CompiledCondition(Condition condition, Node root) {
+    this.condition = condition;
+    this.root = root;
+  }
+
+  /**
+   * Compile a condition for rows with the given layout
+   *
+   * @param condition the condition to compile
+   * @param rowMeta the metadata of the rows the condition is evaluated on
+   * @return the compiled condition
+   */
+  public static CompiledCondition compile(Condition condition, IRowMeta rowMeta) {
+    return new CompiledCondition(condition, compileNode(condition, rowMeta));
+  }
+
+  /**
+   * Evaluate the condition on a row with the layout the condition was compiled for
+   *
+   * @param row the row data
+   * @return true if the condition evaluates to true
+   */
+  public boolean evaluate(Object[] row) {
+    try {
+      return root.evaluate(row);
+    } catch (Exception e) {
+      throw new RuntimeException("Unexpected error evaluation condition [" + condition + "]", e);
+    }
+  }
+
+  private static Node compileNode(Condition condition, IRowMeta rowMeta) {
+    if (condition.isComposite()) {
+      return compileComposite(condition, rowMeta);
+    }
+    Node node = compileAtomic(condition, rowMeta);
+    if (node == null) {
+      // Leave the special cases to the condition itself
+      return row -> condition.evaluate(rowMeta, row);
+    }
+    return node;
+  }
+
+  private static Node compileComposite(Condition condition, IRowMeta rowMeta) {
+    List<Condition> children = condition.getChildren();
+    Node first = compileNode(children.get(0), rowMeta);
+    List<Node> nodes = new ArrayList<>();
+    List<Condition.Operator> operators = new ArrayList<>();
+    for (int i = 1; i < children.size(); i++) {
+      Condition child = children.get(i);
+      Condition.Operator operator = child.getOperator();
+      if (operator == Condition.Operator.OR
+          || operator == Condition.Operator.AND
+          || operator == Condition.Operator.OR_NOT
+          || operator == Condition.Operator.AND_NOT
+          || operator == Condition.Operator.XOR) {
+        nodes.add(compileNode(child, rowMeta));
+        operators.add(operator);
+      }
+      // Conditions without a valid operator are never evaluated
+    }
+    Node[] others = nodes.toArray(new Node[0]);
+    Condition.Operator[] ops = operators.toArray(new Condition.Operator[0]);
+    boolean negated = condition.isNegated();
+
+    return row -> {
+      boolean evaluation = first.evaluate(row);
+      for (int i = 0; i < others.length; i++) {
+        switch (ops[i]) {
+          case OR:
+            evaluation = evaluation || others[i].evaluate(row);
+            break;
+          case AND:
+            evaluation = evaluation && others[i].evaluate(row);
+            break;
+          case OR_NOT:
+            evaluation = evaluation || !others[i].evaluate(row);
+            break;
+          case AND_NOT:
+            evaluation = evaluation && !others[i].evaluate(row);
+            break;
+          default:
+            evaluation = evaluation ^ others[i].evaluate(row);
+            break;
+        }
+      }
+      return negated != evaluation;
+    };
+  }
+
+  /**
+   * @return the compiled atomic condition or null if the condition should evaluate itself
+   */
+  private static Node compileAtomic(Condition condition, IRowMeta rowMeta) {
+    Condition.Function function = condition.getFunction();
+    boolean negated = condition.isNegated();
+    if (function == Condition.Function.TRUE) {
+      return row -> !negated;
+    }
+    if (function == null || StringUtils.isEmpty(condition.getLeftValueName())) {
+      return null;
+    }
+    int leftIndex = rowMeta.indexOfValue(condition.getLeftValueName());
+    if (leftIndex < 0) {
+      // There is no field to evaluate: not negated
+      return row -> false;
+    }
+    IValueMeta leftMeta = rowMeta.getValueMeta(leftIndex);
+
+    if (StringUtils.isNotEmpty(condition.getRightValueName())) {
+      int rightIndex = rowMeta.indexOfValue(condition.getRightValueName());
+      if (rightIndex < 0) {
+        return null;
+      }
+      return compileFieldComparison(
+          function, negated, leftIndex, leftMeta, rightIndex, rowMeta.getValueMeta(rightIndex));
+    }
+
+    Condition.CValue rightValue = condition.getRightValue();
+    if (rightValue == null) {
+      if (function == Condition.Function.NULL) {
+        return row -> negated != leftMeta.isNull(row[leftIndex]);
+      }
+      if (function == Condition.Function.NOT_NULL) {
+        return row -> negated == leftMeta.isNull(row[leftIndex]);
+      }
+      return null;
+    }
+
+    IValueMeta constantMeta;
+    Object constant;
+    try {
+      constantMeta = rightValue.createValueMeta();
+      constant = rightValue.createValueData();
+    } catch (Exception e) {
+      // The condition reports the problem for every row
+      return null;
+    }
+    try {
+      return compileConstantComparison(
+          function, negated, leftIndex, leftMeta, constantMeta, constant);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static Node compileFieldComparison(
+      Condition.Function function,
+      boolean negated,
+      int leftIndex,
+      IValueMeta leftMeta,
+      int rightIndex,
+      IValueMeta rightMeta) {
+    switch (function) {
+      case EQUAL:
+      case NOT_EQUAL:
+      case SMALLER:
+      case SMALLER_EQUAL:
+      case LARGER:
+      case LARGER_EQUAL:
+        Comparison comparison =
+            data -> leftMeta.compare(data[leftIndex], rightMeta, data[rightIndex]);
+        return compileComparison(function, negated, leftIndex, leftMeta, comparison);
+      case NULL:
+        return row -> negated != leftMeta.isNull(row[leftIndex]);
+      case NOT_NULL:
+        return row -> negated == leftMeta.isNull(row[leftIndex]);
+      default:
+        // The string functions depend on the value of the right field in every row
+        return null;
+    }
+  }
+
+  private static Node compileConstantComparison(
+      Condition.Function function,
+      boolean negated,
+      int leftIndex,
+      IValueMeta leftMeta,
+      IValueMeta constantMeta,
+      Object constant)
+      throws HopException {
+    switch (function) {
+      case EQUAL:
+      case NOT_EQUAL:
+      case SMALLER:
+      case SMALLER_EQUAL:
+      case LARGER:
+      case LARGER_EQUAL:
+        return compileComparison(
+            function,
+            negated,
+            leftIndex,
+            leftMeta,
+            compileConstantCompare(leftIndex, leftMeta, constantMeta, constant));
+      case NULL:
+        return row -> negated != leftMeta.isNull(row[leftIndex]);
+      case NOT_NULL:
+        return row -> negated == leftMeta.isNull(row[leftIndex]);
+      case REGEXP:
+        if (constant == null) {
+          return row -> negated;
+        }
+        Pattern pattern = Pattern.compile(constantMeta.getCompatibleString(constant));
+        return compilePattern(negated, leftIndex, leftMeta, pattern);
+      case LIKE:
+        if (constant == null) {
+          return row -> negated;
+        }
+        String regex =
+            constantMeta.getCompatibleString(constant).replace("%", ".*").replace("?", ".");
+        return compilePattern(negated, leftIndex, leftMeta, Pattern.compile(regex));
+      case IN_LIST:
+        Set<String> inList = new HashSet<>();
+        for (String value : Const.splitString(constantMeta.getString(constant), ';', true)) {
+          inList.add(value.replace("\\", ""));
+        }
+        if (inList.size() == 1) {
+          String value = inList.iterator().next();
+          return row -> negated != value.equals(leftMeta.getCompatibleString(row[leftIndex]));
+        }
+        Set<String> values = Collections.unmodifiableSet(inList);
+        return row -> {
+          String string = leftMeta.getCompatibleString(row[leftIndex]);
+          return negated != (string != null && values.contains(string));
+        };
+      case CONTAINS:
+      case STARTS_WITH:
+      case ENDS_WITH:
+        String search = constant == null ? null : constantMeta.getCompatibleString(constant);
+        if (search == null) {
+          // Leave the exceptions and special cases to the condition itself
+          return null;
+        }
+        return compileStringSearch(function, negated, leftIndex, leftMeta, search);
+      default:
+        return null;
+    }
+  }
+
+  private interface Comparison {
+    int compare(Object[] row) throws HopException;
+  }
+
+  /** Prepare the comparison of a field with a constant value. */
+  private static Comparison compileConstantCompare(
+      int leftIndex, IValueMeta leftMeta, IValueMeta constantMeta, Object constant) {
+    if (leftMeta.getType() == constantMeta.getType()
+        && leftMeta.getStorageType() == constantMeta.getStorageType()) {
+      return row -> leftMeta.compare(row[leftIndex], constant);
+    }
+    if (leftMeta.getType() != constantMeta.getType()
+        && !(leftMeta.getType() == IValueMeta.TYPE_INTEGER
+            && constantMeta.getType() == IValueMeta.TYPE_NUMBER)) {
+      // The constant is converted to the type of the field, do it once
+      try {
+        Object converted = leftMeta.convertData(constantMeta, constant);
+        return row -> leftMeta.compare(row[leftIndex], converted);
+      } catch (Exception e) {
+        // Fall through: the conversion error is reported for every row
+      }
+    }
+    return row -> leftMeta.compare(row[leftIndex], constantMeta, constant);
+  }
+
+  private static Node compileComparison(
+      Condition.Function function,
+      boolean negated,
+      int leftIndex,
+      IValueMeta leftMeta,
+      Comparison comparison) {
+    switch (function) {
+      case EQUAL:
+        return row -> negated != (comparison.compare(row) == 0);
+      case NOT_EQUAL:
+        return row -> negated != (comparison.compare(row) != 0);
+      case SMALLER:
+        return row -> negated != (!leftMeta.isNull(row[leftIndex]) && comparison.compare(row) < 0);
+      case SMALLER_EQUAL:
+        return row -> negated != (!leftMeta.isNull(row[leftIndex]) && comparison.compare(row) <= 0);
+      case LARGER:
+        return row -> negated != (comparison.compare(row) > 0);
+      default:
+        return row -> negated != (comparison.compare(row) >= 0);
+    }
+  }
+
+  private static Node compilePattern(
+      boolean negated, int leftIndex, IValueMeta leftMeta, Pattern pattern) {
+    return row -> {
+      Object field = row[leftIndex];
+      return negated
+          != (!leftMeta.isNull(field)
+              && pattern.matcher(leftMeta.getCompatibleString(field)).matches());
+    };
+  }
+
+  private static Node compileStringSearch(
+      Condition.Function function,
+      boolean negated,
+      int leftIndex,
+      IValueMeta leftMeta,
+      String search) {
+    switch (function) {
+      case CONTAINS:
+        return row -> {
+          String string = leftMeta.getCompatibleString(row[leftIndex]);
+          return negated != (string != null && string.contains(search));
+        };
+      case STARTS_WITH:
+        return row -> {
+          String string = leftMeta.getCompatibleString(row[leftIndex]);
+          return negated != (string != null && string.startsWith(search));
+        };
+      default:
+        return row -> {
+          String string = leftMeta.getCompatibleString(row[leftIndex]);
+          return negated != (!Utils.isEmpty(string) && string.endsWith(search));
+        };
+    }
+  }
+}
@@ -568,6 +568,17 @@ public class Condition implements Cloneable {
     return evaluation;
   }
 
+  /**
+   * Compile the condition for rows with the given layout. The compiled condition evaluates rows
+   * faster because it looks up the fields and prepares the constant values only once.
+   *
+   * @param rowMeta the metadata of the rows the condition is evaluated on
+   * @return the compiled condition
+   */
+  public CompiledCondition compile(IRowMeta rowMeta) {
+    return CompiledCondition.compile(this, rowMeta);
+  }
+
   public void addCondition(Condition cb) {
     if (isAtomic() && getLeftValueName() != null) {
       /*
@@ -555,6 +555,16 @@ public class Const {
   public static final String HOP_TRANSFORM_PERFORMANCE_SNAPSHOT_LIMIT =
       "HOP_TRANSFORM_PERFORMANCE_SNAPSHOT_LIMIT";
 
+  /**
+   * System wide parameter: the maximum number of resolved VFS file objects to keep in memory. Set
+   * to 0 to resolve every file name again.
+   */
+  @Variable(
+      value = "10000",
+      description =
+          "The maximum number of resolved VFS file objects to keep in memory, to speed up opening the same files again. Set to 0 to disable the cache.")
+  public static final String HOP_VFS_FILE_OBJECT_CACHE_SIZE = "HOP_VFS_FILE_OBJECT_CACHE_SIZE";
+
   /** A variable to configure the maximum number of workflow trackers kept in memory. */
   @Variable(
       value = "5000",
@@ -661,6 +671,47 @@ public class Const {
           "Set this variable to 'Y' if you want to test a more efficient batching row set.")
   public static final String HOP_BATCHING_ROWSET = "HOP_BATCHING_ROWSET";
 
+  /**
+   * The compression codec for the temporary spill files of transforms like Sort Rows, Group By and
+   * Blocking transform: NONE, GZIP, LZ4, SNAPPY or ZSTD.
+   */
+  @Variable(
+      value = "",
+      description =
+          "The compression codec used for the temporary spill files of transforms like Sort Rows, Group By and Blocking transform: NONE, GZIP, LZ4, SNAPPY or ZSTD. When empty the compression option of the transform decides between GZIP and NONE.")
+  public static final String HOP_SPILL_FILE_CODEC = "HOP_SPILL_FILE_CODEC";
+
+  /** The compression level of the Zstd compression provider: 1 (fastest) to 22 (smallest). */
+  @Variable(
+      value = "3",
+      description =
+          "The compression level of the Zstd compression provider, from 1 (fastest) to 22 (smallest output).")
+  public static final String HOP_COMPRESSION_ZSTD_LEVEL = "HOP_COMPRESSION_ZSTD_LEVEL";
+
+  /** The compression level of the LZ4 compression provider: 1 (fastest) to 17 (smallest). */
+  @Variable(
+      value = "1",
+      description =
+          "The compression level of the LZ4 compression provider: 1 uses the fast LZ4 compressor, 2 to 17 use the LZ4 HC compressor with that level.")
+  public static final String HOP_COMPRESSION_LZ4_LEVEL = "HOP_COMPRESSION_LZ4_LEVEL";
+
+  /** The compression level of the parallel GZip compression provider: 1 (fastest) to 9. */
+  @Variable(
+      value = "6",
+      description =
+          "The compression level of the parallel GZip compression provider, from 1 (fastest) to 9 (smallest output).")
+  public static final String HOP_COMPRESSION_GZIP_LEVEL = "HOP_COMPRESSION_GZIP_LEVEL";
+
+  /**
+   * The number of threads compressing blocks for the parallel GZip compression provider. It's read
+   * when the first file is compressed, the threads are shared by all files.
+   */
+  @Variable(
+      value = "",
+      description =
+          "The number of threads compressing blocks for the parallel GZip compression provider. When empty the number of processors is used. It's read when the first file is compressed.")
+  public static final String HOP_COMPRESSION_GZIP_THREADS = "HOP_COMPRESSION_GZIP_THREADS";
+
   /**
    * Set this variable to limit max number of files the Text File Output transform can have open at
    * one time.
@@ -947,6 +998,14 @@ public class Const {
   public static final String HOP_DEFAULT_BUFFER_POLLING_WAITTIME =
       "HOP_DEFAULT_BUFFER_POLLING_WAITTIME";
 
+  /** The maximum memory in MB the lookup cache of a transform uses, 0 for no limit */
+  @Variable(
+      scope = VariableScope.ENGINE,
+      value = "0",
+      description =
+          "The maximum memory in MB the lookup cache of a transform (Database Lookup, Dimension Lookup, Combination Lookup) uses, shared by all copies of the transform. 0 means the memory is not limited.")
+  public static final String HOP_LOOKUP_CACHE_MAX_MEMORY_MB = "HOP_LOOKUP_CACHE_MAX_MEMORY_MB";
+
   /**
    * rounds double f to any number of places after decimal point Does arithmetic using BigDecimal
    * class to avoid integer overflow while rounding
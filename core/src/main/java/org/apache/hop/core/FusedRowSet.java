@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * A row set without a buffer which hands every row directly to the transform reading from it.
+ * Putting a row runs the consumer in the thread of the writing transform. The consumer reads the
+ * row with a single getRow() call before putRow() returns, so the two transforms are fused into one
+ * call path without queueing or locking.
+ */
+public class FusedRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  private Object[] row;
+  private Runnable consumer;
+
+  @Override
+  public Object[] getRow() {
+    Object[] retRow = row;
+    row = null;
+    return retRow;
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return getRow();
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    if (row == null && !isDone()) {
+      // Waiting would block the writing transform forever: it's the thread we're running in.
+      throw new IllegalStateException(
+          "Transform '"
+              + getDestinationTransformName()
+              + "' tried to read more rows than it was handed by transform '"
+              + getOriginTransformName()
+              + "'");
+    }
+    return getRow();
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    if (consumer == null) {
+      throw new IllegalStateException("No consumer was set for row set " + toString());
+    }
+    this.rowMeta = rowMeta;
+    this.row = rowData;
+    try {
+      consumer.run();
+    } finally {
+      // A stopped consumer doesn't read the row anymore
+      row = null;
+    }
+    return true;
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    return putRow(rowMeta, rowData);
+  }
+
+  @Override
+  public int size() {
+    return row == null ? 0 : 1;
+  }
+
+  @Override
+  public void clear() {
+    row = null;
+    done.set(false);
+  }
+
+  /**
+   * Gets consumer
+   *
+   * @return the code which processes a row put in this row set
+   */
+  public Runnable getConsumer() {
+    return consumer;
+  }
+
+  /**
+   * @param consumer the code which processes a row put in this row set, it reads the row with a
+   *     single getRow() call
+   */
+  public void setConsumer(Runnable consumer) {
+    this.consumer = consumer;
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * A lock-free row set for exactly one producer and one consumer thread, which is how the local
+ * engine wires up every hop between two transform copies. Rows are kept in a ring buffer with a
+ * power of two capacity. The producer and consumer each cache the last position they saw of the
+ * other side and only read the shared position again when that cached view runs out. That way rows
+ * are handed over in chunks without taking a lock or parking a thread while there is work to do.
+ *
+ * <p>When the buffer is full (producer) or empty (consumer) the thread spins briefly, then yields
+ * and finally parks for short periods until the row set timeout expires.
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  /** The number of busy-spins before we start yielding the CPU. */
+  private static final int SPIN_TRIES = 100;
+
+  /** The number of yields before we start parking the thread. */
+  private static final int YIELD_TRIES = 10;
+
+  /** The time we park the thread for while waiting for the other side. */
+  private static final long PARK_NANOS = 50_000L;
+
+  private final Object[][] ring;
+  private final int mask;
+  private final int capacity;
+
+  /** The position of the next row to read, only written by the consumer. */
+  private final AtomicLong head;
+
+  /** The position of the next row to write, only written by the producer. */
+  private final AtomicLong tail;
+
+  /** The last head position seen by the producer. */
+  private long producerHeadCache;
+
+  /** The last tail position seen by the consumer. */
+  private long consumerTailCache;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new lock-free row set with a capacity of at least maxSize rows.
+   *
+   * @param maxSize the minimum number of rows the buffer can hold
+   */
+  public RingBufferRowSet(int maxSize) {
+    super();
+
+    capacity = roundUpToPowerOfTwo(Math.max(2, maxSize));
+    mask = capacity - 1;
+    ring = new Object[capacity][];
+    head = new AtomicLong(0L);
+    tail = new AtomicLong(0L);
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  private static int roundUpToPowerOfTwo(int value) {
+    int highest = Integer.highestOneBit(value);
+    if (highest == value) {
+      return value;
+    }
+    if (highest >= (1 << 30)) {
+      return 1 << 30;
+    }
+    return highest << 1;
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    if (rowData == null) {
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    long position = tail.getPlain();
+    if (position - producerHeadCache >= capacity) {
+      producerHeadCache = head.getAcquire();
+      if (position - producerHeadCache >= capacity && !waitForFreeSlot(position, time, tu)) {
+        return false;
+      }
+    }
+
+    ring[(int) position & mask] = rowData;
+    tail.setRelease(position + 1);
+    return true;
+  }
+
+  private boolean waitForFreeSlot(long position, long time, TimeUnit tu) {
+    long deadline = System.nanoTime() + tu.toNanos(time);
+    int tries = 0;
+    while (position - producerHeadCache >= capacity) {
+      if (!backOff(tries++, deadline)) {
+        return false;
+      }
+      producerHeadCache = head.getAcquire();
+    }
+    return true;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    long position = head.getPlain();
+    if (position >= consumerTailCache) {
+      consumerTailCache = tail.getAcquire();
+      if (position >= consumerTailCache) {
+        return null;
+      }
+    }
+    return takeRow(position);
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    long position = head.getPlain();
+    if (position >= consumerTailCache) {
+      consumerTailCache = tail.getAcquire();
+      if (position >= consumerTailCache && !waitForRow(position, timeout, tu)) {
+        return null;
+      }
+    }
+    return takeRow(position);
+  }
+
+  private boolean waitForRow(long position, long timeout, TimeUnit tu) {
+    long deadline = System.nanoTime() + tu.toNanos(timeout);
+    int tries = 0;
+    while (position >= consumerTailCache) {
+      if (!backOff(tries++, deadline)) {
+        return false;
+      }
+      consumerTailCache = tail.getAcquire();
+    }
+    return true;
+  }
+
+  private Object[] takeRow(long position) {
+    int index = (int) position & mask;
+    Object[] row = ring[index];
+    ring[index] = null; // prevent any hold-up to GC
+    head.setRelease(position + 1);
+    return row;
+  }
+
+  /**
+   * Wait a little while for the other side of the row set.
+   *
+   * @param tries the number of times we already waited
+   * @param deadline the System.nanoTime() value after which we give up
+   * @return false if the deadline has passed or the thread was interrupted
+   */
+  private static boolean backOff(int tries, long deadline) {
+    if (tries < SPIN_TRIES) {
+      Thread.onSpinWait();
+    } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(PARK_NANOS);
+    }
+    return !Thread.currentThread().isInterrupted() && System.nanoTime() - deadline < 0;
+  }
+
+  @Override
+  public int size() {
+    long size = tail.getAcquire() - head.getAcquire();
+    return (int) Math.max(0L, Math.min(size, capacity));
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(ring, null);
+    head.set(0L);
+    tail.set(0L);
+    producerHeadCache = 0L;
+    consumerTailCache = 0L;
+    done.set(false);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.cache;
+
+/**
+ * Estimates how often keys were used recently with a count-min sketch of 4-bit counters. Every key
+ * increments a counter in 4 places of the table, its frequency is the smallest of those counters.
+ * All counters are halved after a number of increments so the old popularity of keys fades away.
+ * The sketch isn't thread safe.
+ */
+class FrequencySketch {
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAXIMUM_TABLE_SIZE = 1 << 26;
+
+  private long[] table;
+  private int tableMask;
+  private int sampleSize;
+  private int size;
+
+  /**
+   * @param capacity the expected number of keys in the cache
+   */
+  FrequencySketch(long capacity) {
+    ensureCapacity(capacity);
+  }
+
+  /**
+   * Grow the table when more keys are expected. The counters are reset when the table grows.
+   *
+   * @param capacity the expected number of keys in the cache
+   */
+  void ensureCapacity(long capacity) {
+    int maximum = (int) Math.min(Math.max(capacity, 16L), MAXIMUM_TABLE_SIZE);
+    if (table != null && table.length >= maximum) {
+      return;
+    }
+    table = new long[Integer.highestOneBit(maximum - 1) << 1];
+    tableMask = table.length - 1;
+    sampleSize = 10 * table.length;
+    size = 0;
+  }
+
+  /**
+   * @param hash the hash code of the key
+   * @return the estimated number of recent uses of the key, at most 15
+   */
+  int frequency(int hash) {
+    int spread = spread(hash);
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      long counters = table[indexOf(spread, i)];
+      int count = (int) ((counters >>> offsetOf(spread, i)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * Count a use of the key
+   *
+   * @param hash the hash code of the key
+   */
+  void increment(int hash) {
+    int spread = spread(hash);
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(spread, i);
+      int offset = offsetOf(spread, i);
+      long mask = 0xfL << offset;
+      if ((table[index] & mask) != mask) {
+        table[index] += 1L << offset;
+        added = true;
+      }
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  /** Halve all the counters */
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = size >>> 1;
+  }
+
+  private int indexOf(int spread, int i) {
+    long hash = (spread + SEEDS[i]) * SEEDS[i];
+    hash += hash >>> 32;
+    return ((int) hash) & tableMask;
+  }
+
+  /** Every hash function uses its own group of 4 counters in a long, picking one of them */
+  private static int offsetOf(int spread, int i) {
+    return ((i << 2) + ((spread >>> (i << 3)) & 3)) << 2;
+  }
+
+  private static int spread(int hash) {
+    int spread = hash * 0x31848bab;
+    return spread ^ (spread >>> 14);
+  }
+}
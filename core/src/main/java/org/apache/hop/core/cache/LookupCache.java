@@ -0,0 +1,508 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * A thread safe cache for the results of lookups, keyed on the lookup values. The cache can be
+ * bounded by the number of entries, by the estimated memory of the entries or both.
+ *
+ * <p>Eviction uses the W-TinyLFU policy: new entries enter a small LRU window. Entries leaving the
+ * window only replace an entry of the main space when they were used more often recently, as
+ * estimated by a frequency sketch. The main space is a segmented LRU where entries used again are
+ * protected from eviction. This keeps the frequently used keys in the cache when a lot of keys are
+ * used only once.
+ *
+ * <p>The cache is split into segments by key hash, each with its own lock, so the copies of a
+ * transform can share a cache.
+ *
+ * @param <V> the type of the cached values
+ */
+public class LookupCache<V> {
+  private static final int MAXIMUM_SEGMENTS = 64;
+  private static final int MINIMUM_SEGMENT_SIZE = 32;
+
+  private final RowKeyEncoder encoder;
+  private final Segment<V>[] segments;
+  private final int segmentShift;
+  private final long maximumSize;
+  private final long maximumBytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final AtomicInteger references = new AtomicInteger();
+
+  /**
+   * @param keyMeta the metadata of the key values
+   * @param maximumSize the maximum number of entries, 0 or less for no limit
+   * @param maximumBytes the maximum estimated memory of the entries, 0 or less for no limit
+   * @param concurrency the number of threads expected to use the cache
+   */
+  @SuppressWarnings("unchecked")
+  public LookupCache(IRowMeta keyMeta, long maximumSize, long maximumBytes, int concurrency) {
+    this.encoder = new RowKeyEncoder(keyMeta);
+    this.maximumSize = Math.max(0L, maximumSize);
+    this.maximumBytes = Math.max(0L, maximumBytes);
+
+    int segmentCount = 1;
+    while (segmentCount < Math.min(concurrency, MAXIMUM_SEGMENTS)) {
+      segmentCount <<= 1;
+    }
+    // Small caches don't get split up, the eviction would become too coarse
+    while (segmentCount > 1
+        && this.maximumSize > 0
+        && this.maximumSize / segmentCount < MINIMUM_SEGMENT_SIZE) {
+      segmentCount >>= 1;
+    }
+    this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] =
+          new Segment<>(
+              divide(this.maximumSize, segmentCount),
+              divide(this.maximumBytes, segmentCount),
+              evictions);
+    }
+  }
+
+  private static long divide(long maximum, int segmentCount) {
+    return maximum <= 0 ? 0L : Math.max(1L, (maximum + segmentCount - 1) / segmentCount);
+  }
+
+  /**
+   * Get the cache shared under a name, creating it for the first user. Every call must be matched
+   * by a call to {@link #release(Map, String)}.
+   *
+   * @param sharedCaches the map holding the shared caches, for example the extension data map of a
+   *     pipeline
+   * @param name the name the cache is shared under
+   * @param factory creates the cache when it doesn't exist yet
+   * @return the shared cache
+   * @param <V> the type of the cached values
+   */
+  @SuppressWarnings("unchecked")
+  public static <V> LookupCache<V> acquire(
+      Map<String, Object> sharedCaches, String name, Supplier<LookupCache<V>> factory) {
+    synchronized (sharedCaches) {
+      LookupCache<V> cache = (LookupCache<V>) sharedCaches.get(name);
+      if (cache == null) {
+        cache = factory.get();
+        sharedCaches.put(name, cache);
+      }
+      cache.references.incrementAndGet();
+      return cache;
+    }
+  }
+
+  /**
+   * Release a shared cache. The cache is removed and cleared when the last user releases it.
+   *
+   * @param sharedCaches the map holding the shared caches
+   * @param name the name the cache is shared under
+   */
+  public void release(Map<String, Object> sharedCaches, String name) {
+    synchronized (sharedCaches) {
+      if (references.decrementAndGet() <= 0) {
+        sharedCaches.remove(name, this);
+        clear();
+      }
+    }
+  }
+
+  /**
+   * Look up the cached value of a key
+   *
+   * @param keyData the key values
+   * @return the cached value or null if the key isn't in the cache
+   * @throws HopValueException in case a key value can't be converted
+   */
+  public V get(Object[] keyData) throws HopValueException {
+    Object key = encoder.encode(keyData);
+    int hash = key.hashCode();
+    V value = segmentFor(hash).get(key, hash);
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  /**
+   * Store the value of a key, replacing the value which was cached before. This can evict other
+   * entries, or the new entry itself, to stay within the bounds of the cache.
+   *
+   * @param keyData the key values
+   * @param value the value to cache, null values are not cached
+   * @throws HopValueException in case a key value can't be converted
+   */
+  public void put(Object[] keyData, V value) throws HopValueException {
+    if (value == null) {
+      return;
+    }
+    Object key = encoder.encode(keyData);
+    int hash = key.hashCode();
+    long weight =
+        maximumBytes > 0
+            ? 48L + RowKeyEncoder.estimateBytes(key) + RowKeyEncoder.estimateBytes(value)
+            : 0L;
+    segmentFor(hash).put(key, hash, value, weight);
+  }
+
+  /** Remove all entries from the cache */
+  public void clear() {
+    for (Segment<V> segment : segments) {
+      segment.clear();
+    }
+  }
+
+  private Segment<V> segmentFor(int hash) {
+    if (segments.length == 1) {
+      return segments[0];
+    }
+    int spread = hash * 0x9e3779b9;
+    return segments[spread >>> segmentShift];
+  }
+
+  /**
+   * @return the number of entries in the cache
+   */
+  public long size() {
+    long size = 0;
+    for (Segment<V> segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * @return the estimated memory of the entries, only tracked when the memory is bounded
+   */
+  public long getEstimatedBytes() {
+    long bytes = 0;
+    for (Segment<V> segment : segments) {
+      bytes += segment.bytes();
+    }
+    return bytes;
+  }
+
+  /**
+   * Gets the number of lookups which found a value
+   *
+   * @return value of hits
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the number of lookups which didn't find a value
+   *
+   * @return value of misses
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Gets the number of entries removed to stay within the bounds of the cache
+   *
+   * @return value of evictions
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * Gets maximumSize
+   *
+   * @return value of maximumSize, 0 for no limit
+   */
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Gets maximumBytes
+   *
+   * @return value of maximumBytes, 0 for no limit
+   */
+  public long getMaximumBytes() {
+    return maximumBytes;
+  }
+
+  /**
+   * Gets the key encoder
+   *
+   * @return value of encoder
+   */
+  public RowKeyEncoder getEncoder() {
+    return encoder;
+  }
+
+  /** A cached entry, linked into the queue it's in */
+  private static final class Node<V> {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    final Object key;
+    final int hash;
+    V value;
+    long weight;
+    int queue;
+    Node<V> previous;
+    Node<V> next;
+
+    Node(Object key, int hash) {
+      this.key = key;
+      this.hash = hash;
+    }
+  }
+
+  /** A doubly linked LRU list of nodes, least recently used first */
+  private static final class Queue<V> {
+    private final Node<V> head = new Node<>(null, 0);
+    private int size;
+
+    Queue() {
+      head.previous = head;
+      head.next = head;
+    }
+
+    Node<V> first() {
+      return head.next == head ? null : head.next;
+    }
+
+    Node<V> last() {
+      return head.previous == head ? null : head.previous;
+    }
+
+    void addLast(Node<V> node) {
+      node.previous = head.previous;
+      node.next = head;
+      head.previous.next = node;
+      head.previous = node;
+      size++;
+    }
+
+    void remove(Node<V> node) {
+      node.previous.next = node.next;
+      node.next.previous = node.previous;
+      node.previous = null;
+      node.next = null;
+      size--;
+    }
+
+    void moveToLast(Node<V> node) {
+      remove(node);
+      addLast(node);
+    }
+
+    void clear() {
+      head.previous = head;
+      head.next = head;
+      size = 0;
+    }
+  }
+
+  /** A part of the cache with its own lock, eviction policy and bounds */
+  private static final class Segment<V> {
+    private final long maximumSize;
+    private final long maximumBytes;
+    private final LongAdder evictions;
+
+    private final Map<Object, Node<V>> map = new HashMap<>();
+    private final Queue<V> window = new Queue<>();
+    private final Queue<V> probation = new Queue<>();
+    private final Queue<V> protectedQueue = new Queue<>();
+    private final FrequencySketch sketch;
+    private long bytes;
+
+    Segment(long maximumSize, long maximumBytes, LongAdder evictions) {
+      this.maximumSize = maximumSize;
+      this.maximumBytes = maximumBytes;
+      this.evictions = evictions;
+      this.sketch = new FrequencySketch(maximumSize > 0 ? maximumSize : 1024L);
+    }
+
+    private boolean isBounded() {
+      return maximumSize > 0 || maximumBytes > 0;
+    }
+
+    synchronized V get(Object key, int hash) {
+      Node<V> node = map.get(key);
+      if (!isBounded()) {
+        return node == null ? null : node.value;
+      }
+      sketch.increment(hash);
+      if (node == null) {
+        return null;
+      }
+      onAccess(node);
+      return node.value;
+    }
+
+    synchronized void put(Object key, int hash, V value, long weight) {
+      Node<V> node = map.get(key);
+      if (node != null) {
+        node.value = value;
+        bytes += weight - node.weight;
+        node.weight = weight;
+        if (isBounded()) {
+          onAccess(node);
+          evict();
+        }
+        return;
+      }
+
+      node = new Node<>(key, hash);
+      node.value = value;
+      node.weight = weight;
+      map.put(key, node);
+      bytes += weight;
+      if (!isBounded()) {
+        return;
+      }
+      if (maximumSize <= 0) {
+        // Only bounded by memory: grow the sketch with the number of entries
+        sketch.ensureCapacity(map.size());
+      }
+      sketch.increment(hash);
+      node.queue = Node.WINDOW;
+      window.addLast(node);
+      evict();
+    }
+
+    /** The capacity in entries to divide between the window and the main space */
+    private long capacity() {
+      return maximumSize > 0 ? maximumSize : map.size();
+    }
+
+    private void onAccess(Node<V> node) {
+      switch (node.queue) {
+        case Node.WINDOW:
+          window.moveToLast(node);
+          break;
+        case Node.PROBATION:
+          // Used again: protect it from eviction
+          probation.remove(node);
+          node.queue = Node.PROTECTED;
+          protectedQueue.addLast(node);
+          long maximumProtected = (capacity() - maximumWindow()) * 4 / 5;
+          while (protectedQueue.size > maximumProtected && protectedQueue.size > 0) {
+            Node<V> demoted = protectedQueue.first();
+            protectedQueue.remove(demoted);
+            demoted.queue = Node.PROBATION;
+            probation.addLast(demoted);
+          }
+          break;
+        default:
+          protectedQueue.moveToLast(node);
+          break;
+      }
+    }
+
+    private long maximumWindow() {
+      return Math.max(1L, capacity() / 100);
+    }
+
+    private boolean isOverCapacity() {
+      return (maximumSize > 0 && map.size() > maximumSize)
+          || (maximumBytes > 0 && bytes > maximumBytes);
+    }
+
+    /**
+     * Move the entries leaving the window to the probation queue as candidates, then evict the
+     * candidates or the oldest probation entries until the segment is within its bounds again.
+     */
+    private void evict() {
+      int candidates = 0;
+      long maximumWindow = maximumWindow();
+      while (window.size > maximumWindow) {
+        Node<V> node = window.first();
+        window.remove(node);
+        node.queue = Node.PROBATION;
+        probation.addLast(node);
+        candidates++;
+      }
+
+      while (isOverCapacity()) {
+        Node<V> victim = probation.first();
+        if (victim == null) {
+          victim = protectedQueue.first() != null ? protectedQueue.first() : window.first();
+          remove(victim);
+          continue;
+        }
+        Node<V> candidate = candidates > 0 ? probation.last() : null;
+        if (candidate == null || candidate == victim) {
+          if (candidate != null) {
+            candidates--;
+          }
+          remove(victim);
+        } else if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+          remove(victim);
+        } else {
+          remove(candidate);
+          candidates--;
+        }
+      }
+    }
+
+    private void remove(Node<V> node) {
+      switch (node.queue) {
+        case Node.WINDOW:
+          window.remove(node);
+          break;
+        case Node.PROBATION:
+          probation.remove(node);
+          break;
+        default:
+          protectedQueue.remove(node);
+          break;
+      }
+      map.remove(node.key);
+      bytes -= node.weight;
+      evictions.increment();
+    }
+
+    synchronized void clear() {
+      map.clear();
+      window.clear();
+      probation.clear();
+      protectedQueue.clear();
+      bytes = 0;
+    }
+
+    synchronized int size() {
+      return map.size();
+    }
+
+    synchronized long bytes() {
+      return bytes;
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Turns the key values of a lookup into a compact object to use as a hash map key. A single Integer
+ * key is stored as a Long. Keys which are equal exactly when their values are equal (no collation,
+ * trimming or case insensitivity) are encoded into a byte array. Any other key is kept as a row
+ * which is compared using the value metadata.
+ */
+public class RowKeyEncoder {
+  /** Stands in for a null Integer key as some maps don't accept null keys */
+  private static final Object NULL_KEY = new Object();
+
+  private static final int KEY_ROW = 0;
+  private static final int KEY_LONG = 1;
+  private static final int KEY_BYTES = 2;
+
+  private final IRowMeta keyMeta;
+  private final int keyEncoding;
+
+  /**
+   * @param keyMeta the metadata of the key values
+   */
+  public RowKeyEncoder(IRowMeta keyMeta) {
+    this.keyMeta = keyMeta;
+    this.keyEncoding = getKeyEncoding(keyMeta);
+  }
+
+  private static int getKeyEncoding(IRowMeta keyMeta) {
+    for (IValueMeta valueMeta : keyMeta.getValueMetaList()) {
+      if (valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+        return KEY_ROW;
+      }
+    }
+    if (keyMeta.size() == 1 && keyMeta.getValueMeta(0).getType() == IValueMeta.TYPE_INTEGER) {
+      return KEY_LONG;
+    }
+    for (IValueMeta valueMeta : keyMeta.getValueMetaList()) {
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_INTEGER,
+            IValueMeta.TYPE_NUMBER,
+            IValueMeta.TYPE_DATE,
+            IValueMeta.TYPE_BOOLEAN,
+            IValueMeta.TYPE_BINARY:
+          break;
+        case IValueMeta.TYPE_STRING:
+          // Only when comparing strings comes down to String.equals()
+          if (!valueMeta.isCollatorDisabled()
+              || valueMeta.getTrimType() != IValueMeta.TRIM_TYPE_NONE
+              || valueMeta.isCaseInsensitive()
+              || valueMeta.isIgnoreWhitespace()) {
+            return KEY_ROW;
+          }
+          break;
+        default:
+          return KEY_ROW;
+      }
+    }
+    return KEY_BYTES;
+  }
+
+  /**
+   * Encode the key values
+   *
+   * @param keyData the key values
+   * @return the key to store in a hash map, never null
+   * @throws HopValueException in case a key value can't be converted
+   */
+  public Object encode(Object[] keyData) throws HopValueException {
+    switch (keyEncoding) {
+      case KEY_LONG:
+        Long value = keyMeta.getInteger(keyData, 0);
+        return value == null ? NULL_KEY : value;
+      case KEY_BYTES:
+        return new EncodedKey(encodeBytes(keyData));
+      default:
+        return new RowMetaAndData(keyMeta, keyData);
+    }
+  }
+
+  private byte[] encodeBytes(Object[] keyData) throws HopValueException {
+    KeyBuffer buffer = new KeyBuffer(keyData.length * 9);
+    for (int i = 0; i < keyData.length; i++) {
+      IValueMeta valueMeta = keyMeta.getValueMeta(i);
+      Object value = keyData[i];
+      if (valueMeta.isNull(value)) {
+        buffer.put((byte) 0);
+        continue;
+      }
+      buffer.put((byte) 1);
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_INTEGER:
+          buffer.putLong((Long) value);
+          break;
+        case IValueMeta.TYPE_NUMBER:
+          // Double.compare() considers values equal when their bits are equal
+          buffer.putLong(Double.doubleToLongBits((Double) value));
+          break;
+        case IValueMeta.TYPE_DATE:
+          buffer.putLong(((Date) value).getTime());
+          break;
+        case IValueMeta.TYPE_BOOLEAN:
+          buffer.put(((Boolean) value).booleanValue() ? (byte) 1 : (byte) 0);
+          break;
+        case IValueMeta.TYPE_STRING:
+          buffer.putBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+          break;
+        default:
+          buffer.putBytes((byte[]) value);
+          break;
+      }
+    }
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Gets the metadata of the key values
+   *
+   * @return value of keyMeta
+   */
+  public IRowMeta getKeyMeta() {
+    return keyMeta;
+  }
+
+  /**
+   * Estimate the number of bytes an encoded key, a row or a value uses on the heap. This is a rough
+   * estimate to bound the memory of caches, not an exact measurement.
+   *
+   * @param object the object to estimate
+   * @return the estimated number of bytes
+   */
+  public static long estimateBytes(Object object) {
+    if (object instanceof EncodedKey encodedKey) {
+      return 32L + encodedKey.bytes.length;
+    }
+    if (object instanceof byte[] bytes) {
+      return 16L + bytes.length;
+    }
+    if (object instanceof String string) {
+      return 40L + 2L * string.length();
+    }
+    if (object instanceof RowMetaAndData rowMetaAndData) {
+      return 24L + estimateBytes(rowMetaAndData.getData());
+    }
+    if (object instanceof Object[] row) {
+      long bytes = 16L + 8L * row.length;
+      for (Object value : row) {
+        if (value != null) {
+          bytes += estimateBytes(value);
+        }
+      }
+      return bytes;
+    }
+    return 16L;
+  }
+
+  /** A key encoded into bytes, compared byte by byte */
+  private static final class EncodedKey {
+    private final byte[] bytes;
+    private final int hash;
+
+    EncodedKey(byte[] bytes) {
+      this.bytes = bytes;
+      this.hash = Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof EncodedKey other
+          && hash == other.hash
+          && Arrays.equals(bytes, other.bytes);
+    }
+  }
+
+  /** A growing byte buffer for the key encoding */
+  private static final class KeyBuffer {
+    private byte[] bytes;
+    private int length;
+
+    KeyBuffer(int capacity) {
+      bytes = new byte[Math.max(16, capacity)];
+    }
+
+    private void ensure(int extra) {
+      if (length + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+      }
+    }
+
+    void put(byte value) {
+      ensure(1);
+      bytes[length++] = value;
+    }
+
+    void putLong(long value) {
+      ensure(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        bytes[length++] = (byte) (value >>> shift);
+      }
+    }
+
+    void putBytes(byte[] value) {
+      ensure(4 + value.length);
+      bytes[length++] = (byte) (value.length >>> 24);
+      bytes[length++] = (byte) (value.length >>> 16);
+      bytes[length++] = (byte) (value.length >>> 8);
+      bytes[length++] = (byte) value.length;
+      System.arraycopy(value, 0, bytes, length, value.length);
+      length += value.length;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, length);
+    }
+  }
+}
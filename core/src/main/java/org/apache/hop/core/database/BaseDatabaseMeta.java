@@ -1351,6 +1351,22 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
     return 0;
   }
 
+  /**
+   * @return The maximum number of values in an IN list, <=0 means: no known limit
+   */
+  @Override
+  public int getMaxInListSize() {
+    return 0;
+  }
+
+  /**
+   * @return The maximum number of parameters in a statement, <=0 means: no known limit
+   */
+  @Override
+  public int getMaxStatementParameters() {
+    return 0;
+  }
+
   /**
    * @return true if the database supports error handling (recovery of failure) while doing batch
    *     updates.
@@ -3496,6 +3496,16 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
     return rowMeta;
   }
 
+  /**
+   * Set the metadata the next rows are read with by {@link #getRow(ResultSet)} and the lookups. Use
+   * it to restore the metadata of a lookup after running another query on this connection.
+   *
+   * @param rowMeta The row metadata, null to take it from the next result set
+   */
+  public void setReturnRowMeta(IRowMeta rowMeta) {
+    this.rowMeta = rowMeta;
+  }
+
   public String[] getTableTypes() throws HopDatabaseException {
     try {
       ArrayList<String> types = new ArrayList<>();
@@ -2186,6 +2186,20 @@ public class DatabaseMeta extends HopMetadataBase implements Cloneable, IHopMeta
     return iDatabase.getMaxColumnsInIndex();
   }
 
+  /**
+   * @return The maximum number of values in an IN list, <=0 means: no known limit
+   */
+  public int getMaxInListSize() {
+    return iDatabase.getMaxInListSize();
+  }
+
+  /**
+   * @return The maximum number of parameters in a statement, <=0 means: no known limit
+   */
+  public int getMaxStatementParameters() {
+    return iDatabase.getMaxStatementParameters();
+  }
+
   public boolean supportsErrorHandlingOnBatchUpdates() {
     return iDatabase.IsSupportsErrorHandlingOnBatchUpdates();
   }
@@ -807,6 +807,16 @@ public interface IDatabase extends Cloneable {
    */
   int getMaxColumnsInIndex();
 
+  /**
+   * @return The maximum number of values in an IN list, <=0 means: no known limit
+   */
+  int getMaxInListSize();
+
+  /**
+   * @return The maximum number of parameters in a statement, <=0 means: no known limit
+   */
+  int getMaxStatementParameters();
+
   /**
    * @return true if the database supports error handling (recovery of failure) while doing batch
    *     updates.
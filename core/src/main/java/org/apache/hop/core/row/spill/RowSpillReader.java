@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.spill;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowDataUtil;
+
+/** Reads back the rows of a spill file written by {@link RowSpillWriter}. */
+public class RowSpillReader implements Closeable {
+
+  private final IRowMeta rowMeta;
+  private final IValueMeta[] valueMetas;
+  private final int[] encodings;
+  private final DataInputStream inputStream;
+  private final SpillCodec codec;
+  private final BlockCursor block;
+  private final DataInputStream blockDataStream;
+  private int blockRowsLeft;
+  private boolean endOfFile;
+
+  /**
+   * Open a spill file for reading
+   *
+   * @param rowMeta the layout of the rows in the file
+   * @param inputStream the stream to read from, closed when the reader is closed or when the header
+   *     can't be read
+   * @throws HopFileException in case the header can't be read or isn't a spill file header
+   */
+  public RowSpillReader(IRowMeta rowMeta, InputStream inputStream) throws HopFileException {
+    this.rowMeta = rowMeta;
+    this.valueMetas = rowMeta.getValueMetaList().toArray(new IValueMeta[0]);
+    this.encodings = new int[valueMetas.length];
+    for (int i = 0; i < valueMetas.length; i++) {
+      encodings[i] = SpillEncoding.getEncoding(valueMetas[i]);
+    }
+    this.block = new BlockCursor();
+    this.blockDataStream = new DataInputStream(block);
+
+    boolean opened = false;
+    try {
+      byte[] header = new byte[RowSpillWriter.MAGIC.length + 2];
+      new DataInputStream(inputStream).readFully(header);
+      if (!Arrays.equals(
+          Arrays.copyOf(header, RowSpillWriter.MAGIC.length), RowSpillWriter.MAGIC)) {
+        throw new HopFileException("This is not a spill file");
+      }
+      if (header[RowSpillWriter.MAGIC.length] != RowSpillWriter.VERSION) {
+        throw new HopFileException(
+            "Unsupported spill file version " + header[RowSpillWriter.MAGIC.length]);
+      }
+      codec = SpillCodec.lookupId(header[RowSpillWriter.MAGIC.length + 1]);
+      if (codec == null) {
+        throw new HopFileException(
+            "Unknown spill file codec " + header[RowSpillWriter.MAGIC.length + 1]);
+      }
+      this.inputStream =
+          new DataInputStream(
+              codec.decompress(new BufferedInputStream(inputStream, SpillEncoding.IO_BUFFER_SIZE)));
+      opened = true;
+    } catch (IOException e) {
+      throw new HopFileException("Unable to read spill file header", e);
+    } finally {
+      if (!opened) {
+        closeQuietly(inputStream);
+      }
+    }
+  }
+
+  static void closeQuietly(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      // Already failing, the original exception is the one to report
+    }
+  }
+
+  /**
+   * Read the next row
+   *
+   * @return the next row or null if there are no more rows in the file
+   * @throws HopFileException in case of a read error
+   */
+  public Object[] readRow() throws HopFileException {
+    if (blockRowsLeft == 0 && !readBlock()) {
+      return null;
+    }
+
+    Object[] row = RowDataUtil.allocateRowData(valueMetas.length);
+    int nullBitmapPosition = block.position;
+    block.position += (valueMetas.length + 7) / 8;
+
+    try {
+      for (int i = 0; i < valueMetas.length; i++) {
+        if (!block.isBitSet(nullBitmapPosition, i)) {
+          row[i] = readValue(i);
+        }
+      }
+    } catch (IOException e) {
+      throw new HopFileException("Unable to read value from spill file", e);
+    }
+    blockRowsLeft--;
+    return row;
+  }
+
+  private Object readValue(int index) throws IOException, HopFileException {
+    switch (encodings[index]) {
+      case SpillEncoding.STRING:
+        {
+          int length = (int) block.readVarLong();
+          String string = new String(block.buffer, block.position, length, StandardCharsets.UTF_8);
+          block.position += length;
+          return string;
+        }
+      case SpillEncoding.INTEGER:
+        return SpillEncoding.unZigZag(block.readVarLong());
+      case SpillEncoding.NUMBER:
+        return Double.longBitsToDouble(block.readLong());
+      case SpillEncoding.DATE:
+        return new Date(SpillEncoding.unZigZag(block.readVarLong()));
+      case SpillEncoding.BIGNUMBER:
+        return new BigDecimal(new String(block.readBytesWithLength(), StandardCharsets.US_ASCII));
+      case SpillEncoding.BOOLEAN:
+        return block.buffer[block.position++] != 0;
+      case SpillEncoding.BINARY:
+        return block.readBytesWithLength();
+      case SpillEncoding.INET:
+        return InetAddress.getByAddress(block.readBytesWithLength());
+      case SpillEncoding.INDEX:
+        return (int) block.readVarLong();
+      default:
+        try {
+          return valueMetas[index].readData(blockDataStream);
+        } catch (SocketTimeoutException e) {
+          throw new HopFileException(e);
+        }
+    }
+  }
+
+  private boolean readBlock() throws HopFileException {
+    if (endOfFile) {
+      return false;
+    }
+    try {
+      int length = inputStream.readInt();
+      int rows = inputStream.readInt();
+      if (rows == 0) {
+        endOfFile = true;
+        return false;
+      }
+      block.fill(inputStream, length);
+      blockRowsLeft = rows;
+      return true;
+    } catch (EOFException e) {
+      // Every spill file ends with an empty block, rows are missing if we get here
+      throw new HopFileException("Spill file is truncated, the end marker is missing", e);
+    } catch (IOException e) {
+      throw new HopFileException("Unable to read block from spill file", e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    inputStream.close();
+  }
+
+  /**
+   * Gets codec
+   *
+   * @return the codec the file was written with
+   */
+  public SpillCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Gets rowMeta
+   *
+   * @return value of rowMeta
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  /** The bytes of the current block with a read position. */
+  static final class BlockCursor extends InputStream {
+    private byte[] buffer = new byte[0];
+    private int position;
+    private int limit;
+
+    void fill(DataInputStream inputStream, int length) throws IOException {
+      if (buffer.length < length) {
+        buffer = new byte[length];
+      }
+      inputStream.readFully(buffer, 0, length);
+      position = 0;
+      limit = length;
+    }
+
+    boolean isBitSet(int bitmapPosition, int bit) {
+      return (buffer[bitmapPosition + (bit >>> 3)] & (1 << (bit & 7))) != 0;
+    }
+
+    long readVarLong() {
+      long value = 0L;
+      int shift = 0;
+      byte b;
+      do {
+        b = buffer[position++];
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return value;
+    }
+
+    long readLong() {
+      long value = 0L;
+      for (int i = 0; i < 8; i++) {
+        value = (value << 8) | (buffer[position++] & 0xFF);
+      }
+      return value;
+    }
+
+    byte[] readBytesWithLength() {
+      int length = (int) readVarLong();
+      byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+      position += length;
+      return bytes;
+    }
+
+    @Override
+    public int read() {
+      if (position >= limit) {
+        return -1;
+      }
+      return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (position >= limit) {
+        return -1;
+      }
+      int count = Math.min(length, limit - position);
+      System.arraycopy(buffer, position, bytes, offset, count);
+      position += count;
+      return count;
+    }
+  }
+}
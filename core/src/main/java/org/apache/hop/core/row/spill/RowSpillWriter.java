@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.spill;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Writes rows to a spill file in a compact binary format. Compared to {@link
+ * IRowMeta#writeData(DataOutputStream, Object[])} null values are kept in a bitmap per row,
+ * integers and lengths are written as variable length numbers and rows are grouped in length
+ * prefixed blocks.
+ *
+ * <p>The file starts with an uncompressed header with the magic bytes, the format version and the
+ * codec id, which allows {@link RowSpillReader} to read the file without knowing the codec. The
+ * selected {@link SpillCodec} compresses everything after the header as one stream, the blocks are
+ * not compressed on their own and can't be decoded without the blocks before them. Spill files are
+ * only meant to be read back by the same process, they are not a persistent format.
+ */
+public class RowSpillWriter implements Closeable {
+
+  static final byte[] MAGIC = {'H', 'S', 'P', 'L'};
+  static final int VERSION = 1;
+
+  /** The default number of bytes of rows which are collected before a block is written. */
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  private final IRowMeta rowMeta;
+  private final IValueMeta[] valueMetas;
+  private final int[] encodings;
+  private final int blockSize;
+  private final OutputStream rawStream;
+  private final DataOutputStream outputStream;
+  private final BlockBuffer block;
+  private final DataOutputStream blockDataStream;
+  private int blockRowCount;
+  private long rowCount;
+  private boolean closed;
+
+  /**
+   * Create a new spill file writer with the default block size
+   *
+   * @param rowMeta the layout of the rows to write
+   * @param outputStream the stream to write to, closed when the writer is closed
+   * @param codec the compression codec to use
+   * @throws HopFileException in case the header can't be written
+   */
+  public RowSpillWriter(IRowMeta rowMeta, OutputStream outputStream, SpillCodec codec)
+      throws HopFileException {
+    this(rowMeta, outputStream, codec, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Create a new spill file writer
+   *
+   * @param rowMeta the layout of the rows to write
+   * @param outputStream the stream to write to, closed when the writer is closed or when the header
+   *     can't be written
+   * @param codec the compression codec to use
+   * @param blockSize the number of bytes of rows to collect before a block is written
+   * @throws HopFileException in case the header can't be written
+   */
+  public RowSpillWriter(
+      IRowMeta rowMeta, OutputStream outputStream, SpillCodec codec, int blockSize)
+      throws HopFileException {
+    this.rowMeta = rowMeta;
+    this.valueMetas = rowMeta.getValueMetaList().toArray(new IValueMeta[0]);
+    this.encodings = new int[valueMetas.length];
+    for (int i = 0; i < valueMetas.length; i++) {
+      encodings[i] = SpillEncoding.getEncoding(valueMetas[i]);
+    }
+    this.blockSize = Math.max(1024, blockSize);
+    this.rawStream = outputStream;
+    this.block = new BlockBuffer(this.blockSize + this.blockSize / 4);
+    this.blockDataStream = new DataOutputStream(block);
+
+    boolean opened = false;
+    try {
+      rawStream.write(MAGIC);
+      rawStream.write(VERSION);
+      rawStream.write(codec.getId());
+      this.outputStream =
+          new DataOutputStream(
+              codec.compress(new BufferedOutputStream(rawStream, SpillEncoding.IO_BUFFER_SIZE)));
+      opened = true;
+    } catch (IOException e) {
+      throw new HopFileException("Unable to write spill file header", e);
+    } finally {
+      if (!opened) {
+        RowSpillReader.closeQuietly(rawStream);
+      }
+    }
+  }
+
+  /**
+   * Add a row to the spill file
+   *
+   * @param row the row to write
+   * @throws HopFileException in case of a write error
+   */
+  public void writeRow(Object[] row) throws HopFileException {
+    int nullBitmapPosition = block.size();
+    int nullBitmapSize = (valueMetas.length + 7) / 8;
+    block.skip(nullBitmapSize);
+
+    for (int i = 0; i < valueMetas.length; i++) {
+      Object value = row[i];
+      if (value == null) {
+        block.setBit(nullBitmapPosition, i);
+        continue;
+      }
+      try {
+        writeValue(i, value);
+      } catch (ClassCastException e) {
+        throw new HopFileException(
+            valueMetas[i].toStringMeta()
+                + " : the data type of value "
+                + value
+                + " ("
+                + value.getClass().getName()
+                + ") doesn't correspond to the metadata",
+            e);
+      } catch (IOException e) {
+        throw new HopFileException("Unable to write value to spill file", e);
+      }
+    }
+    blockRowCount++;
+    rowCount++;
+
+    if (block.size() >= blockSize) {
+      flushBlock();
+    }
+  }
+
+  private void writeValue(int index, Object value) throws IOException, HopFileException {
+    switch (encodings[index]) {
+      case SpillEncoding.STRING:
+        block.writeBytesWithLength(((String) value).getBytes(StandardCharsets.UTF_8));
+        break;
+      case SpillEncoding.INTEGER:
+        block.writeVarLong(SpillEncoding.zigZag((Long) value));
+        break;
+      case SpillEncoding.NUMBER:
+        block.writeLong(Double.doubleToRawLongBits((Double) value));
+        break;
+      case SpillEncoding.DATE:
+        block.writeVarLong(SpillEncoding.zigZag(((Date) value).getTime()));
+        break;
+      case SpillEncoding.BIGNUMBER:
+        block.writeBytesWithLength(
+            ((BigDecimal) value).toString().getBytes(StandardCharsets.US_ASCII));
+        break;
+      case SpillEncoding.BOOLEAN:
+        block.write(((Boolean) value) ? 1 : 0);
+        break;
+      case SpillEncoding.BINARY:
+        block.writeBytesWithLength((byte[]) value);
+        break;
+      case SpillEncoding.INET:
+        block.writeBytesWithLength(((InetAddress) value).getAddress());
+        break;
+      case SpillEncoding.INDEX:
+        block.writeVarLong((Integer) value);
+        break;
+      default:
+        // Any other value type serializes itself
+        valueMetas[index].writeData(blockDataStream, value);
+        blockDataStream.flush();
+        break;
+    }
+  }
+
+  private void flushBlock() throws HopFileException {
+    if (blockRowCount == 0) {
+      return;
+    }
+    try {
+      outputStream.writeInt(block.size());
+      outputStream.writeInt(blockRowCount);
+      outputStream.write(block.buffer(), 0, block.size());
+    } catch (IOException e) {
+      throw new HopFileException("Unable to write block to spill file", e);
+    }
+    block.reset();
+    blockRowCount = 0;
+  }
+
+  /**
+   * Write the remaining rows and the end marker and close the underlying stream.
+   *
+   * @throws IOException in case of a write error
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      flushBlock();
+      // An empty block marks the end of the file
+      outputStream.writeInt(0);
+      outputStream.writeInt(0);
+    } catch (HopFileException e) {
+      throw new IOException(e);
+    } finally {
+      outputStream.close();
+    }
+  }
+
+  /**
+   * Gets rowCount
+   *
+   * @return the number of rows written
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Gets rowMeta
+   *
+   * @return value of rowMeta
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  /** A growing byte array holding the rows of a block. */
+  static final class BlockBuffer extends OutputStream {
+    private byte[] buffer;
+    private int size;
+
+    BlockBuffer(int capacity) {
+      buffer = new byte[capacity];
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra > buffer.length) {
+        byte[] larger = new byte[Math.max(buffer.length * 2, size + extra)];
+        System.arraycopy(buffer, 0, larger, 0, size);
+        buffer = larger;
+      }
+    }
+
+    @Override
+    public void write(int b) {
+      ensureCapacity(1);
+      buffer[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      ensureCapacity(length);
+      System.arraycopy(bytes, offset, buffer, size, length);
+      size += length;
+    }
+
+    void skip(int length) {
+      ensureCapacity(length);
+      for (int i = 0; i < length; i++) {
+        buffer[size++] = 0;
+      }
+    }
+
+    void setBit(int position, int bit) {
+      buffer[position + (bit >>> 3)] |= (byte) (1 << (bit & 7));
+    }
+
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[size++] = (byte) value;
+    }
+
+    void writeLong(long value) {
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        buffer[size++] = (byte) (value >>> shift);
+      }
+    }
+
+    void writeBytesWithLength(byte[] bytes) {
+      writeVarLong(bytes.length);
+      write(bytes, 0, bytes.length);
+    }
+
+    int size() {
+      return size;
+    }
+
+    byte[] buffer() {
+      return buffer;
+    }
+
+    void reset() {
+      size = 0;
+    }
+  }
+}
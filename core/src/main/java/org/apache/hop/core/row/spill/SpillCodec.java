@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.spill;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorInputStream;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdUtils;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+
+/** The compression codecs which can be used for spill files. */
+public enum SpillCodec {
+  NONE(0) {
+    @Override
+    OutputStream compress(OutputStream outputStream) {
+      return outputStream;
+    }
+
+    @Override
+    InputStream decompress(InputStream inputStream) {
+      return inputStream;
+    }
+  },
+  GZIP(1) {
+    @Override
+    OutputStream compress(OutputStream outputStream) throws IOException {
+      return new GZIPOutputStream(outputStream, BUFFER_SIZE);
+    }
+
+    @Override
+    InputStream decompress(InputStream inputStream) throws IOException {
+      return new GZIPInputStream(inputStream, BUFFER_SIZE);
+    }
+  },
+  LZ4(2) {
+    @Override
+    OutputStream compress(OutputStream outputStream) throws IOException {
+      return new FramedLZ4CompressorOutputStream(outputStream);
+    }
+
+    @Override
+    InputStream decompress(InputStream inputStream) throws IOException {
+      return new FramedLZ4CompressorInputStream(inputStream);
+    }
+  },
+  SNAPPY(3) {
+    @Override
+    OutputStream compress(OutputStream outputStream) throws IOException {
+      return new FramedSnappyCompressorOutputStream(outputStream);
+    }
+
+    @Override
+    InputStream decompress(InputStream inputStream) throws IOException {
+      return new FramedSnappyCompressorInputStream(inputStream);
+    }
+  },
+  ZSTD(4) {
+    @Override
+    OutputStream compress(OutputStream outputStream) throws IOException {
+      return new ZstdCompressorOutputStream(outputStream);
+    }
+
+    @Override
+    InputStream decompress(InputStream inputStream) throws IOException {
+      return new ZstdCompressorInputStream(inputStream);
+    }
+
+    @Override
+    public boolean isAvailable() {
+      // The Zstandard codec needs the zstd-jni library on the classpath
+      return ZstdUtils.isZstdCompressionAvailable();
+    }
+  };
+
+  private static final int BUFFER_SIZE = 65536;
+
+  private final int id;
+
+  SpillCodec(int id) {
+    this.id = id;
+  }
+
+  abstract OutputStream compress(OutputStream outputStream) throws IOException;
+
+  abstract InputStream decompress(InputStream inputStream) throws IOException;
+
+  /**
+   * @return true if the codec can be used in this environment
+   */
+  public boolean isAvailable() {
+    return true;
+  }
+
+  /**
+   * Gets id, the codec identifier stored in the spill file header
+   *
+   * @return value of id
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Find the codec with the given identifier
+   *
+   * @param id the codec identifier from a spill file header
+   * @return the codec or null if the identifier is unknown
+   */
+  public static SpillCodec lookupId(int id) {
+    for (SpillCodec codec : values()) {
+      if (codec.id == id) {
+        return codec;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Determine the codec to use for a spill file. The {@link Const#HOP_SPILL_FILE_CODEC} variable
+   * takes precedence over the compression option of the transform. A codec which is not available
+   * is replaced by LZ4.
+   *
+   * @param variables the variables to resolve the codec variable with
+   * @param compress the compression option of the transform
+   * @return the codec to use
+   */
+  public static SpillCodec getCodec(IVariables variables, boolean compress) {
+    SpillCodec codec = compress ? GZIP : NONE;
+    String codecName = variables == null ? null : variables.getVariable(Const.HOP_SPILL_FILE_CODEC);
+    if (!Utils.isEmpty(codecName)) {
+      for (SpillCodec value : values()) {
+        if (value.name().equalsIgnoreCase(codecName.trim())) {
+          codec = value;
+        }
+      }
+    }
+    if (!codec.isAvailable()) {
+      codec = LZ4;
+    }
+    return codec;
+  }
+}
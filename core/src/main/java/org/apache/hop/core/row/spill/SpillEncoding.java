@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.spill;
+
+import org.apache.hop.core.row.IValueMeta;
+
+/** The way values of a field are encoded in a spill file. */
+final class SpillEncoding {
+  static final int OTHER = 0;
+  static final int STRING = 1;
+  static final int INTEGER = 2;
+  static final int NUMBER = 3;
+  static final int DATE = 4;
+  static final int BIGNUMBER = 5;
+  static final int BOOLEAN = 6;
+  static final int BINARY = 7;
+  static final int INET = 8;
+  static final int INDEX = 9;
+
+  /** The buffer size used between the block stream and the underlying file. */
+  static final int IO_BUFFER_SIZE = 256 * 1024;
+
+  private SpillEncoding() {
+    // Constants only
+  }
+
+  /**
+   * Determine the encoding of the values of a field.
+   *
+   * @param valueMeta the field metadata
+   * @return the encoding
+   */
+  static int getEncoding(IValueMeta valueMeta) {
+    switch (valueMeta.getStorageType()) {
+      case IValueMeta.STORAGE_TYPE_BINARY_STRING:
+        return BINARY;
+      case IValueMeta.STORAGE_TYPE_INDEXED:
+        return INDEX;
+      default:
+        break;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING:
+        return STRING;
+      case IValueMeta.TYPE_INTEGER:
+        return INTEGER;
+      case IValueMeta.TYPE_NUMBER:
+        return NUMBER;
+      case IValueMeta.TYPE_DATE:
+        return DATE;
+      case IValueMeta.TYPE_BIGNUMBER:
+        return BIGNUMBER;
+      case IValueMeta.TYPE_BOOLEAN:
+        return BOOLEAN;
+      case IValueMeta.TYPE_BINARY:
+        return BINARY;
+      case IValueMeta.TYPE_INET:
+        return INET;
+      default:
+        // Timestamps, plugin value types, ...
+        return OTHER;
+    }
+  }
+
+  static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
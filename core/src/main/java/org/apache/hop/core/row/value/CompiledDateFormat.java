@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * A thread-safe version of a {@link SimpleDateFormat}. The format is copied when it's compiled and
+ * isn't affected by later changes of the original.
+ *
+ * <p>Patterns which only consist of the numeric fields yyyy, MM, dd, HH, mm, ss and SSS separated
+ * by literals are converted without a {@link SimpleDateFormat} for dates between the years 1900 and
+ * 9999. The results are the same as the ones of the date format. Dates close to a time zone
+ * transition, text which doesn't exactly match the pattern and other patterns are converted with a
+ * copy of the date format per thread.
+ */
+public final class CompiledDateFormat {
+  private static final long MILLIS_PER_HOUR = 3_600_000L;
+  private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+  /** Dates with a different time zone offset this close are left to the date format */
+  private static final long[] TRANSITION_CHECKS = {
+    -26 * MILLIS_PER_HOUR, -6 * MILLIS_PER_HOUR, 6 * MILLIS_PER_HOUR, 26 * MILLIS_PER_HOUR
+  };
+
+  private static final int MIN_YEAR = 1900;
+  private static final int MAX_YEAR = 9999;
+
+  /** January 1st 1900, the Gregorian calendar must be in use from then on */
+  private static final long MIN_GREGORIAN_CHANGE = -2208988800000L;
+
+  private static final int YEAR = 0;
+  private static final int MONTH = 1;
+  private static final int DAY = 2;
+  private static final int HOUR = 3;
+  private static final int MINUTE = 4;
+  private static final int SECOND = 5;
+  private static final int MILLISECOND = 6;
+  private static final int[] FIELD_WIDTHS = {4, 2, 2, 2, 2, 2, 3};
+  private static final String FIELD_LETTERS = "yMdHmsS";
+
+  private final SimpleDateFormat prototype;
+  private final ThreadLocal<SimpleDateFormat> formats;
+  private final TimeZone timeZone;
+
+  /**
+   * The text of a date for the pattern: the literals and a placeholder for every digit of the
+   * fields. Null if the pattern can't be converted without the date format.
+   */
+  private final char[] template;
+
+  /** The field of every character of the template, -1 for literals */
+  private final int[] templateFields;
+
+  /** The position in the template of every field, -1 if the pattern doesn't contain the field */
+  private final int[] fieldPositions;
+
+  /**
+   * @param format the date format to compile, it is copied
+   */
+  public CompiledDateFormat(SimpleDateFormat format) {
+    this.prototype = (SimpleDateFormat) format.clone();
+    this.formats = ThreadLocal.withInitial(() -> (SimpleDateFormat) prototype.clone());
+    this.timeZone = (TimeZone) prototype.getTimeZone().clone();
+    this.fieldPositions = new int[FIELD_WIDTHS.length];
+
+    StringBuilder layout = isGregorianWithAsciiDigits(prototype) ? new StringBuilder() : null;
+    if (layout != null && !compileLayout(prototype.toPattern(), layout)) {
+      layout = null;
+    }
+    if (layout == null) {
+      this.template = null;
+      this.templateFields = null;
+    } else {
+      this.template = layout.toString().toCharArray();
+      this.templateFields = new int[template.length];
+      Arrays.fill(templateFields, -1);
+      for (int field = 0; field < FIELD_WIDTHS.length; field++) {
+        for (int i = 0; fieldPositions[field] >= 0 && i < FIELD_WIDTHS[field]; i++) {
+          templateFields[fieldPositions[field] + i] = field;
+        }
+      }
+    }
+  }
+
+  private static boolean isGregorianWithAsciiDigits(SimpleDateFormat format) {
+    Calendar calendar = format.getCalendar();
+    if (calendar.getClass() != GregorianCalendar.class
+        || ((GregorianCalendar) calendar).getGregorianChange().getTime() > MIN_GREGORIAN_CHANGE) {
+      return false;
+    }
+    NumberFormat numberFormat = format.getNumberFormat();
+    return numberFormat instanceof DecimalFormat
+        && ((DecimalFormat) numberFormat).getDecimalFormatSymbols().getZeroDigit() == '0';
+  }
+
+  /**
+   * Split the pattern in fields and literals. Returns false if the pattern contains anything else
+   * than the supported fields with their exact widths, or no complete date.
+   */
+  private boolean compileLayout(String pattern, StringBuilder layout) {
+    Arrays.fill(fieldPositions, -1);
+    int i = 0;
+    while (i < pattern.length()) {
+      char c = pattern.charAt(i);
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+        int count = 1;
+        while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+          count++;
+        }
+        int field = FIELD_LETTERS.indexOf(c);
+        if (field < 0 || count != FIELD_WIDTHS[field] || fieldPositions[field] >= 0) {
+          return false;
+        }
+        fieldPositions[field] = layout.length();
+        for (int d = 0; d < count; d++) {
+          layout.append('0');
+        }
+        i += count;
+      } else if (c == '\'') {
+        int end = pattern.indexOf('\'', i + 1);
+        if (end <= i + 1 || (end + 1 < pattern.length() && pattern.charAt(end + 1) == '\'')) {
+          // Escaped quotes are left to the date format
+          return false;
+        }
+        for (int q = i + 1; q < end; q++) {
+          if (!addLiteral(pattern.charAt(q), layout)) {
+            return false;
+          }
+        }
+        i = end + 1;
+      } else {
+        if (!addLiteral(c, layout)) {
+          return false;
+        }
+        i++;
+      }
+    }
+    return fieldPositions[YEAR] >= 0 && fieldPositions[MONTH] >= 0 && fieldPositions[DAY] >= 0;
+  }
+
+  private boolean addLiteral(char c, StringBuilder layout) {
+    // Digits next to a field would become part of the number
+    if (Character.isDigit(c)) {
+      return false;
+    }
+    layout.append(c);
+    return true;
+  }
+
+  /**
+   * Parse a date like {@link SimpleDateFormat#parse(String, ParsePosition)}
+   *
+   * @param text the text to parse
+   * @param position the position to start parsing, updated like the date format does
+   * @return the parsed date or null in case of an error
+   */
+  public Date parse(String text, ParsePosition position) {
+    if (position.getIndex() == 0) {
+      long time = parseTemplate(text);
+      if (time != Long.MIN_VALUE) {
+        position.setIndex(text.length());
+        return new Date(time);
+      }
+    }
+    return formats.get().parse(text, position);
+  }
+
+  /**
+   * Parse text which matches the template exactly.
+   *
+   * @return the milliseconds since the epoch or Long.MIN_VALUE to leave the text to the date format
+   */
+  long parseTemplate(String text) {
+    if (template == null || text.length() != template.length) {
+      return Long.MIN_VALUE;
+    }
+    int[] values = new int[FIELD_WIDTHS.length];
+    for (int i = 0; i < template.length; i++) {
+      char c = text.charAt(i);
+      int field = templateFields[i];
+      if (field < 0) {
+        if (c != template[i]) {
+          return Long.MIN_VALUE;
+        }
+      } else if (c >= '0' && c <= '9') {
+        values[field] = values[field] * 10 + (c - '0');
+      } else {
+        return Long.MIN_VALUE;
+      }
+    }
+    int year = values[YEAR];
+    int month = values[MONTH];
+    int day = values[DAY];
+    if (year < MIN_YEAR
+        || month < 1
+        || month > 12
+        || day < 1
+        || day > lengthOfMonth(year, month)
+        || values[HOUR] > 23
+        || values[MINUTE] > 59
+        || values[SECOND] > 59) {
+      return Long.MIN_VALUE;
+    }
+    long local =
+        daysFromCivil(year, month, day) * MILLIS_PER_DAY
+            + values[HOUR] * MILLIS_PER_HOUR
+            + values[MINUTE] * 60_000L
+            + values[SECOND] * 1_000L
+            + values[MILLISECOND];
+
+    int offset = timeZone.getOffset(local - timeZone.getRawOffset());
+    long time = local - offset;
+    if (timeZone.getOffset(time) != offset || isCloseToTransition(time, offset)) {
+      return Long.MIN_VALUE;
+    }
+    return time;
+  }
+
+  private boolean isCloseToTransition(long time, int offset) {
+    for (long check : TRANSITION_CHECKS) {
+      if (timeZone.getOffset(time + check) != offset) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Format a date like {@link SimpleDateFormat#format(Date)}
+   *
+   * @param date the date to format
+   * @return the formatted date
+   */
+  public String format(Date date) {
+    if (template != null) {
+      String text = formatTemplate(date.getTime());
+      if (text != null) {
+        return text;
+      }
+    }
+    return formats.get().format(date);
+  }
+
+  private String formatTemplate(long time) {
+    long local = time + timeZone.getOffset(time);
+    long days = Math.floorDiv(local, MILLIS_PER_DAY);
+    int millisOfDay = (int) Math.floorMod(local, MILLIS_PER_DAY);
+
+    // Civil date from the days since the epoch, see http://howardhinnant.github.io/date_algorithms
+    long z = days + 719468;
+    long era = Math.floorDiv(z, 146097);
+    long dayOfEra = z - era * 146097;
+    long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    long monthIndex = (5 * dayOfYear + 2) / 153;
+    int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+    int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+    long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+    if (year < MIN_YEAR || year > MAX_YEAR) {
+      return null;
+    }
+
+    char[] text = template.clone();
+    setField(text, YEAR, (int) year);
+    setField(text, MONTH, month);
+    setField(text, DAY, day);
+    setField(text, HOUR, millisOfDay / 3_600_000);
+    setField(text, MINUTE, millisOfDay / 60_000 % 60);
+    setField(text, SECOND, millisOfDay / 1_000 % 60);
+    setField(text, MILLISECOND, millisOfDay % 1_000);
+    return new String(text);
+  }
+
+  private void setField(char[] text, int field, int value) {
+    int position = fieldPositions[field];
+    if (position < 0) {
+      return;
+    }
+    for (int i = position + FIELD_WIDTHS[field] - 1; i >= position; i--) {
+      text[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return leap ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /** Days since the epoch of a date in the Gregorian calendar */
+  private static long daysFromCivil(int year, int month, int day) {
+    long y = month <= 2 ? year - 1L : year;
+    long era = Math.floorDiv(y, 400);
+    long yearOfEra = y - era * 400;
+    long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+
+  /**
+   * Gets the pattern of the date format
+   *
+   * @return value of the pattern
+   */
+  public String toPattern() {
+    return prototype.toPattern();
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.ParsePosition;
+
+/**
+ * A thread-safe version of a {@link DecimalFormat}. The format is copied when it's compiled and
+ * isn't affected by later changes of the original.
+ *
+ * <p>Plain digit strings are parsed and integers are formatted without a {@link DecimalFormat} when
+ * the pattern allows it. The results are the same as the ones of the decimal format. Other values
+ * are converted with a copy of the decimal format per thread.
+ */
+public final class CompiledDecimalFormat {
+  /** DecimalFormat keeps up to 19 digits exactly, stay below that to get identical results */
+  private static final int MAX_FAST_PARSE_DIGITS = 18;
+
+  private static final int MAX_FAST_FORMAT_INTEGER_DIGITS = 100;
+
+  private final DecimalFormat prototype;
+  private final ThreadLocal<DecimalFormat> formats;
+
+  private final boolean fastParse;
+  private final boolean fastParseFraction;
+  private final char decimalSeparator;
+
+  private final boolean fastFormat;
+  private final String positivePrefix;
+  private final String positiveSuffix;
+  private final String negativePrefix;
+  private final String negativeSuffix;
+  private final int minimumIntegerDigits;
+  private final int groupingSize;
+  private final char groupingSeparator;
+
+  private volatile CompiledDecimalFormat preciseFormat;
+
+  /**
+   * @param format the decimal format to compile, it is copied
+   */
+  public CompiledDecimalFormat(DecimalFormat format) {
+    this.prototype = (DecimalFormat) format.clone();
+    this.formats = ThreadLocal.withInitial(() -> (DecimalFormat) prototype.clone());
+
+    DecimalFormatSymbols symbols = prototype.getDecimalFormatSymbols();
+    this.positivePrefix = prototype.getPositivePrefix();
+    this.positiveSuffix = prototype.getPositiveSuffix();
+    this.negativePrefix = prototype.getNegativePrefix();
+    this.negativeSuffix = prototype.getNegativeSuffix();
+    this.decimalSeparator = symbols.getDecimalSeparator();
+    this.groupingSeparator = symbols.getGroupingSeparator();
+    this.minimumIntegerDigits = prototype.getMinimumIntegerDigits();
+    this.groupingSize = prototype.isGroupingUsed() ? prototype.getGroupingSize() : 0;
+
+    boolean plain =
+        symbols.getZeroDigit() == '0'
+            && prototype.getMultiplier() == 1
+            && prototype.toPattern().indexOf('E') < 0;
+
+    this.fastParse =
+        plain
+            && !prototype.isParseBigDecimal()
+            && positivePrefix.isEmpty()
+            && positiveSuffix.isEmpty()
+            && "-".equals(negativePrefix)
+            && negativeSuffix.isEmpty();
+    this.fastParseFraction =
+        fastParse
+            && !prototype.isParseIntegerOnly()
+            && !Character.isDigit(decimalSeparator)
+            && decimalSeparator != '-';
+
+    this.fastFormat =
+        plain
+            && prototype.getMinimumFractionDigits() == 0
+            && !prototype.isDecimalSeparatorAlwaysShown()
+            && prototype.getMaximumIntegerDigits() >= 19
+            && minimumIntegerDigits <= MAX_FAST_FORMAT_INTEGER_DIGITS;
+  }
+
+  /**
+   * Parse a number like {@link DecimalFormat#parse(String, ParsePosition)}
+   *
+   * @param text the text to parse
+   * @param position the position to start parsing, updated like the decimal format does
+   * @return the parsed number or null in case of an error
+   */
+  public Number parse(String text, ParsePosition position) {
+    if (position.getIndex() == 0) {
+      Number number = parseDigits(text);
+      if (number != null) {
+        position.setIndex(text.length());
+        return number;
+      }
+    }
+    return formats.get().parse(text, position);
+  }
+
+  /**
+   * Parse a number like {@link DecimalFormat#parse(String)}
+   *
+   * @param text the text to parse
+   * @return the parsed number
+   * @throws ParseException in case the beginning of the text can't be parsed
+   */
+  public Number parse(String text) throws ParseException {
+    Number number = parseDigits(text);
+    if (number != null) {
+      return number;
+    }
+    return formats.get().parse(text);
+  }
+
+  /**
+   * Parse an optional minus sign followed by digits and an optional fraction. Returns null for
+   * anything else, which is then left to the decimal format. The number types are the ones the
+   * decimal format returns: a Long for integral values and a Double otherwise.
+   */
+  Number parseDigits(String text) {
+    if (!fastParse) {
+      return null;
+    }
+    int length = text.length();
+    int start = 0;
+    boolean negative = false;
+    if (length > 0 && text.charAt(0) == '-') {
+      negative = true;
+      start = 1;
+    }
+    long value = 0L;
+    int digits = 0;
+    int separator = -1;
+    boolean nonZero = false;
+    boolean fraction = false;
+    for (int i = start; i < length; i++) {
+      char c = text.charAt(i);
+      if (c >= '0' && c <= '9') {
+        if (++digits > MAX_FAST_PARSE_DIGITS) {
+          return null;
+        }
+        if (c != '0') {
+          nonZero = true;
+          fraction |= separator >= 0;
+        }
+        if (separator < 0) {
+          value = value * 10 + (c - '0');
+        }
+      } else if (c == decimalSeparator && fastParseFraction && separator < 0) {
+        separator = i;
+      } else {
+        return null;
+      }
+    }
+    if (digits == 0 || separator == start || separator == length - 1) {
+      return null;
+    }
+    if (negative && !nonZero) {
+      // The decimal format returns a negative zero, depending on its settings
+      return null;
+    }
+    if (!fraction) {
+      return negative ? -value : value;
+    }
+    String number = decimalSeparator == '.' ? text : text.replace(decimalSeparator, '.');
+    return Double.parseDouble(number);
+  }
+
+  /**
+   * Format an integer like {@link DecimalFormat#format(long)}
+   *
+   * @param number the number to format
+   * @return the formatted number
+   */
+  public String format(long number) {
+    if (!fastFormat) {
+      return formats.get().format(number);
+    }
+    boolean negative = number < 0;
+    String digits = Long.toString(number);
+    int first = negative ? 1 : 0;
+    int digitCount = digits.length() - first;
+    int count = Math.max(minimumIntegerDigits, digitCount);
+    String prefix = negative ? negativePrefix : positivePrefix;
+    String suffix = negative ? negativeSuffix : positiveSuffix;
+
+    StringBuilder builder =
+        new StringBuilder(prefix.length() + count + count / 3 + suffix.length());
+    builder.append(prefix);
+    for (int i = count - 1; i >= 0; i--) {
+      builder.append(i < digitCount ? digits.charAt(digits.length() - 1 - i) : '0');
+      if (groupingSize > 0 && i > 0 && i % groupingSize == 0) {
+        builder.append(groupingSeparator);
+      }
+    }
+    builder.append(suffix);
+    return builder.toString();
+  }
+
+  /**
+   * Format a floating point number like {@link DecimalFormat#format(double)}
+   *
+   * @param number the number to format
+   * @return the formatted number
+   */
+  public String format(double number) {
+    return formats.get().format(number);
+  }
+
+  /**
+   * Format a number like {@link DecimalFormat#format(Object)}
+   *
+   * @param number the number to format
+   * @return the formatted number
+   */
+  public String format(Object number) {
+    if (number instanceof Long || number instanceof Integer) {
+      return format(((Number) number).longValue());
+    }
+    return formats.get().format(number);
+  }
+
+  /**
+   * Gets a version of this format which keeps up to 50 fraction digits when formatting
+   *
+   * @return the precise format
+   */
+  public CompiledDecimalFormat getPreciseFormat() {
+    CompiledDecimalFormat format = preciseFormat;
+    if (format == null) {
+      DecimalFormat precise = (DecimalFormat) prototype.clone();
+      precise.setMaximumFractionDigits(50);
+      format = new CompiledDecimalFormat(precise);
+      preciseFormat = format;
+    }
+    return format;
+  }
+
+  /**
+   * Gets the pattern of the decimal format
+   *
+   * @return value of the pattern
+   */
+  public String toPattern() {
+    return prototype.toPattern();
+  }
+}
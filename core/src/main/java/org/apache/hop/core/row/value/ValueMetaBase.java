@@ -208,6 +208,12 @@ public class ValueMetaBase implements IValueMeta {
   @JsonIgnore protected DecimalFormat decimalFormat;
   @JsonIgnore protected boolean decimalFormatChanged;
 
+  /** The thread-safe copy of the date format, reset when the date format changes */
+  @JsonIgnore private volatile CompiledDateFormat compiledDateFormat;
+
+  /** The thread-safe copy of the decimal format, reset when the decimal format changes */
+  @JsonIgnore private volatile CompiledDecimalFormat compiledDecimalFormat;
+
   @JsonIgnore protected IValueMeta storageMetadata;
   @JsonIgnore protected boolean identicalFormat;
 
@@ -610,6 +616,8 @@ public class ValueMetaBase implements IValueMeta {
       ValueMetaBase valueMeta = (ValueMetaBase) super.clone();
       valueMeta.dateFormat = null;
       valueMeta.decimalFormat = null;
+      valueMeta.compiledDateFormat = null;
+      valueMeta.compiledDecimalFormat = null;
       if (dateFormatLocale != null) {
         valueMeta.dateFormatLocale = (Locale) dateFormatLocale.clone();
       }
@@ -810,6 +818,8 @@ public class ValueMetaBase implements IValueMeta {
     this.conversionMask = conversionMask;
     dateFormatChanged = true;
     decimalFormatChanged = true;
+    compiledDateFormat = null;
+    compiledDecimalFormat = null;
     compareStorageAndActualFormat();
   }
 
@@ -846,6 +856,7 @@ public class ValueMetaBase implements IValueMeta {
   public void setDecimalSymbol(String decimalSymbol) {
     this.decimalSymbol = decimalSymbol;
     decimalFormatChanged = true;
+    compiledDecimalFormat = null;
     compareStorageAndActualFormat();
   }
 
@@ -864,6 +875,7 @@ public class ValueMetaBase implements IValueMeta {
   public void setGroupingSymbol(String groupingSymbol) {
     this.groupingSymbol = groupingSymbol;
     decimalFormatChanged = true;
+    compiledDecimalFormat = null;
     compareStorageAndActualFormat();
   }
 
@@ -882,6 +894,7 @@ public class ValueMetaBase implements IValueMeta {
   public void setCurrencySymbol(String currencySymbol) {
     this.currencySymbol = currencySymbol;
     decimalFormatChanged = true;
+    compiledDecimalFormat = null;
   }
 
   /**
@@ -1021,6 +1034,7 @@ public class ValueMetaBase implements IValueMeta {
   public void setDateFormatLenient(boolean dateFormatLenient) {
     this.dateFormatLenient = dateFormatLenient;
     dateFormatChanged = true;
+    compiledDateFormat = null;
   }
 
   /**
@@ -1038,32 +1052,45 @@ public class ValueMetaBase implements IValueMeta {
   public void setDateFormatLocale(Locale dateFormatLocale) {
     this.dateFormatLocale = dateFormatLocale;
     dateFormatChanged = true;
+    compiledDateFormat = null;
   }
 
   // DATE + STRING
 
-  protected synchronized String convertDateToString(Date date) {
+  protected String convertDateToString(Date date) {
     if (date == null) {
       return null;
     }
 
-    return getDateFormat().format(date);
+    CompiledDateFormat format = getCompiledDateFormat();
+    if (format == null) {
+      synchronized (this) {
+        return getDateFormat().format(date);
+      }
+    }
+    return format.format(date);
   }
 
   protected static SimpleDateFormat compatibleDateFormat =
       new SimpleDateFormat(COMPATIBLE_DATE_FORMAT_PATTERN);
 
-  protected synchronized String convertDateToCompatibleString(Date date) {
+  protected String convertDateToCompatibleString(Date date) {
     if (date == null) {
       return null;
     }
-    // If a date format already exists use it otherwise use the compatible date format
-    return (getDateFormat() != null
-        ? getDateFormat().format(date)
-        : compatibleDateFormat.format(date));
+    CompiledDateFormat format = getCompiledDateFormat();
+    if (format != null) {
+      return format.format(date);
+    }
+    synchronized (this) {
+      // If a date format already exists use it otherwise use the compatible date format
+      return (getDateFormat() != null
+          ? getDateFormat().format(date)
+          : compatibleDateFormat.format(date));
+    }
   }
 
-  public synchronized Date convertStringToDate(String string) throws HopValueException {
+  public Date convertStringToDate(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -1072,9 +1099,17 @@ public class ValueMetaBase implements IValueMeta {
       return null;
     }
 
+    CompiledDateFormat format = getCompiledDateFormat(TYPE_DATE);
     try {
       ParsePosition pp = new ParsePosition(0);
-      Date result = getDateFormat(TYPE_DATE).parse(string, pp);
+      Date result;
+      if (format == null) {
+        synchronized (this) {
+          result = getDateFormat(TYPE_DATE).parse(string, pp);
+        }
+      } else {
+        result = format.parse(string, pp);
+      }
       if (pp.getErrorIndex() >= 0) {
         // error happen
         throw new ParseException(string, pp.getErrorIndex());
@@ -1086,7 +1121,14 @@ public class ValueMetaBase implements IValueMeta {
       // If there are only spaces after pp.getIndex() - that means full values was parsed
       return result;
     } catch (ParseException e) {
-      String dateFormatString = (getDateFormat() != null) ? getDateFormat().toPattern() : "null";
+      String dateFormatString;
+      if (format != null) {
+        dateFormatString = format.toPattern();
+      } else {
+        synchronized (this) {
+          dateFormatString = (getDateFormat() != null) ? getDateFormat().toPattern() : "null";
+        }
+      }
       throw new HopValueException(
           this
               + " : couldn't convert string ["
@@ -1129,7 +1171,7 @@ public class ValueMetaBase implements IValueMeta {
     return new Date(number.longValue());
   }
 
-  public synchronized String convertNumberToString(Double number) throws HopValueException {
+  public String convertNumberToString(Double number) throws HopValueException {
     if (number == null) {
       if (!outputPaddingEnabled || length < 1) {
         return null;
@@ -1148,28 +1190,36 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     try {
-      DecimalFormat format = getDecimalFormat(false);
-
       // When conversion masks are different, we must ensure the number precision is not lost
-      if (this.conversionMask != null
-          && storageMetadata != null
-          && !this.conversionMask.equals(storageMetadata.getConversionMask())) {
-        format.setMaximumFractionDigits(50);
+      boolean precise =
+          this.conversionMask != null
+              && storageMetadata != null
+              && !this.conversionMask.equals(storageMetadata.getConversionMask());
+
+      CompiledDecimalFormat compiled = getCompiledDecimalFormat(false);
+      if (compiled == null) {
+        synchronized (this) {
+          DecimalFormat format = getDecimalFormat(false);
+          if (precise) {
+            format.setMaximumFractionDigits(50);
+          }
+          return format.format(number);
+        }
       }
-      return format.format(number);
+      return (precise ? compiled.getPreciseFormat() : compiled).format(number.doubleValue());
     } catch (Exception e) {
       throw new HopValueException(this + " : couldn't convert Number to String ", e);
     }
   }
 
-  protected synchronized String convertNumberToCompatibleString(Double number) {
+  protected String convertNumberToCompatibleString(Double number) {
     if (number == null) {
       return null;
     }
     return Double.toString(number);
   }
 
-  protected synchronized Double convertStringToNumber(String string) throws HopValueException {
+  protected Double convertStringToNumber(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -1179,25 +1229,7 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     try {
-      DecimalFormat format = getDecimalFormat(false);
-      Number number;
-      if (lenientStringToNumber) {
-        number = format.parse(string);
-      } else {
-        ParsePosition parsePosition = new ParsePosition(0);
-        number = format.parse(string, parsePosition);
-
-        if (parsePosition.getIndex() < string.length()) {
-          throw new HopValueException(
-              this
-                  + CONST_STRING_TO_NUMBER
-                  + (parsePosition.getIndex() + 1)
-                  + MSG_FOR_VALUE
-                  + string
-                  + "]");
-        }
-      }
-
+      Number number = parseNumber(string, false);
       return Double.valueOf(number.doubleValue());
     } catch (Exception e) {
       throw new HopValueException(this + " : couldn't convert String to number ", e);
@@ -1306,6 +1338,134 @@ public class ValueMetaBase implements IValueMeta {
     return decimalFormat;
   }
 
+  /**
+   * Gets a thread-safe copy of the date format, compiled the first time it's needed. The
+   * conversions of dates don't need to lock this value metadata when it is available.
+   *
+   * @return the compiled date format or null if a subclass provides its own date format
+   */
+  protected CompiledDateFormat getCompiledDateFormat() {
+    return getCompiledDateFormat(getType());
+  }
+
+  private CompiledDateFormat getCompiledDateFormat(int valueMetaType) {
+    if (conversionMetadata != null) {
+      return conversionMetadata instanceof ValueMetaBase valueMetaBase
+          ? valueMetaBase.getCompiledDateFormat()
+          : null;
+    }
+    if (!DATE_FORMAT_COMPILABLE.get(getClass())) {
+      return null;
+    }
+    CompiledDateFormat format = compiledDateFormat;
+    if (format == null) {
+      synchronized (this) {
+        format = compiledDateFormat;
+        if (format == null) {
+          format = new CompiledDateFormat(getDateFormat(valueMetaType));
+          compiledDateFormat = format;
+        }
+      }
+    }
+    return format;
+  }
+
+  /**
+   * Gets a thread-safe copy of the decimal format, compiled the first time it's needed. The
+   * conversions of numbers don't need to lock this value metadata when it is available.
+   *
+   * @param useBigDecimal true to parse big numbers, only used when the decimal format is created
+   * @return the compiled decimal format or null if a subclass provides its own decimal format
+   */
+  protected CompiledDecimalFormat getCompiledDecimalFormat(boolean useBigDecimal) {
+    if (conversionMetadata != null) {
+      return conversionMetadata instanceof ValueMetaBase valueMetaBase
+          ? valueMetaBase.getCompiledDecimalFormat(useBigDecimal)
+          : null;
+    }
+    if (!DECIMAL_FORMAT_COMPILABLE.get(getClass())) {
+      return null;
+    }
+    CompiledDecimalFormat format = compiledDecimalFormat;
+    if (format == null) {
+      synchronized (this) {
+        format = compiledDecimalFormat;
+        if (format == null) {
+          format = new CompiledDecimalFormat(getDecimalFormat(useBigDecimal));
+          compiledDecimalFormat = format;
+        }
+      }
+    }
+    return format;
+  }
+
+  /**
+   * The formats can only be compiled when they are created by this class. A subclass which
+   * overrides the getter uses its own format, locked as before.
+   */
+  private static boolean isFormatGetterInherited(
+      Class<?> type, String name, Class<?>... parameterTypes) {
+    try {
+      return type.getMethod(name, parameterTypes).getDeclaringClass() == ValueMetaBase.class;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private static final ClassValue<Boolean> DATE_FORMAT_COMPILABLE =
+      new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+          return isFormatGetterInherited(type, "getDateFormat");
+        }
+      };
+
+  private static final ClassValue<Boolean> DECIMAL_FORMAT_COMPILABLE =
+      new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+          return isFormatGetterInherited(type, "getDecimalFormat")
+              && isFormatGetterInherited(type, "getDecimalFormat", boolean.class);
+        }
+      };
+
+  /**
+   * Parse a number with the decimal format. Unless the conversion is lenient the complete string
+   * needs to be a number.
+   */
+  private Number parseNumber(String string, boolean useBigDecimal)
+      throws ParseException, HopValueException {
+    CompiledDecimalFormat format = getCompiledDecimalFormat(useBigDecimal);
+    if (lenientStringToNumber) {
+      if (format == null) {
+        synchronized (this) {
+          return getDecimalFormat(useBigDecimal).parse(string);
+        }
+      }
+      return format.parse(string);
+    }
+
+    ParsePosition parsePosition = new ParsePosition(0);
+    Number number;
+    if (format == null) {
+      synchronized (this) {
+        number = getDecimalFormat(useBigDecimal).parse(string, parsePosition);
+      }
+    } else {
+      number = format.parse(string, parsePosition);
+    }
+    if (parsePosition.getIndex() < string.length()) {
+      throw new HopValueException(
+          this
+              + CONST_STRING_TO_NUMBER
+              + (parsePosition.getIndex() + 1)
+              + MSG_FOR_VALUE
+              + string
+              + "]");
+    }
+    return number;
+  }
+
   @Override
   @JsonIgnore
   public String getFormatMask() {
@@ -1453,7 +1613,7 @@ public class ValueMetaBase implements IValueMeta {
     return numberPattern.toString();
   }
 
-  protected synchronized String convertIntegerToString(Long integer) throws HopValueException {
+  protected String convertIntegerToString(Long integer) throws HopValueException {
     if (integer == null) {
       if (!outputPaddingEnabled || length < 1) {
         return null;
@@ -1472,20 +1632,26 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     try {
-      return getDecimalFormat(false).format(integer);
+      CompiledDecimalFormat format = getCompiledDecimalFormat(false);
+      if (format == null) {
+        synchronized (this) {
+          return getDecimalFormat(false).format(integer);
+        }
+      }
+      return format.format(integer.longValue());
     } catch (Exception e) {
       throw new HopValueException(this + " : couldn't convert Long to String ", e);
     }
   }
 
-  protected synchronized String convertIntegerToCompatibleString(Long integer) {
+  protected String convertIntegerToCompatibleString(Long integer) {
     if (integer == null) {
       return null;
     }
     return Long.toString(integer);
   }
 
-  protected synchronized Long convertStringToInteger(String string) throws HopValueException {
+  protected Long convertStringToInteger(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -1495,44 +1661,32 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     try {
-      Number number;
-      if (lenientStringToNumber) {
-        number = Long.valueOf(getDecimalFormat(false).parse(string).longValue());
-      } else {
-        ParsePosition parsePosition = new ParsePosition(0);
-        number = getDecimalFormat(false).parse(string, parsePosition);
-
-        if (parsePosition.getIndex() < string.length()) {
-          throw new HopValueException(
-              this
-                  + CONST_STRING_TO_NUMBER
-                  + (parsePosition.getIndex() + 1)
-                  + MSG_FOR_VALUE
-                  + string
-                  + "]");
-        }
-      }
+      Number number = parseNumber(string, false);
       return Long.valueOf(number.longValue());
     } catch (Exception e) {
       throw new HopValueException(this + " : couldn't convert String to Integer", e);
     }
   }
 
-  protected synchronized String convertBigNumberToString(BigDecimal number)
-      throws HopValueException {
+  protected String convertBigNumberToString(BigDecimal number) throws HopValueException {
     if (number == null) {
       return null;
     }
 
     try {
-      return getDecimalFormat(bigNumberFormatting).format(number);
+      CompiledDecimalFormat format = getCompiledDecimalFormat(bigNumberFormatting);
+      if (format == null) {
+        synchronized (this) {
+          return getDecimalFormat(bigNumberFormatting).format(number);
+        }
+      }
+      return format.format(number);
     } catch (Exception e) {
       throw new HopValueException(this + " : couldn't convert BigNumber to String ", e);
     }
   }
 
-  protected synchronized BigDecimal convertStringToBigNumber(String string)
-      throws HopValueException {
+  protected BigDecimal convertStringToBigNumber(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -1542,24 +1696,7 @@ public class ValueMetaBase implements IValueMeta {
     }
 
     try {
-      DecimalFormat format = getDecimalFormat(bigNumberFormatting);
-      Number number;
-      if (lenientStringToNumber) {
-        number = format.parse(string);
-      } else {
-        ParsePosition parsePosition = new ParsePosition(0);
-        number = format.parse(string, parsePosition);
-
-        if (parsePosition.getIndex() < string.length()) {
-          throw new HopValueException(
-              this
-                  + CONST_STRING_TO_NUMBER
-                  + (parsePosition.getIndex() + 1)
-                  + MSG_FOR_VALUE
-                  + string
-                  + "]");
-        }
-      }
+      Number number = parseNumber(string, bigNumberFormatting);
 
       // Cannot simply cast a number to a BigDecimal,
       //            If the Number is not a BigDecimal.
@@ -4880,6 +5017,7 @@ public class ValueMetaBase implements IValueMeta {
   public void setDateFormatTimeZone(TimeZone dateFormatTimeZone) {
     this.dateFormatTimeZone = dateFormatTimeZone;
     dateFormatChanged = true;
+    compiledDateFormat = null;
   }
 
   @Override
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Creates virtual threads when the Java runtime supports them (Java 21 and later). Hop is compiled
+ * for older Java versions so the virtual thread API is looked up at runtime. On older runtimes
+ * platform threads are created instead.
+ */
+public class VirtualThreads {
+  private static final MethodHandle OF_VIRTUAL;
+  private static final MethodHandle UNSTARTED;
+  private static final MethodHandle IS_VIRTUAL;
+
+  static {
+    MethodHandle ofVirtual = null;
+    MethodHandle unstarted = null;
+    MethodHandle isVirtual = null;
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      ofVirtual =
+          lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+      unstarted =
+          lookup.findVirtual(
+              builderClass, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+      isVirtual =
+          lookup.findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+    } catch (ReflectiveOperationException e) {
+      // Virtual threads are not available in this Java runtime
+      ofVirtual = null;
+      unstarted = null;
+      isVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    UNSTARTED = unstarted;
+    IS_VIRTUAL = isVirtual;
+  }
+
+  private VirtualThreads() {}
+
+  /**
+   * @return true if the Java runtime supports virtual threads
+   */
+  public static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * Create a new thread which isn't started yet.
+   *
+   * @param runnable the code to run in the thread
+   * @param name the name of the thread
+   * @param virtual true to create a virtual thread if the Java runtime supports them
+   * @return the new thread
+   */
+  public static Thread newThread(Runnable runnable, String name, boolean virtual) {
+    Thread thread = null;
+    if (virtual && isSupported()) {
+      try {
+        thread = (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(), runnable);
+      } catch (Throwable e) {
+        // Fall back to a platform thread
+        thread = null;
+      }
+    }
+    if (thread == null) {
+      thread = new Thread(runnable);
+    }
+    thread.setName(name);
+    return thread;
+  }
+
+  /**
+   * @param thread the thread to check
+   * @return true if the thread is a virtual thread
+   */
+  public static boolean isVirtual(Thread thread) {
+    if (IS_VIRTUAL == null) {
+      return false;
+    }
+    try {
+      return (boolean) IS_VIRTUAL.invoke(thread);
+    } catch (Throwable e) {
+      return false;
+    }
+  }
+}
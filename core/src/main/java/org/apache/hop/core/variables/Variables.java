@@ -17,12 +17,11 @@
 
 package org.apache.hop.core.variables;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.config.HopConfig;
 import org.apache.hop.core.exception.HopValueException;
@@ -33,8 +32,17 @@ import org.apache.hop.core.util.Utils;
 
 /** This class is an implementation of IVariables */
 public class Variables implements IVariables {
+  /** The maximum number of resolved strings to keep in a variable space */
+  private static final int MAX_RESOLVED_STRINGS = 1000;
+
   private Map<String, String> properties;
 
+  /**
+   * The strings resolved with the current variable values. It's replaced by an empty cache when a
+   * variable changes so a resolution running at the same time can't put an outdated value in it.
+   */
+  private volatile Map<String, String> resolvedStrings;
+
   private IVariables parent;
 
   private Map<String, String> injection;
@@ -42,7 +50,8 @@ public class Variables implements IVariables {
   private boolean initialized;
 
   public Variables() {
-    properties = Collections.synchronizedMap(new HashMap<>());
+    properties = new ConcurrentHashMap<>();
+    resolvedStrings = new ConcurrentHashMap<>();
     parent = null;
     injection = null;
     initialized = false;
@@ -55,8 +64,9 @@ public class Variables implements IVariables {
       // the same object as the argument.
       String[] variableNames = variables.getVariableNames();
       for (int idx = 0; idx < variableNames.length; idx++) {
-        properties.put(variableNames[idx], variables.getVariable(variableNames[idx]));
+        putProperty(properties, variableNames[idx], variables.getVariable(variableNames[idx]));
       }
+      clearResolvedStrings();
     }
   }
 
@@ -72,7 +82,7 @@ public class Variables implements IVariables {
 
   @Override
   public String getVariable(String variableName, String defaultValue) {
-    String value = properties.get(variableName);
+    String value = getVariable(variableName);
     if (value == null) {
       return defaultValue;
     }
@@ -81,6 +91,9 @@ public class Variables implements IVariables {
 
   @Override
   public String getVariable(String variableName) {
+    if (variableName == null) {
+      return null;
+    }
     return properties.get(variableName);
   }
 
@@ -104,12 +117,12 @@ public class Variables implements IVariables {
     //
     Set<String> systemPropertiesNames = System.getProperties().stringPropertyNames();
     for (String key : systemPropertiesNames) {
-      getProperties().put(key, System.getProperties().getProperty(key));
+      putProperty(getProperties(), key, System.getProperties().getProperty(key));
     }
 
     List<DescribedVariable> describedVariables = HopConfig.getInstance().getDescribedVariables();
     for (DescribedVariable describedVariable : describedVariables) {
-      getProperties().put(describedVariable.getName(), describedVariable.getValue());
+      putProperty(getProperties(), describedVariable.getName(), describedVariable.getValue());
     }
 
     if (parent != null) {
@@ -120,6 +133,7 @@ public class Variables implements IVariables {
       injection = null;
     }
     initialized = true;
+    clearResolvedStrings();
   }
 
   @Override
@@ -130,20 +144,39 @@ public class Variables implements IVariables {
 
   @Override
   public synchronized void setVariable(String variableName, String variableValue) {
-    if (variableValue != null) {
-      properties.put(variableName, variableValue);
-    } else {
-      properties.remove(variableName);
-    }
+    putProperty(properties, variableName, variableValue);
+    clearResolvedStrings();
   }
 
+  /**
+   * Substitutes the variables of the form %%name%% and ${name} and the hexadecimal values of the
+   * form $[hex] in a string. Strings are only scanned the first time they are resolved, after that
+   * the result is taken from a cache until one of the variables changes.
+   *
+   * @param aString the string to resolve
+   * @return the resolved string
+   */
   @Override
-  public synchronized String resolve(String aString) {
+  public String resolve(String aString) {
     if (aString == null || aString.length() == 0) {
       return aString;
     }
+    if (aString.indexOf('$') < 0 && aString.indexOf('%') < 0) {
+      // Nothing to substitute
+      return aString;
+    }
 
-    return StringUtil.environmentSubstitute(aString, properties);
+    Map<String, String> cache = resolvedStrings;
+    String resolved = cache.get(aString);
+    if (resolved == null) {
+      resolved = StringUtil.substituteWindows(aString, properties);
+      resolved = StringUtil.substituteUnix(resolved, properties);
+      resolved = StringUtil.substituteHex(resolved);
+      if (cache.size() < MAX_RESOLVED_STRINGS) {
+        cache.put(aString, resolved);
+      }
+    }
+    return resolved;
   }
 
   /**
@@ -193,6 +226,7 @@ public class Variables implements IVariables {
           }
         }
         injection = null;
+        clearResolvedStrings();
       }
     } else {
       // We have our own personal copy, so changes afterwards
@@ -223,4 +257,20 @@ public class Variables implements IVariables {
   Map<String, String> getProperties() {
     return properties;
   }
+
+  /** A variable without a value or a name is not stored */
+  private static void putProperty(Map<String, String> properties, String name, String value) {
+    if (name == null) {
+      return;
+    }
+    if (value != null) {
+      properties.put(name, value);
+    } else {
+      properties.remove(name);
+    }
+  }
+
+  private void clearResolvedStrings() {
+    resolvedStrings = new ConcurrentHashMap<>();
+  }
 }
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.vfs;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.commons.vfs2.FileObject;
+
+/**
+ * A bounded cache of resolved file objects, keyed on the file name as it was passed to {@link
+ * HopVfs}. The cache is split into stripes by the hash of the name, each with its own lock and
+ * least recently used eviction, so threads resolving different files don't wait for each other. The
+ * file objects are softly referenced, so the garbage collector can still reclaim them when memory
+ * runs low, the same as with the files cache of the file system manager.
+ */
+public class FileObjectCache {
+  private static final int STRIPES = 16;
+
+  private final Stripe[] stripes;
+
+  /**
+   * @param maximumSize the maximum number of file objects to keep, 0 or less to keep none
+   */
+  public FileObjectCache(int maximumSize) {
+    int stripeCount = maximumSize <= 0 ? 0 : Math.min(STRIPES, maximumSize);
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe((maximumSize + stripeCount - 1) / stripeCount);
+    }
+  }
+
+  /**
+   * Get the file object cached for a file name
+   *
+   * @param filename the file name
+   * @return the file object or null if it's not in the cache
+   */
+  public FileObject get(String filename) {
+    Stripe stripe = stripeFor(filename);
+    if (stripe == null) {
+      return null;
+    }
+    synchronized (stripe) {
+      SoftReference<FileObject> reference = stripe.get(filename);
+      if (reference == null) {
+        return null;
+      }
+      FileObject fileObject = reference.get();
+      if (fileObject == null) {
+        stripe.remove(filename);
+      }
+      return fileObject;
+    }
+  }
+
+  /**
+   * Store the file object of a file name, this can evict the least recently used file object
+   *
+   * @param filename the file name
+   * @param fileObject the resolved file object
+   */
+  public void put(String filename, FileObject fileObject) {
+    Stripe stripe = stripeFor(filename);
+    if (stripe == null) {
+      return;
+    }
+    synchronized (stripe) {
+      stripe.put(filename, new SoftReference<>(fileObject));
+    }
+  }
+
+  /** Remove all file objects from the cache */
+  public void clear() {
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        stripe.clear();
+      }
+    }
+  }
+
+  /**
+   * @return the number of file objects in the cache
+   */
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  private Stripe stripeFor(String filename) {
+    if (stripes.length == 0) {
+      return null;
+    }
+    int hash = filename.hashCode() * 0x9e3779b9;
+    return stripes[(hash >>> 16) % stripes.length];
+  }
+
+  private static final class Stripe extends LinkedHashMap<String, SoftReference<FileObject>> {
+    private final int maximumSize;
+
+    private Stripe(int maximumSize) {
+      super(16, 0.75f, true);
+      this.maximumSize = maximumSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, SoftReference<FileObject>> eldest) {
+      return size() > maximumSize;
+    }
+  }
+}
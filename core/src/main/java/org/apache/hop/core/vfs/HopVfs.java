@@ -17,6 +17,7 @@
 
 package org.apache.hop.core.vfs;
 
+import com.google.common.annotations.VisibleForTesting;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -28,7 +29,6 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.vfs2.CacheStrategy;
 import org.apache.commons.vfs2.FileContent;
@@ -47,6 +47,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.plugins.IPlugin;
 import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.util.EnvUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.vfs.plugin.IVfs;
 import org.apache.hop.core.vfs.plugin.VfsPluginType;
@@ -57,67 +58,127 @@ public class HopVfs {
 
   public static final String TEMP_DIR = System.getProperty("java.io.tmpdir");
 
-  private static DefaultFileSystemManager fsm;
-  private static DefaultFileSystemManager extendedFsm;
+  private static volatile ManagedFileSystem fileSystem;
+  private static volatile ManagedFileSystem extendedFileSystem;
 
-  private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  /** Only guards the creation and reset of the file system managers, not the resolution of files */
+  private static final Object managerLock = new Object();
+
+  /**
+   * A file system manager with the scheme prefixes and the file objects resolved by it. These are
+   * replaced together on a reset, so a file is never resolved with one manager and cached for
+   * another.
+   */
+  private static final class ManagedFileSystem {
+    private final DefaultFileSystemManager manager;
+
+    /** The schemes of the manager followed by ':', to recognize file names with a URL */
+    private final String[] schemePrefixes;
+
+    private final FileObjectCache fileObjects;
+
+    private ManagedFileSystem(DefaultFileSystemManager manager) {
+      this.manager = manager;
+      this.schemePrefixes = getSchemePrefixes(manager);
+      this.fileObjects = createFileObjectCache();
+    }
+
+    private void freeUnusedResources() {
+      // The cached file objects keep their file systems in use
+      fileObjects.clear();
+      manager.freeUnusedResources();
+    }
+
+    private void close() {
+      freeUnusedResources();
+      manager.close();
+    }
+  }
 
   public static DefaultFileSystemManager getFileSystemManager() {
-    lock.readLock().lock();
-    try {
-      if (fsm == null) {
-        try {
-          fsm = createFileSystemManager();
-          fsm.init();
-        } catch (Exception e) {
-          throw new RuntimeException("Error initializing file system manager : ", e);
+    return getManagedFileSystem().manager;
+  }
+
+  private static ManagedFileSystem getManagedFileSystem() {
+    ManagedFileSystem managedFileSystem = fileSystem;
+    if (managedFileSystem == null) {
+      synchronized (managerLock) {
+        managedFileSystem = fileSystem;
+        if (managedFileSystem == null) {
+          try {
+            DefaultFileSystemManager manager = createFileSystemManager();
+            manager.init();
+            managedFileSystem = new ManagedFileSystem(manager);
+          } catch (Exception e) {
+            throw new RuntimeException("Error initializing file system manager : ", e);
+          }
+          fileSystem = managedFileSystem;
         }
       }
-      return fsm;
-    } finally {
-      lock.readLock().unlock();
     }
+    return managedFileSystem;
   }
 
   public static DefaultFileSystemManager getFileSystemManager(IVariables variables) {
-    lock.readLock().lock();
-    try {
-      if (extendedFsm == null) {
-        try {
-          extendedFsm = createFileSystemManager();
-          // Here are extra VFS plugins to register
-          //
-          PluginRegistry registry = PluginRegistry.getInstance();
-          List<IPlugin> plugins = registry.getPlugins(VfsPluginType.class);
-          for (IPlugin plugin : plugins) {
-            IVfs iVfs = registry.loadClass(plugin, IVfs.class);
-            try {
-              Map<String, FileProvider> fileProviderMap = iVfs.getProviders(variables);
-              if (fileProviderMap != null) {
-                for (Map.Entry<String, FileProvider> entry : fileProviderMap.entrySet()) {
-                  extendedFsm.addProvider(entry.getKey(), entry.getValue());
+    return getManagedFileSystem(variables).manager;
+  }
+
+  private static ManagedFileSystem getManagedFileSystem(IVariables variables) {
+    ManagedFileSystem managedFileSystem = extendedFileSystem;
+    if (managedFileSystem == null) {
+      synchronized (managerLock) {
+        managedFileSystem = extendedFileSystem;
+        if (managedFileSystem == null) {
+          try {
+            DefaultFileSystemManager manager = createFileSystemManager();
+            // Here are extra VFS plugins to register
+            //
+            PluginRegistry registry = PluginRegistry.getInstance();
+            List<IPlugin> plugins = registry.getPlugins(VfsPluginType.class);
+            for (IPlugin plugin : plugins) {
+              IVfs iVfs = registry.loadClass(plugin, IVfs.class);
+              try {
+                Map<String, FileProvider> fileProviderMap = iVfs.getProviders(variables);
+                if (fileProviderMap != null) {
+                  for (Map.Entry<String, FileProvider> entry : fileProviderMap.entrySet()) {
+                    manager.addProvider(entry.getKey(), entry.getValue());
+                  }
                 }
+              } catch (Exception e) {
+                throw new HopException(
+                    "Error registering provider for VFS plugin "
+                        + plugin.getIds()[0]
+                        + " : "
+                        + plugin.getName()
+                        + " : ",
+                    e);
               }
-            } catch (Exception e) {
-              throw new HopException(
-                  "Error registering provider for VFS plugin "
-                      + plugin.getIds()[0]
-                      + " : "
-                      + plugin.getName()
-                      + " : ",
-                  e);
             }
-          }
 
-          extendedFsm.init();
-        } catch (Exception e) {
-          throw new RuntimeException("Error initializing file system manager : ", e);
+            manager.init();
+            managedFileSystem = new ManagedFileSystem(manager);
+          } catch (Exception e) {
+            throw new RuntimeException("Error initializing file system manager : ", e);
+          }
+          extendedFileSystem = managedFileSystem;
         }
       }
-      return extendedFsm;
-    } finally {
-      lock.readLock().unlock();
     }
+    return managedFileSystem;
+  }
+
+  private static String[] getSchemePrefixes(DefaultFileSystemManager manager) {
+    String[] schemes = manager.getSchemes();
+    String[] prefixes = new String[schemes.length];
+    for (int i = 0; i < schemes.length; i++) {
+      prefixes[i] = schemes[i] + ":";
+    }
+    return prefixes;
+  }
+
+  private static FileObjectCache createFileObjectCache() {
+    return new FileObjectCache(
+        Const.toInt(EnvUtil.getSystemProperty(Const.HOP_VFS_FILE_OBJECT_CACHE_SIZE), 10000));
   }
 
   /**
@@ -193,101 +254,81 @@ public class HopVfs {
     }
   }
 
-  public static synchronized FileObject getFileObject(String vfsFilename, IVariables variables)
+  public static FileObject getFileObject(String vfsFilename, IVariables variables)
       throws HopFileException {
-    lock.readLock().lock();
-    try {
-      DefaultFileSystemManager fsManager = getFileSystemManager(variables);
-
-      try {
-        // We have one problem with VFS: if the file is in a subdirectory of the current one:
-        // somedir/somefile
-        // In that case, VFS doesn't parse the file correctly.
-        // We need to put file: in front of it to make it work.
-        // However, how are we going to verify this?
-        //
-        // We are going to see if the filename starts with one of the known protocols like file:
-        // zip: ram: smb: jar: etc.
-        // If not, we are going to assume it's a file.
-        //
-        boolean relativeFilename = true;
-        String[] initialSchemes = fsManager.getSchemes();
-
-        relativeFilename = checkForScheme(initialSchemes, relativeFilename, vfsFilename);
-
-        String filename;
-        if (vfsFilename.startsWith("\\\\")) {
-          File file = new File(vfsFilename);
-          filename = file.toURI().toString();
-        } else {
-          if (relativeFilename) {
-            File file = new File(vfsFilename);
-            filename = file.getAbsolutePath();
-          } else {
-            filename = vfsFilename;
-          }
-        }
+    return resolveFile(getManagedFileSystem(variables), vfsFilename);
+  }
 
-        return fsManager.resolveFile(filename);
-      } catch (Exception e) {
-        throw new HopFileException(
-            "Unable to get VFS File object for filename '"
-                + cleanseFilename(vfsFilename)
-                + "' : "
-                + e.getMessage(),
-            e);
-      }
-    } finally {
-      lock.readLock().unlock();
-    }
+  public static FileObject getFileObject(String vfsFilename) throws HopFileException {
+    return resolveFile(getManagedFileSystem(), vfsFilename);
   }
 
-  public static synchronized FileObject getFileObject(String vfsFilename) throws HopFileException {
-    lock.readLock().lock();
+  /**
+   * Resolve a file name to a file object. A file object which was resolved before is taken from the
+   * cache and refreshed like the file system manager does when it resolves a file.
+   */
+  private static FileObject resolveFile(ManagedFileSystem managedFileSystem, String vfsFilename)
+      throws HopFileException {
+    DefaultFileSystemManager fsManager = managedFileSystem.manager;
+    FileObjectCache cache = managedFileSystem.fileObjects;
     try {
-      DefaultFileSystemManager fsManager = getFileSystemManager();
-
-      try {
-        // We have one problem with VFS: if the file is in a subdirectory of the current one:
-        // somedir/somefile
-        // In that case, VFS doesn't parse the file correctly.
-        // We need to put file: in front of it to make it work.
-        // However, how are we going to verify this?
-        //
-        // We are going to see if the filename starts with one of the known protocols like file:
-        // zip: ram: smb: jar: etc.
-        // If not, we are going to assume it's a file.
-        //
-        boolean relativeFilename = true;
-        String[] initialSchemes = fsManager.getSchemes();
+      FileObject fileObject = cache.get(vfsFilename);
+      if (fileObject != null) {
+        if (fsManager.getCacheStrategy() == CacheStrategy.ON_RESOLVE) {
+          fileObject.refresh();
+        }
+        return fileObject;
+      }
 
-        relativeFilename = checkForScheme(initialSchemes, relativeFilename, vfsFilename);
+      // We have one problem with VFS: if the file is in a subdirectory of the current one:
+      // somedir/somefile
+      // In that case, VFS doesn't parse the file correctly.
+      // We need to put file: in front of it to make it work.
+      // However, how are we going to verify this?
+      //
+      // We are going to see if the filename starts with one of the known protocols like file:
+      // zip: ram: smb: jar: etc.
+      // If not, we are going to assume it's a file.
+      //
+      boolean relativeFilename =
+          !startsWithSchemePrefix(vfsFilename, managedFileSystem.schemePrefixes);
 
-        String filename;
-        if (vfsFilename.startsWith("\\\\")) {
+      String filename;
+      if (vfsFilename.startsWith("\\\\")) {
+        File file = new File(vfsFilename);
+        filename = file.toURI().toString();
+      } else {
+        if (relativeFilename) {
           File file = new File(vfsFilename);
-          filename = file.toURI().toString();
+          filename = file.getAbsolutePath();
         } else {
-          if (relativeFilename) {
-            File file = new File(vfsFilename);
-            filename = file.getAbsolutePath();
-          } else {
-            filename = vfsFilename;
-          }
+          filename = vfsFilename;
         }
+      }
 
-        return fsManager.resolveFile(filename);
-      } catch (Exception e) {
-        throw new HopFileException(
-            "Unable to get VFS File object for filename '"
-                + cleanseFilename(vfsFilename)
-                + "' : "
-                + e.getMessage(),
-            e);
+      fileObject = fsManager.resolveFile(filename);
+      cache.put(vfsFilename, fileObject);
+      return fileObject;
+    } catch (Exception e) {
+      throw new HopFileException(
+          "Unable to get VFS File object for filename '"
+              + cleanseFilename(vfsFilename)
+              + "' : "
+              + e.getMessage(),
+          e);
+    }
+  }
+
+  private static boolean startsWithSchemePrefix(String vfsFilename, String[] schemePrefixes) {
+    if (vfsFilename == null) {
+      return false;
+    }
+    for (String schemePrefix : schemePrefixes) {
+      if (vfsFilename.startsWith(schemePrefix)) {
+        return true;
       }
-    } finally {
-      lock.readLock().unlock();
     }
+    return false;
   }
 
   protected static boolean checkForScheme(
@@ -533,8 +574,8 @@ public class HopVfs {
    * @return FileObject
    * @throws HopFileException
    */
-  public static synchronized FileObject createTempFile(
-      String prefix, String suffix, String directory) throws HopFileException {
+  public static FileObject createTempFile(String prefix, String suffix, String directory)
+      throws HopFileException {
     try {
       FileObject fileObject;
       do {
@@ -572,7 +613,7 @@ public class HopVfs {
    * @return FileObject
    * @throws HopFileException
    */
-  public static synchronized FileObject createTempFile(
+  public static FileObject createTempFile(
       String prefix, String suffix, String directory, IVariables variables)
       throws HopFileException {
     try {
@@ -621,24 +662,7 @@ public class HopVfs {
    * @return boolean
    */
   public static boolean startsWithScheme(String vfsFileName, IVariables variables) {
-    lock.readLock().lock();
-    try {
-
-      DefaultFileSystemManager fsManager = getFileSystemManager(variables);
-
-      boolean found = false;
-      String[] schemes = fsManager.getSchemes();
-      for (int i = 0; i < schemes.length; i++) {
-        if (vfsFileName.startsWith(schemes[i] + ":")) {
-          found = true;
-          break;
-        }
-      }
-
-      return found;
-    } finally {
-      lock.readLock().unlock();
-    }
+    return startsWithSchemePrefix(vfsFileName, getManagedFileSystem(variables).schemePrefixes);
   }
 
   /**
@@ -672,21 +696,39 @@ public class HopVfs {
    * @see StandardFileSystemManager#freeUnusedResources()
    */
   public static void freeUnusedResources() {
-    if (fsm != null) {
-      fsm.freeUnusedResources();
+    ManagedFileSystem managedFileSystem = fileSystem;
+    if (managedFileSystem != null) {
+      managedFileSystem.freeUnusedResources();
     }
+    ManagedFileSystem extendedManagedFileSystem = extendedFileSystem;
+    if (extendedManagedFileSystem != null) {
+      extendedManagedFileSystem.freeUnusedResources();
+    }
+  }
+
+  /**
+   * @return the number of file objects cached for the file system manager without VFS plugins
+   */
+  @VisibleForTesting
+  static int getCachedFileObjectCount() {
+    ManagedFileSystem managedFileSystem = fileSystem;
+    return managedFileSystem == null ? 0 : managedFileSystem.fileObjects.size();
   }
 
   public static void reset() {
-    if (fsm != null) {
-      fsm.freeUnusedResources();
-      fsm.close();
-      fsm = null;
-    }
-    if (extendedFsm != null) {
-      extendedFsm.freeUnusedResources();
-      extendedFsm.close();
-      extendedFsm = null;
+    ManagedFileSystem managedFileSystem;
+    ManagedFileSystem extendedManagedFileSystem;
+    synchronized (managerLock) {
+      managedFileSystem = fileSystem;
+      extendedManagedFileSystem = extendedFileSystem;
+      fileSystem = null;
+      extendedFileSystem = null;
+    }
+    if (managedFileSystem != null) {
+      managedFileSystem.close();
+    }
+    if (extendedManagedFileSystem != null) {
+      extendedManagedFileSystem.close();
     }
   }
 
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.hop.core.Condition.Function;
+import org.apache.hop.core.Condition.Operator;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class CompiledConditionTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaInteger("other"));
+    return rowMeta;
+  }
+
+  private static List<Object[]> createRows() {
+    return Arrays.asList(
+        new Object[] {"apple", 1L, 1.5, 1L},
+        new Object[] {"banana", 2L, 20.0, 3L},
+        new Object[] {"cherry", 3L, -4.25, 3L},
+        new Object[] {"Apple pie", 10L, 100.0, 0L},
+        new Object[] {"", 5L, 5.0, null},
+        new Object[] {null, null, null, null});
+  }
+
+  private static Condition condition(String left, Function function, ValueMetaAndData right)
+      throws Exception {
+    return new Condition(left, function, null, right);
+  }
+
+  /** The compiled condition has to give the same result as the condition itself for every row. */
+  private static void assertSameEvaluation(Condition condition) {
+    IRowMeta rowMeta = createRowMeta();
+    CompiledCondition compiled = condition.compile(rowMeta);
+    for (Object[] row : createRows()) {
+      assertEquals(
+          condition + " on " + Arrays.toString(row),
+          condition.evaluate(rowMeta, row),
+          compiled.evaluate(row));
+    }
+  }
+
+  private static void assertSameEvaluationNegated(Condition condition) {
+    assertSameEvaluation(condition);
+    condition.negate();
+    assertSameEvaluation(condition);
+  }
+
+  @Test
+  public void testComparisons() throws Exception {
+    ValueMetaAndData three = new ValueMetaAndData(new ValueMetaInteger("constant"), 3L);
+    ValueMetaAndData number = new ValueMetaAndData(new ValueMetaNumber("constant"), 2.0);
+    ValueMetaAndData text = new ValueMetaAndData(new ValueMetaString("constant"), "banana");
+    ValueMetaAndData digits = new ValueMetaAndData(new ValueMetaString("constant"), "5");
+    for (Function function :
+        new Function[] {
+          Function.EQUAL,
+          Function.NOT_EQUAL,
+          Function.SMALLER,
+          Function.SMALLER_EQUAL,
+          Function.LARGER,
+          Function.LARGER_EQUAL
+        }) {
+      assertSameEvaluationNegated(condition("id", function, three));
+      // Integer field compared with a number constant
+      assertSameEvaluationNegated(condition("id", function, number));
+      // Number field compared with an integer constant
+      assertSameEvaluationNegated(condition("amount", function, three));
+      assertSameEvaluationNegated(condition("name", function, text));
+      // The constant is converted to the type of the field
+      assertSameEvaluationNegated(condition("id", function, digits));
+      // Two fields
+      assertSameEvaluationNegated(new Condition("id", function, "other", null));
+      assertSameEvaluationNegated(new Condition("amount", function, "id", null));
+    }
+  }
+
+  @Test
+  public void testStringFunctions() throws Exception {
+    assertSameEvaluationNegated(
+        condition(
+            "name", Function.REGEXP, new ValueMetaAndData(new ValueMetaString("c"), "[a-c].*")));
+    assertSameEvaluationNegated(
+        condition("name", Function.LIKE, new ValueMetaAndData(new ValueMetaString("c"), "%pp?e%")));
+    assertSameEvaluationNegated(
+        condition(
+            "name",
+            Function.IN_LIST,
+            new ValueMetaAndData(new ValueMetaString("c"), "cherry;banana;x\\;y")));
+    assertSameEvaluationNegated(
+        condition("id", Function.IN_LIST, new ValueMetaAndData(new ValueMetaString("c"), "2;10")));
+    assertSameEvaluationNegated(
+        condition("name", Function.IN_LIST, new ValueMetaAndData(new ValueMetaString("c"), "")));
+    assertSameEvaluationNegated(
+        condition("name", Function.CONTAINS, new ValueMetaAndData(new ValueMetaString("c"), "an")));
+    assertSameEvaluationNegated(
+        condition(
+            "name", Function.STARTS_WITH, new ValueMetaAndData(new ValueMetaString("c"), "App")));
+    assertSameEvaluationNegated(
+        condition("name", Function.ENDS_WITH, new ValueMetaAndData(new ValueMetaString("c"), "y")));
+    assertSameEvaluationNegated(new Condition("name", Function.NULL, null, null));
+    assertSameEvaluationNegated(new Condition("amount", Function.NOT_NULL, null, null));
+    assertSameEvaluationNegated(new Condition("name", Function.CONTAINS, "name", null));
+  }
+
+  @Test
+  public void testCompositeConditions() throws Exception {
+    for (Operator operator :
+        new Operator[] {
+          Operator.OR, Operator.AND, Operator.OR_NOT, Operator.AND_NOT, Operator.XOR, Operator.NOT
+        }) {
+      Condition composite = new Condition();
+      composite.addCondition(
+          condition("id", Function.LARGER, new ValueMetaAndData(new ValueMetaInteger("c"), 2L)));
+      Condition second =
+          condition(
+              "name", Function.STARTS_WITH, new ValueMetaAndData(new ValueMetaString("c"), "a"));
+      second.setOperator(operator);
+      composite.addCondition(second);
+      Condition third = new Condition("amount", Function.NULL, null, null);
+      third.setOperator(Operator.OR);
+      composite.addCondition(third);
+
+      assertSameEvaluationNegated(composite);
+    }
+  }
+
+  @Test
+  public void testMissingFields() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    Object[] row = createRows().get(0);
+
+    Condition missingLeft = new Condition(true, "missing", Function.NULL, null, null);
+    assertFalse(missingLeft.compile(rowMeta).evaluate(row));
+    assertEquals(missingLeft.evaluate(rowMeta, row), missingLeft.compile(rowMeta).evaluate(row));
+
+    Condition alwaysTrue = new Condition("missing", Function.TRUE, null, null);
+    assertTrue(alwaysTrue.compile(rowMeta).evaluate(row));
+
+    // The condition itself reports the missing right field
+    Condition missingRight = new Condition("id", Function.EQUAL, "missing", null);
+    try {
+      missingRight.compile(rowMeta).evaluate(row);
+      fail("The missing field should be reported");
+    } catch (RuntimeException e) {
+      assertTrue(e.getMessage().startsWith("Unexpected error evaluation condition"));
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.function.Predicate;
+import org.apache.hop.core.Condition.Function;
+import org.apache.hop.core.Condition.Operator;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.Benchmark;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Evaluates the conditions of a typical Filter Rows transform on rows, once with {@link
+ * Condition#evaluate(IRowMeta, Object[])} and once compiled with {@link
+ * Condition#compile(IRowMeta)}.
+ */
+public class ConditionBenchmark {
+  private static final int ROWS = 1000;
+
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  @Rule public Benchmark benchmark = new Benchmark(1, 3);
+
+  private final long evaluations = Benchmark.size("evaluations", 500_000L);
+
+  private IRowMeta rowMeta;
+  private Object[][] rows;
+
+  @Before
+  public void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rows = new Object[ROWS][];
+    for (int i = 0; i < ROWS; i++) {
+      rows[i] = new Object[] {"customer " + i, (long) i, i * 1.5};
+    }
+  }
+
+  @Test
+  public void integerComparison() throws Exception {
+    measure("id > 500", condition("id", Function.LARGER, new ValueMetaInteger("c"), 500L));
+  }
+
+  @Test
+  public void convertedConstant() throws Exception {
+    measure("amount >= '100'", condition("amount", Function.LARGER_EQUAL, string(), "100"));
+  }
+
+  @Test
+  public void regularExpression() throws Exception {
+    measure("name REGEXP", condition("name", Function.REGEXP, string(), "customer [1-3].*5"));
+  }
+
+  @Test
+  public void like() throws Exception {
+    measure("name LIKE", condition("name", Function.LIKE, string(), "%er 1_5"));
+  }
+
+  @Test
+  public void inList() throws Exception {
+    StringBuilder list = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      list.append(i > 0 ? ";" : "").append("customer ").append(i * 37);
+    }
+    measure("name IN LIST of 20", condition("name", Function.IN_LIST, string(), list.toString()));
+  }
+
+  @Test
+  public void composite() throws Exception {
+    Condition composite = new Condition();
+    composite.addCondition(condition("id", Function.LARGER, new ValueMetaInteger("c"), 100L));
+    Condition second = condition("name", Function.STARTS_WITH, string(), "customer 9");
+    second.setOperator(Operator.AND);
+    composite.addCondition(second);
+    Condition third = new Condition("amount", Function.NOT_NULL, null, null);
+    third.setOperator(Operator.AND);
+    composite.addCondition(third);
+    measure("id > 100 AND name STARTS WITH AND amount IS NOT NULL", composite);
+  }
+
+  private static ValueMetaString string() {
+    return new ValueMetaString("c");
+  }
+
+  private static Condition condition(String field, Function function, IValueMeta meta, Object value)
+      throws Exception {
+    return new Condition(field, function, null, new ValueMetaAndData(meta, value));
+  }
+
+  private void measure(String name, Condition condition) throws Exception {
+    long interpreted = measure(name + ", interpreted", row -> condition.evaluate(rowMeta, row));
+    CompiledCondition compiled = condition.compile(rowMeta);
+    assertEquals(interpreted, measure(name + ", compiled", compiled::evaluate));
+  }
+
+  /** Returns the number of matching rows of the last run */
+  private long measure(String name, Predicate<Object[]> predicate) throws Exception {
+    long[] matches = new long[1];
+    benchmark.measure(
+        name,
+        evaluations,
+        () -> {
+          long count = 0;
+          for (long i = 0; i < evaluations; i++) {
+            if (predicate.test(rows[(int) (i % ROWS)])) {
+              count++;
+            }
+          }
+          matches[0] = count;
+        });
+    return matches[0];
+  }
+}
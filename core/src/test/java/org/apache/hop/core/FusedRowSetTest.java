@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.row.RowMeta;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FusedRowSetTest {
+  FusedRowSet rowSet;
+  List<Object[]> consumed;
+
+  @Before
+  public void setup() {
+    rowSet = new FusedRowSet();
+    rowSet.setThreadNameFromToCopy("from", 0, "to", 0);
+    consumed = new ArrayList<>();
+    rowSet.setConsumer(() -> consumed.add(rowSet.getRowWait(1, TimeUnit.SECONDS)));
+  }
+
+  @Test
+  public void testPutRowRunsConsumer() {
+    Object[] row1 = new Object[] {"a"};
+    Object[] row2 = new Object[] {"b"};
+    assertTrue(rowSet.putRow(new RowMeta(), row1));
+    assertTrue(rowSet.putRowWait(new RowMeta(), row2, 1, TimeUnit.SECONDS));
+
+    assertEquals(2, consumed.size());
+    assertSame(row1, consumed.get(0));
+    assertSame(row2, consumed.get(1));
+    assertEquals(0, rowSet.size());
+  }
+
+  @Test
+  public void testUnreadRowIsDropped() {
+    rowSet.setConsumer(() -> assertEquals(1, rowSet.size()));
+    rowSet.putRow(new RowMeta(), new Object[] {"a"});
+    assertEquals(0, rowSet.size());
+    assertNull(rowSet.getRowImmediate());
+  }
+
+  @Test
+  public void testDone() {
+    rowSet.setDone();
+    assertNull(rowSet.getRowWait(1, TimeUnit.SECONDS));
+    rowSet.clear();
+    assertFalse(rowSet.isDone());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReadingWithoutRowFails() {
+    rowSet.getRowWait(1, TimeUnit.SECONDS);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPutRowWithoutConsumerFails() {
+    rowSet.setConsumer(null);
+    rowSet.putRow(new RowMeta(), new Object[] {"a"});
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+/** Test class for the basic functionality of the lock-free ring buffer row set. */
+public class RingBufferRowSetTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rm = new RowMeta();
+    rm.addValueMeta(new ValueMetaInteger("ROWNR"));
+    return rm;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    IRowSet set = new RingBufferRowSet(10);
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testFifoOrderAndSize() {
+    IRowSet set = new RingBufferRowSet(4);
+    IRowMeta rm = createRowMeta();
+
+    for (long i = 0; i < 4; i++) {
+      assertTrue(set.putRow(rm, new Object[] {i}));
+    }
+    assertEquals(4, set.size());
+    assertEquals(rm, set.getRowMeta());
+
+    // The buffer is full, we should time out
+    //
+    assertFalse(set.putRowWait(rm, new Object[] {4L}, 10, TimeUnit.MILLISECONDS));
+
+    assertEquals(0L, set.getRow()[0]);
+    assertEquals(1L, set.getRowImmediate()[0]);
+    assertEquals(2, set.size());
+
+    // Wrap around the end of the ring
+    //
+    assertTrue(set.putRow(rm, new Object[] {4L}));
+    assertTrue(set.putRow(rm, new Object[] {5L}));
+    for (long i = 2; i < 6; i++) {
+      assertEquals(i, set.getRowWait(10, TimeUnit.MILLISECONDS)[0]);
+    }
+    assertEquals(0, set.size());
+    assertNull(set.getRowWait(10, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testNullRowIsRefused() {
+    IRowSet set = new RingBufferRowSet(4);
+    assertFalse(set.putRow(createRowMeta(), null));
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testClear() {
+    IRowSet set = new RingBufferRowSet(4);
+    IRowMeta rm = createRowMeta();
+    set.putRow(rm, new Object[] {1L});
+    set.setDone();
+
+    set.clear();
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+  }
+
+  /** Pass a lot of rows from one thread to another through a small buffer. */
+  @Test
+  public void testProducerConsumer() throws Exception {
+    final int nrRows = 200_000;
+    final IRowSet set = new RingBufferRowSet(16);
+    final IRowMeta rm = createRowMeta();
+    final AtomicReference<String> failure = new AtomicReference<>();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < nrRows; i++) {
+                Object[] row = new Object[] {i};
+                while (!set.putRow(rm, row)) {
+                  // Retry like BaseTransform does when the row set is full
+                }
+              }
+              set.setDone();
+            });
+    producer.start();
+
+    long expected = 0;
+    while (true) {
+      Object[] row = set.getRow();
+      if (row == null) {
+        if (set.isDone() && set.size() == 0) {
+          break;
+        }
+        continue;
+      }
+      if ((Long) row[0] != expected) {
+        failure.set("Expected row " + expected + " but got " + row[0]);
+        break;
+      }
+      expected++;
+    }
+    producer.join();
+
+    assertNull(failure.get());
+    assertEquals(nrRows, expected);
+  }
+}
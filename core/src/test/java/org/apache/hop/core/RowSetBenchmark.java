@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.Benchmark;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Hands rows from one thread to another through each row set type, the way a transform writes to
+ * and reads from a hop.
+ */
+public class RowSetBenchmark {
+  @Rule public Benchmark benchmark = new Benchmark();
+
+  private final long rows = Benchmark.size("rows", 20_000_000L);
+
+  @Test
+  public void blockingRowSet() throws Exception {
+    measure("BlockingRowSet", BlockingRowSet::new);
+  }
+
+  @Test
+  public void blockingBatchingRowSet() throws Exception {
+    measure("BlockingBatchingRowSet", BlockingBatchingRowSet::new);
+  }
+
+  @Test
+  public void ringBufferRowSet() throws Exception {
+    measure("RingBufferRowSet", RingBufferRowSet::new);
+  }
+
+  private void measure(String name, IntFunction<IRowSet> rowSetFactory) throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    Object[] row = new Object[] {1L};
+
+    benchmark.measure(
+        name,
+        rows,
+        () -> {
+          IRowSet rowSet = rowSetFactory.apply(Const.ROWS_IN_ROWSET);
+          Thread producer =
+              new Thread(
+                  () -> {
+                    for (long i = 0; i < rows; i++) {
+                      while (!rowSet.putRowWait(
+                          rowMeta, row, Const.TIMEOUT_PUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        // The consumer is behind, try again
+                      }
+                    }
+                    rowSet.setDone();
+                  });
+          producer.start();
+
+          long received = 0;
+          while (true) {
+            Object[] next = rowSet.getRowWait(Const.TIMEOUT_GET_MILLIS, TimeUnit.MILLISECONDS);
+            if (next != null) {
+              received++;
+            } else if (rowSet.isDone() && rowSet.size() == 0) {
+              break;
+            }
+          }
+          producer.join();
+          assertEquals(rows, received);
+        });
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class LookupCacheTest {
+
+  private static IRowMeta integerKey() {
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    return keyMeta;
+  }
+
+  @Test
+  public void testKeyEncoding() throws Exception {
+    assertTrue(new RowKeyEncoder(integerKey()).encode(new Object[] {1L}) instanceof Long);
+
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaString("code"));
+    keyMeta.addValueMeta(new ValueMetaNumber("amount"));
+    RowKeyEncoder encoder = new RowKeyEncoder(keyMeta);
+    Object key = encoder.encode(new Object[] {"a", 1.5});
+    assertFalse(key instanceof RowMetaAndData);
+    assertEquals(key, encoder.encode(new Object[] {"a", 1.5}));
+    assertFalse(key.equals(encoder.encode(new Object[] {"a", 2.5})));
+    // Empty strings are null values
+    assertEquals(
+        encoder.encode(new Object[] {"", null}), encoder.encode(new Object[] {null, null}));
+
+    IRowMeta bigNumberKey = new RowMeta();
+    bigNumberKey.addValueMeta(new ValueMetaBigNumber("amount"));
+    assertTrue(
+        new RowKeyEncoder(bigNumberKey).encode(new Object[] {null}) instanceof RowMetaAndData);
+  }
+
+  @Test
+  public void testUnbounded() throws Exception {
+    LookupCache<String> cache = new LookupCache<>(integerKey(), 0, 0, 1);
+    for (long i = 0; i < 10000; i++) {
+      cache.put(new Object[] {i}, "value " + i);
+    }
+    cache.put(new Object[] {null}, "null");
+    cache.put(new Object[] {1L}, null);
+
+    assertEquals(10001, cache.size());
+    assertEquals("value 1", cache.get(new Object[] {1L}));
+    assertEquals("null", cache.get(new Object[] {null}));
+    assertNull(cache.get(new Object[] {-1L}));
+    assertEquals(2, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(0, cache.getEvictions());
+  }
+
+  @Test
+  public void testMaximumSize() throws Exception {
+    LookupCache<String> cache = new LookupCache<>(integerKey(), 100, 0, 1);
+    for (long i = 0; i < 1000; i++) {
+      cache.put(new Object[] {i}, "value " + i);
+    }
+    assertEquals(100, cache.size());
+    assertEquals(900, cache.getEvictions());
+  }
+
+  @Test
+  public void testFrequentKeysStayCached() throws Exception {
+    LookupCache<String> cache = new LookupCache<>(integerKey(), 100, 0, 1);
+    // A few keys are used all the time, a lot of other keys only once
+    long oneTimeKey = 1000;
+    for (int round = 0; round < 100; round++) {
+      for (long hot = 0; hot < 20; hot++) {
+        if (cache.get(new Object[] {hot}) == null) {
+          cache.put(new Object[] {hot}, "hot " + hot);
+        }
+      }
+      for (int i = 0; i < 50; i++) {
+        long key = oneTimeKey++;
+        if (cache.get(new Object[] {key}) == null) {
+          cache.put(new Object[] {key}, "cold " + key);
+        }
+      }
+    }
+    for (long hot = 0; hot < 20; hot++) {
+      assertEquals("hot " + hot, cache.get(new Object[] {hot}));
+    }
+    assertTrue(cache.size() <= 100);
+  }
+
+  @Test
+  public void testMaximumBytes() throws Exception {
+    LookupCache<Object[]> cache = new LookupCache<>(integerKey(), 0, 10000, 1);
+    for (long i = 0; i < 1000; i++) {
+      cache.put(new Object[] {i}, new Object[] {"a value of some length " + i});
+    }
+    assertTrue(cache.getEstimatedBytes() <= 10000);
+    assertTrue(cache.getEstimatedBytes() > 0);
+    assertTrue(cache.size() < 1000);
+    assertEquals(1000, cache.size() + cache.getEvictions());
+  }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    LookupCache<Long> cache = new LookupCache<>(integerKey(), 1000, 0, 4);
+    List<Thread> threads = new ArrayList<>();
+    List<Throwable> errors = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      threads.add(
+          new Thread(
+              () -> {
+                try {
+                  for (long i = 0; i < 20000; i++) {
+                    Object[] key = new Object[] {i % 2000};
+                    Long value = cache.get(key);
+                    if (value == null) {
+                      cache.put(key, i % 2000);
+                    } else if (value != i % 2000) {
+                      throw new IllegalStateException("Wrong value " + value + " for " + key[0]);
+                    }
+                  }
+                } catch (Throwable e) {
+                  synchronized (errors) {
+                    errors.add(e);
+                  }
+                }
+              }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(errors.toString(), errors.isEmpty());
+    assertTrue(cache.size() <= 1000);
+    assertEquals(80000, cache.getHits() + cache.getMisses());
+  }
+
+  @Test
+  public void testAcquireRelease() {
+    Map<String, Object> sharedCaches = new HashMap<>();
+    LookupCache<String> first =
+        LookupCache.acquire(sharedCaches, "lookup", () -> new LookupCache<>(integerKey(), 0, 0, 2));
+    LookupCache<String> second =
+        LookupCache.acquire(sharedCaches, "lookup", () -> new LookupCache<>(integerKey(), 0, 0, 2));
+    assertSame(first, second);
+    assertEquals(1, sharedCaches.size());
+
+    first.release(sharedCaches, "lookup");
+    assertEquals(1, sharedCaches.size());
+    second.release(sharedCaches, "lookup");
+    assertTrue(sharedCaches.isEmpty());
+  }
+}
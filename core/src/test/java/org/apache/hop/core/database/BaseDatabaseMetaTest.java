@@ -127,6 +127,8 @@ public class BaseDatabaseMetaTest {
     assertTrue(nativeMeta.isSupportsNewLinesInSql());
     assertNull(nativeMeta.getSqlListOfSchemas());
     assertEquals(0, nativeMeta.getMaxColumnsInIndex());
+    assertEquals(0, nativeMeta.getMaxInListSize());
+    assertEquals(0, nativeMeta.getMaxStatementParameters());
     assertTrue(nativeMeta.IsSupportsErrorHandlingOnBatchUpdates());
     assertTrue(nativeMeta.isExplorable());
     assertTrue(nativeMeta.onlySpaces("   \t   \n  \r   "));
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.spill;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaInternetAddress;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+/** Round trips rows through the spill file writer and reader. */
+public class RowSpillWriterTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("string"));
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    rowMeta.addValueMeta(new ValueMetaNumber("number"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("bignumber"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("boolean"));
+    rowMeta.addValueMeta(new ValueMetaBinary("binary"));
+    rowMeta.addValueMeta(new ValueMetaInternetAddress("inet"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("timestamp"));
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows(int count) throws Exception {
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Object[] row =
+          new Object[] {
+            "row " + i + " \u00e9\u4e2d",
+            (long) i * (i % 2 == 0 ? 1 : -1) * 1000003L,
+            i / 7.0,
+            new Date(1700000000000L + i),
+            new BigDecimal("12345678901234567890.123").add(BigDecimal.valueOf(i)),
+            i % 3 == 0,
+            new byte[] {(byte) i, 1, 2},
+            InetAddress.getByAddress(new byte[] {10, 0, 0, (byte) i}),
+            new Timestamp(1700000000000L + i)
+          };
+      // Sprinkle some null values over the rows
+      //
+      row[i % row.length] = null;
+      rows.add(row);
+    }
+    // A row with only null values
+    //
+    rows.add(new Object[rows.get(0).length]);
+    return rows;
+  }
+
+  private void assertRoundTrip(SpillCodec codec, int blockSize) throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    List<Object[]> rows = createRows(500);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (RowSpillWriter writer = new RowSpillWriter(rowMeta, bytes, codec, blockSize)) {
+      for (Object[] row : rows) {
+        writer.writeRow(row);
+      }
+      assertEquals(rows.size(), writer.getRowCount());
+    }
+
+    try (RowSpillReader reader =
+        new RowSpillReader(rowMeta, new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertEquals(codec, reader.getCodec());
+      for (Object[] expected : rows) {
+        Object[] actual = reader.readRow();
+        for (int i = 0; i < expected.length; i++) {
+          assertEquals(0, rowMeta.getValueMeta(i).compare(expected[i], actual[i]));
+        }
+      }
+      assertNull(reader.readRow());
+      assertNull(reader.readRow());
+    }
+  }
+
+  @Test
+  public void testRoundTripUncompressed() throws Exception {
+    assertRoundTrip(SpillCodec.NONE, RowSpillWriter.DEFAULT_BLOCK_SIZE);
+  }
+
+  @Test
+  public void testRoundTripSmallBlocks() throws Exception {
+    assertRoundTrip(SpillCodec.NONE, 1024);
+  }
+
+  @Test
+  public void testRoundTripGzip() throws Exception {
+    assertRoundTrip(SpillCodec.GZIP, RowSpillWriter.DEFAULT_BLOCK_SIZE);
+  }
+
+  @Test
+  public void testRoundTripLz4() throws Exception {
+    assertRoundTrip(SpillCodec.LZ4, 1024);
+  }
+
+  @Test
+  public void testRoundTripSnappy() throws Exception {
+    assertRoundTrip(SpillCodec.SNAPPY, 1024);
+  }
+
+  @Test
+  public void testEmptyFile() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new RowSpillWriter(rowMeta, bytes, SpillCodec.LZ4).close();
+
+    try (RowSpillReader reader =
+        new RowSpillReader(rowMeta, new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertNull(reader.readRow());
+    }
+  }
+
+  private byte[] writeSpillFile(IRowMeta rowMeta, SpillCodec codec) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (RowSpillWriter writer = new RowSpillWriter(rowMeta, bytes, codec, 1024)) {
+      for (Object[] row : createRows(500)) {
+        writer.writeRow(row);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private void assertTruncated(IRowMeta rowMeta, byte[] bytes) throws Exception {
+    try (RowSpillReader reader = new RowSpillReader(rowMeta, new ByteArrayInputStream(bytes))) {
+      while (reader.readRow() != null) {
+        // Read all rows
+      }
+      fail("A truncated spill file of " + bytes.length + " bytes was read without error");
+    } catch (HopFileException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testTruncatedFile() throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+
+    // Without compression: cut off the end marker, part of it and half of the file
+    //
+    byte[] bytes = writeSpillFile(rowMeta, SpillCodec.NONE);
+    assertTruncated(rowMeta, Arrays.copyOf(bytes, bytes.length - 8));
+    assertTruncated(rowMeta, Arrays.copyOf(bytes, bytes.length - 3));
+    assertTruncated(rowMeta, Arrays.copyOf(bytes, bytes.length / 2));
+
+    for (SpillCodec codec : new SpillCodec[] {SpillCodec.GZIP, SpillCodec.LZ4}) {
+      bytes = writeSpillFile(rowMeta, codec);
+      assertTruncated(rowMeta, Arrays.copyOf(bytes, bytes.length / 2));
+    }
+  }
+
+  @Test
+  public void testStreamClosedWhenHeaderFails() {
+    AtomicBoolean closed = new AtomicBoolean();
+    OutputStream failing =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            throw new IOException("Disk full");
+          }
+
+          @Override
+          public void close() {
+            closed.set(true);
+          }
+        };
+    assertThrows(
+        HopFileException.class,
+        () -> new RowSpillWriter(createRowMeta(), failing, SpillCodec.NONE));
+    assertTrue(closed.get());
+
+    closed.set(false);
+    InputStream truncated =
+        new ByteArrayInputStream(new byte[] {'H', 'S'}) {
+          @Override
+          public void close() {
+            closed.set(true);
+          }
+        };
+    assertThrows(HopFileException.class, () -> new RowSpillReader(createRowMeta(), truncated));
+    assertTrue(closed.get());
+  }
+
+  @Test(expected = HopFileException.class)
+  public void testNotASpillFile() throws Exception {
+    new RowSpillReader(createRowMeta(), new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6}));
+  }
+
+  @Test
+  public void testGetCodec() {
+    Variables variables = new Variables();
+    assertEquals(SpillCodec.GZIP, SpillCodec.getCodec(variables, true));
+    assertEquals(SpillCodec.NONE, SpillCodec.getCodec(variables, false));
+
+    variables.setVariable(Const.HOP_SPILL_FILE_CODEC, "snappy");
+    assertEquals(SpillCodec.SNAPPY, SpillCodec.getCodec(variables, false));
+
+    variables.setVariable(Const.HOP_SPILL_FILE_CODEC, "unknown");
+    assertEquals(SpillCodec.GZIP, SpillCodec.getCodec(variables, true));
+
+    assertArrayEquals(
+        SpillCodec.values(),
+        new SpillCodec[] {
+          SpillCodec.lookupId(0),
+          SpillCodec.lookupId(1),
+          SpillCodec.lookupId(2),
+          SpillCodec.lookupId(3),
+          SpillCodec.lookupId(4)
+        });
+  }
+}
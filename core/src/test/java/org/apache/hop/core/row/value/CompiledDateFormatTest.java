@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class CompiledDateFormatTest {
+  private static final String[] PATTERNS = {
+    "yyyy/MM/dd HH:mm:ss.SSS",
+    "yyyy-MM-dd",
+    "yyyyMMddHHmmss",
+    "dd/MM/yyyy HH:mm",
+    "yyyy-MM-dd'T'HH:mm"
+  };
+  private static final String[] TIME_ZONES = {
+    "UTC", "Europe/Brussels", "America/New_York", "Asia/Kolkata", "Australia/Lord_Howe"
+  };
+
+  private SimpleDateFormat createFormat(String pattern, String timeZone, boolean lenient) {
+    SimpleDateFormat format = new SimpleDateFormat(pattern);
+    format.setTimeZone(TimeZone.getTimeZone(timeZone));
+    format.setLenient(lenient);
+    return format;
+  }
+
+  private void assertSameParse(SimpleDateFormat expected, CompiledDateFormat actual, String text) {
+    ParsePosition expectedPosition = new ParsePosition(0);
+    ParsePosition actualPosition = new ParsePosition(0);
+    Date expectedDate = expected.parse(text, expectedPosition);
+    Date actualDate = actual.parse(text, actualPosition);
+    assertEquals(text, expectedDate, actualDate);
+    assertEquals(text, expectedPosition.getErrorIndex(), actualPosition.getErrorIndex());
+    if (expectedDate != null) {
+      assertEquals(text, expectedPosition.getIndex(), actualPosition.getIndex());
+    }
+  }
+
+  @Test
+  public void testSameResultsAsSimpleDateFormat() {
+    Random random = new Random(1234);
+    for (String timeZone : TIME_ZONES) {
+      for (String pattern : PATTERNS) {
+        for (boolean lenient : new boolean[] {false, true}) {
+          SimpleDateFormat format = createFormat(pattern, timeZone, lenient);
+          CompiledDateFormat compiled = new CompiledDateFormat(format);
+          for (int i = 0; i < 5000; i++) {
+            // Dates between 1811 and 2128, a quarter of them near a full hour
+            long time = (long) ((random.nextDouble() * 2 - 1.1) * 5e12);
+            if (i % 4 == 0) {
+              time = time - time % 3_600_000L + random.nextInt(7_200_000);
+            }
+            Date date = new Date(time);
+            String text = format.format(date);
+            assertEquals(pattern, text, compiled.format(date));
+
+            assertSameParse(format, compiled, text);
+            // Invalid dates and trailing text are left to the date format
+            char[] chars = text.toCharArray();
+            chars[random.nextInt(chars.length)] = (char) ('0' + random.nextInt(10));
+            assertSameParse(format, compiled, new String(chars));
+            assertSameParse(format, compiled, text + " 12:00");
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testDaylightSavingTransitions() {
+    SimpleDateFormat format = createFormat("yyyy-MM-dd HH:mm", "Europe/Brussels", false);
+    CompiledDateFormat compiled = new CompiledDateFormat(format);
+    // Doesn't exist
+    assertSameParse(format, compiled, "2024-03-31 02:30");
+    // Exists twice
+    assertSameParse(format, compiled, "2024-10-27 02:30");
+    assertSameParse(format, compiled, "2024-10-27 12:00");
+    assertNull(compiled.parse("2024-02-30 12:00", new ParsePosition(0)));
+  }
+
+  @Test
+  public void testUnsupportedPatterns() {
+    Random random = new Random(5678);
+    for (String pattern : new String[] {"yy/M/d h:mm a", "EEE, d MMM yyyy", "yyyy-MM-dd''HH"}) {
+      SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+      CompiledDateFormat compiled = new CompiledDateFormat(format);
+      assertEquals(pattern, compiled.toPattern());
+      for (int i = 0; i < 100; i++) {
+        Date date = new Date((long) (random.nextDouble() * 2e12));
+        String text = format.format(date);
+        assertEquals(text, compiled.format(date));
+        assertSameParse(format, compiled, text);
+      }
+    }
+  }
+
+  @Test
+  public void testCopyIsNotAffectedByChanges() {
+    SimpleDateFormat format = createFormat("yyyy-MM-dd", "UTC", false);
+    CompiledDateFormat compiled = new CompiledDateFormat(format);
+    format.applyPattern("dd/MM/yyyy");
+    assertEquals("1970-01-02", compiled.format(new Date(86_400_000L)));
+    assertNotEquals(format.toPattern(), compiled.toPattern());
+  }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    SimpleDateFormat format = new SimpleDateFormat("dd MMM yyyy HH:mm:ss", Locale.US);
+    CompiledDateFormat compiled = new CompiledDateFormat(format);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        final int seed = t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  SimpleDateFormat own = (SimpleDateFormat) format.clone();
+                  Random random = new Random(seed);
+                  for (int i = 0; i < 10000; i++) {
+                    Date date = new Date((random.nextLong() % 2_000_000_000L) * 1000L);
+                    String text = compiled.format(date);
+                    if (!text.equals(own.format(date))
+                        || !own.parse(text).equals(compiled.parse(text, new ParsePosition(0)))) {
+                      return false;
+                    }
+                  }
+                  return true;
+                }));
+      }
+      for (Future<Boolean> future : futures) {
+        assertEquals(Boolean.TRUE, future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Test;
+
+public class CompiledDecimalFormatTest {
+  private static final String[] MASKS = {
+    "####0", "####0.0#########", "#,##0.###", "0000", " 000;-000", "#0.00", "##0.#%"
+  };
+  private static final Locale[] LOCALES = {
+    Locale.US, Locale.GERMANY, Locale.FRANCE, new Locale("sv", "SE"), new Locale("ar", "EG")
+  };
+
+  private DecimalFormat createFormat(
+      Locale locale, String mask, boolean parseBigDecimal, boolean parseIntegerOnly) {
+    DecimalFormat format = (DecimalFormat) NumberFormat.getInstance(locale);
+    format.setParseBigDecimal(parseBigDecimal);
+    format.applyPattern(mask);
+    format.setParseIntegerOnly(parseIntegerOnly);
+    return format;
+  }
+
+  private String randomNumber(Random random, char decimalSeparator) {
+    StringBuilder builder = new StringBuilder();
+    if (random.nextInt(3) == 0) {
+      builder.append('-');
+    }
+    int digits = 1 + random.nextInt(21);
+    for (int i = 0; i < digits; i++) {
+      builder.append((char) ('0' + (random.nextInt(3) == 0 ? 0 : random.nextInt(10))));
+    }
+    if (random.nextBoolean()) {
+      builder.append(random.nextInt(10) == 0 ? '.' : decimalSeparator);
+      int fractionDigits = random.nextInt(12);
+      for (int i = 0; i < fractionDigits; i++) {
+        builder.append((char) ('0' + (random.nextInt(3) == 0 ? 0 : random.nextInt(10))));
+      }
+    }
+    return builder.toString();
+  }
+
+  @Test
+  public void testSameResultsAsDecimalFormat() throws Exception {
+    Random random = new Random(1234);
+    for (Locale locale : LOCALES) {
+      for (String mask : MASKS) {
+        for (boolean parseBigDecimal : new boolean[] {false, true}) {
+          for (boolean parseIntegerOnly : new boolean[] {false, true}) {
+            DecimalFormat format = createFormat(locale, mask, parseBigDecimal, parseIntegerOnly);
+            CompiledDecimalFormat compiled = new CompiledDecimalFormat(format);
+            char decimalSeparator = format.getDecimalFormatSymbols().getDecimalSeparator();
+
+            for (long value : new long[] {Long.MIN_VALUE, Long.MAX_VALUE, 0L, -1L, 1234567L}) {
+              assertEquals(format.format(value), compiled.format(value));
+            }
+            for (int i = 0; i < 2000; i++) {
+              long value = i % 2 == 0 ? random.nextLong() : random.nextInt(2000) - 1000;
+              assertEquals(mask, format.format(value), compiled.format(value));
+              double number = random.nextGaussian() * 1e6;
+              assertEquals(mask, format.format(number), compiled.format(number));
+
+              // Same numbers of the same types
+              String text = randomNumber(random, decimalSeparator);
+              ParsePosition expectedPosition = new ParsePosition(0);
+              ParsePosition actualPosition = new ParsePosition(0);
+              assertEquals(
+                  text, format.parse(text, expectedPosition), compiled.parse(text, actualPosition));
+              assertEquals(text, expectedPosition.getIndex(), actualPosition.getIndex());
+              assertEquals(text, expectedPosition.getErrorIndex(), actualPosition.getErrorIndex());
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFastPaths() throws Exception {
+    CompiledDecimalFormat compiled =
+        new CompiledDecimalFormat(createFormat(Locale.US, "#,##0.###", false, false));
+    assertEquals(123L, compiled.parseDigits("123"));
+    assertEquals(-12L, compiled.parseDigits("-12.000"));
+    assertEquals(12.5, compiled.parseDigits("12.5"));
+    // Grouping, exponents, negative zero and long numbers are left to the decimal format
+    assertNull(compiled.parseDigits("1,234"));
+    assertNull(compiled.parseDigits("1E5"));
+    assertNull(compiled.parseDigits("-0"));
+    assertNull(compiled.parseDigits("1234567890123456789"));
+    assertEquals(1234L, compiled.parse("1,234"));
+    assertEquals("1,234,567", compiled.format(1234567L));
+  }
+
+  @Test
+  public void testPreciseFormat() {
+    DecimalFormat format = createFormat(Locale.US, "0.00", false, false);
+    CompiledDecimalFormat compiled = new CompiledDecimalFormat(format);
+    assertEquals("0.33", compiled.format(1.0 / 3));
+    assertTrue(compiled.getPreciseFormat().format(1.0 / 3).startsWith("0.333333333333333"));
+    assertEquals(
+        "12345678901234567890.12", compiled.format(new BigDecimal("12345678901234567890.123")));
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.junit.rules.Benchmark;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Converts values between strings, dates and numbers with a conversion mask. All threads share one
+ * value metadata, the way the copies of a transform like CSV Input do.
+ */
+public class ValueConversionBenchmark {
+  private static final int VALUES = 1000;
+
+  @Rule public Benchmark benchmark = new Benchmark();
+
+  private final long conversions = Benchmark.size("conversions", 2_000_000L);
+  private final int threads = (int) Benchmark.size("threads", 1);
+
+  /** Converts the value with the given index, there are {@link #VALUES} different values */
+  @FunctionalInterface
+  private interface Conversion {
+    void convert(int index) throws Exception;
+  }
+
+  @Test
+  public void stringToDate() throws Exception {
+    IValueMeta meta = stringMeta("yyyy/MM/dd HH:mm:ss.SSS");
+    String[] values = new String[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      values[i] =
+          String.format(
+              "2024/%02d/%02d 12:%02d:%02d.%03d", i % 12 + 1, i % 28 + 1, i % 60, i % 59, i);
+    }
+    measure("String to Date, yyyy/MM/dd HH:mm:ss.SSS", index -> meta.getDate(values[index]));
+  }
+
+  @Test
+  public void stringToDateWithOtherMask() throws Exception {
+    IValueMeta meta = stringMeta("d MMM yyyy HH:mm");
+    String[] values = new String[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = String.format("%d Mar 2024 %02d:%02d", i % 28 + 1, i % 24, i % 60);
+    }
+    measure("String to Date, d MMM yyyy HH:mm", index -> meta.getDate(values[index]));
+  }
+
+  @Test
+  public void dateToString() throws Exception {
+    IValueMeta meta = new ValueMetaDate("date");
+    meta.setConversionMask("yyyy/MM/dd HH:mm:ss.SSS");
+    Date[] values = new Date[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = new Date(1_700_000_000_000L + i * 86_399_999L);
+    }
+    measure("Date to String, yyyy/MM/dd HH:mm:ss.SSS", index -> meta.getString(values[index]));
+  }
+
+  @Test
+  public void stringToInteger() throws Exception {
+    IValueMeta meta = stringMeta("#");
+    String[] values = new String[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = Long.toString(i * 7_919L - 100_000L);
+    }
+    measure("String to Integer, #", index -> meta.getInteger(values[index]));
+  }
+
+  @Test
+  public void integerToString() throws Exception {
+    IValueMeta meta = new ValueMetaInteger("integer");
+    meta.setConversionMask("#");
+    Long[] values = new Long[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = i * 7_919L - 100_000L;
+    }
+    measure("Integer to String, #", index -> meta.getString(values[index]));
+  }
+
+  @Test
+  public void stringToNumber() throws Exception {
+    IValueMeta meta = stringMeta("#.#");
+    String[] values = new String[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = (i * 7_919L - 100_000L) + "." + i % 10;
+    }
+    measure("String to Number, #.#", index -> meta.getNumber(values[index]));
+  }
+
+  @Test
+  public void numberToString() throws Exception {
+    IValueMeta meta = new ValueMetaNumber("number");
+    meta.setConversionMask("#.##");
+    Double[] values = new Double[VALUES];
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = i * 79.19 - 1000;
+    }
+    measure("Number to String, #.##", index -> meta.getString(values[index]));
+  }
+
+  private static IValueMeta stringMeta(String conversionMask) {
+    IValueMeta meta = new ValueMetaString("string");
+    meta.setConversionMask(conversionMask);
+    return meta;
+  }
+
+  private void measure(String name, Conversion conversion) throws Exception {
+    long perThread = conversions / threads;
+    benchmark.measure(
+        String.format("%s, %d thread(s)", name, threads),
+        perThread * threads,
+        () -> {
+          List<Thread> workers = new ArrayList<>();
+          List<Exception> errors = new ArrayList<>();
+          for (int t = 0; t < threads; t++) {
+            Thread worker =
+                new Thread(
+                    () -> {
+                      try {
+                        for (long i = 0; i < perThread; i++) {
+                          conversion.convert((int) (i % VALUES));
+                        }
+                      } catch (Exception e) {
+                        synchronized (errors) {
+                          errors.add(e);
+                        }
+                      }
+                    });
+            workers.add(worker);
+            worker.start();
+          }
+          for (Thread worker : workers) {
+            worker.join();
+          }
+          if (!errors.isEmpty()) {
+            throw errors.get(0);
+          }
+        });
+  }
+}
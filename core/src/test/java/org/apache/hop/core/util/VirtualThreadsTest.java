@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class VirtualThreadsTest {
+
+  private boolean runInThread(boolean virtual) throws InterruptedException {
+    AtomicBoolean ranVirtual = new AtomicBoolean();
+    AtomicBoolean ran = new AtomicBoolean();
+    Thread thread =
+        VirtualThreads.newThread(
+            () -> {
+              ran.set(true);
+              ranVirtual.set(VirtualThreads.isVirtual(Thread.currentThread()));
+            },
+            "test thread",
+            virtual);
+    assertEquals("test thread", thread.getName());
+    thread.start();
+    thread.join();
+    assertTrue(ran.get());
+    return ranVirtual.get();
+  }
+
+  @Test
+  public void testPlatformThread() throws Exception {
+    assertFalse(runInThread(false));
+    assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+  }
+
+  @Test
+  public void testVirtualThread() throws Exception {
+    // Falls back to a platform thread on Java runtimes without virtual threads
+    assertEquals(VirtualThreads.isSupported(), runInThread(true));
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.variables;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+import org.apache.hop.junit.rules.Benchmark;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Resolves strings against one variable space from several threads, the way transform copies
+ * resolve a URL or a file name per row against their shared parent.
+ */
+public class VariablesBenchmark {
+  private static final int STRINGS = 100;
+
+  @Rule public Benchmark benchmark = new Benchmark();
+
+  private final long resolves = Benchmark.size("resolves", 10_000_000L);
+  private final int threads = (int) Benchmark.size("threads", 8);
+
+  private IVariables variables;
+
+  @Before
+  public void setUp() {
+    variables = new Variables();
+    variables.initializeFrom(null);
+    variables.setVariable("BASE_URL", "https://api.example.com");
+    variables.setVariable("VERSION", "v2");
+  }
+
+  @Test
+  public void stringsWithVariables() throws Exception {
+    String[] strings = new String[STRINGS];
+    for (int i = 0; i < STRINGS; i++) {
+      strings[i] = "${BASE_URL}/${VERSION}/items/" + i;
+    }
+    measure(
+        String.format("%d strings with variables", STRINGS),
+        i -> strings[(int) (i % STRINGS)],
+        "https://api.example.com/v2/items/");
+  }
+
+  @Test
+  public void uniqueStringsWithVariables() throws Exception {
+    measure(
+        "A new string with variables each time",
+        i -> "${BASE_URL}/${VERSION}/items/" + i,
+        "https://api.example.com/v2/items/");
+  }
+
+  @Test
+  public void stringsWithoutVariables() throws Exception {
+    String[] strings = new String[STRINGS];
+    for (int i = 0; i < STRINGS; i++) {
+      strings[i] = "/data/input/file" + i + ".csv";
+    }
+    measure(
+        String.format("%d strings without variables", STRINGS),
+        i -> strings[(int) (i % STRINGS)],
+        "/data/input/file");
+  }
+
+  private void measure(String name, LongFunction<String> string, String expectedPrefix)
+      throws Exception {
+    assertEquals(true, variables.resolve(string.apply(0)).startsWith(expectedPrefix));
+    long perThread = resolves / threads;
+    benchmark.measure(
+        String.format("%s, %d threads", name, threads),
+        perThread * threads,
+        () -> {
+          List<Thread> workers = new ArrayList<>();
+          for (int t = 0; t < threads; t++) {
+            long first = t * perThread;
+            Thread worker =
+                new Thread(
+                    () -> {
+                      for (long i = first; i < first + perThread; i++) {
+                        variables.resolve(string.apply(i));
+                      }
+                    });
+            workers.add(worker);
+            worker.start();
+          }
+          for (Thread worker : workers) {
+            worker.join();
+          }
+        });
+  }
+}
@@ -156,4 +156,78 @@ public class VariablesTest {
         new String[] {"DataOne", "TheDataOne"},
         vars.resolve(new String[] {"${VarOne}", "The${VarOne}"}));
   }
+
+  @Test
+  public void testResolveNestedAndWindowsVariables() {
+    Variables vars = new Variables();
+    vars.setVariable("Dir", "/data/%%Year%%");
+    vars.setVariable("Year", "2024");
+    vars.setVariable("File", "${Dir}/in.csv");
+    vars.setVariable("YearRef", "${Year}");
+
+    // Windows variables are substituted before Unix variables
+    assertEquals("/data/%%Year%%/in.csv", vars.resolve("${File}"));
+    assertEquals("2024", vars.resolve("%%YearRef%%"));
+    assertEquals("2024/2024", vars.resolve("${YearRef}/%%YearRef%%"));
+    assertEquals("${Unknown}-%%Unknown%%", vars.resolve("${Unknown}-%%Unknown%%"));
+    assertEquals("AB", vars.resolve("$[41,42]"));
+    assertEquals("100% sure", vars.resolve("100% sure"));
+  }
+
+  @Test
+  public void testResolveAfterVariableChange() {
+    Variables vars = new Variables();
+    vars.setVariable("Host", "one");
+    assertEquals("http://one/api", vars.resolve("http://${Host}/api"));
+    assertEquals("http://one/api", vars.resolve("http://${Host}/api"));
+
+    vars.setVariable("Host", "two");
+    assertEquals("http://two/api", vars.resolve("http://${Host}/api"));
+
+    vars.setVariable("Host", null);
+    assertNull(vars.getVariable("Host"));
+    assertEquals("http://${Host}/api", vars.resolve("http://${Host}/api"));
+
+    vars.setVariables(Map.of("Host", "three"));
+    vars.initializeFrom(null);
+    assertEquals("http://three/api", vars.resolve("http://${Host}/api"));
+
+    Variables other = new Variables();
+    other.setVariable("Host", "four");
+    vars.copyFrom(other);
+    assertEquals("http://four/api", vars.resolve("http://${Host}/api"));
+
+    vars.setVariables(Map.of("Host", "five"));
+    assertEquals("http://five/api", vars.resolve("http://${Host}/api"));
+  }
+
+  @Test
+  public void testConcurrentResolveAndChange() throws Exception {
+    Variables vars = new Variables();
+    vars.setVariable("Counter", "0");
+    int threads = 8;
+    List<Callable<Boolean>> callables = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      callables.add(
+          () -> {
+            for (int i = 0; i < 10000; i++) {
+              String value = vars.resolve("value-${Counter}");
+              assertTrue(value, value.startsWith("value-") && !value.contains("${"));
+            }
+            return true;
+          });
+    }
+    callables.add(
+        () -> {
+          for (int i = 1; i <= 1000; i++) {
+            vars.setVariable("Counter", Integer.toString(i));
+          }
+          return true;
+        });
+    for (Future<Boolean> result : Executors.newFixedThreadPool(threads + 1).invokeAll(callables)) {
+      assertTrue(result.get());
+    }
+    // Once the changes are done the last value is always resolved
+    assertEquals("value-1000", vars.resolve("value-${Counter}"));
+  }
 }
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.vfs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.apache.commons.vfs2.FileObject;
+import org.junit.Test;
+
+public class FileObjectCacheTest {
+
+  @Test
+  public void testGetAndPut() {
+    FileObjectCache cache = new FileObjectCache(100);
+    FileObject fileObject = mock(FileObject.class);
+    assertNull(cache.get("ram:///a.txt"));
+    cache.put("ram:///a.txt", fileObject);
+    assertSame(fileObject, cache.get("ram:///a.txt"));
+    assertNull(cache.get("ram:///b.txt"));
+    assertEquals(1, cache.size());
+    cache.clear();
+    assertNull(cache.get("ram:///a.txt"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testSizeIsBounded() {
+    FileObjectCache cache = new FileObjectCache(64);
+    for (int i = 0; i < 10000; i++) {
+      cache.put("file:///tmp/file" + i, mock(FileObject.class));
+    }
+    // Every stripe keeps its share of the maximum size
+    assertTrue(cache.size() > 0);
+    assertTrue(cache.size() <= 64);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    FileObjectCache cache = new FileObjectCache(1);
+    FileObject first = mock(FileObject.class);
+    cache.put("first", first);
+    cache.put("second", mock(FileObject.class));
+    assertNull(cache.get("first"));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testDisabled() {
+    FileObjectCache cache = new FileObjectCache(0);
+    cache.put("ram:///a.txt", mock(FileObject.class));
+    assertNull(cache.get("ram:///a.txt"));
+    assertEquals(0, cache.size());
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.vfs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.junit.rules.Benchmark;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Resolves local and in-memory file names from many threads at the same time. */
+public class HopVfsBenchmark {
+  @Rule public Benchmark benchmark = new Benchmark();
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final long resolves = Benchmark.size("resolves", 1_000_000L);
+  private final int threads = (int) Benchmark.size("threads", 32);
+  private final int files = (int) Benchmark.size("files", 1000);
+  private final long newFiles = Benchmark.size("newFiles", 100_000L);
+
+  @Test
+  public void localFiles() throws Exception {
+    String folder = tempFolder.getRoot().getAbsolutePath();
+    measure(
+        String.format("Local files, %d names", files), i -> folder + "/file" + i % files + ".txt");
+  }
+
+  @Test
+  public void ramFiles() throws Exception {
+    measure(String.format("RAM files, %d names", files), i -> "ram:///benchmark/file" + i % files);
+  }
+
+  @Test
+  public void localFilesResolvedOnce() throws Exception {
+    String folder = tempFolder.getRoot().getAbsolutePath();
+    long[] run = new long[1];
+    measure(
+        "Local files, every name once",
+        newFiles,
+        () -> run[0]++,
+        i -> folder + "/run" + run[0] + "/file" + i + ".txt");
+  }
+
+  private void measure(String name, LongFunction<String> fileName) throws Exception {
+    measure(name, resolves, () -> {}, fileName);
+  }
+
+  private void measure(
+      String name, long resolves, Runnable beforeRun, LongFunction<String> fileName)
+      throws Exception {
+    long perThread = resolves / threads;
+    benchmark.measure(
+        String.format("%s, %d threads", name, threads),
+        perThread * threads,
+        () -> {
+          beforeRun.run();
+          List<Thread> workers = new ArrayList<>();
+          List<HopFileException> errors = new ArrayList<>();
+          for (int t = 0; t < threads; t++) {
+            long first = t * perThread;
+            Thread worker =
+                new Thread(
+                    () -> {
+                      try {
+                        for (long i = first; i < first + perThread; i++) {
+                          HopVfs.getFileObject(fileName.apply(i));
+                        }
+                      } catch (HopFileException e) {
+                        synchronized (errors) {
+                          errors.add(e);
+                        }
+                      }
+                    });
+            workers.add(worker);
+            worker.start();
+          }
+          for (Thread worker : workers) {
+            worker.join();
+          }
+          if (!errors.isEmpty()) {
+            throw errors.get(0);
+          }
+        });
+  }
+}
@@ -17,10 +17,16 @@
 
 package org.apache.hop.core.vfs;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.variables.Variables;
 import org.junit.Test;
@@ -68,4 +74,68 @@ public class HopVfsTest {
       outputStream.write("Test-content".getBytes());
     }
   }
+
+  @Test
+  public void testConcurrentGetFileObject() throws Exception {
+    int threadCount = 8;
+    List<Thread> threads = new ArrayList<>();
+    List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+    for (int t = 0; t < threadCount; t++) {
+      final int thread = t;
+      threads.add(
+          new Thread(
+              () -> {
+                try {
+                  for (int i = 0; i < 1000; i++) {
+                    String filename = "ram:///concurrent/file" + ((i + thread) % 100) + ".txt";
+                    FileObject fileObject = HopVfs.getFileObject(filename);
+                    assertEquals(filename, fileObject.getName().getURI());
+                  }
+                } catch (Throwable e) {
+                  errors.add(e);
+                }
+              }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(errors.toString(), errors.isEmpty());
+
+    // A cached file object still sees changes made through another file object
+    FileObject fileObject = HopVfs.getFileObject("ram:///concurrent/file1.txt");
+    assertFalse(fileObject.exists());
+    try (OutputStream outputStream =
+        HopVfs.getFileObject("ram:///concurrent/file1.txt").getContent().getOutputStream()) {
+      outputStream.write("Test-content".getBytes());
+    }
+    assertTrue(HopVfs.getFileObject("ram:///concurrent/file1.txt").exists());
+    HopVfs.getFileObject("ram:///concurrent").deleteAll();
+  }
+
+  @Test
+  public void testFreeUnusedResourcesClearsCachedFileObjects() throws Exception {
+    FileObject fileObject = HopVfs.getFileObject("ram:///free-unused/file.txt");
+    assertSame(fileObject, HopVfs.getFileObject("ram:///free-unused/file.txt"));
+    assertTrue(HopVfs.getCachedFileObjectCount() > 0);
+
+    HopVfs.freeUnusedResources();
+    assertEquals(0, HopVfs.getCachedFileObjectCount());
+  }
+
+  @Test
+  public void testResetReplacesCachedFileObjects() throws Exception {
+    FileObject fileObject = HopVfs.getFileObject("ram:///reset/file.txt");
+
+    HopVfs.reset();
+    assertEquals(0, HopVfs.getCachedFileObjectCount());
+
+    // The file is resolved again by the new file system manager
+    FileObject resolvedAgain = HopVfs.getFileObject("ram:///reset/file.txt");
+    assertNotSame(fileObject, resolvedAgain);
+    assertSame(resolvedAgain, HopVfs.getFileObject("ram:///reset/file.txt"));
+    assertSame(resolvedAgain.getFileSystem().getFileSystemManager(), HopVfs.getFileSystemManager());
+  }
 }
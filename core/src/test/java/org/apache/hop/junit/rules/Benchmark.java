@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.junit.rules;
+
+import java.util.Arrays;
+import java.util.Locale;
+import org.junit.Assume;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * A minimal timing harness for throughput benchmarks written as JUnit tests. Benchmark classes are
+ * named {@code *Benchmark} so the regular build doesn't pick them up, and they are skipped unless
+ * the {@code hop.benchmark} system property is set. Run them one class at a time:
+ *
+ * <pre>
+ * mvn test -pl core -Dtest=RowSetBenchmark -Dhop.benchmark=true
+ * </pre>
+ *
+ * <p>Each measurement runs the task a few times to warm up the JIT, then reports the median of the
+ * timed runs. Sizes can be overridden with {@code -Dhop.benchmark.<name>=<value>}.
+ */
+public class Benchmark implements TestRule {
+  public static final String BENCHMARK_PROPERTY = "hop.benchmark";
+
+  /** A unit of work to time. */
+  @FunctionalInterface
+  public interface Task {
+    void run() throws Exception;
+  }
+
+  private final int warmups;
+  private final int runs;
+
+  public Benchmark() {
+    this(3, 5);
+  }
+
+  /**
+   * @param warmups the number of untimed runs before the measurement
+   * @param runs the number of timed runs
+   */
+  public Benchmark(int warmups, int runs) {
+    this.warmups = warmups;
+    this.runs = runs;
+  }
+
+  @Override
+  public Statement apply(Statement base, Description description) {
+    return new Statement() {
+      @Override
+      public void evaluate() throws Throwable {
+        Assume.assumeTrue(
+            "Benchmarks only run with -D" + BENCHMARK_PROPERTY + "=true",
+            Boolean.getBoolean(BENCHMARK_PROPERTY));
+        base.evaluate();
+      }
+    };
+  }
+
+  /**
+   * Times a task and prints its throughput.
+   *
+   * @param name the name printed in front of the result
+   * @param operations the number of operations, for example rows, one run of the task performs
+   * @param task the work to time
+   * @return the median throughput in operations per second
+   */
+  public double measure(String name, long operations, Task task) throws Exception {
+    for (int i = 0; i < warmups; i++) {
+      task.run();
+    }
+    long[] nanos = new long[runs];
+    for (int i = 0; i < runs; i++) {
+      long start = System.nanoTime();
+      task.run();
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    long median = nanos[runs / 2];
+    double perSecond = operations * 1_000_000_000d / median;
+    report(name, String.format(Locale.ROOT, "%,15.0f ops/s %,12.1f ms", perSecond, median / 1e6));
+    return perSecond;
+  }
+
+  /** Prints a result line, aligned with the throughput lines of {@link #measure}. */
+  public static void report(String name, String result) {
+    System.out.printf(Locale.ROOT, "%-64s %s%n", name, result);
+  }
+
+  /**
+   * @param name the name of the size, read from {@code hop.benchmark.<name>}
+   * @param defaultSize the size used when the property is not set
+   * @return the size to run the benchmark with
+   */
+  public static long size(String name, long defaultSize) {
+    return Long.getLong(BENCHMARK_PROPERTY + "." + name, defaultSize);
+  }
+
+  /**
+   * @return the heap in use after a garbage collection, in bytes
+   */
+  public static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
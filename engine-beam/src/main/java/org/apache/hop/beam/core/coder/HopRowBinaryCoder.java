@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.coder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaAvroRecord;
+
+/**
+ * A compact binary coder for Hop rows. A row is written as:
+ *
+ * <ul>
+ *   <li>A row header: null row, row with the type of every value or row in the layout of the coder
+ *   <li>The number of values as a variable length integer
+ *   <li>A bitmap with a bit set for every null value
+ *   <li>The values which are not null, preceded by their type unless the layout is known
+ * </ul>
+ *
+ * <p>Integers, dates and lengths are written as variable length integers and strings as raw UTF-8
+ * bytes. A coder created with {@link #of(IRowMeta)} doesn't write the type of the values. Rows with
+ * values which don't match the layout are written with the type of every value.
+ */
+public class HopRowBinaryCoder extends CustomCoder<HopRow> {
+
+  private static final int ROW_NULL = 0;
+  private static final int ROW_TYPED_VALUES = 1;
+  private static final int ROW_LAYOUT = 2;
+
+  /** The data types of the values in the row, null if the layout of the rows is not known */
+  private final int[] types;
+
+  public HopRowBinaryCoder() {
+    this(null);
+  }
+
+  private HopRowBinaryCoder(int[] types) {
+    this.types = types;
+  }
+
+  /**
+   * Create a coder for rows with the given layout
+   *
+   * @param rowMeta the metadata of the rows
+   * @return the coder
+   */
+  public static HopRowBinaryCoder of(IRowMeta rowMeta) {
+    int[] types = new int[rowMeta.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = rowMeta.getValueMeta(i).getType();
+    }
+    return new HopRowBinaryCoder(types);
+  }
+
+  @Override
+  public void encode(HopRow hopRow, OutputStream outStream) throws IOException {
+    Object[] row = hopRow.getRow();
+    DataOutputStream out = new DataOutputStream(outStream);
+    if (row == null) {
+      out.writeByte(ROW_NULL);
+      return;
+    }
+
+    int length = hopRow.length();
+    boolean layout = matchesLayout(row, length);
+    out.writeByte(layout ? ROW_LAYOUT : ROW_TYPED_VALUES);
+    writeVarInt(out, length);
+
+    // The null values
+    //
+    for (int i = 0; i < length; i += 8) {
+      int bits = 0;
+      for (int b = 0; b < 8 && i + b < length; b++) {
+        if (row[i + b] == null) {
+          bits |= 1 << b;
+        }
+      }
+      out.writeByte(bits);
+    }
+
+    for (int i = 0; i < length; i++) {
+      Object object = row[i];
+      if (object != null) {
+        int objectType;
+        if (layout) {
+          objectType = types[i];
+        } else {
+          objectType = getObjectType(object);
+          out.writeByte(objectType);
+        }
+        write(out, objectType, object);
+      }
+    }
+  }
+
+  @Override
+  public HopRow decode(InputStream inStream) throws IOException {
+    DataInputStream in = new DataInputStream(inStream);
+    int header = in.readUnsignedByte();
+    if (header == ROW_NULL) {
+      return new HopRow();
+    }
+    if (header != ROW_TYPED_VALUES && (header != ROW_LAYOUT || types == null)) {
+      throw new CoderException("Unexpected Hop row header: " + header);
+    }
+    boolean layout = header == ROW_LAYOUT;
+    int length = readVarInt(in);
+
+    byte[] nulls = new byte[(length + 7) / 8];
+    in.readFully(nulls);
+
+    Object[] row = new Object[length];
+    for (int i = 0; i < length; i++) {
+      if ((nulls[i / 8] & (1 << (i % 8))) == 0) {
+        int objectType = layout ? types[i] : in.readUnsignedByte();
+        row[i] = read(in, objectType);
+      }
+    }
+    return new HopRow(row, length);
+  }
+
+  @Override
+  public void verifyDeterministic() {
+    // The same row is always encoded in the same way
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof HopRowBinaryCoder
+        && Arrays.equals(types, ((HopRowBinaryCoder) other).types);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(types);
+  }
+
+  /** The type of the values can be left out if every value has the type of the layout */
+  private boolean matchesLayout(Object[] row, int length) throws CoderException {
+    if (types == null || length > types.length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (row[i] != null && getObjectType(row[i]) != types[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void write(DataOutputStream out, int objectType, Object object) throws IOException {
+    switch (objectType) {
+      case IValueMeta.TYPE_STRING:
+        writeString(out, (String) object);
+        break;
+      case IValueMeta.TYPE_INTEGER:
+        writeVarLong(out, (Long) object);
+        break;
+      case IValueMeta.TYPE_TIMESTAMP:
+        writeVarLong(out, ((Timestamp) object).getTime());
+        writeVarInt(out, ((Timestamp) object).getNanos());
+        break;
+      case IValueMeta.TYPE_DATE:
+        writeVarLong(out, ((Date) object).getTime());
+        break;
+      case IValueMeta.TYPE_BOOLEAN:
+        out.writeBoolean((Boolean) object);
+        break;
+      case IValueMeta.TYPE_NUMBER:
+        out.writeDouble((Double) object);
+        break;
+      case IValueMeta.TYPE_BIGNUMBER:
+        writeString(out, object.toString());
+        break;
+      case IValueMeta.TYPE_BINARY:
+        writeBytes(out, (byte[]) object);
+        break;
+      case IValueMeta.TYPE_INET:
+        InetAddress inetAddress = (InetAddress) object;
+        writeString(out, inetAddress.getHostName());
+        writeBytes(out, inetAddress.getAddress());
+        break;
+      case IValueMeta.TYPE_AVRO:
+        GenericRecord genericRecord = (GenericRecord) object;
+        try {
+          writeString(out, genericRecord.getSchema().toString(false));
+          ValueMetaAvroRecord valueMeta =
+              new ValueMetaAvroRecord("write", genericRecord.getSchema());
+          valueMeta.writeData(out, genericRecord);
+        } catch (Exception e) {
+          throw new IOException("Error serializing Avro generic schema and record", e);
+        }
+        break;
+      default:
+        throw new CoderException(
+            "Data type not supported yet: " + objectType + " - " + object.toString());
+    }
+  }
+
+  private Object read(DataInputStream in, int objectType) throws IOException {
+    switch (objectType) {
+      case IValueMeta.TYPE_STRING:
+        return readString(in);
+      case IValueMeta.TYPE_INTEGER:
+        return readVarLong(in);
+      case IValueMeta.TYPE_TIMESTAMP:
+        Timestamp timestamp = new Timestamp(readVarLong(in));
+        timestamp.setNanos(readVarInt(in));
+        return timestamp;
+      case IValueMeta.TYPE_DATE:
+        return new Date(readVarLong(in));
+      case IValueMeta.TYPE_BOOLEAN:
+        return in.readBoolean();
+      case IValueMeta.TYPE_NUMBER:
+        return in.readDouble();
+      case IValueMeta.TYPE_BIGNUMBER:
+        return new BigDecimal(readString(in));
+      case IValueMeta.TYPE_BINARY:
+        return readBytes(in);
+      case IValueMeta.TYPE_INET:
+        String hostname = readString(in);
+        return InetAddress.getByAddress(hostname, readBytes(in));
+      case IValueMeta.TYPE_AVRO:
+        try {
+          Schema schema = new Schema.Parser().parse(readString(in));
+          ValueMetaAvroRecord valueMeta = new ValueMetaAvroRecord("read", schema);
+          return valueMeta.readData(in);
+        } catch (Exception e) {
+          throw new IOException("Error de-serializing Avro schema and generic record", e);
+        }
+      default:
+        throw new CoderException("Data type not supported yet: " + objectType);
+    }
+  }
+
+  private static int getObjectType(Object object) throws CoderException {
+    if (object instanceof String) {
+      return IValueMeta.TYPE_STRING;
+    }
+    if (object instanceof Long) {
+      return IValueMeta.TYPE_INTEGER;
+    }
+    if (object instanceof Timestamp) {
+      return IValueMeta.TYPE_TIMESTAMP;
+    }
+    if (object instanceof Date) {
+      return IValueMeta.TYPE_DATE;
+    }
+    if (object instanceof Boolean) {
+      return IValueMeta.TYPE_BOOLEAN;
+    }
+    if (object instanceof Double) {
+      return IValueMeta.TYPE_NUMBER;
+    }
+    if (object instanceof BigDecimal) {
+      return IValueMeta.TYPE_BIGNUMBER;
+    }
+    if (object instanceof byte[]) {
+      return IValueMeta.TYPE_BINARY;
+    }
+    if (object instanceof InetAddress) {
+      return IValueMeta.TYPE_INET;
+    }
+    if (object instanceof GenericRecord) {
+      return IValueMeta.TYPE_AVRO;
+    }
+    throw new CoderException(
+        "Data type for object class " + object.getClass().getName() + " isn't supported yet");
+  }
+
+  private static void writeString(DataOutputStream out, String string) throws IOException {
+    writeBytes(out, string.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return new String(readBytes(in), StandardCharsets.UTF_8);
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    writeVarInt(out, bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[readVarInt(in)];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /** Write a non-negative integer in 7 bit groups, the high bit is set if more bytes follow */
+  static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  static int readVarInt(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new CoderException("Variable length integer is too long");
+  }
+
+  /** Write a long with zig-zag encoding so small negative values take few bytes as well */
+  static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    long zigZag = (value << 1) ^ (value >> 63);
+    while ((zigZag & ~0x7FL) != 0) {
+      out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+      zigZag >>>= 7;
+    }
+    out.writeByte((int) zigZag);
+  }
+
+  static long readVarLong(DataInputStream in) throws IOException {
+    long zigZag = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      zigZag |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+      }
+    }
+    throw new CoderException("Variable length long is too long");
+  }
+}
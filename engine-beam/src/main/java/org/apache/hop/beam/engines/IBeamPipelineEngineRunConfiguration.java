@@ -40,4 +40,9 @@ public interface IBeamPipelineEngineRunConfiguration extends IPipelineEngineRunC
   String getStreamingHopTransformsBufferSize();
 
   String getFatJar();
+
+  /**
+   * @return true if rows are encoded with Java serialization instead of the binary row coder
+   */
+  boolean isJavaSerializationRowCoder();
 }
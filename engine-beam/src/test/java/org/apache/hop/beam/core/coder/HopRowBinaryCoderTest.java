@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.coder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.util.Date;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.testing.CoderProperties;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class HopRowBinaryCoderTest {
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    return rowMeta;
+  }
+
+  private static HopRow createRow(long id) {
+    Date date = new Date(1600000000000L + id);
+    return new HopRow(new Object[] {"Apache Hop " + id, id, id * 1.5, date, id % 2 == 0});
+  }
+
+  private static byte[] encode(Coder<HopRow> coder, HopRow... rows) throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    for (HopRow row : rows) {
+      coder.encode(row, outputStream);
+    }
+    return outputStream.toByteArray();
+  }
+
+  private static HopRow roundTrip(Coder<HopRow> coder, HopRow row) throws Exception {
+    return coder.decode(new ByteArrayInputStream(encode(coder, row)));
+  }
+
+  @Test
+  public void testEncodeDecodeAllTypes() throws Exception {
+    HopRowBinaryCoder coder = new HopRowBinaryCoder();
+    Timestamp timestamp = new Timestamp(810311L);
+    timestamp.setNanos(123456789);
+    Object[] values =
+        new Object[] {
+          "AAA",
+          "Ünïcödé €",
+          null,
+          Long.MIN_VALUE,
+          -1L,
+          Long.MAX_VALUE,
+          1.234,
+          new Date(-876876868L),
+          timestamp,
+          Boolean.TRUE,
+          new BigDecimal("-12345678901234567890.123456789"),
+          InetAddress.getByAddress("localhost", new byte[] {127, 0, 0, 1}),
+          ""
+        };
+
+    HopRow decoded = roundTrip(coder, new HopRow(values));
+
+    assertEquals(new HopRow(values), decoded);
+    assertEquals(values.length, decoded.length());
+  }
+
+  @Test
+  public void testEncodeDecodeBinary() throws Exception {
+    byte[] bytes = new byte[300];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) i;
+    }
+    HopRow decoded = roundTrip(new HopRowBinaryCoder(), new HopRow(new Object[] {bytes, null}));
+
+    assertArrayEquals(bytes, (byte[]) decoded.getRow()[0]);
+    assertEquals(null, decoded.getRow()[1]);
+  }
+
+  @Test
+  public void testLayoutCoder() throws Exception {
+    HopRowBinaryCoder coder = HopRowBinaryCoder.of(createRowMeta());
+    HopRow row = createRow(42L);
+    HopRow nulls = new HopRow(new Object[] {null, 1L, null, null, null});
+
+    assertEquals(row, roundTrip(coder, row));
+    assertEquals(nulls, roundTrip(coder, nulls));
+
+    // Values which don't match the layout are written with their type
+    HopRow mismatch = new HopRow(new Object[] {"a", "not an integer", 1.0, null, true});
+    assertEquals(mismatch, roundTrip(coder, mismatch));
+    HopRow longer = new HopRow(new Object[] {"a", 1L, 1.0, null, true, "extra"});
+    assertEquals(longer, roundTrip(coder, longer));
+
+    // The layout saves the type of every value
+    assertTrue(encode(coder, row).length < encode(new HopRowBinaryCoder(), row).length);
+  }
+
+  @Test
+  public void testRowsInSequence() throws Exception {
+    HopRowBinaryCoder coder = new HopRowBinaryCoder();
+    byte[] bytes = encode(coder, createRow(1L), createRow(2L), createRow(3L));
+
+    ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+    assertEquals(createRow(1L), coder.decode(inputStream));
+    assertEquals(createRow(2L), coder.decode(inputStream));
+    assertEquals(createRow(3L), coder.decode(inputStream));
+    assertEquals(-1, inputStream.read());
+  }
+
+  @Test
+  public void testCoderProperties() throws Exception {
+    HopRowBinaryCoder coder = HopRowBinaryCoder.of(createRowMeta());
+    CoderProperties.coderSerializable(coder);
+    CoderProperties.coderDecodeEncodeEqual(coder, createRow(7L));
+    CoderProperties.coderDeterministic(coder, createRow(7L), createRow(7L));
+
+    assertEquals(coder, HopRowBinaryCoder.of(createRowMeta()));
+    assertNotEquals(coder, new HopRowBinaryCoder());
+  }
+
+  @Test
+  public void testVarLong() throws Exception {
+    long[] values = {0L, 1L, -1L, 63L, -64L, 64L, 300L, Integer.MAX_VALUE, Long.MIN_VALUE};
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(outputStream);
+    for (long value : values) {
+      HopRowBinaryCoder.writeVarLong(out, value);
+    }
+    // Small values take a single byte
+    assertEquals(1, sizeOf(0L));
+    assertEquals(1, sizeOf(-64L));
+    assertEquals(2, sizeOf(64L));
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+    for (long value : values) {
+      assertEquals(value, HopRowBinaryCoder.readVarLong(in));
+    }
+  }
+
+  private static int sizeOf(long value) throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    HopRowBinaryCoder.writeVarLong(new DataOutputStream(outputStream), value);
+    return outputStream.size();
+  }
+
+  /**
+   * Compares the size of the encoded rows with and without the row layout. This is the volume which
+   * is shuffled between the workers of a Group By.
+   */
+  @Test
+  public void testEncodedSize() throws Exception {
+    HopRow[] rows = new HopRow[1000];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = createRow(i);
+    }
+
+    int binary = encode(new HopRowBinaryCoder(), rows).length;
+    int layout = encode(HopRowBinaryCoder.of(createRowMeta()), rows).length;
+
+    assertTrue(layout < binary);
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.gzip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.ICompressionProvider;
+
+/**
+ * Compresses blocks of data on a pool of threads. Every block becomes a complete gzip member and
+ * the members are written in the order of the blocks. A file with several members is a valid gzip
+ * file: gunzip and {@link java.util.zip.GZIPInputStream} read them as one stream.
+ *
+ * <p>The uncompressed blocks are limited by the {@link ParallelGzipCompressionPool} over all the
+ * files. Every file keeps the block it is filling and the compressed members waiting to be written
+ * in order.
+ */
+public class ParallelGzipCompressionOutputStream extends CompressionOutputStream {
+
+  /** The number of uncompressed bytes in a gzip member */
+  public static final int BLOCK_SIZE = 1024 * 1024;
+
+  private final ParallelGzipCompressionPool pool;
+  private final int level;
+  private final int maxPendingBlocks;
+  private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+  private byte[] buffer;
+  private int count;
+  private boolean blockSubmitted;
+  private boolean closed;
+
+  /**
+   * @param out the stream to write the gzip members to
+   * @param provider the compression provider
+   * @param pool the threads and buffers compressing the blocks
+   * @param level the compression level, from 1 to 9
+   */
+  public ParallelGzipCompressionOutputStream(
+      OutputStream out,
+      ICompressionProvider provider,
+      ParallelGzipCompressionPool pool,
+      int level) {
+    super(out, provider);
+    this.pool = pool;
+    this.level = level;
+    this.maxPendingBlocks = pool.getMaxBlocksInFlight();
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (buffer == null || count == buffer.length) {
+      nextBuffer();
+    }
+    buffer[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b) throws IOException {
+    write(b, 0, b.length);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (buffer == null || count == buffer.length) {
+        nextBuffer();
+      }
+      int size = Math.min(len, buffer.length - count);
+      System.arraycopy(b, off, buffer, count, size);
+      count += size;
+      off += size;
+      len -= size;
+    }
+  }
+
+  /** Writes the blocks which are compressed already. The block being filled isn't cut short. */
+  @Override
+  public void flush() throws IOException {
+    writeFinishedBlocks(false);
+    delegate.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      // An empty file still gets one (empty) member to be a valid gzip file
+      if (count > 0 || !blockSubmitted) {
+        submitBlock();
+      }
+      writeFinishedBlocks(true);
+    } finally {
+      // Blocks which are still compressing finish on their own and give back their buffers
+      pendingBlocks.clear();
+      delegate.close();
+    }
+  }
+
+  /** Submits the full block, if any, and takes the buffer for the next block */
+  private void nextBuffer() throws IOException {
+    if (buffer != null) {
+      submitBlock();
+    }
+    buffer = pool.takeBuffer();
+  }
+
+  private void submitBlock() throws IOException {
+    byte[] data = buffer == null ? pool.takeBuffer() : buffer;
+    try {
+      pendingBlocks.add(pool.compress(data, count, level));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to compress a block");
+    } catch (RejectedExecutionException e) {
+      throw new IOException("Error compressing a block", e);
+    }
+    blockSubmitted = true;
+
+    // The buffer belongs to the pool again
+    buffer = null;
+    count = 0;
+
+    // Wait for the oldest block when too many members of this file are waiting to be written
+    while (pendingBlocks.size() >= maxPendingBlocks) {
+      writeBlock(pendingBlocks.poll());
+    }
+    writeFinishedBlocks(false);
+  }
+
+  private void writeFinishedBlocks(boolean waitForAll) throws IOException {
+    while (!pendingBlocks.isEmpty() && (waitForAll || pendingBlocks.peek().isDone())) {
+      writeBlock(pendingBlocks.poll());
+    }
+  }
+
+  private void writeBlock(Future<byte[]> block) throws IOException {
+    try {
+      delegate.write(block.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing a block");
+    } catch (ExecutionException e) {
+      throw new IOException("Error compressing a block", e.getCause());
+    }
+  }
+
+  /**
+   * Compress a block into a complete gzip member
+   *
+   * @param data the buffer with the block
+   * @param length the number of bytes in the block
+   * @param level the compression level
+   * @return the gzip member
+   * @throws IOException in case the block can't be compressed
+   */
+  static byte[] compress(byte[] data, int length, int level) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 2 + 64);
+    try (GZIPOutputStream gzip = new LevelGzipOutputStream(bytes, level)) {
+      gzip.write(data, 0, length);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static class LevelGzipOutputStream extends GZIPOutputStream {
+    private LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+      super(out, 65536);
+      def.setLevel(level);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.gzip;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads and block buffers shared by all the parallel gzip output streams. The number of
+ * blocks being compressed at the same time is limited over all the files, so writing many files at
+ * once doesn't keep more uncompressed blocks in memory than the threads can handle.
+ */
+public class ParallelGzipCompressionPool {
+  private final int threads;
+  private final int maxBlocksInFlight;
+  private final ExecutorService executor;
+  private final Semaphore blocksInFlight;
+  private final BlockingQueue<byte[]> freeBuffers;
+
+  /**
+   * @param threads the number of threads compressing blocks
+   */
+  public ParallelGzipCompressionPool(int threads) {
+    this.threads = Math.max(1, threads);
+    this.maxBlocksInFlight = this.threads * 2;
+    this.blocksInFlight = new Semaphore(maxBlocksInFlight);
+    this.freeBuffers = new ArrayBlockingQueue<>(maxBlocksInFlight);
+    AtomicInteger threadNr = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            this.threads,
+            runnable -> {
+              Thread thread =
+                  new Thread(
+                      runnable, "Hop parallel GZip compression " + threadNr.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Compress a block into a gzip member on one of the threads. This waits as long as the maximum
+   * number of blocks is being compressed. The buffer of the block is reused for other blocks once
+   * it is compressed, so it can't be changed after this call.
+   *
+   * @param data the buffer with the block
+   * @param length the number of bytes in the block
+   * @param level the compression level
+   * @return the gzip member, once it's compressed
+   * @throws InterruptedException in case we're interrupted while waiting
+   */
+  public Future<byte[]> compress(byte[] data, int length, int level) throws InterruptedException {
+    blocksInFlight.acquire();
+    try {
+      return executor.submit(
+          () -> {
+            try {
+              return ParallelGzipCompressionOutputStream.compress(data, length, level);
+            } finally {
+              releaseBlock(data);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      releaseBlock(data);
+      throw e;
+    }
+  }
+
+  private void releaseBlock(byte[] data) {
+    // Keep the buffer for the next block unless enough buffers are waiting already
+    freeBuffers.offer(data);
+    blocksInFlight.release();
+  }
+
+  /**
+   * @return a buffer for a block, a recycled one when available
+   */
+  public byte[] takeBuffer() {
+    byte[] buffer = freeBuffers.poll();
+    return buffer == null ? new byte[ParallelGzipCompressionOutputStream.BLOCK_SIZE] : buffer;
+  }
+
+  /**
+   * @return the number of threads compressing blocks
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * @return the maximum number of blocks being compressed at the same time, over all files
+   */
+  public int getMaxBlocksInFlight() {
+    return maxBlocksInFlight;
+  }
+
+  /**
+   * @return the number of blocks being compressed or waiting for a thread right now
+   */
+  public int getBlocksInFlight() {
+    return maxBlocksInFlight - blocksInFlight.availablePermits();
+  }
+
+  /**
+   * @return the number of buffers kept to be reused
+   */
+  public int getFreeBufferCount() {
+    return freeBuffers.size();
+  }
+
+  /** Stop the threads, the blocks which are submitted already are still compressed */
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.gzip;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionPlugin;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.util.EnvUtil;
+
+@CompressionPlugin(
+    id = "PARALLEL_GZIP",
+    name = "GZip-parallel",
+    description = "GZIP compression of blocks in parallel")
+public class ParallelGzipCompressionProvider implements ICompressionProvider {
+
+  public static final int DEFAULT_LEVEL = 6;
+
+  private static ParallelGzipCompressionPool pool;
+
+  @Override
+  public GzipCompressionInputStream createInputStream(InputStream in) throws IOException {
+    // GZIPInputStream reads all the members of the file one after the other
+    return new GzipCompressionInputStream(in, this);
+  }
+
+  @Override
+  public boolean supportsInput() {
+    return true;
+  }
+
+  @Override
+  public ParallelGzipCompressionOutputStream createOutputStream(OutputStream out)
+      throws IOException {
+    return new ParallelGzipCompressionOutputStream(out, this, getPool(getThreads()), getLevel());
+  }
+
+  @Override
+  public boolean supportsOutput() {
+    return true;
+  }
+
+  @Override
+  public String getDescription() {
+    return "GZIP compression of blocks in parallel";
+  }
+
+  @Override
+  public String getName() {
+    return "GZip-parallel";
+  }
+
+  @Override
+  public String getDefaultExtension() {
+    return "gz";
+  }
+
+  /**
+   * Gets the compression level set with the {@link Const#HOP_COMPRESSION_GZIP_LEVEL} variable
+   *
+   * @return the compression level, from 1 to 9
+   */
+  public int getLevel() {
+    int level =
+        Const.toInt(EnvUtil.getSystemProperty(Const.HOP_COMPRESSION_GZIP_LEVEL), DEFAULT_LEVEL);
+    return Math.max(1, Math.min(9, level));
+  }
+
+  /**
+   * Gets the number of compression threads set with the {@link Const#HOP_COMPRESSION_GZIP_THREADS}
+   * variable
+   *
+   * @return the number of threads, the number of processors by default
+   * @see #getPool(int)
+   */
+  public int getThreads() {
+    int threads =
+        Const.toInt(
+            EnvUtil.getSystemProperty(Const.HOP_COMPRESSION_GZIP_THREADS),
+            Runtime.getRuntime().availableProcessors());
+    return Math.max(1, threads);
+  }
+
+  /**
+   * The threads and buffers are shared by all the files being written. They are created when the
+   * first file is opened, so a later change of the number of threads is ignored.
+   */
+  private static synchronized ParallelGzipCompressionPool getPool(int threads) {
+    if (pool == null) {
+      pool = new ParallelGzipCompressionPool(threads);
+    }
+    return pool;
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.lz4;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.ICompressionProvider;
+
+public class Lz4CompressionOutputStream extends CompressionOutputStream {
+
+  public Lz4CompressionOutputStream(OutputStream out, ICompressionProvider provider, int level)
+      throws IOException {
+    super(getDelegate(out, level), provider);
+  }
+
+  private static LZ4FrameOutputStream getDelegate(OutputStream out, int level) throws IOException {
+    LZ4FrameOutputStream delegate;
+    if (out instanceof LZ4FrameOutputStream) {
+      delegate = (LZ4FrameOutputStream) out;
+    } else {
+      delegate =
+          new LZ4FrameOutputStream(
+              out,
+              LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB,
+              -1L,
+              getCompressor(level),
+              XXHashFactory.fastestInstance().hash32(),
+              LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
+    }
+    return delegate;
+  }
+
+  /**
+   * @param level 1 for the fast compressor, 2 to 17 for the high compression compressor
+   * @return the compressor for the level
+   */
+  static LZ4Compressor getCompressor(int level) {
+    LZ4Factory factory = LZ4Factory.fastestInstance();
+    if (level <= 1) {
+      return factory.fastCompressor();
+    }
+    return factory.highCompressor(Math.min(17, level));
+  }
+}
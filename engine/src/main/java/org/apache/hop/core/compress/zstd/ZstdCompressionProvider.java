@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.zstd;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdUtils;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionPlugin;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.util.EnvUtil;
+
+@CompressionPlugin(id = "ZSTD", name = "Zstd", description = "Zstandard compression")
+public class ZstdCompressionProvider implements ICompressionProvider {
+
+  public static final int DEFAULT_LEVEL = 3;
+
+  @Override
+  public ZstdCompressionInputStream createInputStream(InputStream in) throws IOException {
+    return new ZstdCompressionInputStream(in, this);
+  }
+
+  @Override
+  public boolean supportsInput() {
+    // The Zstandard codec needs the zstd-jni library on the classpath
+    return ZstdUtils.isZstdCompressionAvailable();
+  }
+
+  @Override
+  public ZstdCompressionOutputStream createOutputStream(OutputStream out) throws IOException {
+    return new ZstdCompressionOutputStream(out, this, getLevel());
+  }
+
+  @Override
+  public boolean supportsOutput() {
+    return ZstdUtils.isZstdCompressionAvailable();
+  }
+
+  @Override
+  public String getDescription() {
+    return "Zstandard compression";
+  }
+
+  @Override
+  public String getName() {
+    return "Zstd";
+  }
+
+  @Override
+  public String getDefaultExtension() {
+    return "zst";
+  }
+
+  /**
+   * Gets the compression level set with the {@link Const#HOP_COMPRESSION_ZSTD_LEVEL} variable
+   *
+   * @return the compression level, from 1 to 22
+   */
+  public int getLevel() {
+    int level =
+        Const.toInt(EnvUtil.getSystemProperty(Const.HOP_COMPRESSION_ZSTD_LEVEL), DEFAULT_LEVEL);
+    return Math.max(1, Math.min(22, level));
+  }
+}
@@ -48,12 +48,14 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.BlockingBatchingRowSet;
 import org.apache.hop.core.BlockingRowSet;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.FusedRowSet;
 import org.apache.hop.core.IExecutor;
 import org.apache.hop.core.IExtensionData;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.RingBufferRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
@@ -83,6 +85,7 @@ import org.apache.hop.core.row.RowBuffer;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.util.EnvUtil;
 import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.util.VirtualThreads;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
 import org.apache.hop.core.vfs.HopVfs;
@@ -101,8 +104,10 @@ import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineComponentRowsReceived;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engines.EmptyPipelineRunConfiguration;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration.RowSetType;
 import org.apache.hop.pipeline.performance.PerformanceSnapShot;
 import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.FusedRunThread;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.hop.pipeline.transform.ITransformFinishedListener;
@@ -359,6 +364,15 @@ public abstract class Pipeline
 
   protected int rowSetSize;
 
+  /** The type of row set to allocate between the copies of transforms. */
+  protected RowSetType rowSetType;
+
+  /** Run the transform copies on virtual threads when the Java runtime supports them. */
+  protected boolean usingVirtualThreads;
+
+  /** Fuse chains of streaming transforms into the thread of the first transform of the chain. */
+  protected boolean fusingTransforms;
+
   /** Whether the feedback is shown. */
   protected boolean feedbackShown;
 
@@ -390,6 +404,7 @@ public abstract class Pipeline
     extensionDataMap = new HashMap<>();
 
     rowSetSize = Const.ROWS_IN_ROWSET;
+    rowSetType = RowSetType.Blocking;
 
     dataSamplers = Collections.synchronizedList(new ArrayList<>());
   }
@@ -694,18 +709,10 @@ public abstract class Pipeline
             IRowSet rowSet;
             switch (pipelineMeta.getPipelineType()) {
               case Normal:
-                // This is a temporary patch until the batching rowset has proven
-                // to be working in all situations.
-                // Currently there are stalling problems when dealing with small
-                // amounts of rows.
-                //
-                Boolean batchingRowSet =
-                    ValueMetaString.convertStringToBoolean(
-                        System.getProperty(Const.HOP_BATCHING_ROWSET));
-                if (batchingRowSet != null && batchingRowSet.booleanValue()) {
-                  rowSet = new BlockingBatchingRowSet(rowSetSize);
+                if (isFusable(thisTransform, nextTransform)) {
+                  rowSet = new FusedRowSet();
                 } else {
-                  rowSet = new BlockingRowSet(rowSetSize);
+                  rowSet = createTransformRowSet(true);
                 }
                 break;
 
@@ -753,7 +760,7 @@ public abstract class Pipeline
           // distribution...
           for (int s = 0; s < thisCopies; s++) {
             for (int t = 0; t < nextCopies; t++) {
-              BlockingRowSet rowSet = new BlockingRowSet(rowSetSize);
+              IRowSet rowSet = createTransformRowSet(false);
               rowSet.setThreadNameFromToCopy(
                   thisTransform.getName(), s, nextTransform.getName(), t);
               rowsets.add(rowSet);
@@ -994,9 +1001,11 @@ public abstract class Pipeline
 
       // Put it in a separate thread!
       //
-      threads[i] = new Thread(initThreads[i]);
-      threads[i].setName(
-          "init of " + sid.transformName + "." + sid.copy + " (" + threads[i].getName() + ")");
+      // Virtual threads have no default name, number the threads by id for both kinds
+      //
+      String threadName = "init of " + sid.transformName + "." + sid.copy;
+      threads[i] = VirtualThreads.newThread(initThreads[i], threadName, usingVirtualThreads);
+      threads[i].setName(threadName + " (Thread-" + threads[i].getId() + ")");
 
       ExtensionPointHandler.callExtensionPoint(
           log, this, HopExtensionPoint.TransformBeforeInitialize.id, initThreads[i]);
@@ -1252,28 +1261,45 @@ public abstract class Pipeline
 
     switch (pipelineMeta.getPipelineType()) {
       case Normal:
+        if (usingVirtualThreads && !VirtualThreads.isSupported()) {
+          log.logBasic(BaseMessages.getString(PKG, "Pipeline.Log.VirtualThreadsNotSupported"));
+        }
 
-        // Now start all the threads...
+        // Fused transforms run in the thread of the transform writing to them.
+        // Start them before any thread starts writing rows.
         //
+        List<TransformMetaDataCombi> threadedTransforms = new ArrayList<>();
         for (final TransformMetaDataCombi combi : transforms) {
-          RunThread runThread = new RunThread(combi);
-          Thread thread = new Thread(runThread);
-          thread.setName(getName() + " - " + combi.transformName);
-          ExtensionPointHandler.callExtensionPoint(
-              log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
-          // Call an extension point at the end of the transform
-          //
-          combi.transform.addTransformFinishedListener(
-              (pipeline, transformMeta, transform) -> {
-                try {
-                  ExtensionPointHandler.callExtensionPoint(
-                      log, this, HopExtensionPoint.TransformFinished.id, combi);
-                } catch (HopException e) {
-                  throw new RuntimeException(
-                      "Unexpected error in calling extension point upon transform finish", e);
-                }
-              });
+          List<IRowSet> inputRowSets = combi.transform.getInputRowSets();
+          if (inputRowSets.size() == 1 && inputRowSets.get(0) instanceof FusedRowSet rowSet) {
+            if (log.isDetailed()) {
+              log.logDetailed(
+                  BaseMessages.getString(
+                      PKG,
+                      "Pipeline.Log.TransformFused",
+                      combi.transformName,
+                      rowSet.getOriginTransformName()));
+            }
+            beforeTransformStart(combi);
+            FusedRunThread runThread = new FusedRunThread(combi, rowSet);
+            getTransform(rowSet.getOriginTransformName(), rowSet.getOriginTransformCopy())
+                .addTransformFinishedListener(
+                    (pipeline, transformMeta, transform) -> runThread.finish());
+            runThread.start();
+          } else {
+            threadedTransforms.add(combi);
+          }
+        }
 
+        // Now start all the threads...
+        //
+        for (final TransformMetaDataCombi combi : threadedTransforms) {
+          beforeTransformStart(combi);
+          Thread thread =
+              VirtualThreads.newThread(
+                  new RunThread(combi),
+                  getName() + " - " + combi.transformName,
+                  usingVirtualThreads);
           thread.start();
         }
         break;
@@ -1306,6 +1332,29 @@ public abstract class Pipeline
     }
   }
 
+  /**
+   * Call the extension point before a transform starts and the one after it finished.
+   *
+   * @param combi the transform to start
+   * @throws HopException in case the extension point fails
+   */
+  private void beforeTransformStart(TransformMetaDataCombi combi) throws HopException {
+    ExtensionPointHandler.callExtensionPoint(
+        log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
+    // Call an extension point at the end of the transform
+    //
+    combi.transform.addTransformFinishedListener(
+        (pipeline, transformMeta, transform) -> {
+          try {
+            ExtensionPointHandler.callExtensionPoint(
+                log, this, HopExtensionPoint.TransformFinished.id, combi);
+          } catch (HopException e) {
+            throw new RuntimeException(
+                "Unexpected error in calling extension point upon transform finish", e);
+          }
+        });
+  }
+
   /**
    * @deprecated Make attempt to fire all registered finished listeners if possible.
    * @throws HopException if any errors occur during notification
@@ -2016,6 +2065,7 @@ public abstract class Pipeline
     IRowSet rowSet;
     switch (pipelineMeta.getPipelineType()) {
       case Normal:
+        unfuseTransform(transform);
         rowSet = new BlockingRowSet(rowSetSize);
         break;
       case SingleThreaded:
@@ -2031,6 +2081,43 @@ public abstract class Pipeline
     return new RowProducer(transform, rowSet);
   }
 
+  /**
+   * A fused transform only processes the rows its previous transform hands over in the same thread.
+   * Rows from a row producer need a transform running in a thread of its own, so the fused row set
+   * is replaced by a regular one. Fusion is decided when the row sets are allocated, before any row
+   * producer is added.
+   *
+   * @param transform the transform to run in its own thread
+   */
+  private void unfuseTransform(ITransform transform) throws HopException {
+    for (IRowSet inputRowSet : transform.getInputRowSets()) {
+      if (!(inputRowSet instanceof FusedRowSet fusedRowSet)) {
+        continue;
+      }
+      ITransform previous =
+          getTransform(fusedRowSet.getOriginTransformName(), fusedRowSet.getOriginTransformCopy());
+      if (!(transform instanceof BaseTransform<?, ?> baseTransform)
+          || !(previous instanceof BaseTransform<?, ?> basePrevious)) {
+        throw new HopException(
+            "Unable to add a row producer to fused transform " + transform.getTransformName());
+      }
+      IRowSet rowSet = createTransformRowSet(true);
+      rowSet.setThreadNameFromToCopy(
+          fusedRowSet.getOriginTransformName(),
+          fusedRowSet.getOriginTransformCopy(),
+          fusedRowSet.getDestinationTransformName(),
+          fusedRowSet.getDestinationTransformCopy());
+
+      List<IRowSet> inputRowSets = baseTransform.getInputRowSets();
+      inputRowSets.set(inputRowSets.indexOf(fusedRowSet), rowSet);
+      baseTransform.setInputRowSets(inputRowSets);
+      List<IRowSet> outputRowSets = basePrevious.getOutputRowSets();
+      outputRowSets.set(outputRowSets.indexOf(fusedRowSet), rowSet);
+      basePrevious.setOutputRowSets(outputRowSets);
+      rowsets.set(rowsets.indexOf(fusedRowSet), rowSet);
+    }
+  }
+
   /**
    * Gets the parent workflow, or null if there is no parent.
    *
@@ -3362,6 +3449,12 @@ public abstract class Pipeline
             }
             metrics.setComponentMetric(combi.transform, METRIC_BUFFER_OUT, outputBufferSize);
 
+            for (Map.Entry<IEngineMetric, Long> transformMetric :
+                transform.getTransformMetrics().entrySet()) {
+              metrics.setComponentMetric(
+                  combi.transform, transformMetric.getKey(), transformMetric.getValue());
+            }
+
             TransformStatus transformStatus = new TransformStatus(combi.transform);
             metrics.setComponentSpeed(combi.transform, transformStatus.getSpeed());
             metrics.setComponentStatus(
@@ -3536,6 +3629,116 @@ public abstract class Pipeline
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets rowSetType
+   *
+   * @return value of rowSetType
+   */
+  public RowSetType getRowSetType() {
+    return rowSetType;
+  }
+
+  /**
+   * @param rowSetType The rowSetType to set
+   */
+  public void setRowSetType(RowSetType rowSetType) {
+    this.rowSetType = rowSetType;
+  }
+
+  /**
+   * Gets usingVirtualThreads
+   *
+   * @return true if the transform copies run on virtual threads when the Java runtime supports them
+   */
+  public boolean isUsingVirtualThreads() {
+    return usingVirtualThreads;
+  }
+
+  /**
+   * @param usingVirtualThreads true to run the transform copies on virtual threads
+   */
+  public void setUsingVirtualThreads(boolean usingVirtualThreads) {
+    this.usingVirtualThreads = usingVirtualThreads;
+  }
+
+  /**
+   * Gets fusingTransforms
+   *
+   * @return true if chains of streaming transforms run in the thread of the first transform
+   */
+  public boolean isFusingTransforms() {
+    return fusingTransforms;
+  }
+
+  /**
+   * @param fusingTransforms true to run chains of streaming transforms in the thread of the first
+   *     transform
+   */
+  public void setFusingTransforms(boolean fusingTransforms) {
+    this.fusingTransforms = fusingTransforms;
+  }
+
+  /**
+   * A transform is fused with the previous transform when it supports fusion and the hop between
+   * them is the only way rows flow out of the previous transform and into the transform. Both
+   * transforms run a single copy without partitioning. The rows are then handed over directly in
+   * the thread of the previous transform.
+   *
+   * @param previousTransform the transform writing the rows
+   * @param transformMeta the transform reading the rows
+   * @return true if the transform can be fused with the previous transform
+   */
+  protected boolean isFusable(TransformMeta previousTransform, TransformMeta transformMeta) {
+    if (!fusingTransforms || pipelineMeta.getPipelineType() != PipelineMeta.PipelineType.Normal) {
+      return false;
+    }
+    if (!transformMeta.getTransform().supportsFusion()) {
+      return false;
+    }
+    if (previousTransform.getCopies(this) != 1 || transformMeta.getCopies(this) != 1) {
+      return false;
+    }
+    if (previousTransform.isPartitioned()
+        || transformMeta.isPartitioned()
+        || previousTransform.isDoingErrorHandling()) {
+      return false;
+    }
+    return pipelineMeta.findNextTransforms(previousTransform).size() == 1
+        && pipelineMeta.findPreviousTransforms(transformMeta).size() == 1;
+  }
+
+  /**
+   * Create a row set to connect one copy of a transform with one copy of the next transform. Every
+   * row set allocated this way has exactly one thread writing and one thread reading from it.
+   *
+   * @param honorBatchingProperty true if the HOP_BATCHING_ROWSET property can switch the default
+   *     blocking row set to a batching one. N:M hops have never used batching row sets.
+   * @return a new row set of the configured type
+   */
+  protected IRowSet createTransformRowSet(boolean honorBatchingProperty) {
+    RowSetType type = rowSetType == null ? RowSetType.Blocking : rowSetType;
+    if (type == RowSetType.Blocking && honorBatchingProperty) {
+      // This is a temporary patch until the batching rowset has proven
+      // to be working in all situations.
+      // Currently there are stalling problems when dealing with small
+      // amounts of rows.
+      //
+      Boolean batchingRowSet =
+          ValueMetaString.convertStringToBoolean(System.getProperty(Const.HOP_BATCHING_ROWSET));
+      if (batchingRowSet != null && batchingRowSet.booleanValue()) {
+        type = RowSetType.BlockingBatching;
+      }
+    }
+    switch (type) {
+      case BlockingBatching:
+        return new BlockingBatchingRowSet(rowSetSize);
+      case RingBuffer:
+        return new RingBufferRowSet(rowSetSize);
+      default:
+        return new BlockingRowSet(rowSetSize);
+    }
+  }
+
   /**
    * Gets feedbackShown
    *
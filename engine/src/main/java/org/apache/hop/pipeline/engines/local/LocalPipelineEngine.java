@@ -124,6 +124,10 @@ public class LocalPipelineEngine extends Pipeline implements IPipelineEngine<Pip
 
     int sizeRowsSet = Const.toInt(resolve(config.getRowSetSize()), Const.ROWS_IN_ROWSET);
     setRowSetSize(sizeRowsSet);
+    setRowSetType(
+        LocalPipelineRunConfiguration.RowSetType.lookupName(resolve(config.getRowSetType())));
+    setUsingVirtualThreads(config.isVirtualThreads());
+    setFusingTransforms(config.isFusingTransforms());
     setSafeModeEnabled(config.isSafeModeEnabled());
     setSortingTransformsTopologically(config.isSortingTransformsTopologically());
     setGatheringMetrics(config.isGatheringMetrics());
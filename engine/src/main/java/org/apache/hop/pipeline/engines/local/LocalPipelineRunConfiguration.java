@@ -45,6 +45,43 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key = "rowset_size")
   protected String rowSetSize;
 
+  @GuiWidgetElement(
+      id = "rowSetType",
+      order = "015",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.COMBO,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetType.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetType.ToolTip",
+      comboValuesMethod = "getRowSetTypes")
+  @HopMetadataProperty(key = "rowset_type")
+  protected String rowSetType;
+
+  @GuiWidgetElement(
+      id = "virtualThreads",
+      order = "017",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.VirtualThreads.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.VirtualThreads.ToolTip")
+  @HopMetadataProperty(key = "virtual_threads")
+  protected boolean virtualThreads;
+
+  @GuiWidgetElement(
+      id = "fusingTransforms",
+      order = "018",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.FusingTransforms.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.FusingTransforms.ToolTip")
+  @HopMetadataProperty(key = "fuse_transforms")
+  protected boolean fusingTransforms;
+
   @GuiWidgetElement(
       id = "safeModeEnabled",
       order = "020",
@@ -151,9 +188,36 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     Random;
   }
 
+  /** The type of row set used to pass rows between the copies of transforms. */
+  @SuppressWarnings("java:S115")
+  public enum RowSetType {
+    /** A row set backed by a blocking queue. */
+    Blocking,
+    /** A row set which passes rows along in batches over blocking queues. */
+    BlockingBatching,
+    /** A lock-free single producer, single consumer ring buffer. */
+    RingBuffer;
+
+    /**
+     * Look up a row set type by name.
+     *
+     * @param name the name of the row set type
+     * @return the row set type or Blocking if the name is empty or unknown
+     */
+    public static RowSetType lookupName(String name) {
+      for (RowSetType type : values()) {
+        if (type.name().equalsIgnoreCase(name)) {
+          return type;
+        }
+      }
+      return Blocking;
+    }
+  }
+
   public LocalPipelineRunConfiguration() {
     super();
     this.rowSetSize = Integer.toString(Const.ROWS_IN_ROWSET);
+    this.rowSetType = RowSetType.Blocking.name();
     this.feedbackShown = false;
     this.feedbackSize = Integer.toString(Const.ROWS_UPDATE);
     this.waitTime = EnvUtil.getSystemProperty(Const.HOP_DEFAULT_BUFFER_POLLING_WAITTIME, "20");
@@ -165,6 +229,9 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public LocalPipelineRunConfiguration(LocalPipelineRunConfiguration config) {
     super(config);
     this.rowSetSize = config.rowSetSize;
+    this.rowSetType = config.rowSetType;
+    this.virtualThreads = config.virtualThreads;
+    this.fusingTransforms = config.fusingTransforms;
     this.feedbackShown = config.feedbackShown;
     this.feedbackSize = config.feedbackSize;
     this.waitTime = config.waitTime;
@@ -189,6 +256,14 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     return list;
   }
 
+  public List<String> getRowSetTypes(ILogChannel log, IHopMetadataProvider metadataProvider) {
+    List<String> list = new ArrayList<>();
+    for (RowSetType type : RowSetType.values()) {
+      list.add(type.name());
+    }
+    return list;
+  }
+
   /**
    * Gets rowSetSize
    *
@@ -205,6 +280,55 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets rowSetType
+   *
+   * @return value of rowSetType
+   */
+  public String getRowSetType() {
+    return rowSetType;
+  }
+
+  /**
+   * @param rowSetType The rowSetType to set
+   */
+  public void setRowSetType(String rowSetType) {
+    this.rowSetType = rowSetType;
+  }
+
+  /**
+   * Gets virtualThreads
+   *
+   * @return true if the transforms run on virtual threads
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * @param virtualThreads true to run the transforms on virtual threads
+   */
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+
+  /**
+   * Gets fusingTransforms
+   *
+   * @return true if chains of streaming transforms run in the thread of the first transform
+   */
+  public boolean isFusingTransforms() {
+    return fusingTransforms;
+  }
+
+  /**
+   * @param fusingTransforms true to run chains of streaming transforms in the thread of the first
+   *     transform
+   */
+  public void setFusingTransforms(boolean fusingTransforms) {
+    this.fusingTransforms = fusingTransforms;
+  }
+
   /**
    * Gets safeModeEnabled
    *
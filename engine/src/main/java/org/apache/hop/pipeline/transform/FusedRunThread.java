@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import org.apache.hop.core.FusedRowSet;
+
+/**
+ * Runs a transform which is fused with the transform writing to its single input row set. The
+ * transform doesn't get a thread of its own: every row put in the {@link FusedRowSet} is processed
+ * right away in the thread of the writing transform. When the writing transform finishes, the fused
+ * transform processes the end of its input and finishes as well.
+ */
+public class FusedRunThread extends RunThread {
+
+  private final FusedRowSet rowSet;
+  private boolean finished;
+
+  public FusedRunThread(TransformMetaDataCombi combi, FusedRowSet rowSet) {
+    super(combi);
+    this.rowSet = rowSet;
+  }
+
+  /** Start the fused transform and connect it to its input row set. */
+  public void start() {
+    rowSet.setConsumer(this::processRow);
+    startRunning();
+  }
+
+  /** Process the row which was just put in the input row set. */
+  public void processRow() {
+    if (finished) {
+      return;
+    }
+    try {
+      if (!transform.processRow() || transform.isStopped()) {
+        end();
+      }
+    } catch (Throwable t) {
+      try {
+        handleError(t);
+      } finally {
+        end();
+      }
+    }
+  }
+
+  /**
+   * Let the transform process the end of its input, dispose of it and signal the transform finished
+   * listeners. This is called when the writing transform finishes.
+   */
+  public void finish() {
+    if (finished) {
+      return;
+    }
+    // If the writing transform was stopped it never flagged the end of its output
+    rowSet.setDone();
+    try {
+      while (!transform.isStopped() && transform.processRow()) {
+        // Process the end of the input
+      }
+    } catch (Throwable t) {
+      handleError(t);
+    } finally {
+      end();
+    }
+  }
+
+  private void end() {
+    if (!finished) {
+      finished = true;
+      stopRunning();
+    }
+  }
+
+  /**
+   * Gets finished
+   *
+   * @return true if the fused transform has finished
+   */
+  public boolean isFinished() {
+    return finished;
+  }
+}
@@ -35,6 +35,7 @@ import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
 import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 
 /**
@@ -422,6 +423,16 @@ public interface ITransform extends IVariables, IHasLogChannel, IEngineComponent
     return Collections.emptyList();
   }
 
+  /**
+   * Gets the metrics which only apply to this transform. The engine reports them next to the
+   * metrics of every transform like the number of rows read and written.
+   *
+   * @return the transform specific metrics with their values
+   */
+  default Map<IEngineMetric, Long> getTransformMetrics() {
+    return Collections.emptyMap();
+  }
+
   default void addRowSetToInputRowSets(IRowSet rowSet) {
     getInputRowSets().add(rowSet);
   }
@@ -335,6 +335,18 @@ public interface ITransformMeta {
    */
   boolean supportsMultiCopyExecution();
 
+  /**
+   * A transform supports fusion when every call to processRow() reads exactly one row with getRow()
+   * and never waits for rows from other transforms. The local pipeline engine can then run it in
+   * the thread of the previous transform, which hands over the rows directly. By default return
+   * false.
+   *
+   * @return true if this transform can be fused with the previous transform
+   */
+  default boolean supportsFusion() {
+    return false;
+  }
+
   /**
    * Get a list of all the resource dependencies that the transform is depending on.
    *
@@ -22,7 +22,7 @@ import org.apache.hop.core.row.IRowMeta;
 
 /** Interface for some transform operations required for parse input file. */
 public interface IBaseFileInputTransformControl {
-  long incrementLinesInput();
+  void incrementLinesInput();
 
   long getLinesWritten();
 
@@ -32,7 +32,7 @@ public interface IBaseFileInputTransformControl {
 
   boolean checkFeedback(long lines);
 
-  long incrementLinesUpdated();
+  void incrementLinesUpdated();
 
   boolean failAfterBadFile(String errorMsg);
 
@@ -103,6 +103,9 @@ public class CompressionProviderFactoryTest {
             put("GZip", false);
             put("Snappy", false);
             put("Hadoop-snappy", false);
+            put("Zstd", false);
+            put("LZ4", false);
+            put("GZip-parallel", false);
           }
         };
 
@@ -132,6 +135,9 @@ public class CompressionProviderFactoryTest {
             put("GZip", false);
             put("Snappy", false);
             put("Hadoop-snappy", false);
+            put("Zstd", false);
+            put("LZ4", false);
+            put("GZip-parallel", false);
           }
         };
 
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.gzip;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.apache.hop.core.compress.CompressionPluginType;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class ParallelGzipCompressionProviderTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  public static final String PROVIDER_NAME = "GZip-parallel";
+
+  public CompressionProviderFactory factory = null;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    PluginRegistry.addPluginType(CompressionPluginType.getInstance());
+    PluginRegistry.init();
+  }
+
+  @Before
+  public void setUp() {
+    factory = CompressionProviderFactory.getInstance();
+  }
+
+  @Test
+  public void testGetProviderAttributes() {
+    ParallelGzipCompressionProvider provider =
+        (ParallelGzipCompressionProvider) factory.getCompressionProviderByName(PROVIDER_NAME);
+    assertNotNull(provider);
+    assertEquals(PROVIDER_NAME, provider.getName());
+    assertTrue(provider.supportsInput());
+    assertTrue(provider.supportsOutput());
+    assertEquals("gz", provider.getDefaultExtension());
+    assertEquals(ParallelGzipCompressionProvider.DEFAULT_LEVEL, provider.getLevel());
+    assertTrue(provider.getThreads() > 0);
+  }
+
+  private static byte[] createData(int size) {
+    // Repeating text with some noise so the blocks compress differently
+    Random random = new Random(42);
+    byte[] data = new byte[size];
+    for (int i = 0; i < size; i++) {
+      data[i] = random.nextInt(10) == 0 ? (byte) random.nextInt(256) : (byte) ('a' + i % 26);
+    }
+    return data;
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    try (InputStream input = in) {
+      return input.readAllBytes();
+    }
+  }
+
+  @Test
+  public void testRoundTripOverSeveralBlocks() throws IOException {
+    ParallelGzipCompressionProvider provider =
+        (ParallelGzipCompressionProvider) factory.getCompressionProviderByName(PROVIDER_NAME);
+    byte[] data = createData(ParallelGzipCompressionOutputStream.BLOCK_SIZE * 5 + 1234);
+
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (ParallelGzipCompressionOutputStream out = provider.createOutputStream(compressed)) {
+      // Mix single bytes and arrays crossing the block boundaries
+      out.write(data[0]);
+      int offset = 1;
+      while (offset < data.length) {
+        int length = Math.min(data.length - offset, 300000);
+        out.write(data, offset, length);
+        offset += length;
+        out.flush();
+      }
+    }
+
+    // The members are read back as one stream, both by the JDK and by the provider
+    assertArrayEquals(
+        data, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))));
+    assertArrayEquals(
+        data,
+        readAll(provider.createInputStream(new ByteArrayInputStream(compressed.toByteArray()))));
+  }
+
+  @Test
+  public void testEmptyFileIsValidGzip() throws IOException {
+    ParallelGzipCompressionProvider provider =
+        (ParallelGzipCompressionProvider) factory.getCompressionProviderByName(PROVIDER_NAME);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    provider.createOutputStream(compressed).close();
+
+    assertTrue(compressed.size() > 0);
+    assertEquals(
+        0, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))).length);
+  }
+
+  @Test
+  public void testSingleThread() throws IOException {
+    ParallelGzipCompressionPool pool = new ParallelGzipCompressionPool(1);
+    try {
+      byte[] data = createData(ParallelGzipCompressionOutputStream.BLOCK_SIZE * 3);
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      try (ParallelGzipCompressionOutputStream out =
+          new ParallelGzipCompressionOutputStream(
+              compressed, new ParallelGzipCompressionProvider(), pool, 1)) {
+        out.write(data);
+      }
+      assertArrayEquals(
+          data, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testFilesShareTheBlocksInFlight() throws Exception {
+    ParallelGzipCompressionPool pool = new ParallelGzipCompressionPool(2);
+    try {
+      byte[] data = createData(ParallelGzipCompressionOutputStream.BLOCK_SIZE * 4 + 10);
+      List<ByteArrayOutputStream> files = new ArrayList<>();
+      List<Thread> writers = new ArrayList<>();
+      List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+      int[] maxBlocksInFlight = new int[1];
+      for (int i = 0; i < 4; i++) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        files.add(compressed);
+        writers.add(
+            new Thread(
+                () -> {
+                  try (ParallelGzipCompressionOutputStream out =
+                      new ParallelGzipCompressionOutputStream(
+                          compressed, new ParallelGzipCompressionProvider(), pool, 1)) {
+                    for (int offset = 0; offset < data.length; offset += 100000) {
+                      out.write(data, offset, Math.min(100000, data.length - offset));
+                      synchronized (maxBlocksInFlight) {
+                        maxBlocksInFlight[0] =
+                            Math.max(maxBlocksInFlight[0], pool.getBlocksInFlight());
+                      }
+                    }
+                  } catch (Throwable e) {
+                    errors.add(e);
+                  }
+                }));
+      }
+      for (Thread writer : writers) {
+        writer.start();
+      }
+      for (Thread writer : writers) {
+        writer.join();
+      }
+      assertTrue(errors.toString(), errors.isEmpty());
+
+      for (ByteArrayOutputStream compressed : files) {
+        assertArrayEquals(
+            data, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))));
+      }
+
+      // The limit applies to all the files together, the buffers are reused
+      assertEquals(4, pool.getMaxBlocksInFlight());
+      assertTrue(maxBlocksInFlight[0] <= pool.getMaxBlocksInFlight());
+      assertTrue(pool.getFreeBufferCount() <= pool.getMaxBlocksInFlight());
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
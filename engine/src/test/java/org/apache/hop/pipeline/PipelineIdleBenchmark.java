@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.util.VirtualThreads;
+import org.apache.hop.junit.rules.Benchmark;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Starts pipelines which wait for rows that never come and measures the CPU time and the context
+ * switches of the process while they are idle. Run it on Java 21 or later to compare with virtual
+ * threads, for example with {@code -Djvm=/path/to/java21/bin/java}.
+ */
+public class PipelineIdleBenchmark {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public Benchmark benchmark = new Benchmark();
+
+  private final int pipelines = (int) Benchmark.size("pipelines", 100);
+  private final int transforms = (int) Benchmark.size("transforms", 10);
+  private final long idleMillis = Benchmark.size("idleMillis", 10_000);
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Test
+  public void platformThreads() throws Exception {
+    measure(false);
+  }
+
+  @Test
+  public void virtualThreads() throws Exception {
+    if (!VirtualThreads.isSupported()) {
+      Benchmark.report("Virtual threads", "not supported by this Java runtime");
+      return;
+    }
+    measure(true);
+  }
+
+  private void measure(boolean virtual) throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    TransformMeta previous = new TransformMeta("injector", new InjectorMeta());
+    pipelineMeta.addTransform(previous);
+    for (int i = 1; i < transforms; i++) {
+      TransformMeta dummy = new TransformMeta("dummy " + i, new DummyMeta());
+      pipelineMeta.addTransform(dummy);
+      pipelineMeta.addPipelineHop(new PipelineHopMeta(previous, dummy));
+      previous = dummy;
+    }
+
+    List<Pipeline> running = new ArrayList<>();
+    List<RowProducer> producers = new ArrayList<>();
+    for (int i = 0; i < pipelines; i++) {
+      Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+      pipeline.setLogChannel(Mockito.mock(ILogChannel.class));
+      LocalPipelineRunConfiguration runConfiguration =
+          (LocalPipelineRunConfiguration)
+              pipeline.getPipelineRunConfiguration().getEngineRunConfiguration();
+      runConfiguration.setVirtualThreads(virtual);
+      pipeline.prepareExecution();
+      producers.add(pipeline.addRowProducer("injector", 0));
+      pipeline.startThreads();
+      running.add(pipeline);
+    }
+    // Let the transforms reach their idle wait
+    Thread.sleep(1000);
+
+    com.sun.management.OperatingSystemMXBean os =
+        (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    long cpuBefore = os.getProcessCpuTime();
+    long switchesBefore = contextSwitches();
+    Thread.sleep(idleMillis);
+    long cpu = os.getProcessCpuTime() - cpuBefore;
+    long switches = contextSwitches() - switchesBefore;
+    long osThreads = osThreads();
+
+    for (RowProducer producer : producers) {
+      producer.finished();
+    }
+    for (Pipeline pipeline : running) {
+      pipeline.waitUntilFinished();
+    }
+
+    double seconds = idleMillis / 1000d;
+    Benchmark.report(
+        String.format(
+            "%d idle pipelines of %d transforms, %s threads",
+            pipelines, transforms, virtual ? "virtual" : "platform"),
+        String.format(
+            "%,8.1f ms CPU/s %,10.0f context switches/s %,6d OS threads",
+            cpu / 1e6 / seconds, switches / seconds, osThreads));
+  }
+
+  /** The voluntary and involuntary context switches of all threads of the process on Linux. */
+  private static long contextSwitches() throws IOException {
+    long switches = 0;
+    try (Stream<Path> tasks = Files.list(Path.of("/proc/self/task"))) {
+      for (Path task : (Iterable<Path>) tasks::iterator) {
+        try {
+          for (String line : Files.readAllLines(task.resolve("status"))) {
+            if (line.startsWith("voluntary_ctxt_switches")
+                || line.startsWith("nonvoluntary_ctxt_switches")) {
+              switches += Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+            }
+          }
+        } catch (IOException e) {
+          // The thread ended in the meantime
+        }
+      }
+    }
+    return switches;
+  }
+
+  private static long osThreads() throws IOException {
+    try (Stream<Path> tasks = Files.list(Path.of("/proc/self/task"))) {
+      return tasks.count();
+    }
+  }
+}
@@ -18,6 +18,9 @@
 package org.apache.hop.pipeline;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -26,18 +29,33 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import org.apache.hop.core.BlockingBatchingRowSet;
+import org.apache.hop.core.BlockingRowSet;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.FusedRowSet;
 import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.RingBufferRowSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration.RowSetType;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.ITransformData;
+import org.apache.hop.pipeline.transform.RowAdapter;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
@@ -367,4 +385,79 @@ public class PipelineTest {
         "Original value defined at run execution",
         pipelineTest.getVariable(Const.INTERNAL_VARIABLE_ENTRY_CURRENT_FOLDER));
   }
+
+  @Test
+  public void testBatchingRowSetPropertyOnlyAppliesToDirectHops() {
+    Pipeline pipelineTest = new LocalPipelineEngine();
+    String oldValue = System.getProperty(Const.HOP_BATCHING_ROWSET);
+    try {
+      System.setProperty(Const.HOP_BATCHING_ROWSET, "Y");
+      assertTrue(pipelineTest.createTransformRowSet(true) instanceof BlockingBatchingRowSet);
+      assertEquals(BlockingRowSet.class, pipelineTest.createTransformRowSet(false).getClass());
+
+      pipelineTest.setRowSetType(RowSetType.RingBuffer);
+      assertTrue(pipelineTest.createTransformRowSet(true) instanceof RingBufferRowSet);
+      assertTrue(pipelineTest.createTransformRowSet(false) instanceof RingBufferRowSet);
+    } finally {
+      if (oldValue == null) {
+        System.clearProperty(Const.HOP_BATCHING_ROWSET);
+      } else {
+        System.setProperty(Const.HOP_BATCHING_ROWSET, oldValue);
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testRowProducerRunsAFusedTransformInItsOwnThread() throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    TransformMeta injector = new TransformMeta("injector", new InjectorMeta());
+    TransformMeta dummy = new TransformMeta("dummy", new DummyMeta());
+    pipelineMeta.addTransform(injector);
+    pipelineMeta.addTransform(dummy);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, dummy));
+
+    Pipeline fusingPipeline =
+        new LocalPipelineEngine(pipelineMeta) {
+          @Override
+          protected boolean isFusable(
+              TransformMeta previousTransform, TransformMeta transformMeta) {
+            return true;
+          }
+        };
+    fusingPipeline.setLogChannel(mock(ILogChannel.class));
+    fusingPipeline.prepareExecution();
+    ITransform first = fusingPipeline.getTransform("injector", 0);
+    ITransform second = fusingPipeline.getTransform("dummy", 0);
+    assertTrue(second.getInputRowSets().get(0) instanceof FusedRowSet);
+
+    RowProducer firstProducer = fusingPipeline.addRowProducer("injector", 0);
+    RowProducer secondProducer = fusingPipeline.addRowProducer("dummy", 0);
+    assertEquals(2, second.getInputRowSets().size());
+    for (IRowSet rowSet : second.getInputRowSets()) {
+      assertFalse(rowSet instanceof FusedRowSet);
+    }
+    assertSame(first.getOutputRowSets().get(0), second.getInputRowSets().get(0));
+    assertFalse(fusingPipeline.getRowsets().stream().anyMatch(FusedRowSet.class::isInstance));
+
+    List<Object[]> written = Collections.synchronizedList(new ArrayList<>());
+    second.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            written.add(row);
+          }
+        });
+    fusingPipeline.startThreads();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    firstProducer.putRow(rowMeta, new Object[] {1L});
+    secondProducer.putRow(rowMeta, new Object[] {2L});
+    firstProducer.finished();
+    secondProducer.finished();
+    fusingPipeline.waitUntilFinished();
+
+    assertEquals(0, fusingPipeline.getErrors());
+    assertEquals(2, written.size());
+  }
 }
@@ -17,6 +17,8 @@
 
 package org.apache.hop.pipeline.transform;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
@@ -32,6 +34,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -203,6 +206,53 @@ public class BaseTransformTest {
     }
   }
 
+  @Test
+  public void rowCountersAreSafeForConcurrentUpdates() throws Exception {
+    final BaseTransform<ITransformMeta, ITransformData> transform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+
+    final int threads = 4;
+    final int rows = 10000;
+    List<Thread> counters = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      counters.add(
+          new Thread(
+              () -> {
+                for (int i = 0; i < rows; i++) {
+                  transform.incrementLinesRead();
+                  transform.incrementLinesWritten();
+                  transform.incrementLinesOutput();
+                }
+              }));
+    }
+    for (Thread counter : counters) {
+      counter.start();
+    }
+    // Reading the counters while they're updated doesn't block the updates
+    while (transform.getLinesRead() < threads * rows) {
+      assertTrue(transform.getLinesWritten() <= threads * rows);
+    }
+    for (Thread counter : counters) {
+      counter.join();
+    }
+
+    assertEquals(threads * rows, transform.getLinesRead());
+    assertEquals(threads * rows, transform.getLinesWritten());
+    assertEquals(threads * rows, transform.getLinesOutput());
+    transform.decrementLinesRead();
+    assertEquals(threads * rows - 1, transform.getLinesRead());
+
+    transform.setLinesRead(5);
+    transform.incrementLinesRead();
+    assertEquals(6, transform.getLinesRead());
+  }
+
   @Test
   public void outputRowMetasAreNotSharedAmongSeveralStreams() throws Exception {
     IRowSet rs1 = new SingleRowRowSet();
@@ -456,4 +506,71 @@ public class BaseTransformTest {
     verify(mockHelper.pipelineMeta, times(1))
         .checkRowMixingStatically(any(IVariables.class), any(TransformMeta.class), eq(null));
   }
+
+  @Test
+  public void testPausedTransformWaitsUntilResumed() throws Exception {
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+    BaseTransform baseTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    IRowSet rowSet = new QueueRowSet();
+    rowSet.putRow(new RowMeta(), new Object[] {1L});
+    baseTransform.pauseRunning();
+
+    List<Object[]> rows = new ArrayList<>();
+    Thread reader =
+        new Thread(
+            () -> {
+              try {
+                rows.add(baseTransform.handleGetRowFrom(rowSet));
+              } catch (HopTransformException e) {
+                fail(e.getMessage());
+              }
+            });
+    reader.start();
+    reader.join(200);
+    assertTrue(reader.isAlive());
+    assertTrue(rows.isEmpty());
+
+    baseTransform.resumeRunning();
+    reader.join(5000);
+    assertFalse(reader.isAlive());
+    assertEquals(1, rows.size());
+    assertEquals(1L, rows.get(0)[0]);
+  }
+
+  @Test
+  public void testPausedTransformWakesUpWhenStopped() throws Exception {
+    BaseTransform baseTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    baseTransform.pauseRunning();
+
+    Thread writer =
+        new Thread(
+            () -> {
+              try {
+                baseTransform.handlePutRowTo(new RowMeta(), new Object[] {1L}, new QueueRowSet());
+              } catch (HopTransformException e) {
+                fail(e.getMessage());
+              }
+            });
+    writer.start();
+    writer.join(200);
+    assertTrue(writer.isAlive());
+
+    baseTransform.stopAll();
+    writer.join(5000);
+    assertFalse(writer.isAlive());
+  }
 }
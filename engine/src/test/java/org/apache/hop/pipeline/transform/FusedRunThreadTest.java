@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.FusedRowSet;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.RowMeta;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FusedRunThreadTest {
+  private ITransform transform;
+  private FusedRowSet rowSet;
+  private FusedRunThread runThread;
+  private List<Object[]> rows;
+
+  @Before
+  public void setUp() throws Exception {
+    transform = mock(ITransform.class);
+    when(transform.getLogChannel()).thenReturn(mock(ILogChannel.class));
+    rows = new ArrayList<>();
+    rowSet = new FusedRowSet();
+    // Read one row for every call, like a streaming transform
+    when(transform.processRow())
+        .thenAnswer(
+            invocation -> {
+              Object[] row = rowSet.getRowWait(1, TimeUnit.SECONDS);
+              if (row == null) {
+                return false;
+              }
+              rows.add(row);
+              return true;
+            });
+
+    TransformMetaDataCombi combi = new TransformMetaDataCombi();
+    combi.transform = transform;
+    runThread = new FusedRunThread(combi, rowSet);
+  }
+
+  @Test
+  public void testRowsAreProcessedInTheWritingThread() throws Exception {
+    runThread.start();
+    verify(transform).setRunning(true);
+
+    rowSet.putRow(new RowMeta(), new Object[] {1L});
+    rowSet.putRow(new RowMeta(), new Object[] {2L});
+    assertEquals(2, rows.size());
+    assertFalse(runThread.isFinished());
+    verify(transform, never()).markStop();
+
+    rowSet.setDone();
+    runThread.finish();
+    assertTrue(runThread.isFinished());
+    verify(transform, times(3)).processRow();
+    verify(transform).dispose();
+    verify(transform).markStop();
+
+    // Finishing twice doesn't stop the transform again
+    runThread.finish();
+    verify(transform).markStop();
+  }
+
+  @Test
+  public void testFinishWhenWritingTransformWasStopped() throws Exception {
+    runThread.start();
+    rowSet.putRow(new RowMeta(), new Object[] {1L});
+
+    // The end of the output was never flagged
+    runThread.finish();
+    assertTrue(rowSet.isDone());
+    assertTrue(runThread.isFinished());
+    verify(transform).markStop();
+  }
+
+  @Test
+  public void testStoppedTransformIgnoresRows() throws Exception {
+    runThread.start();
+    when(transform.isStopped()).thenReturn(true);
+    rowSet.putRow(new RowMeta(), new Object[] {1L});
+    assertTrue(runThread.isFinished());
+    verify(transform).markStop();
+
+    rowSet.putRow(new RowMeta(), new Object[] {2L});
+    assertEquals(1, rows.size());
+    runThread.finish();
+    verify(transform).markStop();
+  }
+}
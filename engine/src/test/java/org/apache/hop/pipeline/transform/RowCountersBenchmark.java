@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.Benchmark;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transforms.dummy.Dummy;
+import org.apache.hop.pipeline.transforms.dummy.DummyData;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.mock.GeneratedRowSet;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Measures the row counters of {@link BaseTransform}: once on the getRow()/putRow() path of a Dummy
+ * transform, and once updated from several threads while another thread keeps reading them the way
+ * a status poll does.
+ */
+public class RowCountersBenchmark {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public Benchmark benchmark = new Benchmark();
+
+  private final long rows = Benchmark.size("rows", 20_000_000L);
+  private final int threads = (int) Benchmark.size("threads", 4);
+
+  private TransformMeta transformMeta;
+  private DummyMeta meta;
+  private PipelineMeta pipelineMeta;
+  private Pipeline pipeline;
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    meta = new DummyMeta();
+    transformMeta = new TransformMeta("Dummy", meta);
+    pipelineMeta = new PipelineMeta();
+    pipelineMeta.addTransform(transformMeta);
+    pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.setRunning(true);
+  }
+
+  @Test
+  public void getRowAndPutRow() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    Object[] row = new Object[] {1L, "Apache Hop"};
+
+    benchmark.measure(
+        "Dummy, getRow() and putRow()",
+        rows,
+        () -> {
+          Dummy dummy = new Dummy(transformMeta, meta, new DummyData(), 0, pipelineMeta, pipeline);
+          dummy.addRowSetToInputRowSets(new GeneratedRowSet(rows, seq -> row));
+          dummy.setInputRowMeta(rowMeta);
+          dummy.init();
+          while (dummy.processRow()) {
+            // Pass all rows
+          }
+          dummy.dispose();
+          assertEquals(rows, dummy.getLinesRead());
+          assertEquals(rows, dummy.getLinesWritten());
+        });
+  }
+
+  @Test
+  public void countersUpdatedWhilePolled() throws Exception {
+    long updates = rows / threads;
+
+    benchmark.measure(
+        String.format("Row counters, %d threads and a status poll", threads),
+        updates * threads,
+        () -> {
+          Dummy dummy = new Dummy(transformMeta, meta, new DummyData(), 0, pipelineMeta, pipeline);
+          AtomicBoolean updating = new AtomicBoolean(true);
+          Thread poller =
+              new Thread(
+                  () -> {
+                    while (updating.get()) {
+                      dummy.getLinesRead();
+                      dummy.getLinesWritten();
+                      dummy.getLinesInput();
+                      dummy.getLinesOutput();
+                      dummy.getLinesUpdated();
+                      dummy.getLinesRejected();
+                    }
+                  });
+          poller.start();
+          List<Thread> updaters = new ArrayList<>();
+          for (int i = 0; i < threads; i++) {
+            Thread updater =
+                new Thread(
+                    () -> {
+                      for (long u = 0; u < updates; u++) {
+                        dummy.incrementLinesRead();
+                        dummy.incrementLinesWritten();
+                      }
+                    });
+            updaters.add(updater);
+            updater.start();
+          }
+          for (Thread updater : updaters) {
+            updater.join();
+          }
+          updating.set(false);
+          poller.join();
+          assertEquals(updates * threads, dummy.getLinesRead());
+          assertEquals(updates * threads, dummy.getLinesWritten());
+        });
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.mock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import org.apache.hop.core.QueueRowSet;
+
+/**
+ * An input row set for benchmarks. It creates its rows while they are read instead of keeping them
+ * all in memory.
+ */
+public class GeneratedRowSet extends QueueRowSet {
+  private final long rows;
+  private final LongFunction<Object[]> rowFactory;
+  private long index;
+
+  /**
+   * @param rows the number of rows to generate
+   * @param rowFactory creates the row with the given row number
+   */
+  public GeneratedRowSet(long rows, LongFunction<Object[]> rowFactory) {
+    this.rows = rows;
+    this.rowFactory = rowFactory;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return index < rows ? rowFactory.apply(index++) : null;
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return getRow();
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    return getRow();
+  }
+
+  @Override
+  public boolean isDone() {
+    return index >= rows;
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.min(rows - index, Integer.MAX_VALUE);
+  }
+}
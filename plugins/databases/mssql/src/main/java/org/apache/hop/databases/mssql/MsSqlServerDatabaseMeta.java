@@ -895,6 +895,11 @@ public class MsSqlServerDatabaseMeta extends BaseDatabaseMeta implements IDataba
     return 8000;
   }
 
+  @Override
+  public int getMaxStatementParameters() {
+    return 2100;
+  }
+
   @Override
   public boolean isMsSqlServerVariant() {
     return true;
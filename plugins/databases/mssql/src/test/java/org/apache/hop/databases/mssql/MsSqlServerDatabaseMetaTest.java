@@ -481,6 +481,7 @@ public class MsSqlServerDatabaseMetaTest {
     assertFalse(nativeMeta.isUseSafePoints());
     assertTrue(nativeMeta.IsSupportsErrorHandlingOnBatchUpdates());
     assertEquals(8000, nativeMeta.getMaxVARCHARLength());
+    assertEquals(2100, nativeMeta.getMaxStatementParameters());
   }
 
   @Test
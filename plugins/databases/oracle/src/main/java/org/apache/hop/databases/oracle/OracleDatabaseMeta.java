@@ -668,6 +668,14 @@ public class OracleDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
     return 32;
   }
 
+  /**
+   * @return The maximum number of values in an IN list, <=0 means: no known limit
+   */
+  @Override
+  public int getMaxInListSize() {
+    return 1000;
+  }
+
   /**
    * @return The SQL on this database to get a list of sequences.
    */
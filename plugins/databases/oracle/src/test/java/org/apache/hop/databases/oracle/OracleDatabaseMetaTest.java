@@ -239,6 +239,7 @@ public class OracleDatabaseMetaTest {
     assertEquals(2000, nativeMeta.getMaxVARCHARLength());
     assertTrue(nativeMeta.isSupportsTimestampDataType());
     assertEquals(32, nativeMeta.getMaxColumnsInIndex());
+    assertEquals(1000, nativeMeta.getMaxInListSize());
   }
 
   @Test
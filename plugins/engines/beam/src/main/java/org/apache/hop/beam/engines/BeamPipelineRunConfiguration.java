@@ -67,6 +67,14 @@ public abstract class BeamPipelineRunConfiguration extends EmptyPipelineRunConfi
   @HopMetadataProperty
   protected String fatJar;
 
+  @GuiWidgetElement(
+      order = "90080-general-options",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label = "Encode rows with Java serialization (compatibility)")
+  @HopMetadataProperty
+  protected boolean javaSerializationRowCoder;
+
   public BeamPipelineRunConfiguration() {
     userAgent = "Hop";
     streamingHopTransformsFlushInterval = "-1";
@@ -84,6 +92,7 @@ public abstract class BeamPipelineRunConfiguration extends EmptyPipelineRunConfi
     this.streamingHopTransformsFlushInterval = config.streamingHopTransformsFlushInterval;
     this.streamingHopTransformsBufferSize = config.streamingHopTransformsBufferSize;
     this.fatJar = config.fatJar;
+    this.javaSerializationRowCoder = config.javaSerializationRowCoder;
   }
 
   /**
@@ -170,4 +179,21 @@ public abstract class BeamPipelineRunConfiguration extends EmptyPipelineRunConfi
   public void setFatJar(String fatJar) {
     this.fatJar = fatJar;
   }
+
+  /**
+   * Gets javaSerializationRowCoder
+   *
+   * @return value of javaSerializationRowCoder
+   */
+  @Override
+  public boolean isJavaSerializationRowCoder() {
+    return javaSerializationRowCoder;
+  }
+
+  /**
+   * @param javaSerializationRowCoder The javaSerializationRowCoder to set
+   */
+  public void setJavaSerializationRowCoder(boolean javaSerializationRowCoder) {
+    this.javaSerializationRowCoder = javaSerializationRowCoder;
+  }
 }
@@ -36,6 +36,7 @@ import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.coder.HopRowBinaryCoder;
 import org.apache.hop.beam.core.coder.HopRowCoder;
 import org.apache.hop.beam.core.util.HopBeamUtil;
 import org.apache.hop.beam.engines.HopPipelineExecutionOptions;
@@ -282,7 +283,13 @@ public class HopPipelineMetaToBeamPipelineConverter {
 
       Pipeline pipeline = Pipeline.create(pipelineOptions);
 
-      pipeline.getCoderRegistry().registerCoderForClass(HopRow.class, new HopRowCoder());
+      // The Java serialization coder is kept for compatibility, the binary coder is more compact
+      //
+      if (pipelineRunConfiguration.isJavaSerializationRowCoder()) {
+        pipeline.getCoderRegistry().registerCoderForClass(HopRow.class, new HopRowCoder());
+      } else {
+        pipeline.getCoderRegistry().registerCoderForClass(HopRow.class, new HopRowBinaryCoder());
+      }
 
       log.logBasic("Created Apache Beam pipeline with name '" + pipelineOptions.getJobName() + "'");
 
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.coder;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Date;
+import java.util.Locale;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.Benchmark;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Encodes and decodes the rows a Group By shuffles between workers, with the Java serialization
+ * coder and with the binary coder, with and without the row layout.
+ */
+public class HopRowCoderBenchmark {
+  @Rule public Benchmark benchmark = new Benchmark();
+
+  private final int rows = (int) Benchmark.size("rows", 1_000_000L);
+
+  private IRowMeta rowMeta;
+  private HopRow[] hopRows;
+
+  @Before
+  public void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    hopRows = new HopRow[rows];
+    for (int i = 0; i < rows; i++) {
+      Date date = new Date(1_600_000_000_000L + i);
+      hopRows[i] =
+          new HopRow(new Object[] {"customer " + i % 1000, (long) i, i * 1.5, date, i % 2 == 0});
+    }
+  }
+
+  @Test
+  public void javaSerialization() throws Exception {
+    measure("HopRowCoder", new HopRowCoder());
+  }
+
+  @Test
+  public void binary() throws Exception {
+    measure("HopRowBinaryCoder, typed values", new HopRowBinaryCoder());
+  }
+
+  @Test
+  public void binaryWithLayout() throws Exception {
+    measure("HopRowBinaryCoder, row layout", HopRowBinaryCoder.of(rowMeta));
+  }
+
+  private void measure(String name, Coder<HopRow> coder) throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(rows * 64);
+    benchmark.measure(
+        name + ", encode",
+        rows,
+        () -> {
+          outputStream.reset();
+          for (HopRow hopRow : hopRows) {
+            coder.encode(hopRow, outputStream);
+          }
+        });
+    byte[] encoded = outputStream.toByteArray();
+    Benchmark.report(
+        name + ", size",
+        String.format(Locale.ROOT, "%,15.1f bytes/row", (double) encoded.length / rows));
+
+    HopRow[] decoded = new HopRow[1];
+    benchmark.measure(
+        name + ", decode",
+        rows,
+        () -> {
+          ByteArrayInputStream inputStream = new ByteArrayInputStream(encoded);
+          for (int i = 0; i < rows; i++) {
+            decoded[0] = coder.decode(inputStream);
+          }
+        });
+    assertEquals(hopRows[rows - 1], decoded[0]);
+  }
+}
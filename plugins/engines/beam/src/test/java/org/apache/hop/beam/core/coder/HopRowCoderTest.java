@@ -158,4 +158,20 @@ public class HopRowCoderTest extends TestCase {
       assertEquals(genericRecord.get(key), verify.get(key));
     }
   }
+
+  /** The binary coder writes fewer bytes than the Java serialization of the values. */
+  @Test
+  public void testEncodedSizeComparedToTheBinaryCoder() throws IOException {
+    HopRowBinaryCoder binaryCoder = new HopRowBinaryCoder();
+    ByteArrayOutputStream binaryStream = new ByteArrayOutputStream();
+    for (long id = 0; id < 1000; id++) {
+      HopRow row =
+          new HopRow(
+              new Object[] {"Apache Hop " + id, id, id * 1.5, new Date(1600000000000L + id)});
+      hopRowCoder.encode(row, outputStream);
+      binaryCoder.encode(row, binaryStream);
+    }
+
+    assertTrue(binaryStream.size() < outputStream.size());
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.hop.vfs.s3.s3common;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.Bucket;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
@@ -36,8 +37,10 @@ import java.util.List;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.apache.hop.core.logging.LogChannel;
 
 public abstract class S3CommonFileObject extends AbstractFileObject {
@@ -70,6 +73,11 @@ public abstract class S3CommonFileObject extends AbstractFileObject {
     return new S3CommonFileInputStream(streamS3Object.getObjectContent(), streamS3Object);
   }
 
+  @Override
+  protected RandomAccessContent doGetRandomAccessContent(RandomAccessMode mode) throws Exception {
+    return new S3CommonRandomAccessContent(this, mode);
+  }
+
   @Override
   protected FileType doGetType() throws Exception {
     return getType();
@@ -182,6 +190,20 @@ public abstract class S3CommonFileObject extends AbstractFileObject {
     }
   }
 
+  /**
+   * Get the content of the object from the given position on with a ranged request.
+   *
+   * @param position the position of the first byte to get
+   * @return the object with the requested range of content
+   */
+  protected S3Object getS3Object(long position) {
+    LogChannel.GENERAL.logDebug(
+        "Getting object {0} from position {1}", getQualifiedName(), position);
+    return fileSystem
+        .getS3Client()
+        .getObject(new GetObjectRequest(bucketName, key).withRange(position));
+  }
+
   protected boolean isRootBucket() {
     return key.equals("");
   }
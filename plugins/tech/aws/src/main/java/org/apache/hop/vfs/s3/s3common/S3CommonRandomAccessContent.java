@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.vfs.s3.s3common;
+
+import com.amazonaws.services.s3.model.S3Object;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.apache.commons.vfs2.provider.AbstractRandomAccessStreamContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+/**
+ * Random read access to an S3 object. Every seek closes the current stream and the next read opens
+ * a new one with a ranged get request starting at the new position, so only the bytes which are
+ * read are transferred.
+ */
+public class S3CommonRandomAccessContent extends AbstractRandomAccessStreamContent {
+
+  private final S3CommonFileObject fileObject;
+  private final long length;
+  private long filePointer;
+  private S3Object s3Object;
+  private DataInputStream dataInputStream;
+
+  public S3CommonRandomAccessContent(S3CommonFileObject fileObject, RandomAccessMode mode) {
+    super(mode);
+    this.fileObject = fileObject;
+    this.length = fileObject.doGetContentSize();
+  }
+
+  @Override
+  public long getFilePointer() throws IOException {
+    return filePointer;
+  }
+
+  @Override
+  public void seek(long pos) throws IOException {
+    if (pos == filePointer) {
+      return;
+    }
+    if (pos < 0) {
+      throw new IOException("Unable to seek to negative position " + pos);
+    }
+    closeStream();
+    filePointer = pos;
+  }
+
+  @Override
+  public long length() throws IOException {
+    return length;
+  }
+
+  @Override
+  protected DataInputStream getDataInputStream() throws IOException {
+    if (dataInputStream == null) {
+      InputStream inputStream;
+      if (filePointer >= length) {
+        // A range beyond the end of the object isn't satisfiable
+        inputStream = new ByteArrayInputStream(new byte[0]);
+      } else {
+        s3Object = fileObject.getS3Object(filePointer);
+        inputStream = s3Object.getObjectContent();
+      }
+      dataInputStream = new DataInputStream(new PositionInputStream(inputStream));
+    }
+    return dataInputStream;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeStream();
+  }
+
+  private void closeStream() throws IOException {
+    dataInputStream = null;
+    if (s3Object != null) {
+      // Abort the request rather than reading the rest of the range
+      s3Object.getObjectContent().abort();
+      s3Object.close();
+      s3Object = null;
+    }
+  }
+
+  /** Keeps the file pointer in line with the bytes read from the ranged stream. */
+  private class PositionInputStream extends FilterInputStream {
+    PositionInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        filePointer++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read > 0) {
+        filePointer += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      filePointer += skipped;
+      return skipped;
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.vfs.s3.s3common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class S3CommonRandomAccessContentTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private byte[] data;
+  private File file;
+  private S3CommonFileObject fileObject;
+
+  @Before
+  public void setUp() throws IOException {
+    data = new byte[100000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i * 17);
+    }
+    file = temporaryFolder.newFile("object.bin");
+    Files.write(file.toPath(), data);
+
+    // Ranged get requests are served from a local file
+    //
+    fileObject = mock(S3CommonFileObject.class);
+    when(fileObject.doGetContentSize()).thenReturn((long) data.length);
+    when(fileObject.getS3Object(anyLong()))
+        .thenAnswer(invocation -> getRange(invocation.getArgument(0, Long.class)));
+  }
+
+  private S3Object getRange(long position) throws IOException {
+    InputStream inputStream = new FileInputStream(file);
+    inputStream.skip(position);
+    S3Object s3Object = new S3Object();
+    s3Object.setObjectContent(new S3ObjectInputStream(inputStream, new HttpGet()));
+    return s3Object;
+  }
+
+  @Test
+  public void testReadAndSeek() throws IOException {
+    S3CommonRandomAccessContent content =
+        new S3CommonRandomAccessContent(fileObject, RandomAccessMode.READ);
+    assertEquals(data.length, content.length());
+
+    byte[] buffer = new byte[50];
+    content.readFully(buffer);
+    assertArrayEquals(slice(0, 50), buffer);
+    assertEquals(50, content.getFilePointer());
+
+    // Seeking forward and backward does a new ranged request
+    //
+    content.seek(80000);
+    content.readFully(buffer);
+    assertArrayEquals(slice(80000, 50), buffer);
+    assertEquals(80050, content.getFilePointer());
+
+    content.seek(10);
+    assertEquals(data[10], content.readByte());
+    assertEquals(11, content.getFilePointer());
+
+    verify(fileObject).getS3Object(0);
+    verify(fileObject).getS3Object(80000);
+    verify(fileObject).getS3Object(10);
+    content.close();
+  }
+
+  @Test
+  public void testSeekToCurrentPositionKeepsTheRequest() throws IOException {
+    S3CommonRandomAccessContent content =
+        new S3CommonRandomAccessContent(fileObject, RandomAccessMode.READ);
+
+    content.readByte();
+    content.seek(1);
+    content.readByte();
+
+    verify(fileObject, times(1)).getS3Object(anyLong());
+    content.close();
+  }
+
+  @Test
+  public void testSkip() throws IOException {
+    S3CommonRandomAccessContent content =
+        new S3CommonRandomAccessContent(fileObject, RandomAccessMode.READ);
+
+    content.seek(100);
+    assertEquals(1000, content.skipBytes(1000));
+    assertEquals(1100, content.getFilePointer());
+    assertEquals(data[1100], content.readByte());
+    content.close();
+  }
+
+  @Test
+  public void testReadBeyondTheEnd() throws IOException {
+    S3CommonRandomAccessContent content =
+        new S3CommonRandomAccessContent(fileObject, RandomAccessMode.READ);
+
+    content.seek(data.length);
+    try {
+      content.readByte();
+      fail("Reading beyond the end of the object should fail");
+    } catch (EOFException e) {
+      // expected
+    }
+    verify(fileObject, never()).getS3Object(anyLong());
+    content.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testSeekToNegativePosition() throws IOException {
+    new S3CommonRandomAccessContent(fileObject, RandomAccessMode.READ).seek(-1);
+  }
+
+  private byte[] slice(int offset, int length) {
+    byte[] slice = new byte[length];
+    System.arraycopy(data, offset, slice, 0, length);
+    return slice;
+  }
+}
@@ -115,7 +115,8 @@ public class GoogleStorageFileObject extends AbstractFileObject<GoogleStorageFil
       throw new FileNotFoundException();
     }
     Storage storage = getAbstractFileSystem().setupStorage();
-    return new ReadChannelInputStream(storage.reader(blob.getBlobId()));
+    Long size = blob.getSize();
+    return new ReadChannelInputStream(storage.reader(blob.getBlobId()), size == null ? -1L : size);
   }
 
   @Override
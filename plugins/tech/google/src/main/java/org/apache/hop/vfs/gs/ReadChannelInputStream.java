@@ -27,9 +27,20 @@ public class ReadChannelInputStream extends InputStream {
 
   ReadChannel channel;
   ByteBuffer bytes = ByteBuffer.allocate(64 * 1024);
+  long position;
+  long size;
 
   public ReadChannelInputStream(ReadChannel channel) {
+    this(channel, -1L);
+  }
+
+  /**
+   * @param channel the channel to read from
+   * @param size the size of the blob or -1 if it is unknown
+   */
+  public ReadChannelInputStream(ReadChannel channel, long size) {
     this.channel = channel;
+    this.size = size;
   }
 
   @Override
@@ -64,9 +75,35 @@ public class ReadChannelInputStream extends InputStream {
     bytes.get(buf, off, read);
     bytes.compact();
     bytes.limit(limit);
+    position += read;
     return read;
   }
 
+  /**
+   * Skip bytes by moving the read channel to the new position. The next read starts a new ranged
+   * download from there instead of downloading the skipped bytes. When the size of the blob is not
+   * known the bytes are read and discarded instead.
+   *
+   * @param n the number of bytes to skip
+   * @return the number of bytes skipped, which is less than requested at the end of the blob
+   */
+  @Override
+  public synchronized long skip(long n) throws IOException {
+    if (channel == null || n <= 0) {
+      return 0;
+    }
+    if (size < 0) {
+      return super.skip(n);
+    }
+    long skipped = Math.min(n, Math.max(0, size - position));
+    if (skipped > 0) {
+      position += skipped;
+      bytes.clear();
+      channel.seek(position);
+    }
+    return skipped;
+  }
+
   @Override
   public synchronized void close() {
     if (channel != null) {
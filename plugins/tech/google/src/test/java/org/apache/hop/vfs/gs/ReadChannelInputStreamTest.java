@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.vfs.gs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.ReadChannel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReadChannelInputStreamTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private byte[] data;
+  private FileChannel fileChannel;
+  private ReadChannel readChannel;
+
+  @Before
+  public void setUp() throws IOException {
+    data = new byte[200000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i * 31);
+    }
+    File file = temporaryFolder.newFile("blob.bin");
+    Files.write(file.toPath(), data);
+
+    // A read channel on a local file standing in for the blob
+    //
+    fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    readChannel = mock(ReadChannel.class);
+    when(readChannel.read(any(ByteBuffer.class)))
+        .thenAnswer(invocation -> fileChannel.read(invocation.getArgument(0, ByteBuffer.class)));
+    doAnswer(
+            invocation -> {
+              fileChannel.position(invocation.getArgument(0, Long.class));
+              return null;
+            })
+        .when(readChannel)
+        .seek(anyLong());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    fileChannel.close();
+  }
+
+  @Test
+  public void testSkipSeeksTheChannel() throws IOException {
+    ReadChannelInputStream inputStream = new ReadChannelInputStream(readChannel, data.length);
+
+    byte[] buffer = new byte[100];
+    assertEquals(100, inputStream.read(buffer, 0, 100));
+    assertArrayEquals(slice(0, 100), buffer);
+
+    assertEquals(150000, inputStream.skip(150000));
+    verify(readChannel).seek(150100);
+    assertEquals(100, inputStream.read(buffer, 0, 100));
+    assertArrayEquals(slice(150100, 100), buffer);
+    assertEquals(data[150200] & 0xFF, inputStream.read());
+  }
+
+  @Test
+  public void testSkipReturnsTheBytesLeftAtTheEnd() throws IOException {
+    ReadChannelInputStream inputStream = new ReadChannelInputStream(readChannel, data.length);
+
+    assertEquals(data.length - 10, inputStream.skip(data.length - 10));
+    assertEquals(10, inputStream.skip(1000));
+    assertEquals(0, inputStream.skip(1000));
+    assertEquals(-1, inputStream.read());
+  }
+
+  @Test
+  public void testSkipWithUnknownSizeReadsTheBytes() throws IOException {
+    ReadChannelInputStream inputStream = new ReadChannelInputStream(readChannel);
+
+    assertEquals(1000, inputStream.skip(1000));
+    verify(readChannel, never()).seek(anyLong());
+    assertEquals(data[1000] & 0xFF, inputStream.read());
+
+    assertEquals(data.length - 1001, inputStream.skip(data.length));
+    assertEquals(-1, inputStream.read());
+  }
+
+  private byte[] slice(int offset, int length) {
+    byte[] slice = new byte[length];
+    System.arraycopy(data, offset, slice, 0, length);
+    return slice;
+  }
+}
@@ -17,20 +17,22 @@
 
 package org.apache.hop.parquet.transforms.input;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import org.apache.commons.io.IOUtils;
+import java.util.List;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
 public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputData> {
+  private static final Class<?> PKG = ParquetInputMeta.class;
+
   public ParquetInput(
       TransformMeta transformMeta,
       ParquetInputMeta meta,
@@ -41,6 +43,34 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
+  @Override
+  public boolean init() {
+    if (!super.init()) {
+      return false;
+    }
+
+    data.copies = 1;
+    if (meta.isSplittingRowGroups()) {
+      data.copies = getTransformMeta().getCopies(this);
+
+      // Every copy reads its own row groups so every copy needs to receive all file names
+      //
+      if (data.copies > 1) {
+        List<TransformMeta> previousTransforms =
+            getPipelineMeta().findPreviousTransforms(getTransformMeta());
+        for (TransformMeta previous : previousTransforms) {
+          if (previous.isDistributes()) {
+            logError(
+                BaseMessages.getString(
+                    PKG, "ParquetInput.Error.SplitRowGroupsNeedsCopiedRows", previous.getName()));
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
   @Override
   public boolean processRow() throws HopException {
 
@@ -74,17 +104,24 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
     FileObject fileObject = HopVfs.getFileObject(filename, variables);
 
     try {
-      long size = fileObject.getContent().getSize();
-      data.inputStream = HopVfs.getInputStream(fileObject);
-
-      // Reads the whole file into memory...
+      // Parquet reads the parts of the file it needs, seeking straight to them
       //
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) size);
-      IOUtils.copy(data.inputStream, outputStream);
-      ParquetStream inputFile = new ParquetStream(outputStream.toByteArray(), filename);
+      ParquetVfsInputFile inputFile = new ParquetVfsInputFile(fileObject, filename);
 
       ParquetReadSupport readSupport = new ParquetReadSupport(meta.getFields());
-      data.reader = new ParquetReaderBuilder<>(readSupport, inputFile).build();
+      ParquetReaderBuilder<RowMetaAndData> builder =
+          new ParquetReaderBuilder<>(readSupport, inputFile);
+      if (data.copies > 1) {
+        // Every copy reads an equal share of the bytes of the file. Parquet reads the row groups
+        // which have their middle in that range, so every row group is read by exactly one copy
+        // and the footer is only read once, by the reader itself.
+        //
+        long length = inputFile.getLength();
+        builder.withFileRange(
+            getCopy() * length / data.copies, (getCopy() + 1) * length / data.copies);
+      }
+      data.reader = builder.build();
+      data.readerClosed = false;
 
       RowMetaAndData r = data.reader.read();
       while (r != null && !isStopped()) {
@@ -94,6 +131,7 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
         putRow(data.outputRowMeta, outputRow);
         r = data.reader.read();
       }
+      closeFile();
     } catch (Exception e) {
       throw new HopException("Error read file " + filename, e);
     }
@@ -102,10 +140,9 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
   }
 
   public void closeFile() {
-    if (!data.readerClosed) {
+    if (!data.readerClosed && data.reader != null) {
       try {
         data.reader.close();
-        data.inputStream.close();
       } catch (IOException e) {
         logError("Unable to properly close parquet reader!");
       }
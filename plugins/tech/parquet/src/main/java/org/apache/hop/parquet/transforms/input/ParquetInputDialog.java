@@ -17,14 +17,9 @@
 
 package org.apache.hop.parquet.transforms.input;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.List;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
-import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.logging.LogChannel;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
@@ -41,7 +36,7 @@ import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.apache.parquet.column.ColumnDescriptor;
-import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.PrimitiveType;
 import org.eclipse.swt.SWT;
@@ -63,6 +58,7 @@ public class ParquetInputDialog extends BaseTransformDialog {
   protected ParquetInputMeta input;
 
   private Combo wFilenameField;
+  private Button wSplitRowGroups;
   private TableView wFields;
 
   private String returnValue;
@@ -143,6 +139,28 @@ public class ParquetInputDialog extends BaseTransformDialog {
     wFilenameField.setLayoutData(fdFilenameField);
     lastControl = wFilenameField;
 
+    Label wlSplitRowGroups = new Label(shell, SWT.RIGHT);
+    wlSplitRowGroups.setText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.SplitRowGroups.Label"));
+    wlSplitRowGroups.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.SplitRowGroups.Tooltip"));
+    PropsUi.setLook(wlSplitRowGroups);
+    FormData fdlSplitRowGroups = new FormData();
+    fdlSplitRowGroups.left = new FormAttachment(0, 0);
+    fdlSplitRowGroups.right = new FormAttachment(middle, -margin);
+    fdlSplitRowGroups.top = new FormAttachment(lastControl, margin);
+    wlSplitRowGroups.setLayoutData(fdlSplitRowGroups);
+    wSplitRowGroups = new Button(shell, SWT.CHECK);
+    wSplitRowGroups.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.SplitRowGroups.Tooltip"));
+    PropsUi.setLook(wSplitRowGroups);
+    FormData fdSplitRowGroups = new FormData();
+    fdSplitRowGroups.left = new FormAttachment(middle, 0);
+    fdSplitRowGroups.top = new FormAttachment(wlSplitRowGroups, 0, SWT.CENTER);
+    fdSplitRowGroups.right = new FormAttachment(100, 0);
+    wSplitRowGroups.setLayoutData(fdSplitRowGroups);
+    lastControl = wlSplitRowGroups;
+
     Label wlFields = new Label(shell, SWT.LEFT);
     wlFields.setText(BaseMessages.getString(PKG, "ParquetInputDialog.Fields.Label"));
     PropsUi.setLook(wlFields);
@@ -213,27 +231,13 @@ public class ParquetInputDialog extends BaseTransformDialog {
       if (filename != null) {
         FileObject fileObject = HopVfs.getFileObject(variables.resolve(filename), variables);
 
-        long size = fileObject.getContent().getSize();
-        InputStream inputStream = HopVfs.getInputStream(fileObject);
-
-        // Reads the whole file into memory...
-        //
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) size);
-        IOUtils.copy(inputStream, outputStream);
-        ParquetStream inputFile = new ParquetStream(outputStream.toByteArray(), filename);
-        // Empty list of fields to retrieve: we still grab the schema
-        //
-        ParquetReadSupport readSupport = new ParquetReadSupport(new ArrayList<>());
-        ParquetReader<RowMetaAndData> reader =
-            new ParquetReaderBuilder<>(readSupport, inputFile).build();
-
-        // Read one empty row...
-        //
-        reader.read();
-
-        // Now we have the schema...
+        // Only the footer of the file is read to get the schema
         //
-        MessageType schema = readSupport.getMessageType();
+        MessageType schema;
+        try (ParquetFileReader fileReader =
+            ParquetFileReader.open(new ParquetVfsInputFile(fileObject, filename))) {
+          schema = fileReader.getFooter().getFileMetaData().getSchema();
+        }
         IRowMeta rowMeta = new RowMeta();
         List<ColumnDescriptor> columns = schema.getColumns();
         for (ColumnDescriptor column : columns) {
@@ -287,6 +291,7 @@ public class ParquetInputDialog extends BaseTransformDialog {
 
     wTransformName.setText(Const.NVL(transformName, ""));
     wFilenameField.setText(Const.NVL(input.getFilenameField(), ""));
+    wSplitRowGroups.setSelection(input.isSplittingRowGroups());
     for (int i = 0; i < input.getFields().size(); i++) {
       ParquetField field = input.getFields().get(i);
       TableItem item = wFields.table.getItem(i);
@@ -310,6 +315,7 @@ public class ParquetInputDialog extends BaseTransformDialog {
 
   private void getInfo(ParquetInputMeta meta) {
     meta.setFilenameField(wFilenameField.getText());
+    meta.setSplittingRowGroups(wSplitRowGroups.getSelection());
     meta.getFields().clear();
     for (TableItem item : wFields.getNonEmptyItems()) {
       int index = 1;
@@ -46,6 +46,10 @@ public class ParquetInputMeta extends BaseTransformMeta<ParquetInput, ParquetInp
   @HopMetadataProperty(groupKey = "fields", key = "field")
   private List<ParquetField> fields;
 
+  /** Spread the row groups of every file over the copies of the transform */
+  @HopMetadataProperty(key = "split_row_groups")
+  private boolean splittingRowGroups;
+
   public ParquetInputMeta() {
     fields = new ArrayList<>();
   }
@@ -104,4 +108,20 @@ public class ParquetInputMeta extends BaseTransformMeta<ParquetInput, ParquetInp
   public void setFields(List<ParquetField> fields) {
     this.fields = fields;
   }
+
+  /**
+   * Gets splittingRowGroups
+   *
+   * @return value of splittingRowGroups
+   */
+  public boolean isSplittingRowGroups() {
+    return splittingRowGroups;
+  }
+
+  /**
+   * @param splittingRowGroups The splittingRowGroups to set
+   */
+  public void setSplittingRowGroups(boolean splittingRowGroups) {
+    this.splittingRowGroups = splittingRowGroups;
+  }
 }
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import org.apache.commons.vfs2.Capability;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.parquet.io.DelegatingSeekableInputStream;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * A Parquet input file which reads straight from a VFS file without copying it into memory. Parquet
+ * reads the footer at the end of the file first and then jumps to the column chunks it needs, so
+ * the file is opened in the most seekable way available:
+ *
+ * <ul>
+ *   <li>Local files are read with a file channel at the requested positions.
+ *   <li>Files of a file system supporting random access are read through its random access content.
+ *       For S3 this does ranged get requests.
+ *   <li>Other files are read as a stream. Seeking forward skips bytes, which is a ranged read for
+ *       file systems like Azure and Google Cloud Storage. Seeking backward opens the file again.
+ * </ul>
+ */
+public class ParquetVfsInputFile implements InputFile {
+  private final FileObject fileObject;
+  private final String filename;
+
+  public ParquetVfsInputFile(FileObject fileObject, String filename) {
+    this.fileObject = fileObject;
+    this.filename = filename;
+  }
+
+  @Override
+  public long getLength() throws IOException {
+    return fileObject.getContent().getSize();
+  }
+
+  @Override
+  public SeekableInputStream newStream() throws IOException {
+    if (fileObject instanceof LocalFile) {
+      return newChannelStream();
+    }
+    if (fileObject.getFileSystem().hasCapability(Capability.RANDOM_ACCESS_READ)) {
+      try {
+        return newRandomAccessStream(
+            fileObject.getContent().getRandomAccessContent(RandomAccessMode.READ));
+      } catch (FileSystemException e) {
+        // The file system claims random access but doesn't implement it: read it as a stream
+      }
+    }
+    return newSkippingStream();
+  }
+
+  private SeekableInputStream newChannelStream() throws IOException {
+    FileChannel channel =
+        FileChannel.open(
+            new File(HopVfs.getFilename(fileObject)).toPath(), StandardOpenOption.READ);
+    return new DelegatingSeekableInputStream(Channels.newInputStream(channel)) {
+      @Override
+      public long getPos() throws IOException {
+        return channel.position();
+      }
+
+      @Override
+      public void seek(long newPos) throws IOException {
+        channel.position(newPos);
+      }
+    };
+  }
+
+  private SeekableInputStream newRandomAccessStream(RandomAccessContent content) {
+    InputStream inputStream =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            if (content.getFilePointer() >= content.length()) {
+              return -1;
+            }
+            return content.readUnsignedByte();
+          }
+
+          @Override
+          public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+              return 0;
+            }
+            long remaining = content.length() - content.getFilePointer();
+            if (remaining <= 0) {
+              return -1;
+            }
+            int read = (int) Math.min(len, remaining);
+            content.readFully(b, off, read);
+            return read;
+          }
+
+          @Override
+          public void close() throws IOException {
+            content.close();
+          }
+        };
+    return new DelegatingSeekableInputStream(inputStream) {
+      @Override
+      public long getPos() throws IOException {
+        return content.getFilePointer();
+      }
+
+      @Override
+      public void seek(long newPos) throws IOException {
+        content.seek(newPos);
+      }
+    };
+  }
+
+  private SeekableInputStream newSkippingStream() {
+    SkippingInputStream inputStream = new SkippingInputStream();
+    return new DelegatingSeekableInputStream(inputStream) {
+      @Override
+      public long getPos() {
+        return inputStream.position;
+      }
+
+      @Override
+      public void seek(long newPos) throws IOException {
+        inputStream.seek(newPos);
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return "Parquet file '" + filename + "'";
+  }
+
+  /** Reads the file as a stream which is opened again to go back to an earlier position. */
+  private class SkippingInputStream extends InputStream {
+    private InputStream inputStream;
+    private long position;
+
+    private InputStream getInputStream() throws IOException {
+      if (inputStream == null) {
+        inputStream = fileObject.getContent().getInputStream();
+        skipFully(inputStream, position);
+      }
+      return inputStream;
+    }
+
+    private void seek(long newPos) throws IOException {
+      if (newPos == position) {
+        return;
+      }
+      if (newPos < position || inputStream == null) {
+        close();
+      } else {
+        skipFully(inputStream, newPos - position);
+      }
+      position = newPos;
+    }
+
+    private void skipFully(InputStream stream, long bytes) throws IOException {
+      long left = bytes;
+      while (left > 0) {
+        long skipped = stream.skip(left);
+        if (skipped <= 0) {
+          // Some streams only skip what they have buffered
+          if (stream.read() < 0) {
+            throw new IOException("Unable to skip beyond the end of " + filename);
+          }
+          skipped = 1;
+        }
+        left -= skipped;
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = getInputStream().read();
+      if (b >= 0) {
+        position++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = getInputStream().read(b, off, len);
+      if (read > 0) {
+        position += read;
+      }
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (inputStream != null) {
+        inputStream.close();
+        inputStream = null;
+      }
+    }
+  }
+}
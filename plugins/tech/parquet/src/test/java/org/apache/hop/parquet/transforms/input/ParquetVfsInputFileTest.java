@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.parquet.io.SeekableInputStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParquetVfsInputFileTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private byte[] data;
+
+  @Before
+  public void setUp() {
+    data = new byte[300000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i * 13);
+    }
+  }
+
+  @Test
+  public void testLocalFile() throws Exception {
+    File file = temporaryFolder.newFile("local.parquet");
+    Files.write(file.toPath(), data);
+
+    assertSeekReadSkip(HopVfs.getFileObject(file.getAbsolutePath()));
+  }
+
+  @Test
+  public void testRandomAccessFile() throws Exception {
+    FileObject fileObject = HopVfs.getFileObject("ram:///ParquetVfsInputFileTest/ram.parquet");
+    fileObject.getParent().createFolder();
+    try (OutputStream outputStream = HopVfs.getOutputStream(fileObject, false)) {
+      outputStream.write(data);
+    }
+    try {
+      assertSeekReadSkip(fileObject);
+    } finally {
+      fileObject.getParent().deleteAll();
+    }
+  }
+
+  @Test
+  public void testStreamedFile() throws Exception {
+    // A file in a zip archive can only be read as a stream
+    //
+    File zipFile = temporaryFolder.newFile("streamed.zip");
+    try (ZipOutputStream zipOutputStream =
+        new ZipOutputStream(Files.newOutputStream(zipFile.toPath()))) {
+      zipOutputStream.putNextEntry(new ZipEntry("streamed.parquet"));
+      zipOutputStream.write(data);
+      zipOutputStream.closeEntry();
+    }
+
+    assertSeekReadSkip(HopVfs.getFileObject("zip:" + zipFile.toURI() + "!/streamed.parquet"));
+  }
+
+  private void assertSeekReadSkip(FileObject fileObject) throws IOException, HopFileException {
+    ParquetVfsInputFile inputFile = new ParquetVfsInputFile(fileObject, fileObject.toString());
+    assertEquals(data.length, inputFile.getLength());
+
+    try (SeekableInputStream stream = inputFile.newStream()) {
+      byte[] buffer = new byte[100];
+
+      // Parquet starts by reading the footer at the end of the file
+      //
+      stream.seek(data.length - 8);
+      stream.readFully(buffer, 0, 8);
+      assertArrayEquals(slice(data.length - 8, 8), copy(buffer, 8));
+      assertEquals(data.length, stream.getPos());
+
+      // ... and then jumps back to the column chunks
+      //
+      stream.seek(1000);
+      assertEquals(1000, stream.getPos());
+      stream.readFully(buffer);
+      assertArrayEquals(slice(1000, 100), buffer);
+
+      stream.seek(200000);
+      assertEquals(data[200000] & 0xFF, stream.read());
+      assertEquals(200001, stream.getPos());
+
+      long skipped = stream.skip(50000);
+      assertEquals(250001, stream.getPos());
+      assertEquals(50000, skipped);
+      stream.readFully(buffer);
+      assertArrayEquals(slice(250001, 100), buffer);
+
+      stream.seek(0);
+      stream.readFully(buffer);
+      assertArrayEquals(slice(0, 100), buffer);
+      assertEquals(100, stream.getPos());
+    }
+  }
+
+  private byte[] slice(int offset, int length) {
+    byte[] slice = new byte[length];
+    System.arraycopy(data, offset, slice, 0, length);
+    return slice;
+  }
+
+  private byte[] copy(byte[] buffer, int length) {
+    byte[] copy = new byte[length];
+    System.arraycopy(buffer, 0, copy, 0, length);
+    return copy;
+  }
+}
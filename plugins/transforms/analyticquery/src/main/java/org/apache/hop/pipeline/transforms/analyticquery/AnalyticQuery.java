@@ -17,7 +17,6 @@
 
 package org.apache.hop.pipeline.transforms.analyticquery;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
@@ -83,16 +82,35 @@ public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQuer
       }
 
       // Setup of "window size" and "queue_size"
+      // Look up the subject field indexes and the row offsets once.
       int maxOffset = 0;
-      for (int i = 0; i < meta.getQueryFields().size(); i++) {
+      int nrQueryFields = meta.getQueryFields().size();
+      data.subjectIndexes = new int[nrQueryFields];
+      data.rowOffsets = new int[nrQueryFields];
+      for (int i = 0; i < nrQueryFields; i++) {
         QueryField queryField = meta.getQueryFields().get(i);
 
         if (queryField.getValueField() > maxOffset) {
           maxOffset = queryField.getValueField();
         }
+        data.subjectIndexes[i] = data.inputRowMeta.indexOfValue(queryField.getSubjectField());
+        switch (queryField.getAggregateType()) {
+          case LAG:
+            data.rowOffsets[i] = -queryField.getValueField();
+            break;
+          case LEAD:
+            data.rowOffsets[i] = queryField.getValueField();
+            break;
+          case NONE:
+          default:
+            data.rowOffsets[i] = 0;
+            break;
+        }
       }
       data.window_size = maxOffset;
       data.queue_size = (maxOffset * 2) + 1;
+      data.data = new RowWindow(data.queue_size);
+      data.queue_cursor = 0;
 
       // After we've processed the metadata we're all set
       first = false;
@@ -104,17 +122,14 @@ public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQuer
       setOutputDone();
       return false;
     } else {
-      /* First with every group change AND the first row */
-      if (!sameGroup(this.data.previous, r)) {
+      /* First with every group change AND the first row, unless the window spans groups */
+      if (data.previous == null
+          || (!meta.isSpanningGroups() && !sameGroup(this.data.previous, r))) {
         clearQueue();
         resetGroup();
       }
-      /* Add this row to the end of the queue */
+      /* Add this row to the end of the window, the oldest row drops off a full window */
       data.data.add(r);
-      /* Push the extra records off the end of the queue */
-      while (data.data.size() > data.queue_size) {
-        data.data.poll();
-      }
 
       data.previous = r.clone();
 
@@ -159,50 +174,26 @@ public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQuer
 
   public void processQueueObjectAt(int i) throws HopTransformException {
     int index = i - 1;
-    Object[] rows = data.data.toArray();
-
-    Object[] fields = new Object[meta.getQueryFields().size()];
-    for (int j = 0; j < meta.getQueryFields().size(); j++) {
-      QueryField queryField = meta.getQueryFields().get(j);
-
-      // field_index is the location inside a row of the subject of this
-      // ie, ORDERTOTAL might be the subject ofthis field lag or lead
-      // so we determine that ORDERTOTAL's index in the row
-      int fieldIndex = data.inputRowMeta.indexOfValue(queryField.getSubjectField());
-      int rowIndex = 0;
-      switch (queryField.getAggregateType()) {
-        case LAG:
-          rowIndex = index - queryField.getValueField();
-          break;
-        case LEAD:
-          rowIndex = index + queryField.getValueField();
-          break;
-        case NONE:
-        default:
-          break;
-      }
-      if (rowIndex < rows.length && rowIndex >= 0) {
-        Object[] singleRow = (Object[]) rows[rowIndex];
-        if (singleRow != null && singleRow[fieldIndex] != null) {
-          fields[j] = ((Object[]) rows[rowIndex])[fieldIndex];
-        } else {
-          // set default
-          fields[j] = null;
-        }
-      } else {
-        // set default
-        fields[j] = null;
+
+    Object[] fields = new Object[data.rowOffsets.length];
+    for (int j = 0; j < data.rowOffsets.length; j++) {
+      // The subject index is the location inside a row of the subject of this field
+      // ie, ORDERTOTAL might be the subject of this field lag or lead.
+      // The window returns null for rows outside of it: the default.
+      Object[] singleRow = data.data.get(index + data.rowOffsets[j]);
+      if (singleRow != null) {
+        fields[j] = singleRow[data.subjectIndexes[j]];
       }
     }
 
     Object[] newRow =
-        RowDataUtil.addRowData((Object[]) rows[index], data.inputRowMeta.size(), fields);
+        RowDataUtil.addRowData(data.data.get(index), data.inputRowMeta.size(), fields);
 
     putRow(data.outputRowMeta, newRow);
   }
 
   public void resetGroup() {
-    data.data = new ConcurrentLinkedQueue<>();
+    data.data.clear();
     data.queue_cursor = 0;
   }
 
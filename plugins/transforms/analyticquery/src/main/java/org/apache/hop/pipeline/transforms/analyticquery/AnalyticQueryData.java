@@ -17,7 +17,6 @@
 
 package org.apache.hop.pipeline.transforms.analyticquery;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -38,10 +37,14 @@ public class AnalyticQueryData extends BaseTransformData implements ITransformDa
   // / Queue Cursor (the current processing location in the queue) reset with every group
   public int queue_cursor;
 
-  // Queue for keeping the data. We will push data onto the queue
-  // and pop it off as we process rows. The queue of data is required
+  // Window for keeping the data. We will push data onto the window
+  // and the oldest rows drop off as we process rows. The window of data is required
   // to get the second previous row and the second ahead row, etc.
-  public ConcurrentLinkedQueue<Object[]> data;
+  public RowWindow data;
+
+  // The index of the subject field and the signed row offset of every query field
+  public int[] subjectIndexes;
+  public int[] rowOffsets;
 
   public Object[] previous;
 
@@ -54,6 +54,8 @@ public class AnalyticQueryDialog extends BaseTransformDialog {
 
   private TableView wAgg;
 
+  private Button wSpanningGroups;
+
   private final AnalyticQueryMeta input;
   private ColumnInfo[] ciKey;
   private ColumnInfo[] ciReturn;
@@ -109,12 +111,33 @@ public class AnalyticQueryDialog extends BaseTransformDialog {
     fdTransformName.right = new FormAttachment(100, 0);
     wTransformName.setLayoutData(fdTransformName);
 
+    // Let LAG/LEAD look across group boundaries?
+    Label wlSpanningGroups = new Label(shell, SWT.RIGHT);
+    wlSpanningGroups.setText(
+        BaseMessages.getString(PKG, "AnalyticQueryDialog.SpanningGroups.Label"));
+    wlSpanningGroups.setToolTipText(
+        BaseMessages.getString(PKG, "AnalyticQueryDialog.SpanningGroups.Tooltip"));
+    PropsUi.setLook(wlSpanningGroups);
+    FormData fdlSpanningGroups = new FormData();
+    fdlSpanningGroups.left = new FormAttachment(0, 0);
+    fdlSpanningGroups.right = new FormAttachment(middle, -margin);
+    fdlSpanningGroups.top = new FormAttachment(wTransformName, margin);
+    wlSpanningGroups.setLayoutData(fdlSpanningGroups);
+    wSpanningGroups = new Button(shell, SWT.CHECK);
+    PropsUi.setLook(wSpanningGroups);
+    FormData fdSpanningGroups = new FormData();
+    fdSpanningGroups.left = new FormAttachment(middle, 0);
+    fdSpanningGroups.top = new FormAttachment(wlSpanningGroups, 0, SWT.CENTER);
+    fdSpanningGroups.right = new FormAttachment(100, 0);
+    wSpanningGroups.setLayoutData(fdSpanningGroups);
+    wSpanningGroups.addListener(SWT.Selection, e -> input.setChanged());
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "AnalyticQueryDialog.Group.Label"));
     PropsUi.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlTransformName, margin);
+    fdlGroup.top = new FormAttachment(wlSpanningGroups, margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int nrGroupColumns = 1;
@@ -278,6 +301,7 @@ public class AnalyticQueryDialog extends BaseTransformDialog {
       tableItem.setText(column++, Integer.toString(queryField.getValueField()));
     }
     wAgg.optimizeTableView();
+    wSpanningGroups.setSelection(input.isSpanningGroups());
 
     wTransformName.selectAll();
     wTransformName.setFocus();
@@ -296,6 +320,7 @@ public class AnalyticQueryDialog extends BaseTransformDialog {
 
     input.getGroupFields().clear();
     input.getQueryFields().clear();
+    input.setSpanningGroups(wSpanningGroups.getSelection());
 
     for (TableItem tableItem : wGroup.getNonEmptyItems()) {
       input.getGroupFields().add(new GroupField(tableItem.getText(1)));
@@ -55,6 +55,10 @@ public class AnalyticQueryMeta extends BaseTransformMeta<AnalyticQuery, Analytic
   @HopMetadataProperty(groupKey = "fields", key = "field")
   private List<QueryField> queryFields;
 
+  /** LAG/LEAD look across group boundaries: the window isn't reset when the group changes */
+  @HopMetadataProperty(key = "spanning_groups", injectionKey = "SPANNING_GROUPS")
+  private boolean spanningGroups;
+
   public AnalyticQueryMeta() {
     groupFields = new ArrayList<>();
     queryFields = new ArrayList<>();
@@ -182,6 +186,22 @@ public class AnalyticQueryMeta extends BaseTransformMeta<AnalyticQuery, Analytic
     this.queryFields = queryFields;
   }
 
+  /**
+   * Gets spanningGroups
+   *
+   * @return value of spanningGroups
+   */
+  public boolean isSpanningGroups() {
+    return spanningGroups;
+  }
+
+  /**
+   * @param spanningGroups The spanningGroups to set
+   */
+  public void setSpanningGroups(boolean spanningGroups) {
+    this.spanningGroups = spanningGroups;
+  }
+
   @Override
   public boolean supportsMultiCopyExecution() {
     return false;
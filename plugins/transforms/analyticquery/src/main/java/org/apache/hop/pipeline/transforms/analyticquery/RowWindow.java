@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+/**
+ * A fixed size sliding window of rows backed by a ring buffer. Adding a row to a full window drops
+ * the oldest row. Rows are accessed by their position in the window, 0 being the oldest row, in
+ * constant time.
+ */
+public class RowWindow {
+  private final Object[][] rows;
+  private int start;
+  private int size;
+
+  /**
+   * @param capacity the maximum number of rows kept in the window
+   */
+  public RowWindow(int capacity) {
+    this.rows = new Object[Math.max(1, capacity)][];
+  }
+
+  /**
+   * Add a row at the end of the window, dropping the oldest row if the window is full.
+   *
+   * @param row the row to add
+   */
+  public void add(Object[] row) {
+    if (size < rows.length) {
+      rows[(start + size) % rows.length] = row;
+      size++;
+    } else {
+      rows[start] = row;
+      start = (start + 1) % rows.length;
+    }
+  }
+
+  /**
+   * Get a row by its position in the window.
+   *
+   * @param index the position, 0 being the oldest row
+   * @return the row or null if the position is outside of the window
+   */
+  public Object[] get(int index) {
+    if (index < 0 || index >= size) {
+      return null;
+    }
+    return rows[(start + index) % rows.length];
+  }
+
+  /**
+   * @return the number of rows in the window
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the maximum number of rows kept in the window
+   */
+  public int capacity() {
+    return rows.length;
+  }
+
+  /** Remove all rows from the window. */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      rows[(start + i) % rows.length] = null;
+    }
+    start = 0;
+    size = 0;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.Benchmark;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.analyticquery.QueryField.AggregateType;
+import org.apache.hop.pipeline.transforms.mock.GeneratedRowSet;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Runs LAG and LEAD over the same number of rows split into groups of different sizes. The
+ * throughput should not depend on the size of the groups.
+ */
+public class AnalyticQueryBenchmark {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public Benchmark benchmark = new Benchmark(2, 3);
+
+  private final long rows = Benchmark.size("rows", 2_000_000L);
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Test
+  public void groupsOf100Rows() throws Exception {
+    measure(100);
+  }
+
+  @Test
+  public void groupsOf10000Rows() throws Exception {
+    measure(10_000);
+  }
+
+  @Test
+  public void groupsOf1000000Rows() throws Exception {
+    measure(1_000_000);
+  }
+
+  private void measure(long groupSize) throws Exception {
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("customer"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("amount"));
+
+    AnalyticQueryMeta meta = new AnalyticQueryMeta();
+    meta.setGroupFields(List.of(new GroupField("customer")));
+    meta.setQueryFields(
+        List.of(
+            new QueryField("previous", "amount", AggregateType.LAG, 1),
+            new QueryField("next", "amount", AggregateType.LEAD, 10)));
+    TransformMeta transformMeta = new TransformMeta("Analytic query", meta);
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.addTransform(transformMeta);
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.setRunning(true);
+
+    benchmark.measure(
+        "LAG 1 and LEAD 10, groups of " + groupSize + " rows",
+        rows,
+        () -> {
+          AnalyticQuery analyticQuery =
+              new AnalyticQuery(
+                  transformMeta, meta, new AnalyticQueryData(), 0, pipelineMeta, pipeline);
+          analyticQuery.addRowSetToInputRowSets(
+              new GeneratedRowSet(rows, i -> new Object[] {i / groupSize, i}));
+          analyticQuery.setInputRowMeta(inputRowMeta);
+          analyticQuery.init();
+          AtomicLong written = new AtomicLong();
+          analyticQuery.addRowListener(
+              new RowAdapter() {
+                @Override
+                public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+                  written.incrementAndGet();
+                }
+              });
+          while (analyticQuery.processRow()) {
+            // Process all rows
+          }
+          analyticQuery.dispose();
+          assertEquals(rows, written.get());
+        });
+  }
+}
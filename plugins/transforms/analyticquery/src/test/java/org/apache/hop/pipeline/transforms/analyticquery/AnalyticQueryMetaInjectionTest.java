@@ -41,5 +41,6 @@ public class AnalyticQueryMetaInjectionTest extends BaseMetadataInjectionTest<An
         () -> meta.getQueryFields().get(0).getAggregateType(),
         QueryField.AggregateType.class);
     check("OUTPUT.VALUE_FIELD", () -> meta.getQueryFields().get(0).getValueField());
+    check("SPANNING_GROUPS", () -> meta.isSpanningGroups());
   }
 }
@@ -96,7 +96,7 @@ public class AnalyticQueryMetaTest {
   public void testInjectionMetadata() {
     BeanInjectionInfo<AnalyticQueryMeta> injectionInfo =
         new BeanInjectionInfo<>(AnalyticQueryMeta.class);
-    assertEquals(5, injectionInfo.getProperties().size());
+    assertEquals(6, injectionInfo.getProperties().size());
 
     BeanInjectionInfo<AnalyticQueryMeta>.Property prop =
         injectionInfo.getProperties().get("GROUP_FIELDS");
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class RowWindowTest {
+
+  @Test
+  public void testSlidingWindow() {
+    RowWindow window = new RowWindow(3);
+    assertEquals(0, window.size());
+    assertNull(window.get(0));
+
+    for (long i = 0; i < 10; i++) {
+      window.add(new Object[] {i});
+      assertEquals(Math.min(i + 1, 3), window.size());
+      // The newest row is always at the end of the window
+      assertEquals(i, window.get(window.size() - 1)[0]);
+    }
+
+    // The window keeps the last 3 rows, oldest first
+    assertEquals(7L, window.get(0)[0]);
+    assertEquals(8L, window.get(1)[0]);
+    assertEquals(9L, window.get(2)[0]);
+    assertNull(window.get(-1));
+    assertNull(window.get(3));
+  }
+
+  @Test
+  public void testClear() {
+    RowWindow window = new RowWindow(2);
+    window.add(new Object[] {1L});
+    window.add(new Object[] {2L});
+    window.add(new Object[] {3L});
+    window.clear();
+    assertEquals(0, window.size());
+    assertNull(window.get(0));
+
+    window.add(new Object[] {4L});
+    assertEquals(1, window.size());
+    assertEquals(4L, window.get(0)[0]);
+    assertEquals(2, window.capacity());
+  }
+}
@@ -17,22 +17,17 @@
 
 package org.apache.hop.pipeline.transforms.blockingtransform;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.SocketTimeoutException;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.spill.RowSpillReader;
+import org.apache.hop.core.row.spill.RowSpillWriter;
+import org.apache.hop.core.row.spill.SpillCodec;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -72,37 +67,23 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
             && data.buffer.size() > 0) // No more records: join from disk
     ) {
       // Then write them to disk...
-      DataOutputStream dos;
-      GZIPOutputStream gzos;
-      int p;
-
       try {
         FileObject fileObject =
             HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()));
 
         data.files.add(fileObject); // Remember the files!
         OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
-        if (meta.isCompressFiles()) {
-          gzos = new GZIPOutputStream(new BufferedOutputStream(outputStream));
-          dos = new DataOutputStream(gzos);
-        } else {
-          dos = new DataOutputStream(outputStream);
-          gzos = null;
+        try (RowSpillWriter writer =
+            new RowSpillWriter(
+                rowMeta, outputStream, SpillCodec.getCodec(this, meta.isCompressFiles()))) {
+          for (Object[] row : data.buffer) {
+            // Just write the data, nothing else
+            writer.writeRow(row);
+          }
         }
 
         // How many records do we have?
-        dos.writeInt(data.buffer.size());
-
-        for (p = 0; p < data.buffer.size(); p++) {
-          // Just write the data, nothing else
-          rowMeta.writeData(dos, data.buffer.get(p));
-        }
-        // Close temp-file
-        dos.close(); // close data stream
-        if (gzos != null) {
-          gzos.close(); // close gzip stream
-        }
-        outputStream.close(); // close file stream
+        data.bufferSizes.add(data.buffer.size());
       } catch (Exception e) {
         logError("Error processing tmp-file: " + e.toString());
         return false;
@@ -118,7 +99,7 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
     Object[] retval;
 
     // Open all files at once and read one row from each file...
-    if (data.files.size() > 0 && (data.dis.size() == 0 || data.fis.size() == 0)) {
+    if (data.files.size() > 0 && data.readers.isEmpty()) {
       if (log.isBasic()) {
         logBasic(BaseMessages.getString(PKG, "BlockingTransform.Log.Openfiles"));
       }
@@ -132,20 +113,13 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
                   + filename
                   + BaseMessages.getString(PKG, "BlockingTransform.Log.Openfilename2"));
         }
-        InputStream fi = HopVfs.getInputStream(fileObject);
-        DataInputStream di;
-        data.fis.add(fi);
-        if (meta.isCompressFiles()) {
-          GZIPInputStream gzfi = new GZIPInputStream(new BufferedInputStream(fi));
-          di = new DataInputStream(gzfi);
-          data.gzis.add(gzfi);
-        } else {
-          di = new DataInputStream(fi);
-        }
-        data.dis.add(di);
+        // The codec of the file is stored in its header
+        RowSpillReader reader =
+            new RowSpillReader(data.outputRowMeta, HopVfs.getInputStream(fileObject));
+        data.readers.add(reader);
 
         // How long is the buffer?
-        int buffersize = di.readInt();
+        int buffersize = data.bufferSizes.get(0);
 
         if (log.isDetailed()) {
           logDetailed(
@@ -157,9 +131,10 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
                   + BaseMessages.getString(PKG, "BlockingTransform.Log.BufferSize3"));
         }
 
-        if (buffersize > 0) {
-          // Read a row from temp-file
-          data.rowbuffer.add(data.outputRowMeta.readData(di));
+        // Read a row from temp-file
+        Object[] row = reader.readRow();
+        if (row != null) {
+          data.rowbuffer.add(row);
         }
       } catch (Exception e) {
         logError(
@@ -185,26 +160,24 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
 
         // now get another
         FileObject file = data.files.get(0);
-        DataInputStream di = data.dis.get(0);
-        InputStream fi = data.fis.get(0);
-        GZIPInputStream gzfi = (meta.isCompressFiles()) ? data.gzis.get(0) : null;
+        RowSpillReader reader = data.readers.get(0);
 
+        Object[] row = null;
         try {
-          data.rowbuffer.add(0, data.outputRowMeta.readData(di));
-        } catch (SocketTimeoutException e) {
+          row = reader.readRow();
+        } catch (HopFileException e) {
           logError(
               BaseMessages.getString(PKG, "System.Log.UnexpectedError") + " : " + e.toString());
           logError(Const.getStackTracker(e));
           setErrors(1);
           stopAll();
-        } catch (HopFileException fe) {
-          // empty file or EOF mostly
+        }
+        if (row != null) {
+          data.rowbuffer.add(0, row);
+        } else {
+          // end of file
           try {
-            di.close();
-            fi.close();
-            if (gzfi != null) {
-              gzfi.close();
-            }
+            reader.close();
             file.delete();
           } catch (IOException e) {
             logError(
@@ -216,11 +189,8 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
           }
 
           data.files.remove(0);
-          data.dis.remove(0);
-          data.fis.remove(0);
-          if (gzfi != null) {
-            data.gzis.remove(0);
-          }
+          data.readers.remove(0);
+          data.bufferSizes.remove(0);
         }
       }
     }
@@ -229,10 +199,8 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
 
   @Override
   public void dispose() {
-    if ((data.dis != null) && (data.dis.size() > 0)) {
-      for (DataInputStream is : data.dis) {
-        BaseTransform.closeQuietly(is);
-      }
+    for (RowSpillReader reader : data.readers) {
+      BaseTransform.closeQuietly(reader);
     }
     // remove temp files
     for (int f = 0; f < data.files.size(); f++) {
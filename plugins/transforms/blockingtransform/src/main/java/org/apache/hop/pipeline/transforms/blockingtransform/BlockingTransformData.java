@@ -17,13 +17,11 @@
 
 package org.apache.hop.pipeline.transforms.blockingtransform;
 
-import java.io.DataInputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.spill.RowSpillReader;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -31,9 +29,8 @@ import org.apache.hop.pipeline.transform.ITransformData;
 public class BlockingTransformData extends BaseTransformData implements ITransformData {
   public List<FileObject> files;
   public List<Object[]> buffer;
-  public List<InputStream> fis;
-  public List<GZIPInputStream> gzis;
-  public List<DataInputStream> dis;
+  public List<RowSpillReader> readers;
+  public List<Integer> bufferSizes;
   public List<Object[]> rowbuffer;
 
   public IRowMeta outputRowMeta;
@@ -46,9 +43,8 @@ public class BlockingTransformData extends BaseTransformData implements ITransfo
 
     buffer = new ArrayList<>(BlockingTransformMeta.CACHE_SIZE);
     files = new ArrayList<>();
-    fis = new ArrayList<>();
-    dis = new ArrayList<>();
-    gzis = new ArrayList<>();
+    readers = new ArrayList<>();
+    bufferSizes = new ArrayList<>();
     rowbuffer = new ArrayList<>();
   }
 }
@@ -181,6 +181,11 @@ public class CalculatorMeta extends BaseTransformMeta<Calculator, CalculatorData
     }
   }
 
+  @Override
+  public boolean supportsFusion() {
+    return true;
+  }
+
   /**
    * Gets calculations
    *
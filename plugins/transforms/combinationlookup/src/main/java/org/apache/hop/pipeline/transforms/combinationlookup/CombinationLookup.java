@@ -20,13 +20,9 @@ package org.apache.hop.pipeline.transforms.combinationlookup;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import org.apache.hop.core.Const;
-import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopConfigException;
@@ -108,23 +104,29 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     }
   }
 
-  private Long lookupInCache(IRowMeta rowMeta, Object[] row) {
+  /**
+   * A negative cache size disables the cache, 0 means unlimited.
+   *
+   * @return true if the transform caches technical keys
+   */
+  private boolean isCacheEnabled() {
+    return meta.getCacheSize() >= 0;
+  }
+
+  private Long lookupInCache(IRowMeta rowMeta, Object[] row) throws HopValueException {
     // Short circuit if cache is disabled.
-    if (meta.getCacheSize() == -1) {
+    if (!isCacheEnabled()) {
       return null;
     }
 
     // try to find the row in the cache...
     //
-    return data.cache.get(new RowMetaAndData(rowMeta, row));
+    return data.cache.get(row);
   }
 
   /**
-   * Adds a row to the cache In case we are doing updates, we need to store the complete rows from
-   * the database. These are the values we need to store
-   *
-   * <p>Key: - natural key fields Value: - Technical key - lookup fields / extra fields (allows us
-   * to compare or retrieve) - Date_from - Date_to
+   * Adds a row to the cache. The cache evicts the least valuable entries by itself once it holds
+   * more than the configured number of rows.
    *
    * @param rowMeta
    * @param row
@@ -133,75 +135,12 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
    */
   private void addToCache(IRowMeta rowMeta, Object[] row, Long tk) throws HopValueException {
     // Short circuit if cache is disabled.
-    if (meta.getCacheSize() == -1) {
+    if (!isCacheEnabled()) {
       return;
     }
 
     // store it in the cache if needed.
-    data.cache.put(new RowMetaAndData(rowMeta, row), tk);
-
-    // check if the size is not too big...
-    // Allow for a buffer overrun of 20% and then remove those 20% in one go.
-    // Just to keep performance in track.
-    //
-    int tenPercent = meta.getCacheSize() / 10;
-    if (meta.getCacheSize() > 0 && data.cache.size() > meta.getCacheSize() + tenPercent) {
-      // Which cache entries do we delete here?
-      // We delete those with the lowest technical key...
-      // Those would arguably be the "oldest" dimension entries.
-      // Oh well... Nothing is going to be perfect here...
-      //
-      // Getting the lowest 20% requires some kind of sorting algorithm and I'm not sure we want to
-      // do that.
-      // Sorting is slow and even in the best case situation we need to do 2 passes over the cache
-      // entries...
-      //
-      // Perhaps we should get 20% random values and delete everything below the lowest but one TK.
-      //
-      List<RowMetaAndData> keys = new ArrayList<>(data.cache.keySet());
-      int sizeBefore = keys.size();
-      List<Long> samples = new ArrayList<>();
-
-      // Take 10 sample technical keys....
-      int transformsize = keys.size() / 5;
-      if (transformsize < 1) {
-        transformsize = 1; // make sure we have no endless loop
-      }
-      for (int i = 0; i < keys.size(); i += transformsize) {
-        RowMetaAndData key = keys.get(i);
-        Long value = data.cache.get(key);
-        if (value != null) {
-          samples.add(value);
-        }
-      }
-      // Sort these 5 elements...
-      Collections.sort(samples);
-
-      // What is the smallest?
-      // Take the second, not the fist in the list, otherwise we would be removing a single entry =
-      // not good.
-      if (samples.size() > 1) {
-        data.smallestCacheKey = samples.get(1).longValue();
-      } else { // except when there is only one sample
-        data.smallestCacheKey = samples.get(0).longValue();
-      }
-
-      // Remove anything in the cache <= smallest.
-      // This makes it almost single pass...
-      // This algorithm is not 100% correct, but I guess it beats sorting the whole cache all the
-      // time.
-      //
-      for (int i = 0; i < keys.size(); i++) {
-        RowMetaAndData key = keys.get(i);
-        Long value = data.cache.get(key);
-        if (value != null && value.longValue() <= data.smallestCacheKey) {
-          data.cache.remove(key); // this one has to go.
-        }
-      }
-
-      int sizeAfter = data.cache.size();
-      logDetailed("Reduced the lookup cache from " + sizeBefore + " to " + sizeAfter + " rows.");
-    }
+    data.cache.put(row, tk);
 
     if (isRowLevel()) {
       logRowlevel("Cache store: key=" + rowMeta.getString(row) + "    key=" + tk);
@@ -223,7 +162,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     Object[] lookupRow = new Object[data.lookupRowMeta.size()];
     int lookupIndex = 0;
 
-    if (meta.isUseHash() || meta.getCacheSize() >= 0) {
+    if (meta.isUseHash() || isCacheEnabled()) {
       hashRow = new Object[data.hashRowMeta.size()];
       for (int i = 0; i < keyFields.size(); i++) {
         hashRow[i] = row[data.keynrs[i]];
@@ -394,6 +333,14 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       }
 
       setCombiLookup(getInputRowMeta());
+
+      // Every copy has its own cache, a cache size of 0 means unlimited. The copies insert new
+      // combinations on their own connections: a shared cache would hand out technical keys
+      // which another copy didn't commit yet, or rolls back.
+      //
+      if (isCacheEnabled()) {
+        data.cache = createLookupCache(data.hashRowMeta, meta.getCacheSize(), false);
+      }
       preloadCache(data.hashRowMeta);
     }
 
@@ -707,11 +654,6 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       data.realSchemaName = resolve(meta.getSchemaName());
       data.realTableName = resolve(meta.getTableName());
 
-      if (meta.getCacheSize() > 0) {
-        data.cache = new HashMap<>((int) (meta.getCacheSize() * 1.5));
-      } else {
-        data.cache = new HashMap<>();
-      }
       if (meta.getDatabaseMeta() == null) {
         logError(
             BaseMessages.getString(
@@ -772,7 +714,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
   private void preloadCache(IRowMeta hashRowMeta)
       throws HopDatabaseException, HopValueException, HopConfigException {
     // fast exit if no preload cache or no cache
-    if (meta.isPreloadCache() && meta.getCacheSize() >= 0) {
+    if (meta.isPreloadCache() && isCacheEnabled()) {
       if (hashRowMeta == null) {
         throw new HopConfigException(
             BaseMessages.getString(PKG, CONST_COMBINATION_LOOKUP_LOG_UNEXPECTED_ERROR));
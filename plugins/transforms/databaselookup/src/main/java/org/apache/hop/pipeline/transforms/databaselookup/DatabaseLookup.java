@@ -18,11 +18,22 @@
 package org.apache.hop.pipeline.transforms.databaselookup;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -48,6 +59,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
 
   private static final Class<?> PKG = DatabaseLookupMeta.class;
 
+  /** A batch is looked up when it holds this many rows for every key of a full batch */
+  private static final int MAX_BATCH_ROWS_PER_KEY = 10;
+
   public DatabaseLookup(
       TransformMeta transformMeta,
       DatabaseLookupMeta meta,
@@ -67,8 +81,18 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
    */
   @VisibleForTesting
   synchronized Object[] lookupValues(IRowMeta inputRowMeta, Object[] row) throws HopException {
-    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
+    return lookupValues(inputRowMeta, row, getLookupRow(inputRowMeta, row));
+  }
 
+  /**
+   * Get the values to look up from an input row, converted to the types of the table fields
+   *
+   * @param inputRowMeta The metadata of the input row
+   * @param row The input row
+   * @return the values to look up
+   * @throws HopException In case a value can't be converted
+   */
+  private Object[] getLookupRow(IRowMeta inputRowMeta, Object[] row) throws HopException {
     Object[] lookupRow = new Object[data.lookupMeta.size()];
     int lookupIndex = 0;
 
@@ -100,8 +124,16 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         lookupIndex++;
       }
     }
+    return lookupRow;
+  }
+
+  @VisibleForTesting
+  synchronized Object[] lookupValues(IRowMeta inputRowMeta, Object[] row, Object[] lookupRow)
+      throws HopException {
+    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
 
     Object[] add;
+    IRowMeta returnRowMeta = null;
     boolean cacheNow = false;
     boolean cacheHit = false;
 
@@ -129,8 +161,20 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
                   + data.lookupMeta.getString(lookupRow));
         }
 
-        data.db.setValuesLookup(data.lookupMeta, lookupRow);
-        add = data.db.getLookup(meta.getLookup().isFailingOnMultipleResults());
+        RowMetaAndData key =
+            data.batchResults == null ? null : new RowMetaAndData(data.lookupMeta, lookupRow);
+        if (key != null && data.batchResults.containsKey(key)) {
+          // Looked up together with the other keys of the batch. Copy the found row, the
+          // conversions below change it. A null value means the database doesn't have the key.
+          Object[] found = data.batchResults.get(key);
+          add = found == null ? null : found.clone();
+          returnRowMeta = data.batchReturnRowMeta;
+        } else {
+          // A key the batch couldn't tell about is looked up on its own.
+          data.db.setValuesLookup(data.lookupMeta, lookupRow);
+          add = data.db.getLookup(meta.getLookup().isFailingOnMultipleResults());
+          returnRowMeta = data.db.getReturnRowMeta();
+        }
         cacheNow = true;
       }
     }
@@ -165,7 +209,10 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
                 + Arrays.toString(add));
       }
 
-      // Trim the fields if required
+      // Trim the fields if required. A cached row can be in use by other copies, trim a copy.
+      if (cacheHit && !data.trimIndexes.isEmpty()) {
+        add = add.clone();
+      }
       for (int i : data.trimIndexes) {
         IValueMeta expected = data.returnMeta.getValueMeta(i);
         add[i] =
@@ -188,7 +235,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         //
         int[] types = data.returnValueTypes;
         for (int i = 0; i < types.length; i++) {
-          IValueMeta returned = data.db.getReturnRowMeta().getValueMeta(i);
+          IValueMeta returned = returnRowMeta.getValueMeta(i);
           IValueMeta expected = data.returnMeta.getValueMeta(i);
 
           if (returned != null && types[i] > 0 && types[i] != returned.getType()) {
@@ -312,6 +359,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public boolean processRow() throws HopException {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.batching) {
+        flushBatch();
+      }
       setOutputDone();
       return false;
     }
@@ -403,10 +453,6 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         }
       }
 
-      if (meta.isCached()) {
-        data.cache = DefaultCache.newCache(data, meta.getCacheSize());
-      }
-
       determineFieldsTypesQueryingDb();
 
       initNullIf();
@@ -415,6 +461,16 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
 
       initReturnMeta();
 
+      if (meta.isCached()) {
+        if (data.allEquals && !meta.isLoadingAllDataInCache()) {
+          // The copies of the transform look up the same rows, they share the cache
+          data.cache =
+              new DefaultCache(data, createLookupCache(data.lookupMeta, meta.getCacheSize(), true));
+        } else {
+          data.cache = DefaultCache.newCache(data, meta.getCacheSize());
+        }
+      }
+
       // See which return values need to be trimmed...
       //
       data.trimIndexes = new ArrayList();
@@ -431,6 +487,8 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       if (meta.isCached() && meta.isLoadingAllDataInCache()) {
         loadAllTableDataIntoTheCache();
       }
+
+      initBatching();
     }
 
     if (log.isRowLevel()) {
@@ -439,9 +497,26 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
               + getInputRowMeta().getString(r));
     }
 
+    if (data.batching) {
+      return addToBatch(r);
+    }
+    return processLookupRow(r, null);
+  }
+
+  /**
+   * Look up the values of an input row and pass the row on
+   *
+   * @param r The input row
+   * @param lookupRow The values to look up or null to get them from the input row
+   * @return false if the transform can't continue
+   */
+  private boolean processLookupRow(Object[] r, Object[] lookupRow) throws HopException {
     try {
       // add new lookup values to the row
-      Object[] outputRow = lookupValues(getInputRowMeta(), r);
+      Object[] outputRow =
+          lookupRow == null
+              ? lookupValues(getInputRowMeta(), r)
+              : lookupValues(getInputRowMeta(), r, lookupRow);
 
       if (outputRow != null) {
         // copy row to output rowset(s)
@@ -473,6 +548,290 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     return true;
   }
 
+  /**
+   * Batching collects the keys which are not in the cache from consecutive rows and looks them up
+   * with a single query. It's only possible when all the key conditions are "=".
+   */
+  private void initBatching() throws HopException {
+    data.batchSize = meta.getLookupBatchSize();
+    data.batching =
+        data.batchSize > 1
+            && data.lookupMeta.size() > 0
+            && !(meta.isCached() && meta.isLoadingAllDataInCache());
+    for (int condition : data.conditions) {
+      if (condition != DatabaseLookupMeta.CONDITION_EQ) {
+        data.batching = false;
+      }
+    }
+    if (!data.batching) {
+      return;
+    }
+
+    DatabaseMeta databaseMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
+    int batchSize = getMaxBatchSize(databaseMeta);
+    if (batchSize < data.batchSize) {
+      logBasic(BaseMessages.getString(PKG, "DatabaseLookup.Log.BatchSizeLimited", batchSize));
+      data.batchSize = batchSize;
+      if (batchSize <= 1) {
+        data.batching = false;
+        return;
+      }
+    }
+    data.batchMaxDelay = meta.getLookupBatchMaxDelay();
+    data.batchRows = new ArrayList<>();
+    data.batchLookupRows = new ArrayList<>();
+    data.batchKeys = new LinkedHashMap<>();
+
+    String sql = getBatchSql(databaseMeta);
+    if (log.isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "DatabaseLookup.Log.BatchLookupSql", sql));
+    }
+    data.batchStatement = data.db.prepareSql(sql);
+  }
+
+  /**
+   * The batch query has a parameter for every key field of every key in the batch. With a single
+   * key field the keys are in an IN list. Keep both within the limits of the database.
+   *
+   * @param databaseMeta The database to look up in
+   * @return the largest batch size the database accepts, at most the configured batch size
+   */
+  @VisibleForTesting
+  int getMaxBatchSize(DatabaseMeta databaseMeta) {
+    int batchSize = data.batchSize;
+    int keyCount = data.lookupMeta.size();
+    int maxParameters = databaseMeta.getMaxStatementParameters();
+    if (maxParameters > 0) {
+      batchSize = Math.min(batchSize, maxParameters / keyCount);
+    }
+    int maxInListSize = databaseMeta.getMaxInListSize();
+    if (keyCount == 1 && maxInListSize > 0) {
+      batchSize = Math.min(batchSize, maxInListSize);
+    }
+    return batchSize;
+  }
+
+  /**
+   * The batch query selects the key fields followed by the return values. The keys are passed in an
+   * IN list or, with multiple key fields, in OR-ed conditions. There's a parameter for every key of
+   * a full batch so the query is only prepared once.
+   */
+  @VisibleForTesting
+  String getBatchSql(DatabaseMeta databaseMeta) {
+    Lookup lookup = meta.getLookup();
+    List<KeyField> keyFields = lookup.getKeyFields();
+
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < keyFields.size(); i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(databaseMeta.quoteField(keyFields.get(i).getTableField()));
+    }
+    for (ReturnValue returnValue : lookup.getReturnValues()) {
+      sql.append(", ").append(databaseMeta.quoteField(returnValue.getTableField()));
+    }
+    sql.append(" FROM ")
+        .append(
+            databaseMeta.getQuotedSchemaTableCombination(
+                this, meta.getSchemaName(), meta.getTableName()))
+        .append(" WHERE ");
+    if (keyFields.size() == 1) {
+      sql.append(databaseMeta.quoteField(keyFields.get(0).getTableField())).append(" IN (");
+      for (int b = 0; b < data.batchSize; b++) {
+        sql.append(b > 0 ? ", ?" : "?");
+      }
+      sql.append(")");
+    } else {
+      for (int b = 0; b < data.batchSize; b++) {
+        sql.append(b > 0 ? " OR (" : "(");
+        for (int i = 0; i < keyFields.size(); i++) {
+          if (i > 0) {
+            sql.append(" AND ");
+          }
+          sql.append(databaseMeta.quoteField(keyFields.get(i).getTableField())).append(" = ?");
+        }
+        sql.append(")");
+      }
+    }
+    if (StringUtils.isNotEmpty(lookup.getOrderByClause())) {
+      sql.append(" ORDER BY ").append(lookup.getOrderByClause());
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Keep the row until the keys of its batch are looked up. Rows which are found in the cache pass
+   * straight through as long as no earlier rows are waiting, otherwise they wait to keep the order
+   * of the rows. The batch is looked up when it has enough keys, when its first row waited long
+   * enough or when no more input rows are waiting.
+   *
+   * @param r The input row
+   * @return false if the transform can't continue
+   */
+  private boolean addToBatch(Object[] r) throws HopException {
+    Object[] lookupRow;
+    try {
+      lookupRow = getLookupRow(getInputRowMeta(), r);
+    } catch (HopException e) {
+      // Let the row report the conversion error in order
+      lookupRow = null;
+    }
+    boolean cacheHit =
+        lookupRow != null
+            && meta.isCached()
+            && data.cache.getRowFromCache(data.lookupMeta, lookupRow) != null;
+    if (data.batchRows.isEmpty()) {
+      if (lookupRow == null || cacheHit) {
+        return processLookupRow(r, lookupRow);
+      }
+      data.batchStartTime = System.currentTimeMillis();
+    }
+    data.batchRows.add(r);
+    data.batchLookupRows.add(lookupRow);
+    if (lookupRow != null && !cacheHit) {
+      data.batchKeys.putIfAbsent(new RowMetaAndData(data.lookupMeta, lookupRow), lookupRow);
+    }
+
+    if (data.batchKeys.size() >= data.batchSize
+        || data.batchRows.size() >= data.batchSize * MAX_BATCH_ROWS_PER_KEY
+        || System.currentTimeMillis() - data.batchStartTime >= data.batchMaxDelay
+        || !isInputWaiting()) {
+      return flushBatch();
+    }
+    return true;
+  }
+
+  private boolean isInputWaiting() {
+    for (IRowSet rowSet : getInputRowSets()) {
+      if (rowSet.size() > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Look up the keys of the waiting rows and pass the rows on in their original order. A single key
+   * is looked up with the regular lookup query.
+   *
+   * @return false if the transform can't continue
+   */
+  private boolean flushBatch() throws HopException {
+    List<Object[]> rows = data.batchRows;
+    List<Object[]> lookupRows = data.batchLookupRows;
+    data.batchRows = new ArrayList<>();
+    data.batchLookupRows = new ArrayList<>();
+
+    if (data.batchKeys.size() > 1) {
+      try {
+        data.batchResults = lookupBatch(data.batchKeys.values());
+      } catch (HopException e) {
+        // Look up the rows one by one, reporting the errors for every row
+        logError(BaseMessages.getString(PKG, "DatabaseLookup.Log.BatchLookupFailed"), e);
+      }
+    }
+    data.batchKeys.clear();
+
+    try {
+      for (int i = 0; i < rows.size(); i++) {
+        if (!processLookupRow(rows.get(i), lookupRows.get(i))) {
+          return false;
+        }
+      }
+    } finally {
+      data.batchResults = null;
+    }
+    return true;
+  }
+
+  /**
+   * Look up the given keys with the batch query. The first row found for a key is used, like a
+   * lookup of a single key returns the first row. The returned keys are matched to the given keys
+   * by value. The database can match keys which are not equal here, for example because of its
+   * collation or padding of CHAR columns. When every returned row matched a key, the keys without a
+   * row are not in the database and get a null value. Otherwise the keys which are not matched are
+   * left out, as are keys with multiple rows when that is an error. These keys get looked up, and
+   * reported, one by one.
+   *
+   * <p>The batch query runs on the connection of the single lookups. Its rows are read with their
+   * own metadata and the metadata of the single lookups is restored afterwards.
+   *
+   * @param lookupRows The distinct keys to look up, no more than the batch size
+   * @return the found rows by key, null for the keys which are not found
+   */
+  @VisibleForTesting
+  Map<RowMetaAndData, Object[]> lookupBatch(Collection<Object[]> lookupRows) throws HopException {
+    int keyCount = data.lookupMeta.size();
+    IRowMeta paramsMeta = new RowMeta();
+    Object[] params = new Object[data.batchSize * keyCount];
+    Set<RowMetaAndData> keys = new HashSet<>();
+    Map<RowMetaAndData, Object[]> results = new HashMap<>();
+
+    Iterator<Object[]> iterator = lookupRows.iterator();
+    Object[] lookupRow = null;
+    for (int b = 0; b < data.batchSize; b++) {
+      // Repeat the last key to fill up a partial batch
+      if (iterator.hasNext()) {
+        lookupRow = iterator.next();
+        keys.add(new RowMetaAndData(data.lookupMeta, lookupRow));
+      }
+      for (int k = 0; k < keyCount; k++) {
+        paramsMeta.addValueMeta(data.lookupMeta.getValueMeta(k));
+        params[b * keyCount + k] = lookupRow[k];
+      }
+    }
+
+    Set<RowMetaAndData> multipleResults = new HashSet<>();
+    boolean allMatched = true;
+    IRowMeta lookupRowMeta = data.db.getReturnRowMeta();
+    try {
+      ResultSet resultSet = data.db.openQuery(data.batchStatement, paramsMeta, params);
+      try {
+        IRowMeta resultRowMeta = data.db.getReturnRowMeta();
+        data.batchReturnRowMeta = new RowMeta();
+        for (int i = keyCount; i < resultRowMeta.size(); i++) {
+          data.batchReturnRowMeta.addValueMeta(resultRowMeta.getValueMeta(i));
+        }
+
+        Object[] row;
+        while ((row = data.db.getRow(resultSet, null, resultRowMeta)) != null) {
+          incrementLinesInput();
+          Object[] keyRow = new Object[keyCount];
+          for (int k = 0; k < keyCount; k++) {
+            keyRow[k] =
+                data.lookupMeta.getValueMeta(k).convertData(resultRowMeta.getValueMeta(k), row[k]);
+          }
+          RowMetaAndData key = new RowMetaAndData(data.lookupMeta, keyRow);
+          if (!keys.contains(key)) {
+            allMatched = false;
+          } else if (!results.containsKey(key)) {
+            results.put(key, Arrays.copyOfRange(row, keyCount, resultRowMeta.size()));
+          } else if (meta.getLookup().isFailingOnMultipleResults()) {
+            multipleResults.add(key);
+          }
+        }
+      } finally {
+        try {
+          resultSet.close();
+        } catch (SQLException e) {
+          logError("Unable to close the result set of the batch lookup", e);
+        }
+      }
+    } finally {
+      data.db.setReturnRowMeta(lookupRowMeta);
+    }
+    results.keySet().removeAll(multipleResults);
+    if (allMatched) {
+      for (RowMetaAndData key : keys) {
+        if (!multipleResults.contains(key)) {
+          results.putIfAbsent(key, null);
+        }
+      }
+    }
+    return results;
+  }
+
   private void loadAllTableDataIntoTheCache() throws HopException {
     DatabaseMeta dbMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
 
@@ -534,7 +893,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     }
   }
 
-  private void putToDefaultCache(Database db, List<Object[]> rows) {
+  private void putToDefaultCache(Database db, List<Object[]> rows) throws HopException {
     final int keysAmount = meta.getLookup().getKeyFields().size();
     IRowMeta prototype = copyValueMetasFrom(db.getReturnRowMeta(), keysAmount);
 
@@ -661,6 +1020,11 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public void dispose() {
 
     if (data.db != null) {
+      try {
+        data.db.closePreparedStatement(data.batchStatement);
+      } catch (HopDatabaseException e) {
+        logError("Unable to close the batch lookup statement", e);
+      }
       data.db.disconnect();
     }
 
@@ -17,7 +17,10 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup;
 
+import java.sql.PreparedStatement;
 import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
@@ -45,6 +48,33 @@ public class DatabaseLookupData extends BaseTransformData implements ITransformD
   public String[] returnTrimTypes;
   public List<Integer> trimIndexes;
 
+  /** Look up the missing keys of consecutive rows with a single query? */
+  public boolean batching;
+
+  public int batchSize;
+  public long batchMaxDelay;
+
+  /** The query looking up a batch of keys, padded to the batch size */
+  public PreparedStatement batchStatement;
+
+  /** The input rows waiting for their batch to be looked up, in order */
+  public List<Object[]> batchRows;
+
+  /** The values to look up of the waiting rows, null if they couldn't be converted */
+  public List<Object[]> batchLookupRows;
+
+  /** The distinct keys of the waiting rows which need to be looked up */
+  public Map<RowMetaAndData, Object[]> batchKeys;
+
+  /** The time the first waiting row arrived */
+  public long batchStartTime;
+
+  /** The rows found for the keys of the last batch, null values for keys which were not found */
+  public Map<RowMetaAndData, Object[]> batchResults;
+
+  /** The metadata of the return values in the batch results */
+  public IRowMeta batchReturnRowMeta;
+
   public DatabaseLookupData() {
     super();
 
@@ -71,8 +101,10 @@ public class DatabaseLookupData extends BaseTransformData implements ITransformD
      * @param lookupMeta {@code lookupRow}'s meta
      * @param lookupRow tuple of keys
      * @param add tuple of data
+     * @throws HopException in case a key value can't be converted
      */
     void storeRowInCache(
-        DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add);
+        DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add)
+        throws HopException;
   }
 }
@@ -71,6 +71,10 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
   private Label wlCachesize;
   private Text wCachesize;
 
+  private Text wLookupBatchSize;
+
+  private Text wLookupBatchMaxDelay;
+
   private TableView wKey;
 
   private TextVar wSchema;
@@ -288,12 +292,54 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
           }
         });
 
+    // Lookup batch size line
+    Label wlLookupBatchSize = new Label(shell, SWT.RIGHT);
+    wlLookupBatchSize.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.LookupBatchSize.Label"));
+    wlLookupBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.LookupBatchSize.Tooltip"));
+    PropsUi.setLook(wlLookupBatchSize);
+    FormData fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment(0, 0);
+    fdlLookupBatchSize.right = new FormAttachment(middle, -margin);
+    fdlLookupBatchSize.top = new FormAttachment(wCacheLoadAll, margin);
+    wlLookupBatchSize.setLayoutData(fdlLookupBatchSize);
+    wLookupBatchSize = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wLookupBatchSize);
+    wLookupBatchSize.addModifyListener(lsMod);
+    FormData fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.left = new FormAttachment(middle, 0);
+    fdLookupBatchSize.right = new FormAttachment(100, 0);
+    fdLookupBatchSize.top = new FormAttachment(wCacheLoadAll, margin);
+    wLookupBatchSize.setLayoutData(fdLookupBatchSize);
+
+    // Lookup batch maximum delay line
+    Label wlLookupBatchMaxDelay = new Label(shell, SWT.RIGHT);
+    wlLookupBatchMaxDelay.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.LookupBatchMaxDelay.Label"));
+    wlLookupBatchMaxDelay.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.LookupBatchMaxDelay.Tooltip"));
+    PropsUi.setLook(wlLookupBatchMaxDelay);
+    FormData fdlLookupBatchMaxDelay = new FormData();
+    fdlLookupBatchMaxDelay.left = new FormAttachment(0, 0);
+    fdlLookupBatchMaxDelay.right = new FormAttachment(middle, -margin);
+    fdlLookupBatchMaxDelay.top = new FormAttachment(wLookupBatchSize, margin);
+    wlLookupBatchMaxDelay.setLayoutData(fdlLookupBatchMaxDelay);
+    wLookupBatchMaxDelay = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wLookupBatchMaxDelay);
+    wLookupBatchMaxDelay.addModifyListener(lsMod);
+    FormData fdLookupBatchMaxDelay = new FormData();
+    fdLookupBatchMaxDelay.left = new FormAttachment(middle, 0);
+    fdLookupBatchMaxDelay.right = new FormAttachment(100, 0);
+    fdLookupBatchMaxDelay.top = new FormAttachment(wLookupBatchSize, margin);
+    wLookupBatchMaxDelay.setLayoutData(fdLookupBatchMaxDelay);
+
     Label wlKey = new Label(shell, SWT.NONE);
     wlKey.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.Keys.Label"));
     PropsUi.setLook(wlKey);
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment(0, 0);
-    fdlKey.top = new FormAttachment(wCacheLoadAll, margin);
+    fdlKey.top = new FormAttachment(wLookupBatchMaxDelay, margin);
     wlKey.setLayoutData(fdlKey);
 
     int nrKeyCols = 4;
@@ -592,6 +638,8 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     wCache.setSelection(input.isCached());
     wCachesize.setText("" + input.getCacheSize());
     wCacheLoadAll.setSelection(input.isLoadingAllDataInCache());
+    wLookupBatchSize.setText("" + input.getLookupBatchSize());
+    wLookupBatchMaxDelay.setText("" + input.getLookupBatchMaxDelay());
 
     Lookup lookup = input.getLookup();
 
@@ -655,6 +703,8 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     input.setCached(wCache.getSelection());
     input.setCacheSize(Const.toInt(wCachesize.getText(), 0));
     input.setLoadingAllDataInCache(wCacheLoadAll.getSelection());
+    input.setLookupBatchSize(Const.toInt(wLookupBatchSize.getText(), 0));
+    input.setLookupBatchMaxDelay(Const.toInt(wLookupBatchMaxDelay.getText(), 0));
 
     for (TableItem item : wKey.getNonEmptyItems()) {
       KeyField keyField = new KeyField();
@@ -95,17 +95,32 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
       injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheLoadAll")
   private boolean loadingAllDataInCache;
 
+  /** Look up this many missing keys with a single query, 0 or 1 to look up every row separately */
+  @HopMetadataProperty(
+      key = "lookup_batch_size",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.LookupBatchSize")
+  private int lookupBatchSize;
+
+  /** The maximum number of milliseconds a row waits for its batch to be looked up */
+  @HopMetadataProperty(
+      key = "lookup_batch_max_delay",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.LookupBatchMaxDelay")
+  private int lookupBatchMaxDelay;
+
   @HopMetadataProperty(key = "lookup")
   private Lookup lookup;
 
   public DatabaseLookupMeta() {
     lookup = new Lookup();
+    lookupBatchMaxDelay = 1000;
   }
 
   public DatabaseLookupMeta(DatabaseLookupMeta m) {
     this.cached = m.cached;
     this.cacheSize = m.cacheSize;
     this.loadingAllDataInCache = m.loadingAllDataInCache;
+    this.lookupBatchSize = m.lookupBatchSize;
+    this.lookupBatchMaxDelay = m.lookupBatchMaxDelay;
     this.lookup = new Lookup(m.lookup);
   }
 
@@ -506,6 +521,38 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
     this.loadingAllDataInCache = loadingAllDataInCache;
   }
 
+  /**
+   * Gets lookupBatchSize
+   *
+   * @return value of lookupBatchSize
+   */
+  public int getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /**
+   * @param lookupBatchSize The lookupBatchSize to set
+   */
+  public void setLookupBatchSize(int lookupBatchSize) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
+  /**
+   * Gets lookupBatchMaxDelay
+   *
+   * @return value of lookupBatchMaxDelay
+   */
+  public int getLookupBatchMaxDelay() {
+    return lookupBatchMaxDelay;
+  }
+
+  /**
+   * @param lookupBatchMaxDelay The lookupBatchMaxDelay to set
+   */
+  public void setLookupBatchMaxDelay(int lookupBatchMaxDelay) {
+    this.lookupBatchMaxDelay = lookupBatchMaxDelay;
+  }
+
   /**
    * Gets lookup
    *
@@ -17,18 +17,20 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.List;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.TimedRow;
+import org.apache.hop.core.cache.LookupCache;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
-/** Old code, copied from {@linkplain DatabaseLookup} */
+/**
+ * The cache of {@linkplain DatabaseLookup}. When all the key conditions are "=" the rows are kept
+ * in a {@link LookupCache}, which can be shared by the copies of the transform. Otherwise all the
+ * rows of the table are loaded in insertion order and the keys are evaluated one by one.
+ */
 public class DefaultCache implements DatabaseLookupData.ICache {
 
   public static DefaultCache newCache(DatabaseLookupData data, int cacheSize) {
@@ -42,21 +44,28 @@ public class DefaultCache implements DatabaseLookupData.ICache {
 
   private final DatabaseLookupData data;
   private final LinkedHashMap<RowMetaAndData, TimedRow> map;
+  private LookupCache<Object[]> lookupCache;
 
   DefaultCache(DatabaseLookupData data, int capacity) {
     this.data = data;
     map = new LinkedHashMap<>(capacity);
   }
 
+  /**
+   * @param data the data of the transform
+   * @param lookupCache the cache for the rows of keys with "=" conditions
+   */
+  public DefaultCache(DatabaseLookupData data, LookupCache<Object[]> lookupCache) {
+    this(data, 16);
+    this.lookupCache = lookupCache;
+  }
+
   @Override
   public Object[] getRowFromCache(IRowMeta lookupMeta, Object[] lookupRow) throws HopException {
     if (data.allEquals) {
       // only do the map lookup when all equals otherwise conditions >, <, <> will give wrong
       // results
-      TimedRow timedRow = map.get(new RowMetaAndData(data.lookupMeta, lookupRow));
-      if (timedRow != null) {
-        return timedRow.getRow();
-      }
+      return lookupCache == null ? null : lookupCache.get(lookupRow);
     } else { // special handling of conditions <,>, <> etc.
       if (!data.hasDBCondition) { // e.g. LIKE not handled by this routine, yet
         // TODO: find an alternative way to look up the data based on the condition.
@@ -133,56 +142,26 @@ public class DefaultCache implements DatabaseLookupData.ICache {
 
   @Override
   public void storeRowInCache(
-      DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add) {
-    RowMetaAndData rowMetaAndData = new RowMetaAndData(lookupMeta, lookupRow);
-    //  2009-02-01 XXX: I want to write a test case to prove this point before checking
-    // in.
-    // /* Don't insert a row with a duplicate key into the cache. It doesn't seem
-    // * to serve a useful purpose and can potentially cause the transform to return
-    // * different values over the life of the pipeline (if the source DB rows change)
-    // * Additionally, if using the load all data feature, re-inserting would reverse the order
-    // * specified in the transform.
-    // */
-    map.put(rowMetaAndData, new TimedRow(add));
-
-    // See if we have to limit the cache_size.
-    // Sample 10% of the rows in the cache.
-    // Remove everything below the second lowest date.
-    // That should on average remove more than 10% of the entries
-    // It's not exact science, but it will be faster than the old algorithm
+      DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add)
+      throws HopException {
+    if (data.allEquals) {
+      if (lookupCache == null) {
+        // All the rows loaded from the table have to stay in the cache
+        long maximumSize = meta.isLoadingAllDataInCache() ? 0L : meta.getCacheSize();
+        lookupCache = new LookupCache<>(lookupMeta, maximumSize, 0L, 1);
+      }
+      lookupCache.put(lookupRow, add);
+      return;
+    }
 
-    // 2009-02-01: If you had previously set a cache size and then turned on load all,
-    // this
-    // method would throw out entries if the previous cache size wasn't big enough.
+    // The keys are evaluated in the order they were loaded, the oldest row makes room for a new one
     if (!meta.isLoadingAllDataInCache()
         && meta.getCacheSize() > 0
-        && map.size() > meta.getCacheSize()) {
-      List<RowMetaAndData> keys = new ArrayList<>(map.keySet());
-      List<Date> samples = new ArrayList<>();
-      int incr = keys.size() / 10;
-      if (incr == 0) {
-        incr = 1;
-      }
-      for (int k = 0; k < keys.size(); k += incr) {
-        RowMetaAndData key = keys.get(k);
-        TimedRow timedRow = map.get(key);
-        samples.add(timedRow.getLogDate());
-      }
-
-      Collections.sort(samples);
-
-      if (samples.size() > 1) {
-        Date smallest = samples.get(1);
-
-        // Everything below the smallest date goes away...
-        for (RowMetaAndData key : keys) {
-          TimedRow timedRow = map.get(key);
-
-          if (timedRow.getLogDate().compareTo(smallest) < 0) {
-            map.remove(key);
-          }
-        }
-      }
+        && map.size() >= meta.getCacheSize()) {
+      Iterator<RowMetaAndData> keys = map.keySet().iterator();
+      keys.next();
+      keys.remove();
     }
+    map.put(new RowMetaAndData(lookupMeta, lookupRow), new TimedRow(add));
   }
 }
@@ -21,7 +21,9 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -35,18 +37,25 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.HopEnvironment;
 import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.NoneDatabaseMeta;
@@ -451,6 +460,313 @@ public class DatabaseLookupUTest {
     assertNotNull(data.cache.getRowFromCache(data.lookupMeta, new Object[] {2L}));
   }
 
+  @Test
+  public void testBatchSql() throws Exception {
+    DatabaseMeta dbMeta = new DatabaseMeta();
+    dbMeta.setIDatabase(new NoneDatabaseMeta());
+    DatabaseLookupMeta meta = createTestMeta();
+    meta.getLookup().getKeyFields().get(0).setTableField("id");
+    meta.getLookup().setTableName("VirtualTable");
+    meta.getLookup()
+        .getReturnValues()
+        .add(
+            new ReturnValue(
+                "value",
+                "",
+                "",
+                "String",
+                ValueMetaString.getTrimTypeCode(IValueMeta.TRIM_TYPE_NONE)));
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.batchSize = 3;
+
+    DatabaseLookup transform =
+        new DatabaseLookup(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
+    assertEquals(
+        "SELECT id, value FROM VirtualTable WHERE id IN (?, ?, ?)", transform.getBatchSql(dbMeta));
+
+    meta.getLookup().getKeyFields().add(new KeyField("code", "", "=", "code"));
+    data.batchSize = 2;
+    assertEquals(
+        "SELECT id, code, value FROM VirtualTable"
+            + " WHERE (id = ? AND code = ?) OR (id = ? AND code = ?)",
+        transform.getBatchSql(dbMeta));
+  }
+
+  @Test
+  public void testLookupBatch() throws Exception {
+    DatabaseLookupMeta meta = createTestMeta();
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.batchSize = 4;
+    data.lookupMeta = new RowMeta();
+    data.lookupMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    RowMeta resultRowMeta = new RowMeta();
+    resultRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    resultRowMeta.addValueMeta(new ValueMetaString("value"));
+    data.db = mock(Database.class);
+    data.batchStatement = mock(PreparedStatement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(data.db.openQuery(eq(data.batchStatement), any(IRowMeta.class), any(Object[].class)))
+        .thenReturn(resultSet);
+    IRowMeta lookupRowMeta = new RowMeta();
+    when(data.db.getReturnRowMeta()).thenReturn(lookupRowMeta).thenReturn(resultRowMeta);
+    when(data.db.getRow(eq(resultSet), nullable(ResultSetMetaData.class), eq(resultRowMeta)))
+        .thenReturn(new Object[] {2L, "two"})
+        .thenReturn(new Object[] {1L, "one"})
+        .thenReturn(new Object[] {1L, "another one"})
+        .thenReturn(null);
+
+    DatabaseLookup transform =
+        new DatabaseLookup(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
+    Map<RowMetaAndData, Object[]> results =
+        transform.lookupBatch(
+            Arrays.asList(new Object[] {1L}, new Object[] {2L}, new Object[] {3L}));
+
+    // The last key is repeated to fill up the batch
+    verify(data.db)
+        .openQuery(eq(data.batchStatement), any(IRowMeta.class), eq(new Object[] {1L, 2L, 3L, 3L}));
+    // Every returned row matched a key, so key 3 isn't in the database
+    assertEquals(3, results.size());
+    assertArrayEquals(new Object[] {"one"}, results.get(new RowMetaAndData(data.lookupMeta, 1L)));
+    assertArrayEquals(new Object[] {"two"}, results.get(new RowMetaAndData(data.lookupMeta, 2L)));
+    assertTrue(results.containsKey(new RowMetaAndData(data.lookupMeta, 3L)));
+    assertNull(results.get(new RowMetaAndData(data.lookupMeta, 3L)));
+    assertEquals(1, data.batchReturnRowMeta.size());
+    assertEquals("value", data.batchReturnRowMeta.getValueMeta(0).getName());
+    verify(resultSet).close();
+    // The single lookups keep reading their rows with their own metadata
+    verify(data.db).setReturnRowMeta(lookupRowMeta);
+  }
+
+  @Test
+  public void testLookupBatchLeavesOutKeysMatchedByTheDatabaseOnly() throws Exception {
+    DatabaseLookupMeta meta = createTestMeta();
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.batchSize = 2;
+    data.lookupMeta = new RowMeta();
+    data.lookupMeta.addValueMeta(new ValueMetaString("code"));
+
+    RowMeta resultRowMeta = new RowMeta();
+    resultRowMeta.addValueMeta(new ValueMetaString("code"));
+    resultRowMeta.addValueMeta(new ValueMetaString("value"));
+    data.db = mock(Database.class);
+    data.batchStatement = mock(PreparedStatement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(data.db.openQuery(eq(data.batchStatement), any(IRowMeta.class), any(Object[].class)))
+        .thenReturn(resultSet);
+    when(data.db.getReturnRowMeta()).thenReturn(null).thenReturn(resultRowMeta);
+
+    // A case insensitive collation and a padded CHAR column return keys which differ from the
+    // keys which were looked up
+    when(data.db.getRow(eq(resultSet), nullable(ResultSetMetaData.class), eq(resultRowMeta)))
+        .thenReturn(new Object[] {"ABC", "upper case"})
+        .thenReturn(new Object[] {"xyz  ", "padded"})
+        .thenReturn(null);
+
+    DatabaseLookup transform =
+        new DatabaseLookup(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
+    Map<RowMetaAndData, Object[]> results =
+        transform.lookupBatch(Arrays.asList(new Object[] {"abc"}, new Object[] {"xyz"}));
+
+    // Neither key is known not to be in the database, both are looked up on their own
+    assertTrue(results.isEmpty());
+  }
+
+  @Test
+  public void testLookupBatchKeepsTheRowMetaOfTheLookup() throws Exception {
+    // The lookup of a single key returns the value
+    ResultSetMetaData lookupResultSetMeta = mock(ResultSetMetaData.class);
+    when(lookupResultSetMeta.getColumnCount()).thenReturn(1);
+    when(lookupResultSetMeta.getColumnName(1)).thenReturn("value");
+    when(lookupResultSetMeta.getColumnType(1)).thenReturn(Types.VARCHAR);
+    ResultSet lookupResultSet = mock(ResultSet.class);
+    when(lookupResultSet.getMetaData()).thenReturn(lookupResultSetMeta);
+    when(lookupResultSet.next()).thenReturn(true);
+    when(lookupResultSet.getString(1)).thenReturn("one", "three");
+    PreparedStatement lookupStatement = mock(PreparedStatement.class);
+    when(lookupStatement.executeQuery()).thenReturn(lookupResultSet);
+
+    // The batch query returns the key before the value
+    ResultSetMetaData batchResultSetMeta = mock(ResultSetMetaData.class);
+    when(batchResultSetMeta.getColumnCount()).thenReturn(2);
+    when(batchResultSetMeta.getColumnName(1)).thenReturn("id");
+    when(batchResultSetMeta.getColumnType(1)).thenReturn(Types.BIGINT);
+    when(batchResultSetMeta.isSigned(1)).thenReturn(true);
+    when(batchResultSetMeta.getColumnName(2)).thenReturn("value");
+    when(batchResultSetMeta.getColumnType(2)).thenReturn(Types.VARCHAR);
+    ResultSet batchResultSet = mock(ResultSet.class);
+    when(batchResultSet.getMetaData()).thenReturn(batchResultSetMeta);
+    when(batchResultSet.next()).thenReturn(true, false);
+    when(batchResultSet.getLong(1)).thenReturn(2L);
+    when(batchResultSet.getString(2)).thenReturn("two");
+    PreparedStatement batchStatement = mock(PreparedStatement.class);
+    when(batchStatement.executeQuery()).thenReturn(batchResultSet);
+
+    Connection connection = mock(Connection.class);
+    when(connection.prepareStatement(anyString())).thenReturn(lookupStatement);
+    DatabaseMeta dbMeta = new DatabaseMeta();
+    dbMeta.setIDatabase(new NoneDatabaseMeta());
+    Database db = new Database(mock(ILoggingObject.class), variables, dbMeta);
+    db.setConnection(connection);
+    db.setLookup(
+        "VirtualTable", new String[] {"id"}, new String[] {"="}, new String[] {"value"}, null, "");
+
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.batchSize = 2;
+    data.lookupMeta = new RowMeta();
+    data.lookupMeta.addValueMeta(new ValueMetaInteger("id"));
+    data.db = db;
+    data.batchStatement = batchStatement;
+    DatabaseLookup transform =
+        new DatabaseLookup(
+            mockHelper.transformMeta,
+            createTestMeta(),
+            data,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+
+    db.setValuesLookup(data.lookupMeta, new Object[] {1L});
+    assertEquals("one", db.getLookup()[0]);
+
+    Map<RowMetaAndData, Object[]> results =
+        transform.lookupBatch(Arrays.asList(new Object[] {2L}, new Object[] {4L}));
+    assertArrayEquals(new Object[] {"two"}, results.get(new RowMetaAndData(data.lookupMeta, 2L)));
+    assertNull(results.get(new RowMetaAndData(data.lookupMeta, 4L)));
+    assertTrue(results.containsKey(new RowMetaAndData(data.lookupMeta, 4L)));
+
+    // The next single lookup reads the value only, not the layout of the batch query
+    db.setValuesLookup(data.lookupMeta, new Object[] {3L});
+    assertEquals("three", db.getLookup()[0]);
+    assertEquals(1, db.getReturnRowMeta().size());
+    assertEquals("value", db.getReturnRowMeta().getValueMeta(0).getName());
+  }
+
+  @Test
+  public void testKeyNotMatchedByBatchIsLookedUpOnItsOwn() throws Exception {
+    DatabaseLookupMeta meta = createTestMeta();
+    meta.setCached(false);
+    meta.setLoadingAllDataInCache(false);
+    meta.getLookup()
+        .getReturnValues()
+        .add(
+            new ReturnValue(
+                "value",
+                "value",
+                "",
+                "String",
+                ValueMetaString.getTrimTypeCode(IValueMeta.TRIM_TYPE_NONE)));
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.lookupMeta = new RowMeta();
+    data.lookupMeta.addValueMeta(new ValueMetaString("code"));
+    data.returnMeta = new RowMeta();
+    data.returnMeta.addValueMeta(new ValueMetaString("value"));
+    data.outputRowMeta = new RowMeta();
+    data.outputRowMeta.addValueMeta(new ValueMetaString("code"));
+    data.outputRowMeta.addValueMeta(new ValueMetaString("value"));
+    data.nullif = new Object[1];
+    data.returnValueTypes = new int[] {IValueMeta.TYPE_STRING};
+    data.trimIndexes = new ArrayList<>();
+    data.batchReturnRowMeta = data.returnMeta;
+    data.batchResults = new HashMap<>();
+    data.batchResults.put(
+        new RowMetaAndData(data.lookupMeta, new Object[] {"abc"}), new Object[] {"from batch"});
+
+    data.db = mock(Database.class);
+    when(data.db.getLookup(anyBoolean())).thenReturn(new Object[] {"on its own"});
+    when(data.db.getReturnRowMeta()).thenReturn(data.returnMeta);
+
+    DatabaseLookup transform =
+        new DatabaseLookup(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("code"));
+
+    Object[] found =
+        transform.lookupValues(inputRowMeta, new Object[] {"abc"}, new Object[] {"abc"});
+    assertEquals("from batch", found[1]);
+    verify(data.db, never()).getLookup(anyBoolean());
+
+    found = transform.lookupValues(inputRowMeta, new Object[] {"ABC"}, new Object[] {"ABC"});
+    assertEquals("on its own", found[1]);
+    verify(data.db).setValuesLookup(data.lookupMeta, new Object[] {"ABC"});
+  }
+
+  @Test
+  public void testKeyMissingFromAnAuthoritativeBatchIsNotLookedUpAgain() throws Exception {
+    DatabaseLookupMeta meta = createTestMeta();
+    meta.setCached(false);
+    meta.setLoadingAllDataInCache(false);
+    meta.getLookup()
+        .getReturnValues()
+        .add(
+            new ReturnValue(
+                "value",
+                "value",
+                "",
+                "String",
+                ValueMetaString.getTrimTypeCode(IValueMeta.TRIM_TYPE_NONE)));
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.lookupMeta = new RowMeta();
+    data.lookupMeta.addValueMeta(new ValueMetaString("code"));
+    data.returnMeta = new RowMeta();
+    data.returnMeta.addValueMeta(new ValueMetaString("value"));
+    data.outputRowMeta = new RowMeta();
+    data.outputRowMeta.addValueMeta(new ValueMetaString("code"));
+    data.outputRowMeta.addValueMeta(new ValueMetaString("value"));
+    data.nullif = new Object[] {"unknown"};
+    data.returnValueTypes = new int[] {IValueMeta.TYPE_STRING};
+    data.trimIndexes = new ArrayList<>();
+    data.batchReturnRowMeta = data.returnMeta;
+    data.batchResults = new HashMap<>();
+    data.batchResults.put(new RowMetaAndData(data.lookupMeta, new Object[] {"abc"}), null);
+    data.db = mock(Database.class);
+
+    DatabaseLookup transform =
+        new DatabaseLookup(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("code"));
+
+    Object[] found =
+        transform.lookupValues(inputRowMeta, new Object[] {"abc"}, new Object[] {"abc"});
+    assertEquals("unknown", found[1]);
+    verify(data.db, never()).setValuesLookup(any(IRowMeta.class), any(Object[].class));
+    verify(data.db, never()).getLookup(anyBoolean());
+  }
+
+  @Test
+  public void testBatchSizeIsLimitedByTheDatabase() {
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.batchSize = 5000;
+    data.lookupMeta = new RowMeta();
+    data.lookupMeta.addValueMeta(new ValueMetaInteger("id"));
+    DatabaseLookup transform =
+        new DatabaseLookup(
+            mockHelper.transformMeta,
+            createTestMeta(),
+            data,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    DatabaseMeta dbMeta = mock(DatabaseMeta.class);
+
+    assertEquals(5000, transform.getMaxBatchSize(dbMeta));
+
+    // An IN list of at most 1000 values
+    when(dbMeta.getMaxInListSize()).thenReturn(1000);
+    assertEquals(1000, transform.getMaxBatchSize(dbMeta));
+
+    // At most 2100 parameters, 3 for every key
+    when(dbMeta.getMaxStatementParameters()).thenReturn(2100);
+    data.lookupMeta.addValueMeta(new ValueMetaString("code"));
+    data.lookupMeta.addValueMeta(new ValueMetaString("type"));
+    assertEquals(700, transform.getMaxBatchSize(dbMeta));
+  }
+
   public class MockDatabaseLookup extends DatabaseLookup {
     public MockDatabaseLookup(
         TransformMeta transformMeta,
@@ -28,7 +28,6 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import org.apache.commons.lang.StringUtils;
@@ -39,7 +38,6 @@ import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
-import org.apache.hop.core.hash.ByteArrayHashMap;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -175,9 +173,12 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
             data.cacheKeyRowMeta.addValueMeta(key.clone());
           }
 
+          // The copies of the transform only share the cache in lookup mode: in update mode the
+          // cached versions change with the rows each copy writes.
+          //
           data.cache =
-              new ByteArrayHashMap(
-                  meta.getCacheSize() > 0 ? meta.getCacheSize() : 5000, data.cacheKeyRowMeta);
+              createLookupCache(
+                  data.cacheKeyRowMeta, Math.max(0, meta.getCacheSize()), !meta.isUpdate());
         }
       }
 
@@ -1570,82 +1571,9 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       data.cacheValueRowMeta = assembleCacheValueRowMeta();
     }
 
-    // store it in the cache if needed.
-    byte[] keyPart = RowMeta.extractData(data.cacheKeyRowMeta, keyValues);
+    // store it in the cache, the least valuable entries are evicted once it holds too many rows.
     byte[] valuePart = RowMeta.extractData(data.cacheValueRowMeta, returnValues);
-    data.cache.put(keyPart, valuePart);
-
-    // check if the size is not too big...
-    // Allow for a buffer overrun of 20% and then remove those 20% in one go.
-    // Just to keep performance in track.
-    //
-    int tenPercent = meta.getCacheSize() / 10;
-    if (meta.getCacheSize() > 0 && data.cache.size() > meta.getCacheSize() + tenPercent) {
-      // Which cache entries do we delete here?
-      // We delete those with the lowest technical key...
-      // Those would arguably be the "oldest" dimension entries.
-      // Oh well... Nothing is going to be perfect here...
-      //
-      // Getting the lowest 20% requires some kind of sorting algorithm and I'm not sure we want to
-      // do that.
-      // Sorting is slow and even in the best case situation we need to do 2 passes over the cache
-      // entries...
-      //
-      // Perhaps we should get 20% random values and delete everything below the lowest but one TK.
-      //
-      List<byte[]> keys = data.cache.getKeys();
-      int sizeBefore = keys.size();
-      List<Long> samples = new ArrayList<>();
-
-      // Take 10 sample technical keys....
-      int transformsize = keys.size() / 5;
-      if (transformsize < 1) {
-        transformsize = 1; // make shure we have no endless loop
-      }
-      for (int i = 0; i < keys.size(); i += transformsize) {
-        byte[] key = keys.get(i);
-        byte[] value = data.cache.get(key);
-        if (value != null) {
-          Object[] values = RowMeta.getRow(data.cacheValueRowMeta, value);
-          Long tk = data.cacheValueRowMeta.getInteger(values, 0);
-          samples.add(tk);
-        }
-      }
-      // Sort these 5 elements...
-      Collections.sort(samples);
-
-      // What is the smallest?
-      // Take the second, not the fist in the list, otherwise we would be removing a single entry =
-      // not good.
-      if (samples.size() > 1) {
-        data.smallestCacheKey = samples.get(1);
-      } else if (!samples.isEmpty()) { // except when there is only one sample
-        data.smallestCacheKey = samples.get(0);
-      } else {
-        // If no samples found nothing to remove, we're done
-        return;
-      }
-
-      // Remove anything in the cache <= smallest.
-      // This makes it almost single pass...
-      // This algorithm is not 100% correct, but I guess it beats sorting the whole cache all the
-      // time.
-      //
-      for (int i = 0; i < keys.size(); i++) {
-        byte[] key = keys.get(i);
-        byte[] value = data.cache.get(key);
-        if (value != null) {
-          Object[] values = RowMeta.getRow(data.cacheValueRowMeta, value);
-          long tk = data.cacheValueRowMeta.getInteger(values, 0).longValue();
-          if (tk <= data.smallestCacheKey) {
-            data.cache.remove(key); // this one has to go.
-          }
-        }
-      }
-
-      int sizeAfter = data.cache.size();
-      logDetailed("Reduced the lookup cache from " + sizeBefore + " to " + sizeAfter + " rows.");
-    }
+    data.cache.put(keyValues, valuePart);
 
     if (isRowLevel()) {
       logRowlevel(
@@ -1676,8 +1604,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       data.cacheValueRowMeta = assembleCacheValueRowMeta();
     }
 
-    byte[] key = RowMeta.extractData(data.cacheKeyRowMeta, keyValues);
-    byte[] value = data.cache.get(key);
+    byte[] value = data.cache.get(keyValues);
     if (value != null) {
       Object[] row = RowMeta.getRow(data.cacheValueRowMeta, value);
 
@@ -45,9 +45,9 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
-  private synchronized boolean keepRow(IRowMeta rowMeta, Object[] row) throws HopException {
+  private boolean keepRow(IRowMeta rowMeta, Object[] row) throws HopException {
     try {
-      return meta.getCondition().evaluate(rowMeta, row);
+      return data.condition.evaluate(row);
     } catch (Exception e) {
       String message =
           BaseMessages.getString(
@@ -78,6 +78,10 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
       // if filter refers to non-existing fields, throw exception
       checkNonExistingFields();
 
+      // Look up the fields and prepare the constant values of the condition only once
+      //
+      data.condition = meta.getCondition().compile(getInputRowMeta());
+
       // Cache the position of the IRowSet for the output.
       //
       if (data.chosesTargetTransforms) {
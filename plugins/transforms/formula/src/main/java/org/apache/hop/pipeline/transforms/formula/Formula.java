@@ -31,6 +31,8 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula;
+import org.apache.hop.pipeline.transforms.formula.util.FormulaCompiler;
 import org.apache.hop.pipeline.transforms.formula.util.FormulaParser;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.CellValue;
@@ -112,6 +114,25 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
           data.replaceIndex[j] = -1;
         }
       }
+
+      // Parse every formula only once. Formulas which can be compiled are evaluated directly on
+      // the row, the others are evaluated by POI.
+      //
+      data.parsers = new FormulaParser[meta.getFormulas().size()];
+      data.compiledFormulas = new CompiledFormula[meta.getFormulas().size()];
+      for (int i = 0; i < meta.getFormulas().size(); i++) {
+        FormulaMetaFunction formula = meta.getFormulas().get(i);
+        data.parsers[i] =
+            new FormulaParser(formula, data.outputRowMeta, null, sheetRow, variables, replaceMap);
+        data.compiledFormulas[i] = compileFormula(data.parsers[i].getFormula());
+        if (log.isDetailed()) {
+          logDetailed(
+              "Formula '"
+                  + formula.getFormula()
+                  + "' is evaluated "
+                  + (data.compiledFormulas[i] == null ? "by POI" : "as a compiled expression"));
+        }
+      }
     }
 
     int tempIndex = getInputRowMeta().size();
@@ -120,10 +141,7 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
       logRowlevel("Read row #" + getLinesRead() + " : " + Arrays.toString(r));
     }
 
-    if (sheetRow != null) {
-      workSheet.removeRow(sheetRow);
-    }
-    sheetRow = workSheet.createRow(0);
+    boolean sheetRowCreated = false;
 
     Object[] outputRowData = RowDataUtil.resizeArray(r, data.outputRowMeta.size());
     Object outputValue = null;
@@ -131,11 +149,19 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
     for (int i = 0; i < meta.getFormulas().size(); i++) {
 
       FormulaMetaFunction formula = meta.getFormulas().get(i);
-      FormulaParser parser =
-          new FormulaParser(
-              formula, data.outputRowMeta, outputRowData, sheetRow, variables, replaceMap);
       try {
-        CellValue cellValue = parser.getFormulaValue();
+        CellValue cellValue = null;
+        if (data.compiledFormulas[i] != null) {
+          cellValue = data.compiledFormulas[i].evaluate(outputRowData);
+        }
+        if (cellValue == null) {
+          if (!sheetRowCreated) {
+            workSheet.removeRow(sheetRow);
+            sheetRow = workSheet.createRow(0);
+            sheetRowCreated = true;
+          }
+          cellValue = data.parsers[i].getFormulaValue(outputRowData, sheetRow);
+        }
         CellType cellType = cellValue.getCellType();
 
         int outputValueType = formula.getValueType();
@@ -232,6 +258,16 @@ public class Formula extends BaseTransform<FormulaMeta, FormulaData> {
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
+  /**
+   * Compile a formula to evaluate it directly on the output rows.
+   *
+   * @param formula the formula with variables resolved and replaced fields renamed
+   * @return the compiled formula or null if the formula is evaluated by POI
+   */
+  protected CompiledFormula compileFormula(String formula) {
+    return FormulaCompiler.compile(formula, data.outputRowMeta, null);
+  }
+
   protected Object getReturnValue(
       Object formulaResult, int returnType, int realIndex, FormulaMetaFunction fn)
       throws HopException {
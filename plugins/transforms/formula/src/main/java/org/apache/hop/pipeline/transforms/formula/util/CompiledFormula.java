@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import org.apache.poi.ss.usermodel.CellValue;
+
+/**
+ * A formula which was parsed once into an expression tree with the field references bound to the
+ * indexes of the row it is evaluated on. Values are represented as Double (numbers and dates),
+ * String, Boolean or null (a blank cell), the same value model the spreadsheet evaluator uses.
+ *
+ * <p>The compiled formula only handles situations where it is sure to produce exactly the same
+ * result as the POI formula evaluator. In all other cases (errors, implicit conversions of text to
+ * numbers, ...) {@link #evaluate(Object[])} returns null and the caller evaluates the row with
+ * {@link FormulaParser} instead.
+ */
+public class CompiledFormula {
+
+  private final String formula;
+  private final Expression expression;
+
+  CompiledFormula(String formula, Expression expression) {
+    this.formula = formula;
+    this.expression = expression;
+  }
+
+  /**
+   * Evaluate the formula on the given row.
+   *
+   * @param row the row to evaluate on, laid out according to the row metadata used to compile
+   * @return the result of the formula or null if the row needs to be evaluated by POI
+   */
+  public CellValue evaluate(Object[] row) {
+    Object value;
+    try {
+      value = expression.evaluate(row);
+    } catch (FallbackException e) {
+      return null;
+    }
+    if (value instanceof Double) {
+      return new CellValue((Double) value);
+    }
+    if (value instanceof String) {
+      return new CellValue((String) value);
+    }
+    if (value instanceof Boolean) {
+      return CellValue.valueOf((Boolean) value);
+    }
+    // A blank result is left to POI
+    //
+    return null;
+  }
+
+  /**
+   * Gets formula
+   *
+   * @return value of formula
+   */
+  public String getFormula() {
+    return formula;
+  }
+
+  /** A node in the compiled expression tree. */
+  abstract static class Expression {
+
+    /**
+     * @param row the row to evaluate on
+     * @return a Double, String, Boolean or null for a blank value
+     * @throws FallbackException when this row can't be evaluated by the compiled formula
+     */
+    abstract Object evaluate(Object[] row);
+
+    /**
+     * @return true if this expression is a reference to a field, the equivalent of a cell reference
+     */
+    boolean isReference() {
+      return false;
+    }
+  }
+
+  /**
+   * Signals that a row needs to be evaluated by the POI formula evaluator. A single instance
+   * without a stack trace is used since this is not an error condition.
+   */
+  static final class FallbackException extends RuntimeException {
+    static final FallbackException INSTANCE = new FallbackException();
+
+    private FallbackException() {
+      super("Formula evaluation falls back to POI", null, false, false);
+    }
+  }
+}
@@ -0,0 +1,950 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula.Expression;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula.FallbackException;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.NumberComparer;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.LocaleUtil;
+
+/**
+ * Parses a formula once into an expression tree bound to the field indexes of a row. The syntax is
+ * the one of the spreadsheet formulas used by the Formula transform: literals, [field] references,
+ * the arithmetic, text and comparison operators and a subset of the functions of the function
+ * library. Formulas using other functions or syntax are not compiled and are evaluated by POI.
+ */
+public class FormulaCompiler {
+
+  private final String formula;
+  private final IRowMeta rowMeta;
+  private final Map<String, String> replaceMap;
+  private int position;
+
+  private FormulaCompiler(String formula, IRowMeta rowMeta, Map<String, String> replaceMap) {
+    this.formula = formula;
+    this.rowMeta = rowMeta;
+    this.replaceMap = replaceMap;
+    this.position = 0;
+  }
+
+  /**
+   * Compile a formula.
+   *
+   * @param formula the formula with variables already resolved
+   * @param rowMeta the layout of the rows the formula is evaluated on
+   * @param replaceMap the formula field names which replace other fields in the row
+   * @return the compiled formula or null if the formula can only be evaluated by POI
+   */
+  public static CompiledFormula compile(
+      String formula, IRowMeta rowMeta, Map<String, String> replaceMap) {
+    if (formula == null) {
+      return null;
+    }
+    FormulaCompiler compiler = new FormulaCompiler(formula, rowMeta, replaceMap);
+    try {
+      Expression expression = compiler.parseComparison();
+      compiler.skipWhitespace();
+      if (compiler.position != formula.length()) {
+        return null;
+      }
+      return new CompiledFormula(formula, expression);
+    } catch (UnsupportedFormulaException e) {
+      return null;
+    }
+  }
+
+  // Parsing, following the spreadsheet operator precedence
+  //
+
+  private Expression parseComparison() {
+    Expression left = parseConcatenation();
+    while (true) {
+      skipWhitespace();
+      String operator;
+      if (lookingAt("<=") || lookingAt(">=") || lookingAt("<>")) {
+        operator = formula.substring(position, position + 2);
+      } else if (lookingAt("=") || lookingAt("<") || lookingAt(">")) {
+        operator = formula.substring(position, position + 1);
+      } else {
+        return left;
+      }
+      position += operator.length();
+      left = new Comparison(operator, left, parseConcatenation());
+    }
+  }
+
+  private Expression parseConcatenation() {
+    Expression left = parseAdditive();
+    while (true) {
+      skipWhitespace();
+      if (!lookingAt("&")) {
+        return left;
+      }
+      position++;
+      left = new Concatenation(List.of(left, parseAdditive()));
+    }
+  }
+
+  private Expression parseAdditive() {
+    Expression left = parseMultiplicative();
+    while (true) {
+      skipWhitespace();
+      if (lookingAt("+")) {
+        position++;
+        left = new Arithmetic('+', left, parseMultiplicative());
+      } else if (lookingAt("-")) {
+        position++;
+        left = new Arithmetic('-', left, parseMultiplicative());
+      } else {
+        return left;
+      }
+    }
+  }
+
+  private Expression parseMultiplicative() {
+    Expression left = parsePower();
+    while (true) {
+      skipWhitespace();
+      if (lookingAt("*")) {
+        position++;
+        left = new Arithmetic('*', left, parsePower());
+      } else if (lookingAt("/")) {
+        position++;
+        left = new Arithmetic('/', left, parsePower());
+      } else {
+        return left;
+      }
+    }
+  }
+
+  private Expression parsePower() {
+    Expression left = parsePercent();
+    while (true) {
+      skipWhitespace();
+      if (!lookingAt("^")) {
+        return left;
+      }
+      position++;
+      left = new Arithmetic('^', left, parsePercent());
+    }
+  }
+
+  private Expression parsePercent() {
+    Expression expression = parseUnary();
+    while (true) {
+      skipWhitespace();
+      if (!lookingAt("%")) {
+        return expression;
+      }
+      position++;
+      expression = new Percent(expression);
+    }
+  }
+
+  private Expression parseUnary() {
+    skipWhitespace();
+    if (lookingAt("-")) {
+      // Like the POI parser, a minus sign applies to the power which follows it: -2^2 is -4
+      //
+      position++;
+      return new Negation(parsePower());
+    }
+    if (lookingAt("+")) {
+      throw new UnsupportedFormulaException();
+    }
+    return parsePrimary();
+  }
+
+  private Expression parsePrimary() {
+    skipWhitespace();
+    if (position >= formula.length()) {
+      throw new UnsupportedFormulaException();
+    }
+    char c = formula.charAt(position);
+    if (c == '(') {
+      position++;
+      Expression expression = parseComparison();
+      expect(')');
+      return expression;
+    }
+    if (c == '"') {
+      return parseString();
+    }
+    if (c == '[') {
+      return parseFieldReference();
+    }
+    if (Character.isDigit(c) || c == '.') {
+      return parseNumber();
+    }
+    if (Character.isLetter(c)) {
+      return parseFunction();
+    }
+    throw new UnsupportedFormulaException();
+  }
+
+  private Expression parseString() {
+    StringBuilder value = new StringBuilder();
+    position++;
+    while (position < formula.length()) {
+      char c = formula.charAt(position++);
+      if (c == '"') {
+        if (lookingAt("\"")) {
+          value.append('"');
+          position++;
+        } else {
+          return new Constant(value.toString());
+        }
+      } else {
+        value.append(c);
+      }
+    }
+    throw new UnsupportedFormulaException();
+  }
+
+  private Expression parseNumber() {
+    int start = position;
+    while (position < formula.length()
+        && (Character.isDigit(formula.charAt(position)) || formula.charAt(position) == '.')) {
+      position++;
+    }
+    if (position < formula.length() && Character.toUpperCase(formula.charAt(position)) == 'E') {
+      position++;
+      if (lookingAt("+") || lookingAt("-")) {
+        position++;
+      }
+      while (position < formula.length() && Character.isDigit(formula.charAt(position))) {
+        position++;
+      }
+    }
+    try {
+      return new Constant(Double.valueOf(formula.substring(start, position)));
+    } catch (NumberFormatException e) {
+      throw new UnsupportedFormulaException();
+    }
+  }
+
+  private Expression parseFieldReference() {
+    int end = formula.indexOf(']', position);
+    if (end < 0) {
+      throw new UnsupportedFormulaException();
+    }
+    String fieldName = formula.substring(position + 1, end);
+    position = end + 1;
+
+    // Formula results which replace a field are stored in the replaced field
+    //
+    String realFieldName = replaceMap == null ? null : replaceMap.get(fieldName);
+    int index = rowMeta.indexOfValue(realFieldName == null ? fieldName : realFieldName);
+    if (index < 0) {
+      throw new UnsupportedFormulaException();
+    }
+    return new FieldReference(index, rowMeta.getValueMeta(index));
+  }
+
+  private Expression parseFunction() {
+    int start = position;
+    while (position < formula.length()
+        && (Character.isLetterOrDigit(formula.charAt(position))
+            || formula.charAt(position) == '.'
+            || formula.charAt(position) == '_')) {
+      position++;
+    }
+    String name = formula.substring(start, position).toUpperCase(Locale.ROOT);
+    skipWhitespace();
+    if (!lookingAt("(")) {
+      if ("TRUE".equals(name)) {
+        return new Constant(Boolean.TRUE);
+      }
+      if ("FALSE".equals(name)) {
+        return new Constant(Boolean.FALSE);
+      }
+      throw new UnsupportedFormulaException();
+    }
+    position++;
+    List<Expression> arguments = new ArrayList<>();
+    skipWhitespace();
+    if (lookingAt(")")) {
+      position++;
+    } else {
+      while (true) {
+        arguments.add(parseComparison());
+        skipWhitespace();
+        if (lookingAt(",")) {
+          position++;
+        } else {
+          expect(')');
+          break;
+        }
+      }
+    }
+    return createFunction(name, arguments);
+  }
+
+  private Expression createFunction(String name, List<Expression> arguments) {
+    int count = arguments.size();
+    switch (name) {
+      case "IF":
+        checkArguments(count, 2, 3);
+        return new IfFunction(arguments);
+      case "AND":
+      case "OR":
+        checkArguments(count, 1, Integer.MAX_VALUE);
+        return new LogicalFunction("AND".equals(name), arguments);
+      case "NOT":
+        checkArguments(count, 1, 1);
+        return new NotFunction(arguments.get(0));
+      case "TRUE":
+        checkArguments(count, 0, 0);
+        return new Constant(Boolean.TRUE);
+      case "FALSE":
+        checkArguments(count, 0, 0);
+        return new Constant(Boolean.FALSE);
+      case "PI":
+        checkArguments(count, 0, 0);
+        return new Constant(Math.PI);
+      case "ABS":
+      case "SQRT":
+      case "INT":
+      case "SIGN":
+      case "EXP":
+      case "LN":
+      case "LOG10":
+        checkArguments(count, 1, 1);
+        return new NumericFunction(name, arguments);
+      case "MOD":
+      case "POWER":
+      case "ROUND":
+      case "ROUNDUP":
+      case "ROUNDDOWN":
+        checkArguments(count, 2, 2);
+        return new NumericFunction(name, arguments);
+      case "SUM":
+      case "MIN":
+      case "MAX":
+      case "AVERAGE":
+        checkArguments(count, 1, Integer.MAX_VALUE);
+        return new AggregateFunction(name, arguments);
+      case "CONCATENATE":
+        checkArguments(count, 1, Integer.MAX_VALUE);
+        return new Concatenation(arguments);
+      case "LEN":
+      case "UPPER":
+      case "LOWER":
+        checkArguments(count, 1, 1);
+        return new TextFunction(name, arguments);
+      case "LEFT":
+      case "RIGHT":
+        checkArguments(count, 1, 2);
+        return new TextFunction(name, arguments);
+      case "MID":
+        checkArguments(count, 3, 3);
+        return new TextFunction(name, arguments);
+      case "ISBLANK":
+      case "ISNUMBER":
+      case "ISTEXT":
+        checkArguments(count, 1, 1);
+        return new TypeFunction(name, arguments.get(0));
+      default:
+        throw new UnsupportedFormulaException();
+    }
+  }
+
+  private static void checkArguments(int count, int min, int max) {
+    if (count < min || count > max) {
+      throw new UnsupportedFormulaException();
+    }
+  }
+
+  private void expect(char c) {
+    skipWhitespace();
+    if (position >= formula.length() || formula.charAt(position) != c) {
+      throw new UnsupportedFormulaException();
+    }
+    position++;
+  }
+
+  private boolean lookingAt(String token) {
+    return formula.startsWith(token, position);
+  }
+
+  private void skipWhitespace() {
+    while (position < formula.length() && Character.isWhitespace(formula.charAt(position))) {
+      position++;
+    }
+  }
+
+  /** Thrown while parsing when the formula can't be compiled. */
+  private static final class UnsupportedFormulaException extends RuntimeException {
+    UnsupportedFormulaException() {
+      super(null, null, false, false);
+    }
+  }
+
+  // Value coercion, following the rules of the spreadsheet evaluator
+  //
+
+  private static double toNumber(Object value) {
+    if (value == null) {
+      return 0.0;
+    }
+    if (value instanceof Double) {
+      return (Double) value;
+    }
+    throw FallbackException.INSTANCE;
+  }
+
+  private static int toInt(Object value) {
+    return (int) Math.floor(toNumber(value));
+  }
+
+  private static String toText(Object value) {
+    if (value == null) {
+      return "";
+    }
+    if (value instanceof String) {
+      return (String) value;
+    }
+    if (value instanceof Double) {
+      return NumberToTextConverter.toText((Double) value);
+    }
+    return ((Boolean) value) ? "TRUE" : "FALSE";
+  }
+
+  private static boolean toBoolean(Object value) {
+    if (value == null) {
+      return false;
+    }
+    if (value instanceof Boolean) {
+      return (Boolean) value;
+    }
+    if (value instanceof Double) {
+      return (Double) value != 0.0;
+    }
+    throw FallbackException.INSTANCE;
+  }
+
+  /** Errors like #NUM! and #DIV/0! are produced by POI. */
+  private static Double checkNumber(double value) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw FallbackException.INSTANCE;
+    }
+    return value;
+  }
+
+  // Numeric functions, calculated the way the POI function library does
+  //
+
+  private static double sign(double value) {
+    if (value == 0.0) {
+      return 0.0;
+    }
+    return value < 0.0 ? -1.0 : 1.0;
+  }
+
+  private static double mod(double n, double d) {
+    if (d == 0.0) {
+      return Double.NaN;
+    }
+    if (sign(n) == sign(d)) {
+      return n % d;
+    }
+    return ((n % d) + d) % d;
+  }
+
+  /** Rounds the number as it is displayed in a cell, not its binary representation. */
+  private static double round(double value, int places, RoundingMode mode) {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      return Double.NaN;
+    }
+    return new BigDecimal(NumberToTextConverter.toText(value)).setScale(places, mode).doubleValue();
+  }
+
+  // The expression tree
+  //
+
+  private static final class Constant extends Expression {
+    private final Object value;
+
+    Constant(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      return value;
+    }
+  }
+
+  /** A field in the row, converted the same way as when it's written into a spreadsheet cell. */
+  private static final class FieldReference extends Expression {
+    private final int index;
+    private final IValueMeta valueMeta;
+
+    FieldReference(int index, IValueMeta valueMeta) {
+      this.index = index;
+      this.valueMeta = valueMeta;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      Object data = row[index];
+      if (data == null) {
+        return null;
+      }
+      try {
+        if (valueMeta.isBoolean()) {
+          return valueMeta.getBoolean(data);
+        } else if (valueMeta.isBigNumber()) {
+          return valueMeta.getString(data);
+        } else if (valueMeta.isDate()) {
+          return DateUtil.getExcelDate(valueMeta.getDate(data));
+        } else if (valueMeta.isInteger()) {
+          return valueMeta.getInteger(data).doubleValue();
+        } else if (valueMeta.isNumber()) {
+          // POI turns NaN and infinite numbers into #NUM! and #DIV/0! cells
+          //
+          Double number = valueMeta.getNumber(data);
+          if (number.isNaN() || number.isInfinite()) {
+            throw FallbackException.INSTANCE;
+          }
+          return number;
+        } else {
+          return valueMeta.getString(data);
+        }
+      } catch (HopValueException | RuntimeException e) {
+        throw FallbackException.INSTANCE;
+      }
+    }
+
+    @Override
+    boolean isReference() {
+      return true;
+    }
+  }
+
+  private static final class Arithmetic extends Expression {
+    private final char operator;
+    private final Expression left;
+    private final Expression right;
+
+    Arithmetic(char operator, Expression left, Expression right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      double a = toNumber(left.evaluate(row));
+      double b = toNumber(right.evaluate(row));
+      double result;
+      switch (operator) {
+        case '+':
+          result = a + b;
+          break;
+        case '-':
+          result = a - b;
+          break;
+        case '*':
+          result = a * b;
+          break;
+        case '/':
+          if (b == 0.0) {
+            throw FallbackException.INSTANCE;
+          }
+          result = a / b;
+          break;
+        default:
+          result = Math.pow(a, b);
+          break;
+      }
+      if (result == 0.0) {
+        return 0.0;
+      }
+      return checkNumber(result);
+    }
+  }
+
+  private static final class Negation extends Expression {
+    private final Expression expression;
+
+    Negation(Expression expression) {
+      this.expression = expression;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      double value = toNumber(expression.evaluate(row));
+      return value == 0.0 ? 0.0 : -value;
+    }
+  }
+
+  private static final class Percent extends Expression {
+    private final Expression expression;
+
+    Percent(Expression expression) {
+      this.expression = expression;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      return toNumber(expression.evaluate(row)) / 100;
+    }
+  }
+
+  private static final class Concatenation extends Expression {
+    private final Expression[] parts;
+
+    Concatenation(List<Expression> parts) {
+      this.parts = parts.toArray(new Expression[0]);
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      StringBuilder result = new StringBuilder();
+      for (Expression part : parts) {
+        result.append(toText(part.evaluate(row)));
+      }
+      return result.toString();
+    }
+  }
+
+  /** Numbers sort before text, text before booleans. Text is compared case-insensitive. */
+  private static final class Comparison extends Expression {
+    private final String operator;
+    private final Expression left;
+    private final Expression right;
+
+    Comparison(String operator, Expression left, Expression right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      int compare = compare(left.evaluate(row), right.evaluate(row));
+      switch (operator) {
+        case "=":
+          return compare == 0;
+        case "<>":
+          return compare != 0;
+        case "<":
+          return compare < 0;
+        case ">":
+          return compare > 0;
+        case "<=":
+          return compare <= 0;
+        default:
+          return compare >= 0;
+      }
+    }
+
+    private static int compare(Object a, Object b) {
+      if (a == null) {
+        a = blankFor(b);
+      }
+      if (b == null) {
+        b = blankFor(a);
+      }
+      if (a == null) {
+        return 0;
+      }
+      int rankA = rank(a);
+      int rankB = rank(b);
+      if (rankA != rankB) {
+        return rankA - rankB;
+      }
+      if (a instanceof Double) {
+        return NumberComparer.compare((Double) a, (Double) b);
+      }
+      if (a instanceof String) {
+        return Integer.signum(((String) a).compareToIgnoreCase((String) b));
+      }
+      return Boolean.compare((Boolean) a, (Boolean) b);
+    }
+
+    private static Object blankFor(Object other) {
+      if (other instanceof Double) {
+        return 0.0;
+      }
+      if (other instanceof String) {
+        return "";
+      }
+      if (other instanceof Boolean) {
+        return Boolean.FALSE;
+      }
+      return null;
+    }
+
+    private static int rank(Object value) {
+      if (value instanceof Double) {
+        return 0;
+      }
+      if (value instanceof String) {
+        return 1;
+      }
+      return 2;
+    }
+  }
+
+  private static final class IfFunction extends Expression {
+    private final Expression condition;
+    private final Expression whenTrue;
+    private final Expression whenFalse;
+
+    IfFunction(List<Expression> arguments) {
+      this.condition = arguments.get(0);
+      this.whenTrue = arguments.get(1);
+      this.whenFalse = arguments.size() > 2 ? arguments.get(2) : null;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      if (toBoolean(condition.evaluate(row))) {
+        return whenTrue.evaluate(row);
+      }
+      return whenFalse == null ? Boolean.FALSE : whenFalse.evaluate(row);
+    }
+  }
+
+  private static final class LogicalFunction extends Expression {
+    private final boolean and;
+    private final Expression[] arguments;
+
+    LogicalFunction(boolean and, List<Expression> arguments) {
+      this.and = and;
+      this.arguments = arguments.toArray(new Expression[0]);
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      // All arguments are evaluated: errors in any of them make the result an error
+      //
+      boolean result = and;
+      for (Expression argument : arguments) {
+        Object value = argument.evaluate(row);
+        if (value == null) {
+          throw FallbackException.INSTANCE;
+        }
+        boolean b = toBoolean(value);
+        result = and ? result && b : result || b;
+      }
+      return result;
+    }
+  }
+
+  private static final class NotFunction extends Expression {
+    private final Expression argument;
+
+    NotFunction(Expression argument) {
+      this.argument = argument;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      return !toBoolean(argument.evaluate(row));
+    }
+  }
+
+  private static final class NumericFunction extends Expression {
+    private final String name;
+    private final Expression first;
+    private final Expression second;
+
+    NumericFunction(String name, List<Expression> arguments) {
+      this.name = name;
+      this.first = arguments.get(0);
+      this.second = arguments.size() > 1 ? arguments.get(1) : null;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      double a = toNumber(first.evaluate(row));
+      switch (name) {
+        case "ABS":
+          return checkNumber(Math.abs(a));
+        case "SQRT":
+          return checkNumber(Math.sqrt(a));
+        case "INT":
+          return checkNumber(Math.round(a - 0.5));
+        case "SIGN":
+          return checkNumber(sign(a));
+        case "EXP":
+          return checkNumber(Math.exp(a));
+        case "LN":
+          return checkNumber(Math.log(a));
+        case "LOG10":
+          return checkNumber(Math.log10(a));
+        default:
+          break;
+      }
+      double b = toNumber(second.evaluate(row));
+      switch (name) {
+        case "MOD":
+          if (b == 0.0) {
+            throw FallbackException.INSTANCE;
+          }
+          return checkNumber(mod(a, b));
+        case "POWER":
+          return checkNumber(Math.pow(a, b));
+        case "ROUND":
+          return checkNumber(round(a, (int) b, RoundingMode.HALF_UP));
+        case "ROUNDUP":
+          return checkNumber(round(a, (int) b, RoundingMode.UP));
+        default:
+          return checkNumber(round(a, (int) b, RoundingMode.DOWN));
+      }
+    }
+  }
+
+  /** Numbers in referenced fields are aggregated, text, booleans and blanks are skipped. */
+  private static final class AggregateFunction extends Expression {
+    private final String name;
+    private final Expression[] arguments;
+
+    AggregateFunction(String name, List<Expression> arguments) {
+      this.name = name;
+      this.arguments = arguments.toArray(new Expression[0]);
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      double sum = 0.0;
+      double min = Double.POSITIVE_INFINITY;
+      double max = Double.NEGATIVE_INFINITY;
+      int count = 0;
+      for (Expression argument : arguments) {
+        Object value = argument.evaluate(row);
+        if (!(value instanceof Double)) {
+          if (argument.isReference()) {
+            continue;
+          }
+          throw FallbackException.INSTANCE;
+        }
+        double d = (Double) value;
+        sum += d;
+        min = Math.min(min, d);
+        max = Math.max(max, d);
+        count++;
+      }
+      switch (name) {
+        case "SUM":
+          return checkNumber(sum);
+        case "MIN":
+          return count == 0 ? 0.0 : min;
+        case "MAX":
+          return count == 0 ? 0.0 : max;
+        default:
+          if (count == 0) {
+            throw FallbackException.INSTANCE;
+          }
+          return checkNumber(sum / count);
+      }
+    }
+  }
+
+  private static final class TextFunction extends Expression {
+    private final String name;
+    private final Expression text;
+    private final Expression first;
+    private final Expression second;
+
+    TextFunction(String name, List<Expression> arguments) {
+      this.name = name;
+      this.text = arguments.get(0);
+      this.first = arguments.size() > 1 ? arguments.get(1) : null;
+      this.second = arguments.size() > 2 ? arguments.get(2) : null;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      String value = toText(text.evaluate(row));
+      switch (name) {
+        case "LEN":
+          return (double) value.length();
+        case "UPPER":
+          return value.toUpperCase(LocaleUtil.getUserLocale());
+        case "LOWER":
+          return value.toLowerCase(LocaleUtil.getUserLocale());
+        case "LEFT":
+          {
+            int length = first == null ? 1 : toInt(first.evaluate(row));
+            if (length < 0) {
+              throw FallbackException.INSTANCE;
+            }
+            return value.substring(0, Math.min(length, value.length()));
+          }
+        case "RIGHT":
+          {
+            int length = first == null ? 1 : toInt(first.evaluate(row));
+            if (length < 0) {
+              throw FallbackException.INSTANCE;
+            }
+            return value.substring(Math.max(0, value.length() - length));
+          }
+        default:
+          {
+            int start = toInt(first.evaluate(row)) - 1;
+            int length = toInt(second.evaluate(row));
+            if (start < 0 || length < 0) {
+              throw FallbackException.INSTANCE;
+            }
+            if (start >= value.length()) {
+              return "";
+            }
+            return value.substring(start, (int) Math.min((long) start + length, value.length()));
+          }
+      }
+    }
+  }
+
+  private static final class TypeFunction extends Expression {
+    private final String name;
+    private final Expression argument;
+
+    TypeFunction(String name, Expression argument) {
+      this.name = name;
+      this.argument = argument;
+    }
+
+    @Override
+    Object evaluate(Object[] row) {
+      Object value = argument.evaluate(row);
+      switch (name) {
+        case "ISBLANK":
+          return value == null;
+        case "ISNUMBER":
+          return value instanceof Double;
+        default:
+          return value instanceof String;
+      }
+    }
+  }
+}
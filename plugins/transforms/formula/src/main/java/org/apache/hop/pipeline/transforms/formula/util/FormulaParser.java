@@ -45,6 +45,8 @@ public class FormulaParser {
   private Row sheetRow;
   private FormulaEvaluator evaluator;
   private HashMap<String, String> replaceMap;
+  private String parsedFormula;
+  private int[] fieldPositions;
 
   public FormulaParser(
       FormulaMetaFunction formulaMetaFunction,
@@ -78,6 +80,27 @@ public class FormulaParser {
     if (getNewList) {
       formulaFieldList = getFormulaFieldList(formula);
     }
+
+    // The cell references and field positions are the same for every row
+    //
+    parsedFormula = formula;
+    fieldPositions = new int[formulaFieldList.size()];
+    int fieldIndex = 65;
+    for (int i = 0; i < formulaFieldList.size(); i++) {
+      String formulaField = formulaFieldList.get(i);
+      char s = (char) fieldIndex++;
+      parsedFormula = parsedFormula.replaceAll("\\[" + formulaField + "\\]", s + "1");
+      fieldPositions[i] = rowMeta.indexOfValue(formulaField);
+    }
+  }
+
+  /**
+   * Gets the formula with variables resolved and replaced fields renamed
+   *
+   * @return value of formula
+   */
+  public String getFormula() {
+    return formula;
   }
 
   private List<String> getFormulaFieldList(String formula) {
@@ -92,16 +115,23 @@ public class FormulaParser {
   }
 
   public CellValue getFormulaValue() throws HopValueException {
-    String parsedFormula = formula;
-    int fieldIndex = 65;
-    int colIndex = 0;
-    for (String formulaField : formulaFieldList) {
-      char s = (char) fieldIndex;
-      Cell cell = sheetRow.createCell(colIndex);
+    return getFormulaValue(dataRow, sheetRow);
+  }
 
-      int fieldPosition = rowMeta.indexOfValue(formulaField);
+  /**
+   * Evaluate the formula for a row of data. The parser can be re-used for every row as long as the
+   * row layout doesn't change.
+   *
+   * @param dataRow the row of data
+   * @param sheetRow an empty row of the workbook the parser was created for
+   * @return the value of the formula
+   * @throws HopValueException in case a field value can't be converted
+   */
+  public CellValue getFormulaValue(Object[] dataRow, Row sheetRow) throws HopValueException {
+    for (int colIndex = 0; colIndex < fieldPositions.length; colIndex++) {
+      Cell cell = sheetRow.createCell(colIndex);
 
-      parsedFormula = parsedFormula.replaceAll("\\[" + formulaField + "\\]", s + "1");
+      int fieldPosition = fieldPositions[colIndex];
 
       IValueMeta fieldMeta = rowMeta.getValueMeta(fieldPosition);
       if (dataRow[fieldPosition] != null) {
@@ -123,14 +153,14 @@ public class FormulaParser {
       } else {
         cell.setBlank();
       }
-
-      fieldIndex++;
-      colIndex++;
     }
 
-    Cell formulaCell = sheetRow.createCell(colIndex);
+    Cell formulaCell = sheetRow.createCell(fieldPositions.length);
     formulaCell.setCellFormula(parsedFormula);
 
+    // The evaluator is re-used for every row, don't let it hold on to the previous cells
+    //
+    evaluator.clearAllCachedResultValues();
     return evaluator.evaluate(formulaCell);
   }
 }
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transforms.formula.util.CompiledFormula;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+/** Runs the Formula transform with compiled formulas and with POI only and compares the rows. */
+public class FormulaTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private TransformMockHelper<FormulaMeta, FormulaData> smh;
+  private IRowMeta inputRowMeta;
+  private FormulaMeta meta;
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    smh = new TransformMockHelper<>("Formula", FormulaMeta.class, FormulaData.class);
+    when(smh.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(smh.iLogChannel);
+    when(smh.pipeline.isRunning()).thenReturn(true);
+
+    inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaNumber("num"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("int"));
+
+    meta = new FormulaMeta();
+    List<FormulaMetaFunction> formulas = new ArrayList<>();
+    formulas.add(number("[num]*2+[int]"));
+    formulas.add(number("MAX([num],[int])-MIN([num],[int])"));
+    formulas.add(number("ROUND([num],1)+ROUNDUP([num],1)+ROUNDDOWN([num],1)"));
+    formulas.add(number("SIGN([num])+MOD([int],3)+MOD([num],-3)"));
+    formulas.add(function("[num]>1", IValueMeta.TYPE_BOOLEAN));
+    formulas.add(function("ISNUMBER([num])", IValueMeta.TYPE_BOOLEAN));
+    formulas.add(function("IF([num]>0,\"positive\",\"other\")", IValueMeta.TYPE_STRING));
+    formulas.add(function("[num]&\"x\"", IValueMeta.TYPE_STRING));
+    meta.setFormulas(formulas);
+  }
+
+  @After
+  public void cleanUp() {
+    smh.cleanUp();
+  }
+
+  private static FormulaMetaFunction number(String formula) {
+    return function(formula, IValueMeta.TYPE_NUMBER);
+  }
+
+  private static FormulaMetaFunction function(String formula, int valueType) {
+    return new FormulaMetaFunction("f" + formula.hashCode(), formula, valueType, -1, -1, null);
+  }
+
+  private List<Object[]> runFormula(boolean compiled, Object[][] rows) throws HopException {
+    FormulaData data = new FormulaData();
+    Formula formula =
+        new Formula(smh.transformMeta, meta, data, 0, smh.pipelineMeta, smh.pipeline) {
+          @Override
+          protected CompiledFormula compileFormula(String formula) {
+            return compiled ? super.compileFormula(formula) : null;
+          }
+        };
+    formula.addRowSetToInputRowSets(smh.getMockInputRowSet(rows));
+    formula.setInputRowMeta(inputRowMeta);
+    formula.init();
+
+    List<Object[]> result = new ArrayList<>();
+    formula.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            result.add(row.clone());
+          }
+        });
+    while (formula.processRow()) {
+      // Process all rows
+    }
+    formula.dispose();
+
+    if (compiled) {
+      for (CompiledFormula compiledFormula : data.compiledFormulas) {
+        assertNotNull(compiledFormula);
+      }
+    }
+    return result;
+  }
+
+  private void assertSameRows(Object[][] rows) throws HopException {
+    List<Object[]> expected = runFormula(false, rows);
+    List<Object[]> actual = runFormula(true, rows);
+    assertEquals(rows.length, expected.size());
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals("Row " + i, expected.get(i), actual.get(i));
+    }
+  }
+
+  @Test
+  public void testCompiledMatchesPoi() throws HopException {
+    assertSameRows(
+        new Object[][] {
+          {2.55, 7L}, {-2.55, -7L}, {0.0, 0L}, {1234.5678, 3L}, {-0.05, 5L}, {null, null}
+        });
+  }
+
+  @Test
+  public void testNonFiniteNumbersMatchPoi() throws HopException {
+    assertSameRows(
+        new Object[][] {
+          {Double.NaN, 1L},
+          {2.5, 2L},
+          {Double.POSITIVE_INFINITY, 3L},
+          {-2.5, 4L},
+          {Double.NEGATIVE_INFINITY, 5L}
+        });
+  }
+}
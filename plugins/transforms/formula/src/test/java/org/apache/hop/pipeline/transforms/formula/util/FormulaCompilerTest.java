@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.formula.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.pipeline.transforms.formula.FormulaMetaFunction;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Compares the compiled formulas with the results of the POI formula evaluator. */
+public class FormulaCompilerTest {
+
+  private XSSFWorkbook workbook;
+  private XSSFSheet sheet;
+  private IRowMeta rowMeta;
+
+  @Before
+  public void setUp() {
+    workbook = new XSSFWorkbook();
+    sheet = workbook.createSheet();
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaNumber("num"));
+    rowMeta.addValueMeta(new ValueMetaInteger("int"));
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("bool"));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    workbook.close();
+  }
+
+  private CellValue evaluateWithPoi(String formula, Object[] row) throws Exception {
+    Row sheetRow = sheet.createRow(0);
+    FormulaMetaFunction function =
+        new FormulaMetaFunction("result", formula, IValueMeta.TYPE_NUMBER, -1, -1, null);
+    FormulaParser parser =
+        new FormulaParser(function, rowMeta, row, sheetRow, new Variables(), new HashMap<>());
+    CellValue value = parser.getFormulaValue();
+    sheet.removeRow(sheetRow);
+    return value;
+  }
+
+  private void assertSameResult(String formula, Object[] row) throws Exception {
+    CompiledFormula compiled = FormulaCompiler.compile(formula, rowMeta, null);
+    assertNotNull("Formula should compile: " + formula, compiled);
+    CellValue expected = evaluateWithPoi(formula, row);
+    CellValue actual = compiled.evaluate(row);
+    assertNotNull("Formula should be evaluated without POI: " + formula, actual);
+    assertEquals(formula, expected.getCellType(), actual.getCellType());
+    assertEquals(formula, expected.formatAsString(), actual.formatAsString());
+  }
+
+  @Test
+  public void testArithmetic() throws Exception {
+    Object[] row = new Object[] {2.5, 7L, "Apache Hop", Boolean.TRUE};
+    assertSameResult("[num]*2+[int]", row);
+    assertSameResult("([num]+1)/4", row);
+    assertSameResult("-[num]^2", row);
+    assertSameResult("2^-[int]+-2^2%", row);
+    assertSameResult("[int]-7", row);
+    assertSameResult("50%*[int]", row);
+    assertSameResult("1.5E3/[num]", row);
+  }
+
+  @Test
+  public void testFunctions() throws Exception {
+    Object[] row = new Object[] {-2.567, 7L, "Apache Hop", Boolean.TRUE};
+    assertSameResult("ROUND([num],2)", row);
+    assertSameResult("ROUNDUP([num],1)+ROUNDDOWN([num],1)", row);
+    assertSameResult("ABS([num])+INT([num])+MOD([int],3)", row);
+    assertSameResult("SUM([num],[int],[str])", row);
+    assertSameResult("MAX([num],[int])-MIN([num],[int])", row);
+    assertSameResult("AVERAGE([num],[int])", row);
+    assertSameResult("IF([int]>5,\"big\",\"small\")", row);
+    assertSameResult("IF(AND([bool],[num]<0),[int],0)", row);
+    assertSameResult("OR(NOT([bool]),[int]=7)", row);
+  }
+
+  @Test
+  public void testText() throws Exception {
+    Object[] row = new Object[] {2.5, 7L, "Apache Hop", Boolean.TRUE};
+    assertSameResult("[str]&\" \"&[num]&[bool]", row);
+    assertSameResult("CONCATENATE(LEFT([str],6),\"-\",RIGHT([str],3))", row);
+    assertSameResult("MID([str],8,10)", row);
+    assertSameResult("UPPER([str])&LOWER([str])", row);
+    assertSameResult("LEN([str])", row);
+    assertSameResult("[str]=\"apache hop\"", row);
+    assertSameResult("ISTEXT([str])", row);
+  }
+
+  @Test
+  public void testBlanks() throws Exception {
+    Object[] row = new Object[] {null, null, null, null};
+    assertSameResult("[num]+1", row);
+    assertSameResult("[str]&\"x\"", row);
+    assertSameResult("ISBLANK([num])", row);
+    assertSameResult("IF([bool],1,2)", row);
+  }
+
+  @Test
+  public void testFallback() throws Exception {
+    Object[] row = new Object[] {0.0, 7L, "12", Boolean.TRUE};
+
+    // Unsupported functions are not compiled
+    //
+    assertNull(FormulaCompiler.compile("WEEKNUM([num])", rowMeta, null));
+    assertNull(FormulaCompiler.compile("[unknown]+1", rowMeta, null));
+    assertNull(FormulaCompiler.compile("1+", rowMeta, null));
+
+    // Errors and text to number conversions are left to POI
+    //
+    assertNull(FormulaCompiler.compile("[int]/[num]", rowMeta, null).evaluate(row));
+    assertNull(FormulaCompiler.compile("[str]+1", rowMeta, null).evaluate(row));
+  }
+}
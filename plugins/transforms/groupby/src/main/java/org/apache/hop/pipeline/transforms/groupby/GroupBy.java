@@ -17,13 +17,10 @@
 
 package org.apache.hop.pipeline.transforms.groupby;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -43,6 +40,9 @@ import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.ValueDataUtil;
+import org.apache.hop.core.row.spill.RowSpillReader;
+import org.apache.hop.core.row.spill.RowSpillWriter;
+import org.apache.hop.core.row.spill.SpillCodec;
 import org.apache.hop.core.row.value.ValueMetaFactory;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNone;
@@ -271,6 +271,8 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
         calcAggregate(data.previous);
         addToBuffer(data.previous);
       }
+      // The spilled rows are only readable once the temporary file is closed
+      closeOutput();
       data.groupResult = getAggregateResult();
 
       Object[] row = getRowFromBuffer();
@@ -830,8 +832,11 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
           pathToTmp = retrieveVfsPath(pathToTmp);
         }
         data.tempFile = File.createTempFile(getMeta().getPrefix(), ".tmp", new File(pathToTmp));
-        data.fosToTempFile = new FileOutputStream(data.tempFile);
-        data.dosToTempFile = new DataOutputStream(data.fosToTempFile);
+        data.spillWriter =
+            new RowSpillWriter(
+                data.inputRowMeta,
+                new FileOutputStream(data.tempFile),
+                SpillCodec.getCodec(this, false));
         data.firstRead = true;
       } catch (IOException e) {
         throw new HopFileException(
@@ -839,7 +844,7 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
       }
       // OK, save the oldest rows to disk!
       Object[] oldest = data.bufferList.get(0);
-      data.inputRowMeta.writeData(data.dosToTempFile, oldest);
+      data.spillWriter.writeRow(oldest);
       data.bufferList.remove(0);
       data.rowsOnFile++;
     }
@@ -857,8 +862,8 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
       if (data.firstRead) {
         // Open the inputstream first...
         try {
-          data.fisToTmpFile = new FileInputStream(data.tempFile);
-          data.disToTmpFile = new DataInputStream(data.fisToTmpFile);
+          data.spillReader =
+              new RowSpillReader(data.inputRowMeta, new FileInputStream(data.tempFile));
           data.firstRead = false;
         } catch (IOException e) {
           throw new HopFileException(
@@ -868,12 +873,7 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
       }
 
       // Read one row from the file!
-      Object[] row;
-      try {
-        row = data.inputRowMeta.readData(data.disToTmpFile);
-      } catch (SocketTimeoutException e) {
-        throw new HopFileException(e); // Shouldn't happen on files
-      }
+      Object[] row = data.spillReader.readRow();
       data.rowsOnFile--;
 
       return row;
@@ -890,13 +890,9 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
 
   private void closeOutput() throws HopFileException {
     try {
-      if (data.dosToTempFile != null) {
-        data.dosToTempFile.close();
-        data.dosToTempFile = null;
-      }
-      if (data.fosToTempFile != null) {
-        data.fosToTempFile.close();
-        data.fosToTempFile = null;
+      if (data.spillWriter != null) {
+        data.spillWriter.close();
+        data.spillWriter = null;
       }
       data.firstRead = true;
     } catch (IOException e) {
@@ -909,13 +905,9 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
 
   private void closeInput() throws HopFileException {
     try {
-      if (data.fisToTmpFile != null) {
-        data.fisToTmpFile.close();
-        data.fisToTmpFile = null;
-      }
-      if (data.disToTmpFile != null) {
-        data.disToTmpFile.close();
-        data.disToTmpFile = null;
+      if (data.spillReader != null) {
+        data.spillReader.close();
+        data.spillReader = null;
       }
     } catch (IOException e) {
       throw new HopFileException(
@@ -17,16 +17,14 @@
 
 package org.apache.hop.pipeline.transforms.groupby;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.spill.RowSpillReader;
+import org.apache.hop.core.row.spill.RowSpillWriter;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -56,16 +54,13 @@ public class GroupByData extends BaseTransformData implements ITransformData {
 
   public File tempFile;
 
-  public FileOutputStream fosToTempFile;
-
-  public DataOutputStream dosToTempFile;
+  public RowSpillWriter spillWriter;
 
   public int rowsOnFile;
 
   public boolean firstRead;
 
-  public FileInputStream fisToTmpFile;
-  public DataInputStream disToTmpFile;
+  public RowSpillReader spillReader;
 
   public Object[] groupResult;
 
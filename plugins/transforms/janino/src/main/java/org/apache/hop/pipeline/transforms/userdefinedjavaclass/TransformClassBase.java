@@ -117,12 +117,12 @@ public abstract class TransformClassBase {
     parent.cleanupImpl();
   }
 
-  public long decrementLinesRead() {
-    return parent.decrementLinesReadImpl();
+  public void decrementLinesRead() {
+    parent.decrementLinesReadImpl();
   }
 
-  public long decrementLinesWritten() {
-    return parent.decrementLinesWrittenImpl();
+  public void decrementLinesWritten() {
+    parent.decrementLinesWrittenImpl();
   }
 
   public IRowSet findInputRowSet(String sourceTransform) throws HopTransformException {
@@ -275,32 +275,32 @@ public abstract class TransformClassBase {
     return parent.getVariableImpl(variableName, defaultValue);
   }
 
-  public long incrementLinesInput() {
-    return parent.incrementLinesInputImpl();
+  public void incrementLinesInput() {
+    parent.incrementLinesInputImpl();
   }
 
-  public long incrementLinesOutput() {
-    return parent.incrementLinesOutputImpl();
+  public void incrementLinesOutput() {
+    parent.incrementLinesOutputImpl();
   }
 
-  public long incrementLinesRead() {
-    return parent.incrementLinesReadImpl();
+  public void incrementLinesRead() {
+    parent.incrementLinesReadImpl();
   }
 
-  public long incrementLinesRejected() {
-    return parent.incrementLinesRejectedImpl();
+  public void incrementLinesRejected() {
+    parent.incrementLinesRejectedImpl();
   }
 
-  public long incrementLinesSkipped() {
-    return parent.incrementLinesSkippedImpl();
+  public void incrementLinesSkipped() {
+    parent.incrementLinesSkippedImpl();
   }
 
-  public long incrementLinesUpdated() {
-    return parent.incrementLinesUpdatedImpl();
+  public void incrementLinesUpdated() {
+    parent.incrementLinesUpdatedImpl();
   }
 
-  public long incrementLinesWritten() {
-    return parent.incrementLinesWrittenImpl();
+  public void incrementLinesWritten() {
+    parent.incrementLinesWrittenImpl();
   }
 
   public boolean init() {
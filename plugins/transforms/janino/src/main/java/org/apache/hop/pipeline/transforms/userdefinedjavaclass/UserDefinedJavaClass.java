@@ -121,29 +121,29 @@ public class UserDefinedJavaClass
   }
 
   @Override
-  public long decrementLinesRead() {
+  public void decrementLinesRead() {
     if (child == null) {
-      return decrementLinesReadImpl();
+      decrementLinesReadImpl();
     } else {
-      return child.decrementLinesRead();
+      child.decrementLinesRead();
     }
   }
 
-  public long decrementLinesReadImpl() {
-    return super.decrementLinesRead();
+  public void decrementLinesReadImpl() {
+    super.decrementLinesRead();
   }
 
   @Override
-  public long decrementLinesWritten() {
+  public void decrementLinesWritten() {
     if (child == null) {
-      return decrementLinesWrittenImpl();
+      decrementLinesWrittenImpl();
     } else {
-      return child.decrementLinesWritten();
+      child.decrementLinesWritten();
     }
   }
 
-  public long decrementLinesWrittenImpl() {
-    return super.decrementLinesWritten();
+  public void decrementLinesWrittenImpl() {
+    super.decrementLinesWritten();
   }
 
   public void disposeImpl() {
@@ -571,94 +571,94 @@ public class UserDefinedJavaClass
   }
 
   @Override
-  public long incrementLinesInput() {
+  public void incrementLinesInput() {
     if (child == null) {
-      return incrementLinesInputImpl();
+      incrementLinesInputImpl();
     } else {
-      return child.incrementLinesInput();
+      child.incrementLinesInput();
     }
   }
 
-  public long incrementLinesInputImpl() {
-    return super.incrementLinesInput();
+  public void incrementLinesInputImpl() {
+    super.incrementLinesInput();
   }
 
   @Override
-  public long incrementLinesOutput() {
+  public void incrementLinesOutput() {
     if (child == null) {
-      return incrementLinesOutputImpl();
+      incrementLinesOutputImpl();
     } else {
-      return child.incrementLinesOutput();
+      child.incrementLinesOutput();
     }
   }
 
-  public long incrementLinesOutputImpl() {
-    return super.incrementLinesOutput();
+  public void incrementLinesOutputImpl() {
+    super.incrementLinesOutput();
   }
 
   @Override
-  public long incrementLinesRead() {
+  public void incrementLinesRead() {
     if (child == null) {
-      return incrementLinesReadImpl();
+      incrementLinesReadImpl();
     } else {
-      return child.incrementLinesRead();
+      child.incrementLinesRead();
     }
   }
 
-  public long incrementLinesReadImpl() {
-    return super.incrementLinesRead();
+  public void incrementLinesReadImpl() {
+    super.incrementLinesRead();
   }
 
   @Override
-  public long incrementLinesRejected() {
+  public void incrementLinesRejected() {
     if (child == null) {
-      return incrementLinesRejectedImpl();
+      incrementLinesRejectedImpl();
     } else {
-      return child.incrementLinesRejected();
+      child.incrementLinesRejected();
     }
   }
 
-  public long incrementLinesRejectedImpl() {
-    return super.incrementLinesRejected();
+  public void incrementLinesRejectedImpl() {
+    super.incrementLinesRejected();
   }
 
   @Override
-  public long incrementLinesSkipped() {
+  public void incrementLinesSkipped() {
     if (child == null) {
-      return incrementLinesSkippedImpl();
+      incrementLinesSkippedImpl();
     } else {
-      return child.incrementLinesSkipped();
+      child.incrementLinesSkipped();
     }
   }
 
-  public long incrementLinesSkippedImpl() {
-    return super.incrementLinesSkipped();
+  public void incrementLinesSkippedImpl() {
+    super.incrementLinesSkipped();
   }
 
   @Override
-  public long incrementLinesUpdated() {
+  public void incrementLinesUpdated() {
     if (child == null) {
-      return incrementLinesUpdatedImpl();
+      incrementLinesUpdatedImpl();
     } else {
-      return child.incrementLinesUpdated();
+      child.incrementLinesUpdated();
     }
   }
 
-  public long incrementLinesUpdatedImpl() {
-    return super.incrementLinesUpdated();
+  public void incrementLinesUpdatedImpl() {
+    super.incrementLinesUpdated();
   }
 
   @Override
-  public long incrementLinesWritten() {
+  public void incrementLinesWritten() {
     if (child == null) {
-      return incrementLinesWrittenImpl();
+      incrementLinesWrittenImpl();
     } else {
-      return child.incrementLinesWritten();
+      child.incrementLinesWritten();
     }
   }
 
-  public long incrementLinesWrittenImpl() {
-    return super.incrementLinesWritten();
+  public void incrementLinesWrittenImpl() {
+    super.incrementLinesWritten();
   }
 
   @Override
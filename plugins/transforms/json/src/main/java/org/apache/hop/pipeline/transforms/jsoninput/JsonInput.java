@@ -18,7 +18,6 @@
 package org.apache.hop.pipeline.transforms.jsoninput;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.BitSet;
 import org.apache.commons.lang.NotImplementedException;
@@ -44,6 +43,7 @@ import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 
 /**
  * Read Json files, parse them and convert them to rows and writes these to one or more output
@@ -255,8 +255,11 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
   }
 
   private void parseNextInputToRowSet(InputStream input) throws HopException {
+    boolean streaming = false;
     try {
       data.readerRowSet = data.reader.parse(input);
+      // A streaming reader closes the input once it has read all the rows
+      streaming = data.readerRowSet instanceof StreamingJsonReader.StreamingRowSet;
     } catch (HopException ke) {
       logInputError(ke);
       throw new JsonInputException(ke);
@@ -264,10 +267,28 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       logInputError(e);
       throw new JsonInputException(e);
     } finally {
-      closeQuietly(input);
+      if (!streaming) {
+        closeQuietly(input);
+      }
     }
   }
 
+  /** Get the next row of the reader, a streaming reader parses the input as rows are read */
+  private Object[] getReaderRow() throws HopException {
+    if (data.readerRowSet instanceof StreamingJsonReader.StreamingRowSet streamingRowSet) {
+      try {
+        return streamingRowSet.nextRow();
+      } catch (HopException ke) {
+        logInputError(ke);
+        throw new JsonInputException(ke);
+      } catch (Exception e) {
+        logInputError(e);
+        throw new JsonInputException(e);
+      }
+    }
+    return data.readerRowSet.getRow();
+  }
+
   private void logInputError(HopException e) {
     logError(e.getLocalizedMessage(), e);
     inputError(e.getLocalizedMessage());
@@ -328,19 +349,13 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       return null;
     }
     Object[] rawReaderRow = null;
-    while ((rawReaderRow = data.readerRowSet.getRow()) == null) {
+    while ((rawReaderRow = getReaderRow()) == null) {
       if (data.inputs.hasNext() && data.readerRowSet.isDone()) {
-        try (InputStream nextIn = data.inputs.next()) {
-
-          if (nextIn != null) {
-            parseNextInputToRowSet(nextIn);
-          } else {
-            parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
-          }
-
-        } catch (IOException e) {
-          logError(BaseMessages.getString(PKG, "JsonInput.Log.UnexpectedError", e.toString()), e);
-          incrementErrors();
+        InputStream nextIn = data.inputs.next();
+        if (nextIn != null) {
+          parseNextInputToRowSet(nextIn);
+        } else {
+          parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
         }
       } else {
         if (isDetailed()) {
@@ -454,7 +469,19 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       inputFields[i] = field;
     }
     // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), log);
+    if (meta.isStreamingMode()
+        && meta.isDefaultPathLeafToNull()
+        && StreamingJsonReader.canStream(inputFields)) {
+      data.reader = new StreamingJsonReader(inputFields, log);
+      if (isDetailed()) {
+        logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.Streaming"));
+      }
+    } else {
+      if (meta.isStreamingMode()) {
+        logBasic(BaseMessages.getString(PKG, "JsonInput.Log.StreamingNotPossible"));
+      }
+      data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), log);
+    }
     data.reader.setIgnoreMissingPath(meta.isIgnoreMissingPath());
   }
 
@@ -463,6 +490,9 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     if (data.file != null) {
       closeQuietly(data.file);
     }
+    if (data.readerRowSet instanceof StreamingJsonReader.StreamingRowSet streamingRowSet) {
+      streamingRowSet.close();
+    }
     data.inputs = null;
     data.reader = null;
     data.readerRowSet = null;
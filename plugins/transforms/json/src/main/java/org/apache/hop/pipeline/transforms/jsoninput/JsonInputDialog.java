@@ -136,6 +136,8 @@ public class JsonInputDialog extends BaseTransformDialog {
 
   private Button wDefaultPathLeafToNull;
 
+  private Button wStreamingMode;
+
   private Button wDoNotFailIfNoFile;
 
   private TextVar wShortFileFieldName;
@@ -625,12 +627,38 @@ public class JsonInputDialog extends BaseTransformDialog {
     wDefaultPathLeafToNull.setLayoutData(fdDefaultPathLeafToNull);
     // default path leaf to null - end
 
+    // streaming mode
+    //
+    Label wlStreamingMode = new Label(wConf, SWT.RIGHT);
+    wlStreamingMode.setText(BaseMessages.getString(PKG, "JsonInputDialog.StreamingMode.Label"));
+    PropsUi.setLook(wlStreamingMode);
+    FormData fdlStreamingMode = new FormData();
+    fdlStreamingMode.left = new FormAttachment(0, 0);
+    fdlStreamingMode.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdlStreamingMode.right = new FormAttachment(middle, -margin);
+    wlStreamingMode.setLayoutData(fdlStreamingMode);
+    wStreamingMode = new Button(wConf, SWT.CHECK);
+    PropsUi.setLook(wStreamingMode);
+    wStreamingMode.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+    wStreamingMode.setToolTipText(
+        BaseMessages.getString(PKG, "JsonInputDialog.StreamingMode.Tooltip"));
+    FormData fdStreamingMode = new FormData();
+    fdStreamingMode.left = new FormAttachment(middle, 0);
+    fdStreamingMode.top = new FormAttachment(wlStreamingMode, 0, SWT.CENTER);
+    wStreamingMode.setLayoutData(fdStreamingMode);
+
     wlLimit = new Label(wConf, SWT.RIGHT);
     wlLimit.setText(BaseMessages.getString(PKG, "JsonInputDialog.Limit.Label"));
     PropsUi.setLook(wlLimit);
     FormData fdlLimit = new FormData();
     fdlLimit.left = new FormAttachment(0, 0);
-    fdlLimit.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdlLimit.top = new FormAttachment(wlStreamingMode, margin);
     fdlLimit.right = new FormAttachment(middle, -margin);
     wlLimit.setLayoutData(fdlLimit);
     wLimit = new Text(wConf, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
@@ -638,7 +666,7 @@ public class JsonInputDialog extends BaseTransformDialog {
     wLimit.addModifyListener(lsMod);
     FormData fdLimit = new FormData();
     fdLimit.left = new FormAttachment(middle, 0);
-    fdLimit.top = new FormAttachment(wlDefaultPathLeafToNull, margin);
+    fdLimit.top = new FormAttachment(wlStreamingMode, margin);
     fdLimit.right = new FormAttachment(100, 0);
     wLimit.setLayoutData(fdLimit);
 
@@ -1263,6 +1291,7 @@ public class JsonInputDialog extends BaseTransformDialog {
     wDoNotFailIfNoFile.setSelection(in.isDoNotFailIfNoFile());
     wIgnoreMissingPath.setSelection(in.isIgnoreMissingPath());
     wDefaultPathLeafToNull.setSelection(in.isDefaultPathLeafToNull());
+    wStreamingMode.setSelection(in.isStreamingMode());
     wRemoveSourceField.setSelection(in.isRemoveSourceField());
     wSourceStreamField.setSelection(in.isInFields());
     wSourceIsAFile.setSelection(in.getIsAFile());
@@ -1406,6 +1435,7 @@ public class JsonInputDialog extends BaseTransformDialog {
     in.setDoNotFailIfNoFile(wDoNotFailIfNoFile.getSelection());
     in.setIgnoreMissingPath(wIgnoreMissingPath.getSelection());
     in.setDefaultPathLeafToNull(wDefaultPathLeafToNull.getSelection());
+    in.setStreamingMode(wStreamingMode.getSelection());
     in.setRemoveSourceField(wRemoveSourceField.getSelection());
     in.setInFields(wSourceStreamField.getSelection());
     in.setIsAFile(wSourceIsAFile.getSelection());
@@ -253,6 +253,10 @@ public class JsonInputMeta
 
   private boolean defaultPathLeafToNull;
 
+  /** Flag : read the documents with a streaming parser instead of in memory */
+  @Injection(name = "STREAMING_MODE")
+  private boolean streamingMode;
+
   public JsonInputMeta() {
     additionalOutputFields = new AdditionalFileOutputFields();
     inputFiles = new InputFiles();
@@ -277,6 +281,24 @@ public class JsonInputMeta
     this.defaultPathLeafToNull = defaultPathLeafToNull;
   }
 
+  /**
+   * Returns the streamingMode.
+   *
+   * @return true if the documents are read with a streaming parser when the paths allow it
+   */
+  public boolean isStreamingMode() {
+    return streamingMode;
+  }
+
+  /**
+   * Set the streamingMode
+   *
+   * @param streamingMode the streamingMode to set.
+   */
+  public void setStreamingMode(boolean streamingMode) {
+    this.streamingMode = streamingMode;
+  }
+
   /**
    * @return Returns the shortFileFieldName.
    */
@@ -617,6 +639,7 @@ public class JsonInputMeta
     retval.append("    " + XmlHandler.addTagValue("ignoreMissingPath", ignoreMissingPath));
     retval.append(
         "    " + XmlHandler.addTagValue(CONST_DEFAULT_PATH_LEAF_TO_NULL, defaultPathLeafToNull));
+    retval.append("    ").append(XmlHandler.addTagValue("streamingMode", streamingMode));
     retval.append("    ").append(XmlHandler.addTagValue("rownum_field", rowNumberField));
 
     retval.append("    <file>").append(Const.CR);
@@ -690,6 +713,7 @@ public class JsonInputMeta
       ignoreMissingPath =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "ignoreMissingPath"));
       defaultPathLeafToNull = getDefaultPathLeafToNull(transformNode);
+      streamingMode = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "streamingMode"));
       doNotFailIfNoFile =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "doNotFailIfNoFile"));
       includeRowNumber = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "rownum"));
@@ -780,6 +804,7 @@ public class JsonInputMeta
     isIgnoreEmptyFile = false;
     ignoreMissingPath = true;
     defaultPathLeafToNull = true;
+    streamingMode = false;
     doNotFailIfNoFile = true;
     includeFilename = false;
     filenameField = "";
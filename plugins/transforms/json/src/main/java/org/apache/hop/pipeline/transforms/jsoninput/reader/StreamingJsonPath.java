@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The subset of JsonPath which can be evaluated while a document is streamed: a chain of property
+ * names and wildcards like <code>$.items[*].name</code> or <code>$.orders[*].lines[*].price</code>.
+ * The part up to the last wildcard selects the elements to loop over, the property names after it
+ * select a value in each element.
+ */
+public class StreamingJsonPath {
+
+  /** The properties up to the last wildcard, a null entry is a wildcard */
+  private final List<String> loopSteps;
+
+  /** The properties after the last wildcard */
+  private final List<String> valueSteps;
+
+  private StreamingJsonPath(List<String> loopSteps, List<String> valueSteps) {
+    this.loopSteps = loopSteps;
+    this.valueSteps = valueSteps;
+  }
+
+  /**
+   * Compile a JsonPath expression
+   *
+   * @param path the expression
+   * @return the compiled path or null if the expression can't be streamed
+   */
+  public static StreamingJsonPath compile(String path) {
+    if (path == null) {
+      return null;
+    }
+    String expression = path.trim();
+    if (!expression.startsWith("$")) {
+      return null;
+    }
+    List<String> steps = new ArrayList<>();
+    int i = 1;
+    while (i < expression.length()) {
+      char c = expression.charAt(i);
+      if (c == '.') {
+        int start = i + 1;
+        if (start >= expression.length() || expression.charAt(start) == '.') {
+          // Deep scan
+          return null;
+        }
+        int end = start;
+        while (end < expression.length()
+            && expression.charAt(end) != '.'
+            && expression.charAt(end) != '[') {
+          end++;
+        }
+        String name = expression.substring(start, end);
+        if (name.equals("*")) {
+          steps.add(null);
+        } else if (isPlainName(name)) {
+          steps.add(name);
+        } else {
+          return null;
+        }
+        i = end;
+      } else if (c == '[') {
+        int end = expression.indexOf(']', i);
+        if (end < 0) {
+          return null;
+        }
+        String selector = expression.substring(i + 1, end).trim();
+        if (selector.equals("*")) {
+          steps.add(null);
+        } else if (selector.length() >= 2
+            && (selector.charAt(0) == '\'' || selector.charAt(0) == '"')
+            && selector.charAt(selector.length() - 1) == selector.charAt(0)) {
+          String name = selector.substring(1, selector.length() - 1);
+          if (name.indexOf('\'') >= 0 || name.indexOf('"') >= 0 || name.indexOf('\\') >= 0) {
+            // Lists of properties and escapes
+            return null;
+          }
+          steps.add(name);
+        } else {
+          // Indexes, slices and filters
+          return null;
+        }
+        i = end + 1;
+      } else {
+        return null;
+      }
+    }
+
+    int lastWildcard = steps.lastIndexOf(null);
+    if (lastWildcard < 0) {
+      // Nothing to loop over
+      return null;
+    }
+    return new StreamingJsonPath(
+        new ArrayList<>(steps.subList(0, lastWildcard + 1)),
+        new ArrayList<>(steps.subList(lastWildcard + 1, steps.size())));
+  }
+
+  private static boolean isPlainName(String name) {
+    if (name.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c == '*' || c == '(' || c == ')' || c == '?' || c == '@' || c == '\'' || c == '"') {
+        return false;
+      }
+      if (Character.isWhitespace(c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets the properties up to the last wildcard, a null entry is a wildcard
+   *
+   * @return value of loopSteps
+   */
+  public List<String> getLoopSteps() {
+    return loopSteps;
+  }
+
+  /**
+   * Gets the properties after the last wildcard
+   *
+   * @return value of valueSteps
+   */
+  public List<String> getValueSteps() {
+    return valueSteps;
+  }
+}
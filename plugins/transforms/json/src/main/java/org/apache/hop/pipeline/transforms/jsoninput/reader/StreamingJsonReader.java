@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.minidev.json.JSONArray;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.SingleRowRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+/**
+ * Reads JSON documents with a streaming parser instead of building the whole document in memory.
+ * The paths of all fields have to loop over the same elements, see {@link StreamingJsonPath}. A row
+ * is produced as soon as an element has been read, only the element itself is kept in memory.
+ *
+ * <p>The values are the same as the ones of {@link FastJsonReader} with "default path leaf to
+ * null": a property which is missing in an element gives a null value.
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static final Class<?> PKG = JsonInputMeta.class;
+
+  private static final JsonFactory JSON_FACTORY =
+      JsonFactory.builder()
+          .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+          .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+          .build();
+
+  private final ILogChannel log;
+  private boolean ignoreMissingPath;
+
+  private JsonInputField[] fields;
+  private List<String> loopSteps;
+  private String[][] valueSteps;
+
+  public StreamingJsonReader(JsonInputField[] fields, ILogChannel log) throws HopException {
+    this.log = log;
+    setFields(fields);
+  }
+
+  /**
+   * Check if the paths of the fields can be evaluated while streaming a document
+   *
+   * @param fields the fields with their resolved paths
+   * @return true if all paths loop over the same elements
+   */
+  public static boolean canStream(JsonInputField[] fields) {
+    return getUnsupportedPath(fields) == null && fields.length > 0;
+  }
+
+  private static String getUnsupportedPath(JsonInputField[] fields) {
+    List<String> firstLoopSteps = null;
+    for (JsonInputField field : fields) {
+      StreamingJsonPath path = StreamingJsonPath.compile(field.getPath());
+      if (path == null) {
+        return field.getPath();
+      }
+      if (firstLoopSteps == null) {
+        firstLoopSteps = path.getLoopSteps();
+      } else if (!firstLoopSteps.equals(path.getLoopSteps())) {
+        return field.getPath();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void setFields(JsonInputField[] fields) throws HopException {
+    String unsupportedPath = getUnsupportedPath(fields);
+    if (unsupportedPath != null || fields.length == 0) {
+      throw new HopException(
+          BaseMessages.getString(PKG, "JsonReader.Error.CanNotStream", unsupportedPath));
+    }
+    this.fields = fields;
+    this.valueSteps = new String[fields.length][];
+    for (int i = 0; i < fields.length; i++) {
+      StreamingJsonPath path = StreamingJsonPath.compile(fields[i].getPath());
+      loopSteps = path.getLoopSteps();
+      valueSteps[i] = path.getValueSteps().toArray(new String[0]);
+    }
+  }
+
+  @Override
+  public boolean isIgnoreMissingPath() {
+    return ignoreMissingPath;
+  }
+
+  @Override
+  public void setIgnoreMissingPath(boolean value) {
+    this.ignoreMissingPath = value;
+  }
+
+  /**
+   * Start reading a document. The rows are read from the input when they are taken from the row
+   * set, the input is closed when the last row was read.
+   */
+  @Override
+  public StreamingRowSet parse(InputStream in) throws HopException {
+    try {
+      return new StreamingRowSet(JSON_FACTORY.createParser(in));
+    } catch (IOException e) {
+      throw new JsonInputException(e);
+    }
+  }
+
+  /** Reads the rows of a document one element at a time */
+  public class StreamingRowSet extends SingleRowRowSet {
+    private final JsonParser parser;
+
+    /** The containers being read, with the index of the loop step they are read for */
+    private final Deque<Container> containers = new ArrayDeque<>();
+
+    private final BitSet foundFields = new BitSet();
+
+    private final boolean includeNulls =
+        "Y"
+            .equalsIgnoreCase(
+                System.getProperty(
+                    Const.HOP_JSON_INPUT_INCLUDE_NULLS, Const.JSON_INPUT_INCLUDE_NULLS));
+
+    private boolean started;
+    private boolean finished;
+    private long elementCount;
+
+    /**
+     * The first row when it only has null values: it's skipped when there are more rows and null
+     * rows aren't included
+     */
+    private Object[] firstNullRow;
+
+    StreamingRowSet(JsonParser parser) {
+      super();
+      this.parser = parser;
+    }
+
+    /**
+     * Read the next row from the document
+     *
+     * @return the row or null if there are no more rows
+     * @throws HopException in case the document can't be parsed or a path wasn't found
+     */
+    public Object[] nextRow() throws HopException {
+      if (finished) {
+        return null;
+      }
+      try {
+        Object[] row;
+        while ((row = readElementRow()) != null) {
+          if (elementCount > 1) {
+            // The first row is only kept when it's the only row
+            firstNullRow = null;
+          }
+          if (!includeNulls && isAllNull(row)) {
+            if (elementCount == 1) {
+              firstNullRow = row;
+            }
+            continue;
+          }
+          return row;
+        }
+        return finish();
+      } catch (IOException e) {
+        close();
+        throw new JsonInputException(e);
+      } catch (HopException e) {
+        close();
+        throw e;
+      }
+    }
+
+    private Object[] finish() throws HopException {
+      close();
+      if (log.isDetailed()) {
+        log.logDetailed(BaseMessages.getString(PKG, "JsonInput.Log.NrRecords", elementCount));
+      }
+      if (!ignoreMissingPath) {
+        int missing = foundFields.nextClearBit(0);
+        if (missing < fields.length) {
+          throw new JsonInputException(
+              BaseMessages.getString(
+                  PKG, "JsonReader.Error.CanNotFindPath", fields[missing].getPath()));
+        }
+      }
+      if (firstNullRow != null) {
+        Object[] row = firstNullRow;
+        firstNullRow = null;
+        return row;
+      }
+      if (elementCount == 0) {
+        // Same as an empty result of the in-memory reader
+        return new Object[fields.length];
+      }
+      return null;
+    }
+
+    /** Advance the parser to the next loop element and convert it to a row */
+    private Object[] readElementRow() throws IOException {
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        Container container = containers.peek();
+        if (container == null) {
+          if (started) {
+            // Content after the document
+            return null;
+          }
+          started = true;
+          Object[] row = readValue(0, token);
+          if (row != null) {
+            return row;
+          }
+          continue;
+        }
+        if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+          containers.pop();
+          continue;
+        }
+        if (token == JsonToken.FIELD_NAME) {
+          String name = parser.currentName();
+          token = parser.nextToken();
+          String property = loopSteps.get(container.step);
+          if (property != null && !property.equals(name)) {
+            parser.skipChildren();
+            continue;
+          }
+        }
+        Object[] row = readValue(container.step + 1, token);
+        if (row != null) {
+          return row;
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Read the value the parser is positioned on for a loop step. This starts reading a container
+     * or returns the row of an element when all loop steps are done.
+     */
+    private Object[] readValue(int step, JsonToken token) throws IOException {
+      if (step == loopSteps.size()) {
+        elementCount++;
+        return getRow(readElement(token));
+      }
+      boolean wildcard = loopSteps.get(step) == null;
+      if (token == JsonToken.START_OBJECT || (wildcard && token == JsonToken.START_ARRAY)) {
+        containers.push(new Container(step));
+      } else {
+        parser.skipChildren();
+      }
+      return null;
+    }
+
+    private Object[] getRow(Object element) {
+      Object[] row = new Object[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        Object value = element;
+        for (String property : valueSteps[i]) {
+          if (value instanceof Map<?, ?> map) {
+            value = map.get(property);
+          } else {
+            value = null;
+            break;
+          }
+        }
+        if (value != null) {
+          foundFields.set(i);
+        }
+        row[i] = value;
+      }
+      return row;
+    }
+
+    /** Read a complete value the same way the in-memory reader represents it */
+    private Object readElement(JsonToken token) throws IOException {
+      switch (token) {
+        case START_OBJECT:
+          Map<String, Object> map = new LinkedHashMap<>();
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            map.put(name, readElement(parser.nextToken()));
+          }
+          return map;
+        case START_ARRAY:
+          JSONArray array = new JSONArray();
+          JsonToken next;
+          while ((next = parser.nextToken()) != JsonToken.END_ARRAY) {
+            array.add(readElement(next));
+          }
+          return array;
+        case VALUE_STRING:
+          return parser.getText();
+        case VALUE_NUMBER_INT:
+          return parser.getNumberValue();
+        case VALUE_NUMBER_FLOAT:
+          String text = parser.getText();
+          return text.length() > 18 ? new BigDecimal(text) : Double.valueOf(text);
+        case VALUE_TRUE:
+          return Boolean.TRUE;
+        case VALUE_FALSE:
+          return Boolean.FALSE;
+        default:
+          return null;
+      }
+    }
+
+    private boolean isAllNull(Object[] row) {
+      for (Object value : row) {
+        if (value != null) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Stop reading and close the input */
+    public void close() {
+      finished = true;
+      containers.clear();
+      try {
+        parser.close();
+      } catch (IOException e) {
+        if (log.isDebug()) {
+          log.logDebug(e.getLocalizedMessage(), e);
+        }
+      }
+    }
+
+    @Override
+    public Object[] getRow() {
+      try {
+        return nextRow();
+      } catch (HopException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      }
+    }
+
+    @Override
+    public int size() {
+      return finished ? 0 : 1;
+    }
+
+    @Override
+    public boolean isDone() {
+      return finished;
+    }
+
+    @Override
+    public void clear() {
+      close();
+    }
+  }
+
+  private static class Container {
+    private final int step;
+
+    private Container(int step) {
+      this.step = step;
+    }
+  }
+}
@@ -19,6 +19,8 @@ package org.apache.hop.pipeline.transforms.jsonoutput;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.compress.ICompressionProvider;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.metadata.api.HopMetadataProperty;
@@ -419,6 +421,16 @@ public abstract class BaseFileOutputMeta<Main extends JsonOutput, Data extends J
       }
       if ("GZip".equals(meta.getFileCompression())) {
         retval += ".gz";
+      } else if (!Utils.isEmpty(meta.getFileCompression())
+          && !"None".equals(meta.getFileCompression())) {
+        // The other compression providers add their default extension, if they have one
+        ICompressionProvider compressionProvider =
+            CompressionProviderFactory.getInstance()
+                .getCompressionProviderByName(meta.getFileCompression());
+        if (compressionProvider != null
+            && !Utils.isEmpty(compressionProvider.getDefaultExtension())) {
+          retval += "." + compressionProvider.getDefaultExtension();
+        }
       }
     }
     return retval;
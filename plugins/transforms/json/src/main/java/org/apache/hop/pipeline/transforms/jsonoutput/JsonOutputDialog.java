@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Objects;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Props;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
@@ -70,6 +71,8 @@ public class JsonOutputDialog extends BaseTransformDialog {
   private Label wlEncoding;
   private ComboVar wEncoding;
 
+  private CCombo wCompression;
+
   private Label wlOutputValue;
   private TextVar wOutputValue;
 
@@ -518,13 +521,31 @@ public class JsonOutputDialog extends BaseTransformDialog {
           }
         });
 
+    Label wlCompression = new Label(wFileName, SWT.RIGHT);
+    wlCompression.setText(BaseMessages.getString(PKG, "JsonOutputDialog.Compression.Label"));
+    PropsUi.setLook(wlCompression);
+    FormData fdlCompression = new FormData();
+    fdlCompression.left = new FormAttachment(0, 0);
+    fdlCompression.top = new FormAttachment(wEncoding, margin);
+    fdlCompression.right = new FormAttachment(middle, -margin);
+    wlCompression.setLayoutData(fdlCompression);
+    wCompression = new CCombo(wFileName, SWT.BORDER | SWT.READ_ONLY);
+    PropsUi.setLook(wCompression);
+    wCompression.setItems(CompressionProviderFactory.getInstance().getCompressionProviderNames());
+    wCompression.addModifyListener(lsMod);
+    FormData fdCompression = new FormData();
+    fdCompression.left = new FormAttachment(middle, 0);
+    fdCompression.top = new FormAttachment(wEncoding, margin);
+    fdCompression.right = new FormAttachment(100, 0);
+    wCompression.setLayoutData(fdCompression);
+
     // Create multi-part file?
     wlAddDate = new Label(wFileName, SWT.RIGHT);
     wlAddDate.setText(BaseMessages.getString(PKG, "JsonOutputDialog.AddDate.Label"));
     PropsUi.setLook(wlAddDate);
     FormData fdlAddDate = new FormData();
     fdlAddDate.left = new FormAttachment(0, 0);
-    fdlAddDate.top = new FormAttachment(wEncoding, margin);
+    fdlAddDate.top = new FormAttachment(wCompression, margin);
     fdlAddDate.right = new FormAttachment(middle, -margin);
     wlAddDate.setLayoutData(fdlAddDate);
     wAddDate = new Button(wFileName, SWT.CHECK);
@@ -803,6 +824,7 @@ public class JsonOutputDialog extends BaseTransformDialog {
     wFilename.setText(Const.NVL(input.getFileName(), ""));
     wCreateParentFolder.setSelection(input.isCreateParentFolder());
     wExtension.setText(Const.NVL(input.getExtension(), "js"));
+    wCompression.setText(Const.NVL(input.getFileCompression(), "None"));
 
     wAddDate.setSelection(input.isDateInFilename());
     wAddTime.setSelection(input.isTimeInFilename());
@@ -847,6 +869,7 @@ public class JsonOutputDialog extends BaseTransformDialog {
     jsometa.setCreateParentFolder(wCreateParentFolder.getSelection());
     jsometa.setFileName(wFilename.getText());
     jsometa.setExtension(wExtension.getText());
+    jsometa.setFileCompression(wCompression.getText());
     jsometa.setFileAppended(wAppend.getSelection());
 
     jsometa.setDateInFilename(wAddDate.getSelection());
@@ -32,6 +32,9 @@ import java.util.List;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.compress.ICompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
@@ -615,6 +618,14 @@ public class JsonOutput extends BaseTransform<JsonOutputMeta, JsonOutputData> {
       OutputStream fos = HopVfs.getOutputStream(filename, meta.isFileAppended());
       outputStream = fos;
 
+      ICompressionProvider compressionProvider = getCompressionProvider();
+      if (compressionProvider != null) {
+        CompressionOutputStream compressionOutputStream =
+            compressionProvider.createOutputStream(fos);
+        compressionOutputStream.addEntry(filename, resolve(meta.getExtension()));
+        outputStream = compressionOutputStream;
+      }
+
       if (!Utils.isEmpty(meta.getEncoding())) {
         data.writer =
             new OutputStreamWriter(
@@ -638,6 +649,25 @@ public class JsonOutput extends BaseTransform<JsonOutputMeta, JsonOutputData> {
     return retval;
   }
 
+  /**
+   * @return the provider to compress the file with or null if the file isn't compressed
+   */
+  private ICompressionProvider getCompressionProvider() throws HopException {
+    String compression = meta.getFileCompression();
+    if (Utils.isEmpty(compression) || "None".equals(compression)) {
+      return null;
+    }
+    ICompressionProvider compressionProvider =
+        CompressionProviderFactory.getInstance().getCompressionProviderByName(compression);
+    if (compressionProvider == null) {
+      throw new HopException("No compression provider found with name = " + compression);
+    }
+    if (!compressionProvider.supportsOutput()) {
+      throw new HopException("Compression provider " + compression + " does not support output");
+    }
+    return compressionProvider;
+  }
+
   public String buildFilename() {
     return meta.buildFilename(variables, getCopy() + "", null, data.splitnr + "", false);
   }
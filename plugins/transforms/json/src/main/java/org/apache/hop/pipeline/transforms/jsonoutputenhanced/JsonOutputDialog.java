@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Props;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
@@ -74,6 +75,8 @@ public class JsonOutputDialog extends BaseTransformDialog {
   private Label wlEncoding;
   private ComboVar wEncoding;
 
+  private CCombo wCompression;
+
   private TextVar wOutputValue;
 
   private Button wUseArrayWithSingleInstance;
@@ -802,7 +805,7 @@ public class JsonOutputDialog extends BaseTransformDialog {
     PropsUi.setLook(wlAddDate);
     FormData fdlAddDate = new FormData();
     fdlAddDate.left = new FormAttachment(0, 0);
-    fdlAddDate.top = new FormAttachment(wEncoding, margin);
+    fdlAddDate.top = new FormAttachment(wCompression, margin);
     fdlAddDate.right = new FormAttachment(middle, -margin);
     wlAddDate.setLayoutData(fdlAddDate);
     wAddDate = new Button(wFilenameGroup, SWT.CHECK);
@@ -969,6 +972,24 @@ public class JsonOutputDialog extends BaseTransformDialog {
             busy.dispose();
           }
         });
+
+    Label wlCompression = new Label(wFilenameGroup, SWT.RIGHT);
+    wlCompression.setText(BaseMessages.getString(PKG, "JsonOutputDialog.Compression.Label"));
+    PropsUi.setLook(wlCompression);
+    FormData fdlCompression = new FormData();
+    fdlCompression.left = new FormAttachment(0, 0);
+    fdlCompression.top = new FormAttachment(wEncoding, margin);
+    fdlCompression.right = new FormAttachment(middle, -margin);
+    wlCompression.setLayoutData(fdlCompression);
+    wCompression = new CCombo(wFilenameGroup, SWT.BORDER | SWT.READ_ONLY);
+    PropsUi.setLook(wCompression);
+    wCompression.setItems(CompressionProviderFactory.getInstance().getCompressionProviderNames());
+    wCompression.addModifyListener(lsMod);
+    FormData fdCompression = new FormData();
+    fdCompression.left = new FormAttachment(middle, 0);
+    fdCompression.top = new FormAttachment(wlCompression, 0, SWT.CENTER);
+    fdCompression.right = new FormAttachment(100, 0);
+    wCompression.setLayoutData(fdCompression);
   }
 
   protected void setFieldListComboBoxes() {
@@ -1016,6 +1037,7 @@ public class JsonOutputDialog extends BaseTransformDialog {
     wFilename.setText(Const.NVL(input.getFileName(), ""));
     wCreateParentFolder.setSelection(input.isCreateParentFolder());
     wExtension.setText(Const.NVL(input.getExtension(), "js"));
+    wCompression.setText(Const.NVL(input.getFileCompression(), "None"));
 
     wAddDate.setSelection(input.isDateInFilename());
     wAddTime.setSelection(input.isTimeInFilename());
@@ -1096,6 +1118,7 @@ public class JsonOutputDialog extends BaseTransformDialog {
     jsometa.setCreateParentFolder(wCreateParentFolder.getSelection());
     jsometa.setFileName(wFilename.getText());
     jsometa.setExtension(wExtension.getText());
+    jsometa.setFileCompression(wCompression.getText());
     jsometa.setFileAppended(wAppend.getSelection());
     jsometa.setDateInFilename(wAddDate.getSelection());
     jsometa.setTimeInFilename(wAddTime.getSelection());
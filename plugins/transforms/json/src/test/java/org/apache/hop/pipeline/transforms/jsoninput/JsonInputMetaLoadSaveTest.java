@@ -51,6 +51,7 @@ public class JsonInputMetaLoadSaveTest implements IInitializer<ITransformMeta> {
             "doNotFailIfNoFile",
             "ignoreMissingPath",
             "defaultPathLeafToNull",
+            "streamingMode",
             "rowNumberField",
             "FileName",
             "FileMask",
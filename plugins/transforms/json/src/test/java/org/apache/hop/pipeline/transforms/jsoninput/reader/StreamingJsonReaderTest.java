@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+import org.junit.Test;
+
+public class StreamingJsonReaderTest {
+  private static final String ITEMS =
+      "{ \"id\": 7, \"items\": ["
+          + "{ \"name\": \"a\", \"price\": 1.5, \"count\": 3, \"address\": { \"city\": \"x\" } },"
+          + "{ \"name\": \"b\", \"price\": 2.75, \"count\": 12345678901,"
+          + "  \"tags\": [1, \"two\", null], \"address\": null },"
+          + "{ \"name\": \"c\", \"count\": -12, \"active\": true,"
+          + "  \"address\": { \"zip\": { \"code\": 1000 } } },"
+          + "{ \"name\": \"d\", \"price\": -0.25e2,"
+          + "  \"extra\": { \"items\": [ { \"name\": \"z\" } ] } }"
+          + "] }";
+
+  private final ILogChannel log = mock(ILogChannel.class);
+
+  private static JsonInputField[] createFields(String... paths) {
+    JsonInputField[] fields = new JsonInputField[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      fields[i] = new JsonInputField("field" + i);
+      fields[i].setPath(paths[i]);
+    }
+    return fields;
+  }
+
+  private static InputStream toStream(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<Object[]> readRows(IRowSet rowSet) {
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row;
+    while ((row = rowSet.getRow()) != null) {
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  private void assertSameRows(String json, String... paths) throws Exception {
+    FastJsonReader inMemoryReader = new FastJsonReader(createFields(paths), log);
+    inMemoryReader.setIgnoreMissingPath(true);
+    StreamingJsonReader streamingReader = new StreamingJsonReader(createFields(paths), log);
+    streamingReader.setIgnoreMissingPath(true);
+
+    List<Object[]> expected = readRows(inMemoryReader.parse(toStream(json)));
+    List<Object[]> actual = readRows(streamingReader.parse(toStream(json)));
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals(expected.get(i), actual.get(i));
+      for (int j = 0; j < paths.length; j++) {
+        if (expected.get(i)[j] != null) {
+          assertEquals(expected.get(i)[j].getClass(), actual.get(i)[j].getClass());
+          assertEquals(expected.get(i)[j].toString(), actual.get(i)[j].toString());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCompilePath() {
+    StreamingJsonPath path = StreamingJsonPath.compile("$.orders[*].lines[*].product.sku");
+    assertNotNull(path);
+    assertEquals(Arrays.asList("orders", null, "lines", null), path.getLoopSteps());
+    assertEquals(Arrays.asList("product", "sku"), path.getValueSteps());
+
+    path = StreamingJsonPath.compile("$['orders'].*");
+    assertNotNull(path);
+    assertEquals(Arrays.asList("orders", null), path.getLoopSteps());
+    assertTrue(path.getValueSteps().isEmpty());
+
+    assertNull(StreamingJsonPath.compile("$.name"));
+    assertNull(StreamingJsonPath.compile("$..name"));
+    assertNull(StreamingJsonPath.compile("$.items[0].name"));
+    assertNull(StreamingJsonPath.compile("$.items[?(@.price > 10)].name"));
+    assertNull(StreamingJsonPath.compile("$.items[*]['name','price']"));
+    assertNull(StreamingJsonPath.compile("$.items[*].name.length()"));
+    assertNull(StreamingJsonPath.compile("items[*].name"));
+  }
+
+  @Test
+  public void testCanStream() {
+    assertTrue(StreamingJsonReader.canStream(createFields("$.items[*].name", "$.items[*].price")));
+    assertFalse(StreamingJsonReader.canStream(createFields("$.items[*].name", "$.id")));
+    assertFalse(
+        StreamingJsonReader.canStream(createFields("$.items[*].name", "$.items[*].tags[*]")));
+    assertFalse(StreamingJsonReader.canStream(createFields()));
+  }
+
+  @Test
+  public void testSameRowsAsInMemoryReader() throws Exception {
+    assertSameRows(ITEMS, "$.items[*].name", "$.items[*].price", "$.items[*].count");
+    assertSameRows(ITEMS, "$.items[*].tags", "$.items[*].active", "$.items[*].extra");
+    assertSameRows(ITEMS, "$['items'][*]['name']");
+    assertSameRows(ITEMS, "$.items[*]");
+    assertSameRows(
+        "{ \"orders\": [ { \"lines\": [ { \"sku\": \"a\" }, { \"sku\": \"b\" } ] },"
+            + " { \"lines\": [] }, { \"lines\": [ { \"sku\": \"c\", \"qty\": 2 } ] } ] }",
+        "$.orders[*].lines[*].sku",
+        "$.orders[*].lines[*].qty");
+    assertSameRows("[ { \"a\": 1 }, { \"a\": 2 } ]", "$[*].a");
+    assertSameRows("{ \"map\": { \"k1\": { \"a\": 1 }, \"k2\": { \"a\": 2 } } }", "$.map.*.a");
+  }
+
+  @Test
+  public void testMissingObjectGivesNull() throws Exception {
+    StreamingJsonReader reader =
+        new StreamingJsonReader(
+            createFields("$.items[*].address.city", "$.items[*].address.zip.code"), log);
+    reader.setIgnoreMissingPath(true);
+    List<Object[]> rows = readRows(reader.parse(toStream(ITEMS)));
+    assertEquals(4, rows.size());
+    assertArrayEquals(new Object[] {"x", null}, rows.get(0));
+    assertArrayEquals(new Object[] {null, null}, rows.get(1));
+    assertArrayEquals(new Object[] {null, 1000}, rows.get(2));
+    assertArrayEquals(new Object[] {null, null}, rows.get(3));
+  }
+
+  @Test
+  public void testNoElements() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader(createFields("$.items[*].name"), log);
+    reader.setIgnoreMissingPath(true);
+    List<Object[]> rows = readRows(reader.parse(toStream("{ \"items\": [] }")));
+    assertEquals(1, rows.size());
+    assertArrayEquals(new Object[] {null}, rows.get(0));
+  }
+
+  @Test
+  public void testMissingPath() throws Exception {
+    StreamingJsonReader reader =
+        new StreamingJsonReader(createFields("$.items[*].name", "$.items[*].unknown"), log);
+    reader.setIgnoreMissingPath(false);
+    StreamingJsonReader.StreamingRowSet rowSet = reader.parse(toStream(ITEMS));
+    for (int i = 0; i < 4; i++) {
+      assertNotNull(rowSet.nextRow());
+    }
+    try {
+      rowSet.nextRow();
+      fail("The missing path should be reported");
+    } catch (JsonInputException e) {
+      // expected
+    }
+    assertTrue(rowSet.isDone());
+  }
+
+  @Test
+  public void testRowsAreReadIncrementally() throws Exception {
+    AtomicBoolean closed = new AtomicBoolean();
+    StringBuilder json = new StringBuilder("{ \"items\": [ { \"name\": \"first\" }");
+    for (int i = 0; i < 100000; i++) {
+      json.append(", { \"name\": \"item").append(i).append("\" }");
+    }
+    json.append("] }");
+    byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+    int[] read = new int[1];
+    InputStream in =
+        new ByteArrayInputStream(bytes) {
+          @Override
+          public synchronized int read(byte[] b, int off, int len) {
+            int n = super.read(b, off, len);
+            read[0] += Math.max(n, 0);
+            return n;
+          }
+
+          @Override
+          public void close() {
+            closed.set(true);
+          }
+        };
+
+    StreamingJsonReader reader = new StreamingJsonReader(createFields("$.items[*].name"), log);
+    StreamingJsonReader.StreamingRowSet rowSet = reader.parse(in);
+    assertEquals("first", rowSet.nextRow()[0]);
+    assertTrue(read[0] < bytes.length);
+    assertFalse(rowSet.isDone());
+
+    int count = 1;
+    while (rowSet.nextRow() != null) {
+      count++;
+    }
+    assertEquals(100001, count);
+    assertTrue(rowSet.isDone());
+    assertTrue(closed.get());
+  }
+}
@@ -19,6 +19,7 @@ package org.apache.hop.pipeline.transforms.kafka.consumer;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -32,6 +33,7 @@ import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.TransformWithMappingMeta;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
@@ -46,6 +48,7 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
 
 /** Consume messages from a Kafka topic */
@@ -83,20 +86,36 @@ public class KafkaConsumerInput
     data.batchDuration = Const.toInt(resolve(meta.getBatchDuration()), 0);
     data.batchSize = Const.toInt(resolve(meta.getBatchSize()), 0);
 
+    data.partitionThreads = Const.toInt(resolve(meta.getPartitionThreads()), 0);
+
     data.consumer = buildKafkaConsumer(this, meta);
 
     // Subscribe to the topics...
     //
     Set<String> topics = meta.getTopics().stream().map(this::resolve).collect(Collectors.toSet());
-    data.consumer.subscribe(topics);
 
-    // Load and start the single threader transformation
-    //
-    try {
-      initSubPipeline();
-    } catch (Exception e) {
-      logError("Error initializing sub-transformation", e);
-      return false;
+    if (data.partitionThreads > 0) {
+      // Every partition gets its own sub-pipeline, started when its first records arrive
+      //
+      data.dispatcher =
+          new KafkaPartitionDispatcher(
+              data.consumer,
+              PartitionSubPipeline::new,
+              data.partitionThreads,
+              Const.toInt(resolve(meta.getMaxQueuedRecords()), 10000),
+              getTransformName() + " partition worker");
+      data.dispatcher.subscribe(topics);
+    } else {
+      data.consumer.subscribe(topics);
+
+      // Load and start the single threader transformation
+      //
+      try {
+        initSubPipeline();
+      } catch (Exception e) {
+        logError("Error initializing sub-transformation", e);
+        return false;
+      }
     }
 
     // Set Kafka consumer is closing flag to false
@@ -105,6 +124,13 @@ public class KafkaConsumerInput
   }
 
   private void initSubPipeline() throws HopException {
+    SubPipeline subPipeline = createSubPipeline();
+    data.rowProducer = subPipeline.rowProducer;
+    data.executor = subPipeline.executor;
+  }
+
+  private SubPipeline createSubPipeline() throws HopException {
+    SubPipeline subPipeline = new SubPipeline();
     try {
 
       String realFilename = resolve(meta.getFilename());
@@ -130,7 +156,7 @@ public class KafkaConsumerInput
       for (TransformMeta transformMeta : subTransMeta.getTransforms()) {
         ITransformMeta iTransform = transformMeta.getTransform();
         if (iTransform instanceof InjectorMeta) {
-          if (data.rowProducer != null) {
+          if (subPipeline.rowProducer != null) {
             throw new HopException(
                 "You can only have one copy of the injector transform '"
                     + transformMeta.getName()
@@ -138,11 +164,11 @@ public class KafkaConsumerInput
           }
           // Attach an injector to this transform
           //
-          data.rowProducer = kafkaPipeline.addRowProducer(transformMeta.getName(), 0);
+          subPipeline.rowProducer = kafkaPipeline.addRowProducer(transformMeta.getName(), 0);
         }
       }
 
-      if (data.rowProducer == null) {
+      if (subPipeline.rowProducer == null) {
         throw new HopException(
             "Unable to find an Injector transform in the Kafka pipeline. Such a transform is needed to accept data from this Kafka Consumer transform.");
       }
@@ -163,7 +189,7 @@ public class KafkaConsumerInput
                   throws HopTransformException {
                 // Write this row to the next transform(s)
                 //
-                KafkaConsumerInput.this.putRow(rowMeta, row);
+                putSubPipelineRow(rowMeta, row);
               }
             });
       }
@@ -171,15 +197,15 @@ public class KafkaConsumerInput
       kafkaPipeline.startThreads();
 
       if (errorHandlingConditionIsSatisfied()) {
-        data.executor = new SingleThreadedPipelineExecutor(kafkaPipeline, true);
+        subPipeline.executor = new SingleThreadedPipelineExecutor(kafkaPipeline, true);
       } else {
         // If the conditions for error handling are not met init SingleThreadedExecutor normally
-        data.executor = new SingleThreadedPipelineExecutor(kafkaPipeline);
+        subPipeline.executor = new SingleThreadedPipelineExecutor(kafkaPipeline);
       }
 
       // Initialize the sub-pipeline
       //
-      boolean ok = data.executor.init();
+      boolean ok = subPipeline.executor.init();
       if (!ok) {
         throw new HopException("Initialization of sub-pipeline failed");
       }
@@ -188,10 +214,29 @@ public class KafkaConsumerInput
     } catch (Exception e) {
       throw new HopException("Unable to load and initialize sub pipeline", e);
     }
+    return subPipeline;
+  }
+
+  private void putSubPipelineRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+    if (data.dispatcher == null) {
+      putRow(rowMeta, row);
+    } else {
+      // The sub-pipelines of the partitions pass their rows on one at a time
+      synchronized (data.outputLock) {
+        putRow(rowMeta, row);
+      }
+    }
   }
 
   @Override
   public void dispose() {
+    if (data.dispatcher != null) {
+      try {
+        data.dispatcher.close();
+      } catch (RuntimeException e) {
+        logError("Error committing the offsets of the processed Kafka records", e);
+      }
+    }
     if (data.consumer != null) {
       data.consumer.unsubscribe();
       data.consumer.close();
@@ -222,7 +267,11 @@ public class KafkaConsumerInput
     config.put(
         ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
         variables.resolve(meta.getDirectBootstrapServers()));
-    config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, meta.isAutoCommit());
+    // When the partitions are processed in parallel the offsets are committed once the records
+    // are processed
+    //
+    boolean partitionThreads = Const.toInt(variables.resolve(meta.getPartitionThreads()), 0) > 0;
+    config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, meta.isAutoCommit() && !partitionThreads);
 
     // Timeout : max batch wait
     //
@@ -260,6 +309,9 @@ public class KafkaConsumerInput
 
   @Override
   public boolean processRow() throws HopException {
+    if (data.dispatcher != null) {
+      return processPartitions();
+    }
 
     // Poll records...
     // If we get any, process them...
@@ -356,6 +408,23 @@ public class KafkaConsumerInput
     return true;
   }
 
+  /** Poll records and let the sub-pipelines of their partitions process them in parallel */
+  private boolean processPartitions() throws HopException {
+    try {
+      // Also poll when no records arrive, to commit the offsets of the processed records
+      //
+      Duration duration = Duration.ofMillis(data.batchDuration > 0 ? data.batchDuration : 1000L);
+      data.dispatcher.poll(duration);
+    } catch (WakeupException e) {
+      // The pipeline is stopping, the processed records are committed in dispose()
+      //
+      setOutputDone();
+      stopAll();
+      return false;
+    }
+    return true;
+  }
+
   private boolean errorHandlingConditionIsSatisfied() {
     // Added a check to be sure that lines collecting for error handling is limited
     // to the case of batchSize = 1.
@@ -376,4 +445,70 @@ public class KafkaConsumerInput
 
     return rowData;
   }
+
+  /** A single threaded sub-pipeline with the row producer of its injector transform */
+  private static final class SubPipeline {
+    private RowProducer rowProducer;
+    private SingleThreadedPipelineExecutor executor;
+  }
+
+  /** Processes the records of a single partition with its own sub-pipeline */
+  private final class PartitionSubPipeline implements KafkaPartitionDispatcher.IBatchProcessor {
+    private final TopicPartition partition;
+    private SubPipeline subPipeline;
+
+    private PartitionSubPipeline(TopicPartition partition) {
+      this.partition = partition;
+    }
+
+    @Override
+    public void process(List<ConsumerRecord<Object, Object>> records) throws HopException {
+      if (subPipeline == null) {
+        subPipeline = createSubPipeline();
+        logDetailed("Started a sub-pipeline for partition " + partition);
+      }
+
+      List<Object[]> rows = new ArrayList<>(records.size());
+      for (ConsumerRecord<Object, Object> record : records) {
+        Object[] outputRow = processMessageAsRow(record);
+        subPipeline.rowProducer.putRow(data.outputRowMeta, outputRow);
+        rows.add(outputRow);
+        incrementLinesInput();
+      }
+      SingleThreadedPipelineExecutor executor = subPipeline.executor;
+      executor.oneIteration();
+
+      if (executor.isStopped() || executor.getErrors() > 0) {
+        if (executor.getErrors() > 0 && errorHandlingConditionIsSatisfied()) {
+          // Send the records to the error hop and continue with a new sub-pipeline
+          //
+          synchronized (data.outputLock) {
+            for (Object[] row : rows) {
+              putError(
+                  data.outputRowMeta,
+                  row,
+                  1L,
+                  "An error occurred while processing the subpipeline",
+                  null,
+                  "KAFKA001");
+            }
+          }
+          close();
+          return;
+        }
+        throw new HopException(
+            "The sub-pipeline of partition " + partition + " stopped or reported errors");
+      }
+      executor.buildExecutionSummary();
+    }
+
+    @Override
+    public void close() {
+      if (subPipeline != null) {
+        subPipeline.executor.getPipeline().stopAll();
+        subPipeline.executor.dispose();
+        subPipeline = null;
+      }
+    }
+  }
 }
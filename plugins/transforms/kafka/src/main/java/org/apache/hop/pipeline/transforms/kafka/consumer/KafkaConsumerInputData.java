@@ -36,6 +36,14 @@ public class KafkaConsumerInputData extends BaseTransformData implements ITransf
   public boolean isKafkaConsumerClosing;
   public List<Object[]> incomingRowsBuffer;
 
+  /** The number of threads processing the partitions in parallel, 0 to process them here */
+  public int partitionThreads;
+
+  public KafkaPartitionDispatcher dispatcher;
+
+  /** Serializes the rows the sub-pipelines of the partitions pass on */
+  public final Object outputLock = new Object();
+
   /** */
   public KafkaConsumerInputData() {
     super();
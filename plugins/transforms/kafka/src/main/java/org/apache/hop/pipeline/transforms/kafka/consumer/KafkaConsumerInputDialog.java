@@ -99,6 +99,8 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
   protected TextVar wBatchSize;
   protected Label wlBatchDuration;
   protected TextVar wBatchDuration;
+  protected TextVar wPartitionThreads;
+  protected TextVar wMaxQueuedRecords;
 
   protected CTabFolder wTabFolder;
   protected CTabItem wSetupTab;
@@ -288,6 +290,8 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     m.setConsumerGroup(wConsumerGroup.getText());
     m.setDirectBootstrapServers(wBootstrapServers.getText());
     m.setAutoCommit(wbAutoCommit.getSelection());
+    m.setPartitionThreads(wPartitionThreads.getText());
+    m.setMaxQueuedRecords(wMaxQueuedRecords.getText());
 
     setFieldsFromTable();
     setOptionsFromTable();
@@ -300,10 +304,10 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
   protected void createAdditionalTabs() {
     buildFieldsTab();
     buildOptionsTab();
-    buildOffsetManagement();
+    buildParallelProcessing(buildOffsetManagement());
   }
 
-  private void buildOffsetManagement() {
+  private Group buildOffsetManagement() {
     Group wOffsetGroup = new Group(wBatchComp, SWT.SHADOW_ETCHED_IN);
     wOffsetGroup.setText(BaseMessages.getString(PKG, "KafkaConsumerInputDialog.OffsetManagement"));
     FormLayout flOffsetGroup = new FormLayout();
@@ -333,6 +337,64 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     fdbManualCommit.top = new FormAttachment(wbAutoCommit, margin);
     wbManualCommit.setLayoutData(fdbManualCommit);
     PropsUi.setLook(wbManualCommit);
+    return wOffsetGroup;
+  }
+
+  private void buildParallelProcessing(Control lastControl) {
+    Group wParallelGroup = new Group(wBatchComp, SWT.SHADOW_ETCHED_IN);
+    wParallelGroup.setText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.ParallelProcessing"));
+    FormLayout flParallelGroup = new FormLayout();
+    flParallelGroup.marginHeight = 15;
+    flParallelGroup.marginWidth = 15;
+    wParallelGroup.setLayout(flParallelGroup);
+
+    FormData fdParallelGroup = new FormData();
+    fdParallelGroup.top = new FormAttachment(lastControl, 15);
+    fdParallelGroup.left = new FormAttachment(0, 0);
+    fdParallelGroup.right = new FormAttachment(100, 0);
+    wParallelGroup.setLayoutData(fdParallelGroup);
+    PropsUi.setLook(wParallelGroup);
+
+    Label wlPartitionThreads = new Label(wParallelGroup, SWT.RIGHT);
+    PropsUi.setLook(wlPartitionThreads);
+    wlPartitionThreads.setText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.PartitionThreads"));
+    wlPartitionThreads.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.PartitionThreads.Tooltip"));
+    FormData fdlPartitionThreads = new FormData();
+    fdlPartitionThreads.left = new FormAttachment(0, 0);
+    fdlPartitionThreads.top = new FormAttachment(0, 0);
+    fdlPartitionThreads.right = new FormAttachment(middle, -margin);
+    wlPartitionThreads.setLayoutData(fdlPartitionThreads);
+
+    wPartitionThreads = new TextVar(variables, wParallelGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPartitionThreads);
+    wPartitionThreads.addModifyListener(lsMod);
+    FormData fdPartitionThreads = new FormData();
+    fdPartitionThreads.left = new FormAttachment(wlPartitionThreads, margin);
+    fdPartitionThreads.right = new FormAttachment(100, 0);
+    fdPartitionThreads.top = new FormAttachment(wlPartitionThreads, 0, SWT.CENTER);
+    wPartitionThreads.setLayoutData(fdPartitionThreads);
+
+    Label wlMaxQueuedRecords = new Label(wParallelGroup, SWT.RIGHT);
+    PropsUi.setLook(wlMaxQueuedRecords);
+    wlMaxQueuedRecords.setText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.MaxQueuedRecords"));
+    FormData fdlMaxQueuedRecords = new FormData();
+    fdlMaxQueuedRecords.left = new FormAttachment(0, 0);
+    fdlMaxQueuedRecords.top = new FormAttachment(wPartitionThreads, margin);
+    fdlMaxQueuedRecords.right = new FormAttachment(middle, -margin);
+    wlMaxQueuedRecords.setLayoutData(fdlMaxQueuedRecords);
+
+    wMaxQueuedRecords = new TextVar(variables, wParallelGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wMaxQueuedRecords);
+    wMaxQueuedRecords.addModifyListener(lsMod);
+    FormData fdMaxQueuedRecords = new FormData();
+    fdMaxQueuedRecords.left = new FormAttachment(wlMaxQueuedRecords, margin);
+    fdMaxQueuedRecords.right = new FormAttachment(100, 0);
+    fdMaxQueuedRecords.top = new FormAttachment(wlMaxQueuedRecords, 0, SWT.CENTER);
+    wMaxQueuedRecords.setLayoutData(fdMaxQueuedRecords);
   }
 
   protected void buildSetup(Composite wSetupComp) {
@@ -807,6 +869,8 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
 
     wbAutoCommit.setSelection(meta.isAutoCommit());
     wbManualCommit.setSelection(!meta.isAutoCommit());
+    wPartitionThreads.setText(Const.NVL(meta.getPartitionThreads(), ""));
+    wMaxQueuedRecords.setText(Const.NVL(meta.getMaxQueuedRecords(), ""));
 
     populateFieldData();
 
@@ -92,6 +92,8 @@ public class KafkaConsumerInputMeta
   public static final String KAFKA_NAME_ATTRIBUTE = "kafkaName";
   public static final String TYPE_ATTRIBUTE = "type";
   public static final String AUTO_COMMIT = "AUTO_COMMIT";
+  public static final String PARTITION_THREADS = "PARTITION_THREADS";
+  public static final String MAX_QUEUED_RECORDS = "MAX_QUEUED_RECORDS";
 
   @Injection(name = PIPELINE_PATH)
   protected String filename = "";
@@ -131,6 +133,14 @@ public class KafkaConsumerInputMeta
   @Injection(name = AUTO_COMMIT)
   private boolean autoCommit = true;
 
+  /** The number of threads processing the partitions in parallel, 0 or empty for none */
+  @Injection(name = PARTITION_THREADS)
+  private String partitionThreads = "";
+
+  /** The number of records of a partition waiting to be processed before it is paused */
+  @Injection(name = MAX_QUEUED_RECORDS)
+  private String maxQueuedRecords = "10000";
+
   private Map<String, String> config = new LinkedHashMap<>();
 
   private KafkaConsumerField topicField;
@@ -217,6 +227,9 @@ public class KafkaConsumerInputMeta
 
     String autoCommitValue = XmlHandler.getTagValue(transformNode, AUTO_COMMIT);
     setAutoCommit("Y".equals(autoCommitValue) || StringUtils.isEmpty(autoCommitValue));
+    setPartitionThreads(Const.NVL(XmlHandler.getTagValue(transformNode, PARTITION_THREADS), ""));
+    setMaxQueuedRecords(
+        Const.NVL(XmlHandler.getTagValue(transformNode, MAX_QUEUED_RECORDS), "10000"));
 
     List<Node> ofNode = XmlHandler.getNodes(transformNode, OUTPUT_FIELD_TAG_NAME);
 
@@ -309,6 +322,8 @@ public class KafkaConsumerInputMeta
     xml.append("    ")
         .append(XmlHandler.addTagValue(DIRECT_BOOTSTRAP_SERVERS, directBootstrapServers));
     xml.append("    ").append(XmlHandler.addTagValue(AUTO_COMMIT, autoCommit));
+    xml.append("    ").append(XmlHandler.addTagValue(PARTITION_THREADS, partitionThreads));
+    xml.append("    ").append(XmlHandler.addTagValue(MAX_QUEUED_RECORDS, maxQueuedRecords));
 
     getFieldDefinitions()
         .forEach(
@@ -790,6 +805,38 @@ public class KafkaConsumerInputMeta
     this.autoCommit = autoCommit;
   }
 
+  /**
+   * Gets partitionThreads
+   *
+   * @return value of partitionThreads
+   */
+  public String getPartitionThreads() {
+    return partitionThreads;
+  }
+
+  /**
+   * @param partitionThreads The partitionThreads to set
+   */
+  public void setPartitionThreads(String partitionThreads) {
+    this.partitionThreads = partitionThreads;
+  }
+
+  /**
+   * Gets maxQueuedRecords
+   *
+   * @return value of maxQueuedRecords
+   */
+  public String getMaxQueuedRecords() {
+    return maxQueuedRecords;
+  }
+
+  /**
+   * @param maxQueuedRecords The maxQueuedRecords to set
+   */
+  public void setMaxQueuedRecords(String maxQueuedRecords) {
+    this.maxQueuedRecords = maxQueuedRecords;
+  }
+
   @Override
   public boolean supportsErrorHandling() {
     return true;
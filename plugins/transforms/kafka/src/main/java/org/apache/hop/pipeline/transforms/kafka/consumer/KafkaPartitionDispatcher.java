@@ -0,0 +1,397 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hop.core.exception.HopException;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Dispatches the records polled by a Kafka consumer to a worker per assigned partition. The
+ * partitions are processed in parallel on a pool of threads, the batches of a single partition one
+ * after the other.
+ *
+ * <p>Only the thread calling {@link #poll(Duration)} uses the consumer. It pauses the partitions
+ * with too many records waiting to be processed and commits, per partition, the offset of the last
+ * record which was processed. Records which are not processed yet are never committed.
+ */
+public class KafkaPartitionDispatcher implements ConsumerRebalanceListener {
+
+  /** Processes the batches of records of a single partition, one batch at a time */
+  public interface IBatchProcessor {
+    /**
+     * Process a batch of records
+     *
+     * @param records the records of the partition, in the order of their offsets
+     * @throws HopException in case the records couldn't be processed, this stops the dispatcher
+     */
+    void process(List<ConsumerRecord<Object, Object>> records) throws HopException;
+
+    /** Release the resources of the processor, no more batches are processed afterwards */
+    void close();
+  }
+
+  /** Creates the processor of a partition */
+  @FunctionalInterface
+  public interface IBatchProcessorFactory {
+    IBatchProcessor create(TopicPartition partition) throws HopException;
+  }
+
+  private final Consumer<Object, Object> consumer;
+  private final IBatchProcessorFactory processorFactory;
+  private final int maxQueuedRecords;
+  private final ExecutorService executor;
+
+  /** The workers of the assigned partitions, only used by the consumer thread */
+  private final Map<TopicPartition, PartitionWorker> workers = new HashMap<>();
+
+  private final Set<TopicPartition> pausedPartitions = new HashSet<>();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  /**
+   * @param consumer the consumer, auto commit has to be disabled
+   * @param processorFactory creates the processor of a partition
+   * @param threads the number of partitions which are processed at the same time
+   * @param maxQueuedRecords the number of records of a partition waiting to be processed before the
+   *     partition is paused
+   * @param threadName the name of the worker threads
+   */
+  public KafkaPartitionDispatcher(
+      Consumer<Object, Object> consumer,
+      IBatchProcessorFactory processorFactory,
+      int threads,
+      int maxQueuedRecords,
+      String threadName) {
+    this.consumer = consumer;
+    this.processorFactory = processorFactory;
+    this.maxQueuedRecords = Math.max(1, maxQueuedRecords);
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, threads),
+            runnable -> {
+              Thread thread = new Thread(runnable, threadName);
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Subscribe the consumer to topics, the dispatcher is notified when partitions are revoked
+   *
+   * @param topics the topics to subscribe to
+   */
+  public void subscribe(Collection<String> topics) {
+    consumer.subscribe(topics, this);
+  }
+
+  /**
+   * Poll the consumer and hand the records to the workers of their partitions. The offsets of the
+   * records which were processed since the previous poll are committed afterwards.
+   *
+   * @param timeout the maximum time to wait for records
+   * @return the number of records handed to the workers
+   * @throws HopException in case a worker failed to process its records
+   */
+  public int poll(Duration timeout) throws HopException {
+    checkFailure();
+
+    ConsumerRecords<Object, Object> records = consumer.poll(timeout);
+    for (TopicPartition partition : records.partitions()) {
+      getWorker(partition).add(records.records(partition));
+    }
+    updatePausedPartitions();
+    commitProcessedOffsets(false);
+
+    checkFailure();
+    return records.count();
+  }
+
+  private PartitionWorker getWorker(TopicPartition partition) throws HopException {
+    PartitionWorker worker = workers.get(partition);
+    if (worker == null) {
+      worker = new PartitionWorker(processorFactory.create(partition));
+      workers.put(partition, worker);
+    }
+    return worker;
+  }
+
+  /** Pause the partitions with too many queued records, resume them once they caught up. */
+  private void updatePausedPartitions() {
+    Set<TopicPartition> pause = new HashSet<>();
+    Set<TopicPartition> resume = new HashSet<>();
+    for (Map.Entry<TopicPartition, PartitionWorker> entry : workers.entrySet()) {
+      TopicPartition partition = entry.getKey();
+      int queuedRecords = entry.getValue().getQueuedRecords();
+      if (queuedRecords >= maxQueuedRecords) {
+        if (pausedPartitions.add(partition)) {
+          pause.add(partition);
+        }
+      } else if (queuedRecords <= maxQueuedRecords / 2 && pausedPartitions.remove(partition)) {
+        resume.add(partition);
+      }
+    }
+    if (!pause.isEmpty()) {
+      consumer.pause(pause);
+    }
+    if (!resume.isEmpty()) {
+      consumer.resume(resume);
+    }
+  }
+
+  /**
+   * Commit the offsets of the records which were processed
+   *
+   * @param sync true to wait for the commit to complete
+   */
+  void commitProcessedOffsets(boolean sync) {
+    commitProcessedOffsets(workers.keySet(), sync);
+  }
+
+  private void commitProcessedOffsets(Collection<TopicPartition> partitions, boolean sync) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (TopicPartition partition : partitions) {
+      PartitionWorker worker = workers.get(partition);
+      if (worker == null) {
+        continue;
+      }
+      long processedOffset = worker.processedOffset;
+      if (processedOffset > worker.committedOffset) {
+        // The committed offset is the offset of the next record to read
+        offsets.put(partition, new OffsetAndMetadata(processedOffset + 1));
+        worker.committedOffset = processedOffset;
+      }
+    }
+    if (offsets.isEmpty()) {
+      return;
+    }
+    if (sync) {
+      consumer.commitSync(offsets);
+    } else {
+      consumer.commitAsync(offsets, null);
+    }
+  }
+
+  /**
+   * The records of revoked partitions which are still queued are dropped: they are not committed
+   * and will be read again by the new owner of the partition. The records which were processed are
+   * committed before the partition is handed over.
+   */
+  @Override
+  public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+    stopWorkers(partitions);
+    commitProcessedOffsets(partitions, true);
+    removeWorkers(partitions);
+  }
+
+  @Override
+  public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+    // The workers are created when the first records of a partition arrive
+  }
+
+  /** Lost partitions are owned by another consumer already, their offsets can't be committed. */
+  @Override
+  public void onPartitionsLost(Collection<TopicPartition> partitions) {
+    stopWorkers(partitions);
+    removeWorkers(partitions);
+  }
+
+  private void stopWorkers(Collection<TopicPartition> partitions) {
+    for (TopicPartition partition : partitions) {
+      PartitionWorker worker = workers.get(partition);
+      if (worker != null) {
+        worker.stop();
+      }
+    }
+  }
+
+  private void removeWorkers(Collection<TopicPartition> partitions) {
+    for (TopicPartition partition : partitions) {
+      PartitionWorker worker = workers.remove(partition);
+      if (worker != null) {
+        worker.processor.close();
+      }
+      pausedPartitions.remove(partition);
+    }
+  }
+
+  /**
+   * Stop processing, commit the offsets of the records which were processed and close the
+   * processors. The records which are still queued are dropped.
+   */
+  public void close() {
+    stopWorkers(workers.keySet());
+    executor.shutdown();
+    try {
+      if (failure.get() == null) {
+        commitProcessedOffsets(true);
+      }
+    } finally {
+      removeWorkers(new HashSet<>(workers.keySet()));
+    }
+  }
+
+  private void checkFailure() throws HopException {
+    Throwable throwable = failure.get();
+    if (throwable != null) {
+      throw new HopException("Error processing the records of a Kafka partition", throwable);
+    }
+  }
+
+  /**
+   * @return the number of records waiting to be processed, for all partitions
+   */
+  public int getQueuedRecords() {
+    int queuedRecords = 0;
+    for (PartitionWorker worker : workers.values()) {
+      queuedRecords += worker.getQueuedRecords();
+    }
+    return queuedRecords;
+  }
+
+  /**
+   * @return the partitions which are paused because too many of their records are queued
+   */
+  public Set<TopicPartition> getPausedPartitions() {
+    return pausedPartitions;
+  }
+
+  /**
+   * Wait until the workers processed all the queued records or one of them failed
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   * @return true if all workers are idle
+   * @throws InterruptedException in case the thread was interrupted while waiting
+   */
+  public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (PartitionWorker worker : workers.values()) {
+      if (!worker.awaitIdle(deadline)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Processes the batches of a single partition, one after the other */
+  private final class PartitionWorker implements Runnable {
+    private final IBatchProcessor processor;
+    private final Deque<List<ConsumerRecord<Object, Object>>> batches = new ArrayDeque<>();
+    private int queuedRecords;
+    private boolean scheduled;
+    private boolean stopped;
+
+    /** The offset of the last record which was processed, written by the worker thread */
+    private volatile long processedOffset = -1L;
+
+    /** The offset of the last record which was committed, used by the consumer thread only */
+    private long committedOffset = -1L;
+
+    private PartitionWorker(IBatchProcessor processor) {
+      this.processor = processor;
+    }
+
+    private synchronized void add(List<ConsumerRecord<Object, Object>> records) {
+      if (stopped || records.isEmpty()) {
+        return;
+      }
+      batches.add(records);
+      queuedRecords += records.size();
+      if (!scheduled) {
+        scheduled = true;
+        executor.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        List<ConsumerRecord<Object, Object>> batch;
+        synchronized (this) {
+          batch = stopped || failure.get() != null ? null : batches.poll();
+          if (batch == null) {
+            scheduled = false;
+            notifyAll();
+            return;
+          }
+        }
+        try {
+          processor.process(batch);
+          processedOffset = batch.get(batch.size() - 1).offset();
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+        synchronized (this) {
+          queuedRecords -= batch.size();
+        }
+      }
+    }
+
+    private synchronized int getQueuedRecords() {
+      return queuedRecords;
+    }
+
+    /** Drop the queued batches and wait for the batch which is being processed */
+    private synchronized void stop() {
+      stopped = true;
+      for (List<ConsumerRecord<Object, Object>> batch : batches) {
+        queuedRecords -= batch.size();
+      }
+      batches.clear();
+      boolean interrupted = false;
+      while (scheduled) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private synchronized boolean awaitIdle(long deadline) throws InterruptedException {
+      while (scheduled) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      }
+      return true;
+    }
+  }
+}
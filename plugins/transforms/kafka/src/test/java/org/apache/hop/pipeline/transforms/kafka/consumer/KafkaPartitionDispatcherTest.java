@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.exception.HopException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KafkaPartitionDispatcherTest {
+  private static final String TOPIC = "topic";
+  private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+
+  private MockConsumer<Object, Object> consumer;
+  private KafkaPartitionDispatcher dispatcher;
+  private Map<TopicPartition, List<Long>> processedOffsets;
+
+  @Before
+  public void setUp() {
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    processedOffsets = new ConcurrentHashMap<>();
+  }
+
+  @After
+  public void tearDown() {
+    if (dispatcher != null) {
+      dispatcher.close();
+    }
+  }
+
+  private void createDispatcher(
+      KafkaPartitionDispatcher.IBatchProcessorFactory factory, int maxQueuedRecords) {
+    dispatcher = new KafkaPartitionDispatcher(consumer, factory, 2, maxQueuedRecords, "worker");
+    dispatcher.subscribe(Collections.singletonList(TOPIC));
+    consumer.rebalance(Arrays.asList(PARTITION_0, PARTITION_1));
+    Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+    beginningOffsets.put(PARTITION_0, 0L);
+    beginningOffsets.put(PARTITION_1, 0L);
+    consumer.updateBeginningOffsets(beginningOffsets);
+  }
+
+  /** Records the offsets it processes, per partition */
+  private KafkaPartitionDispatcher.IBatchProcessor recordingProcessor(TopicPartition partition) {
+    List<Long> offsets = Collections.synchronizedList(new ArrayList<>());
+    processedOffsets.put(partition, offsets);
+    return new KafkaPartitionDispatcher.IBatchProcessor() {
+      @Override
+      public void process(List<ConsumerRecord<Object, Object>> records) {
+        for (ConsumerRecord<Object, Object> record : records) {
+          offsets.add(record.offset());
+        }
+      }
+
+      @Override
+      public void close() {
+        // Nothing to close
+      }
+    };
+  }
+
+  private void addRecords(TopicPartition partition, long from, long to) {
+    for (long offset = from; offset < to; offset++) {
+      consumer.addRecord(
+          new ConsumerRecord<>(
+              partition.topic(), partition.partition(), offset, "key" + offset, "value" + offset));
+    }
+  }
+
+  private List<Long> offsets(long from, long to) {
+    List<Long> offsets = new ArrayList<>();
+    for (long offset = from; offset < to; offset++) {
+      offsets.add(offset);
+    }
+    return offsets;
+  }
+
+  @Test
+  public void testRecordsAreProcessedInOrderPerPartition() throws Exception {
+    createDispatcher(this::recordingProcessor, 1000);
+
+    addRecords(PARTITION_0, 0, 10);
+    addRecords(PARTITION_1, 0, 5);
+    assertEquals(15, dispatcher.poll(Duration.ofMillis(10)));
+    addRecords(PARTITION_0, 10, 20);
+    assertEquals(10, dispatcher.poll(Duration.ofMillis(10)));
+    assertTrue(dispatcher.awaitIdle(30, TimeUnit.SECONDS));
+
+    assertEquals(offsets(0, 20), processedOffsets.get(PARTITION_0));
+    assertEquals(offsets(0, 5), processedOffsets.get(PARTITION_1));
+    assertEquals(0, dispatcher.getQueuedRecords());
+
+    // The offsets of the processed records are committed with the next poll
+    dispatcher.poll(Duration.ofMillis(10));
+    Map<TopicPartition, OffsetAndMetadata> committed =
+        consumer.committed(new HashSet<>(Arrays.asList(PARTITION_0, PARTITION_1)));
+    assertEquals(20L, committed.get(PARTITION_0).offset());
+    assertEquals(5L, committed.get(PARTITION_1).offset());
+  }
+
+  @Test
+  public void testPartitionsAreProcessedInParallel() throws Exception {
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    createDispatcher(
+        partition ->
+            new KafkaPartitionDispatcher.IBatchProcessor() {
+              @Override
+              public void process(List<ConsumerRecord<Object, Object>> records)
+                  throws HopException {
+                bothStarted.countDown();
+                try {
+                  // Only completes when the other partition is processed at the same time
+                  if (!bothStarted.await(30, TimeUnit.SECONDS)) {
+                    throw new HopException("The partitions were not processed in parallel");
+                  }
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  throw new HopException(e);
+                }
+              }
+
+              @Override
+              public void close() {
+                // Nothing to close
+              }
+            },
+        1000);
+
+    addRecords(PARTITION_0, 0, 1);
+    addRecords(PARTITION_1, 0, 1);
+    dispatcher.poll(Duration.ofMillis(10));
+    assertTrue(dispatcher.awaitIdle(30, TimeUnit.SECONDS));
+    dispatcher.poll(Duration.ofMillis(10));
+  }
+
+  @Test
+  public void testBusyPartitionIsPaused() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    createDispatcher(
+        partition -> {
+          KafkaPartitionDispatcher.IBatchProcessor recording = recordingProcessor(partition);
+          return new KafkaPartitionDispatcher.IBatchProcessor() {
+            @Override
+            public void process(List<ConsumerRecord<Object, Object>> records) throws HopException {
+              if (partition.equals(PARTITION_0)) {
+                try {
+                  release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  throw new HopException(e);
+                }
+              }
+              recording.process(records);
+            }
+
+            @Override
+            public void close() {
+              recording.close();
+            }
+          };
+        },
+        10);
+
+    addRecords(PARTITION_0, 0, 10);
+    addRecords(PARTITION_1, 0, 10);
+    dispatcher.poll(Duration.ofMillis(10));
+    assertTrue(dispatcher.getPausedPartitions().contains(PARTITION_0));
+
+    // The records of the paused partition are not read while the other partition continues
+    addRecords(PARTITION_0, 10, 20);
+    addRecords(PARTITION_1, 10, 20);
+    assertEquals(10, dispatcher.poll(Duration.ofMillis(10)));
+
+    release.countDown();
+    assertTrue(dispatcher.awaitIdle(30, TimeUnit.SECONDS));
+    dispatcher.poll(Duration.ofMillis(10));
+    assertFalse(dispatcher.getPausedPartitions().contains(PARTITION_0));
+    assertEquals(10, dispatcher.poll(Duration.ofMillis(10)));
+    assertTrue(dispatcher.awaitIdle(30, TimeUnit.SECONDS));
+
+    assertEquals(offsets(0, 20), processedOffsets.get(PARTITION_0));
+    assertEquals(offsets(0, 20), processedOffsets.get(PARTITION_1));
+  }
+
+  @Test
+  public void testFailureIsNotCommitted() throws Exception {
+    createDispatcher(
+        partition ->
+            new KafkaPartitionDispatcher.IBatchProcessor() {
+              @Override
+              public void process(List<ConsumerRecord<Object, Object>> records)
+                  throws HopException {
+                throw new HopException("Processing failed");
+              }
+
+              @Override
+              public void close() {
+                // Nothing to close
+              }
+            },
+        1000);
+
+    addRecords(PARTITION_0, 0, 5);
+    dispatcher.poll(Duration.ofMillis(10));
+    assertTrue(dispatcher.awaitIdle(30, TimeUnit.SECONDS));
+    try {
+      dispatcher.poll(Duration.ofMillis(10));
+      fail("The failure of the worker should stop the dispatcher");
+    } catch (HopException e) {
+      // Expected
+    }
+    dispatcher.close();
+    dispatcher = null;
+
+    assertNull(consumer.committed(Collections.singleton(PARTITION_0)).get(PARTITION_0));
+  }
+
+  @Test
+  public void testRevokedPartitionCommitsProcessedRecords() throws Exception {
+    createDispatcher(this::recordingProcessor, 1000);
+
+    addRecords(PARTITION_1, 0, 3);
+    dispatcher.poll(Duration.ofMillis(10));
+    assertTrue(dispatcher.awaitIdle(30, TimeUnit.SECONDS));
+
+    dispatcher.onPartitionsRevoked(Collections.singleton(PARTITION_1));
+
+    assertEquals(
+        3L, consumer.committed(Collections.singleton(PARTITION_1)).get(PARTITION_1).offset());
+    assertEquals(0, dispatcher.getQueuedRecords());
+  }
+}
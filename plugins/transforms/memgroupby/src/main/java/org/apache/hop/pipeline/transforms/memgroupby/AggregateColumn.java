@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.util.Arrays;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType;
+
+/**
+ * The state of one aggregate for all groups, kept in primitive arrays indexed by group number. Only
+ * the aggregates which can be calculated without keeping per row data have a column: counts, and
+ * sum, average, minimum and maximum of Integer and Number subjects. The results are the same as the
+ * ones calculated with {@link Aggregate}.
+ */
+abstract class AggregateColumn {
+  protected static final int INITIAL_CAPACITY = 1024;
+
+  protected final IValueMeta subjectMeta;
+
+  protected AggregateColumn(IValueMeta subjectMeta) {
+    this.subjectMeta = subjectMeta;
+  }
+
+  /**
+   * Create a column for the given aggregation
+   *
+   * @param type the aggregation type
+   * @param subjectMeta the metadata of the subject field
+   * @param minNullIsValued true if a null value makes the minimum null
+   * @return the column or null if the aggregation needs to be kept in an {@link Aggregate}
+   */
+  static AggregateColumn create(GroupType type, IValueMeta subjectMeta, boolean minNullIsValued) {
+    switch (type) {
+      case CountAll:
+        return new CountColumn(subjectMeta, false);
+      case CountAny:
+        return new CountColumn(subjectMeta, true);
+      case Sum, Average, Minimum, Maximum:
+        if ((type == GroupType.Minimum || type == GroupType.Maximum)
+            && subjectMeta.isSortedDescending()) {
+          return null;
+        }
+        if (subjectMeta.getType() == IValueMeta.TYPE_INTEGER) {
+          return new LongColumn(subjectMeta, type, minNullIsValued);
+        }
+        if (subjectMeta.getType() == IValueMeta.TYPE_NUMBER) {
+          return new DoubleColumn(subjectMeta, type, minNullIsValued);
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  protected static int grow(int length, int group) {
+    return Math.max(length * 2, group + 1);
+  }
+
+  /**
+   * Make sure there's room for the given group
+   *
+   * @param group the group number
+   */
+  abstract void ensureCapacity(int group);
+
+  /**
+   * Add the subject value of a row to the aggregate of a group
+   *
+   * @param group the group number
+   * @param subject the subject value of the row
+   * @throws HopValueException in case the value can't be converted
+   */
+  abstract void add(int group, Object subject) throws HopValueException;
+
+  /**
+   * @param group the group number
+   * @return the aggregate value of the group in normal storage
+   */
+  abstract Object getResult(int group);
+
+  /**
+   * @return the number of bytes kept for every group
+   */
+  abstract int getBytesPerGroup();
+
+  /** Remove the state of all groups */
+  abstract void clear();
+
+  /** CountAll and CountAny */
+  static final class CountColumn extends AggregateColumn {
+    private final boolean countNulls;
+    private long[] counts = new long[INITIAL_CAPACITY];
+
+    CountColumn(IValueMeta subjectMeta, boolean countNulls) {
+      super(subjectMeta);
+      this.countNulls = countNulls;
+    }
+
+    @Override
+    void ensureCapacity(int group) {
+      if (group >= counts.length) {
+        counts = Arrays.copyOf(counts, grow(counts.length, group));
+      }
+    }
+
+    @Override
+    void add(int group, Object subject) throws HopValueException {
+      if (countNulls || !subjectMeta.isNull(subject)) {
+        counts[group]++;
+      }
+    }
+
+    @Override
+    Object getResult(int group) {
+      return counts[group];
+    }
+
+    @Override
+    int getBytesPerGroup() {
+      return 8;
+    }
+
+    @Override
+    void clear() {
+      counts = new long[INITIAL_CAPACITY];
+    }
+  }
+
+  /** Sum, average, minimum and maximum of Integer values */
+  static final class LongColumn extends AggregateColumn {
+    private final GroupType type;
+    private final boolean minNullIsValued;
+    private long[] values = new long[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private boolean[] nulls;
+
+    LongColumn(IValueMeta subjectMeta, GroupType type, boolean minNullIsValued) {
+      super(subjectMeta);
+      this.type = type;
+      this.minNullIsValued = minNullIsValued && type == GroupType.Minimum;
+      if (this.minNullIsValued) {
+        nulls = new boolean[INITIAL_CAPACITY];
+      }
+    }
+
+    @Override
+    void ensureCapacity(int group) {
+      if (group >= values.length) {
+        int length = grow(values.length, group);
+        values = Arrays.copyOf(values, length);
+        counts = Arrays.copyOf(counts, length);
+        if (nulls != null) {
+          nulls = Arrays.copyOf(nulls, length);
+        }
+      }
+    }
+
+    @Override
+    void add(int group, Object subject) throws HopValueException {
+      if (subjectMeta.isNull(subject)) {
+        if (minNullIsValued) {
+          nulls[group] = true;
+        }
+        return;
+      }
+      long value = subjectMeta.getInteger(subject);
+      if (counts[group] == 0) {
+        values[group] = value;
+      } else {
+        switch (type) {
+          case Sum, Average:
+            values[group] += value;
+            break;
+          case Minimum:
+            values[group] = Math.min(values[group], value);
+            break;
+          case Maximum:
+            values[group] = Math.max(values[group], value);
+            break;
+          default:
+            break;
+        }
+      }
+      counts[group]++;
+    }
+
+    @Override
+    Object getResult(int group) {
+      if (counts[group] == 0 || (minNullIsValued && nulls[group])) {
+        return null;
+      }
+      if (type == GroupType.Average) {
+        return values[group] / counts[group];
+      }
+      return values[group];
+    }
+
+    @Override
+    int getBytesPerGroup() {
+      return nulls == null ? 16 : 17;
+    }
+
+    @Override
+    void clear() {
+      values = new long[INITIAL_CAPACITY];
+      counts = new long[INITIAL_CAPACITY];
+      if (nulls != null) {
+        nulls = new boolean[INITIAL_CAPACITY];
+      }
+    }
+  }
+
+  /** Sum, average, minimum and maximum of Number values */
+  static final class DoubleColumn extends AggregateColumn {
+    private final GroupType type;
+    private final boolean minNullIsValued;
+    private double[] values = new double[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private boolean[] nulls;
+
+    DoubleColumn(IValueMeta subjectMeta, GroupType type, boolean minNullIsValued) {
+      super(subjectMeta);
+      this.type = type;
+      this.minNullIsValued = minNullIsValued && type == GroupType.Minimum;
+      if (this.minNullIsValued) {
+        nulls = new boolean[INITIAL_CAPACITY];
+      }
+    }
+
+    @Override
+    void ensureCapacity(int group) {
+      if (group >= values.length) {
+        int length = grow(values.length, group);
+        values = Arrays.copyOf(values, length);
+        counts = Arrays.copyOf(counts, length);
+        if (nulls != null) {
+          nulls = Arrays.copyOf(nulls, length);
+        }
+      }
+    }
+
+    @Override
+    void add(int group, Object subject) throws HopValueException {
+      if (subjectMeta.isNull(subject)) {
+        if (minNullIsValued) {
+          nulls[group] = true;
+        }
+        return;
+      }
+      double value = subjectMeta.getNumber(subject);
+      if (counts[group] == 0) {
+        values[group] = value;
+      } else {
+        switch (type) {
+          case Sum, Average:
+            values[group] += value;
+            break;
+          case Minimum:
+            // Same ordering as the Number value metadata
+            if (Double.compare(value, values[group]) < 0) {
+              values[group] = value;
+            }
+            break;
+          case Maximum:
+            if (Double.compare(value, values[group]) > 0) {
+              values[group] = value;
+            }
+            break;
+          default:
+            break;
+        }
+      }
+      counts[group]++;
+    }
+
+    @Override
+    Object getResult(int group) {
+      if (counts[group] == 0 || (minNullIsValued && nulls[group])) {
+        return null;
+      }
+      if (type == GroupType.Average) {
+        return values[group] / counts[group];
+      }
+      return values[group];
+    }
+
+    @Override
+    int getBytesPerGroup() {
+      return nulls == null ? 16 : 17;
+    }
+
+    @Override
+    void clear() {
+      values = new double[INITIAL_CAPACITY];
+      counts = new long[INITIAL_CAPACITY];
+      if (nulls != null) {
+        nulls = new boolean[INITIAL_CAPACITY];
+      }
+    }
+  }
+}
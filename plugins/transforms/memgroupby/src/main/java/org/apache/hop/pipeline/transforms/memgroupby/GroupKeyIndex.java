@@ -0,0 +1,429 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.util.Arrays;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Maps the group key of input rows to a dense group number: 0 for the first group seen, 1 for the
+ * second and so on. The group numbers are kept in an open addressing hash table with linear
+ * probing, the keys themselves are stored by group number. Single Integer, Number and String keys
+ * are stored in primitive or String arrays, any other key is stored as a row of normal storage
+ * values.
+ *
+ * <p>A lookup starts with {@link #hash(Object[])} which extracts the key of the row. {@link
+ * #find(int)} and {@link #add(int)} then work on that key.
+ */
+abstract class GroupKeyIndex {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** Hash of a null key */
+  protected static final int NULL_HASH = 0x9e3779b9;
+
+  private int[] slots;
+  private int[] hashes;
+  private int size;
+
+  /** The estimated number of bytes used by the stored keys */
+  protected long keyBytes;
+
+  protected GroupKeyIndex() {
+    slots = new int[INITIAL_CAPACITY * 2];
+    hashes = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Create the most specific index for the given group metadata
+   *
+   * @param groupMeta the metadata of the group fields
+   * @param groupnrs the positions of the group fields in the input rows
+   * @return a new empty index
+   */
+  static GroupKeyIndex create(IRowMeta groupMeta, int[] groupnrs) {
+    if (groupnrs.length == 1) {
+      IValueMeta valueMeta = groupMeta.getValueMeta(0);
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_INTEGER:
+          return new LongKeyIndex(valueMeta, groupnrs[0], false);
+        case IValueMeta.TYPE_NUMBER:
+          return new LongKeyIndex(valueMeta, groupnrs[0], true);
+        case IValueMeta.TYPE_STRING:
+          // Only when comparing strings comes down to String.equals()
+          if (valueMeta.isCollatorDisabled()
+              && valueMeta.getTrimType() == IValueMeta.TRIM_TYPE_NONE
+              && !valueMeta.isCaseInsensitive()
+              && !valueMeta.isIgnoreWhitespace()) {
+            return new StringKeyIndex(valueMeta, groupnrs[0]);
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return new RowKeyIndex(groupMeta, groupnrs);
+  }
+
+  /**
+   * Spread the bits of a 64-bit value over a 32-bit hash (the murmur3 finalizer)
+   *
+   * @param value the value to hash
+   * @return the hash
+   */
+  static int mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return (int) value;
+  }
+
+  /**
+   * Extract the key of the given input row and calculate its hash. The key becomes the current key
+   * for {@link #find(int)} and {@link #add(int)}.
+   *
+   * @param row the input row
+   * @return the hash of the key
+   * @throws HopValueException in case a key value can't be converted
+   */
+  abstract int hash(Object[] row) throws HopValueException;
+
+  /**
+   * @param group the group number
+   * @return true if the key of the group equals the current key
+   */
+  protected abstract boolean matches(int group) throws HopValueException;
+
+  /**
+   * Store the current key for a new group
+   *
+   * @param group the number of the new group
+   */
+  protected abstract void store(int group);
+
+  /**
+   * @param group the group number
+   * @return the group key values in normal storage
+   */
+  abstract Object[] getKey(int group);
+
+  /** Release the stored keys */
+  protected abstract void clearKeys();
+
+  /**
+   * Look up the group of the current key
+   *
+   * @param hash the hash of the current key
+   * @return the group number or -1 if the key wasn't added yet
+   * @throws HopValueException in case a key value can't be compared
+   */
+  int find(int hash) throws HopValueException {
+    int mask = slots.length - 1;
+    int slot = hash & mask;
+    int group;
+    while ((group = slots[slot] - 1) >= 0) {
+      if (hashes[group] == hash && matches(group)) {
+        return group;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Add the current key as a new group. The key shouldn't be present in the index yet.
+   *
+   * @param hash the hash of the current key
+   * @return the number of the new group
+   */
+  int add(int hash) {
+    int group = size;
+    if (group == hashes.length) {
+      hashes = Arrays.copyOf(hashes, group * 2);
+    }
+    hashes[group] = hash;
+    store(group);
+    size++;
+
+    if (size * 2 > slots.length) {
+      slots = new int[slots.length * 2];
+      for (int i = 0; i < size; i++) {
+        insert(i);
+      }
+    } else {
+      insert(group);
+    }
+    return group;
+  }
+
+  private void insert(int group) {
+    int mask = slots.length - 1;
+    int slot = hashes[group] & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots[slot] = group + 1;
+  }
+
+  /**
+   * @return the number of groups
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the estimated number of bytes used by the index
+   */
+  long getEstimatedBytes() {
+    return keyBytes + 4L * slots.length + 4L * hashes.length;
+  }
+
+  /** Remove all groups */
+  void clear() {
+    slots = new int[INITIAL_CAPACITY * 2];
+    hashes = new int[INITIAL_CAPACITY];
+    size = 0;
+    keyBytes = 0;
+    clearKeys();
+  }
+
+  /** A single Integer key or a single Number key stored as its long bits. */
+  static final class LongKeyIndex extends GroupKeyIndex {
+    private final IValueMeta valueMeta;
+    private final int index;
+    private final boolean numberKeys;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int nullGroup = -1;
+    private boolean currentNull;
+    private long current;
+
+    LongKeyIndex(IValueMeta valueMeta, int index, boolean numberKeys) {
+      this.valueMeta = valueMeta;
+      this.index = index;
+      this.numberKeys = numberKeys;
+    }
+
+    @Override
+    int hash(Object[] row) throws HopValueException {
+      Object value = row[index];
+      currentNull = valueMeta.isNull(value);
+      if (currentNull) {
+        return NULL_HASH;
+      }
+      if (numberKeys) {
+        // Double.compare() considers values equal when their bits are equal
+        current = Double.doubleToLongBits(valueMeta.getNumber(value));
+      } else {
+        current = valueMeta.getInteger(value);
+      }
+      return mix(current);
+    }
+
+    @Override
+    protected boolean matches(int group) {
+      if (currentNull) {
+        return group == nullGroup;
+      }
+      return group != nullGroup && keys[group] == current;
+    }
+
+    @Override
+    protected void store(int group) {
+      if (group == keys.length) {
+        keys = Arrays.copyOf(keys, group * 2);
+      }
+      if (currentNull) {
+        nullGroup = group;
+      } else {
+        keys[group] = current;
+      }
+    }
+
+    @Override
+    Object[] getKey(int group) {
+      if (group == nullGroup) {
+        return new Object[] {null};
+      }
+      if (numberKeys) {
+        return new Object[] {Double.longBitsToDouble(keys[group])};
+      }
+      return new Object[] {keys[group]};
+    }
+
+    @Override
+    long getEstimatedBytes() {
+      return super.getEstimatedBytes() + 8L * keys.length;
+    }
+
+    @Override
+    protected void clearKeys() {
+      keys = new long[INITIAL_CAPACITY];
+      nullGroup = -1;
+    }
+  }
+
+  /**
+   * A single String key compared with String.equals(). Null and empty strings are both null as far
+   * as the String value metadata is concerned so they share a group.
+   */
+  static final class StringKeyIndex extends GroupKeyIndex {
+    private final IValueMeta valueMeta;
+    private final int index;
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int nullGroup = -1;
+    private String nullKey;
+    private boolean currentNull;
+    private String current;
+
+    StringKeyIndex(IValueMeta valueMeta, int index) {
+      this.valueMeta = valueMeta;
+      this.index = index;
+    }
+
+    @Override
+    int hash(Object[] row) throws HopValueException {
+      Object value = row[index];
+      currentNull = valueMeta.isNull(value);
+      if (currentNull) {
+        current = value == null ? null : valueMeta.getString(value);
+        return NULL_HASH;
+      }
+      current = valueMeta.getString(value);
+      return mix(current.hashCode());
+    }
+
+    @Override
+    protected boolean matches(int group) {
+      if (currentNull) {
+        return group == nullGroup;
+      }
+      return group != nullGroup && current.equals(keys[group]);
+    }
+
+    @Override
+    protected void store(int group) {
+      if (group == keys.length) {
+        keys = Arrays.copyOf(keys, group * 2);
+      }
+      if (currentNull) {
+        nullGroup = group;
+        nullKey = current;
+      } else {
+        keys[group] = current;
+        keyBytes += 40L + 2L * current.length();
+      }
+    }
+
+    @Override
+    Object[] getKey(int group) {
+      if (group == nullGroup) {
+        return new Object[] {nullKey};
+      }
+      return new Object[] {keys[group]};
+    }
+
+    @Override
+    long getEstimatedBytes() {
+      return super.getEstimatedBytes() + 8L * keys.length;
+    }
+
+    @Override
+    protected void clearKeys() {
+      keys = new String[INITIAL_CAPACITY];
+      nullGroup = -1;
+      nullKey = null;
+    }
+  }
+
+  /** Any combination of key fields, stored as rows of normal storage values. */
+  static final class RowKeyIndex extends GroupKeyIndex {
+    private final IValueMeta[] valueMetas;
+    private final IValueMeta[] normalMetas;
+    private final int[] indexes;
+    private Object[][] keys = new Object[INITIAL_CAPACITY][];
+    private Object[] current;
+
+    RowKeyIndex(IRowMeta groupMeta, int[] groupnrs) {
+      this.indexes = groupnrs;
+      this.valueMetas = new IValueMeta[groupnrs.length];
+      this.normalMetas = new IValueMeta[groupnrs.length];
+      for (int i = 0; i < groupnrs.length; i++) {
+        valueMetas[i] = groupMeta.getValueMeta(i);
+        normalMetas[i] = valueMetas[i].clone();
+        normalMetas[i].setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      }
+    }
+
+    @Override
+    int hash(Object[] row) throws HopValueException {
+      current = new Object[indexes.length];
+      long hash = 1L;
+      for (int i = 0; i < indexes.length; i++) {
+        current[i] = valueMetas[i].convertToNormalStorageType(row[indexes[i]]);
+        hash = hash * 31L + normalMetas[i].hashCode(current[i]);
+      }
+      return mix(hash);
+    }
+
+    @Override
+    protected boolean matches(int group) throws HopValueException {
+      Object[] key = keys[group];
+      for (int i = 0; i < indexes.length; i++) {
+        if (normalMetas[i].compare(key[i], current[i]) != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    protected void store(int group) {
+      if (group == keys.length) {
+        keys = Arrays.copyOf(keys, group * 2);
+      }
+      keys[group] = current;
+      keyBytes += 16L + 32L * current.length;
+      for (Object value : current) {
+        if (value instanceof String) {
+          keyBytes += 2L * ((String) value).length();
+        } else if (value instanceof byte[]) {
+          keyBytes += ((byte[]) value).length;
+        }
+      }
+    }
+
+    @Override
+    Object[] getKey(int group) {
+      return keys[group];
+    }
+
+    @Override
+    long getEstimatedBytes() {
+      return super.getEstimatedBytes() + 8L * keys.length;
+    }
+
+    @Override
+    protected void clearKeys() {
+      keys = new Object[INITIAL_CAPACITY][];
+    }
+  }
+}
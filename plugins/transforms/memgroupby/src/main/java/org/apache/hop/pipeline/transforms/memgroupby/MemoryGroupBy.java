@@ -22,14 +22,17 @@ import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.Gr
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.CountDistinct;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.Percentile;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.StringJoiner;
 import java.util.TreeSet;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
@@ -38,22 +41,32 @@ import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.ValueDataUtil;
+import org.apache.hop.core.row.spill.RowSpillReader;
+import org.apache.hop.core.row.spill.RowSpillWriter;
+import org.apache.hop.core.row.spill.SpillCodec;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
-import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.SpillPartition;
 
 /** Groups information based on aggregation rules. (sum, count, ...) */
 public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupByData> {
   private static final Class<?> PKG = MemoryGroupByMeta.class;
 
+  /** The maximum number of times the rows of a partition are spread over new partitions */
+  private static final int MAX_SPILL_LEVEL = 6;
+
+  /** The number of partitions the rows of new groups are spread over once memory is full */
+  private static final int SPILL_PARTITIONS = 16;
+
   private boolean allNullsAreZero = false;
   private boolean minNullIsValued = false;
 
@@ -160,6 +173,10 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       data.groupAggMeta = new RowMeta();
       data.groupAggMeta.addRowMeta(data.groupMeta);
       data.groupAggMeta.addRowMeta(data.aggMeta);
+
+      if (r != null) {
+        initAggregation();
+      }
     }
 
     // Here is where we start to do the real work...
@@ -188,29 +205,29 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   }
 
   private void handleLastOfGroup() throws HopException {
-    // Dump the content of the map...
-    //
-    for (HashEntry entry : data.map.keySet()) {
-      Aggregate aggregate = data.map.get(entry);
-      Object[] aggregateResult = getAggregateResult(aggregate);
-
-      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
-      int index = 0;
-      for (int i = 0; i < data.groupMeta.size(); i++) {
-        outputRowData[index++] =
-            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
-      }
-      for (int i = 0; i < data.aggMeta.size(); i++) {
-        outputRowData[index++] =
-            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+    boolean hasGroups =
+        data.keys != null
+            && (data.keys.size() > 0
+                || data.spillWriters != null
+                || !data.spilledPartitions.isEmpty());
+
+    if (data.keys != null) {
+      // Dump the groups in memory, then aggregate the rows spilled to disk one partition at a time
+      //
+      outputGroups();
+      closeSpillPartitions();
+      while (!data.spilledPartitions.isEmpty() && !isStopped()) {
+        aggregateSpillPartition(data.spilledPartitions.pop());
+        outputGroups();
+        closeSpillPartitions();
       }
-      putRow(data.outputRowMeta, outputRowData);
+      data.spillLevel = 0;
     }
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if (data.map.isEmpty() && meta.isAlwaysGivingBackOneRow()) {
+    if (!hasGroups && meta.isAlwaysGivingBackOneRow()) {
       Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
       int index = 0;
       for (int i = 0; i < data.groupMeta.size(); i++) {
@@ -230,6 +247,80 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  /** Send out the groups in memory and clear them. */
+  private void outputGroups() throws HopException {
+    for (int group = 0; group < data.keys.size(); group++) {
+      Object[] groupData = data.keys.getKey(group);
+      Object[] aggregateResult = getAggregateResult(group);
+
+      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+      int index = 0;
+      for (int i = 0; i < data.groupMeta.size(); i++) {
+        outputRowData[index++] = groupData[i];
+      }
+      for (int i = 0; i < data.aggMeta.size(); i++) {
+        outputRowData[index++] =
+            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+      }
+      putRow(data.outputRowMeta, outputRowData);
+    }
+    data.clear();
+  }
+
+  /**
+   * Set up the group key index and decide per aggregate whether it's kept in a primitive column or
+   * in the {@link Aggregate} of the group.
+   */
+  private void initAggregation() {
+    data.keys = GroupKeyIndex.create(data.groupMeta, data.groupnrs);
+    data.columns = new AggregateColumn[data.subjectnrs.length];
+    data.bytesPerGroup = 0;
+
+    int aggregateCount = 0;
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+      AggregateColumn column =
+          AggregateColumn.create(meta.getAggregates().get(i).getType(), subjMeta, minNullIsValued);
+      if (column == null) {
+        aggregateCount++;
+      } else {
+        // Columns calculate their result in normal storage
+        //
+        data.aggMeta.getValueMeta(i).setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+        data.bytesPerGroup += column.getBytesPerGroup();
+      }
+      data.columns[i] = column;
+    }
+
+    if (aggregateCount > 0) {
+      data.aggregates = new Aggregate[AggregateColumn.INITIAL_CAPACITY];
+      // The aggregate, its arrays and the initial value of every aggregate
+      data.bytesPerGroup += 120 + 24 * data.subjectnrs.length + 48 * aggregateCount;
+    } else {
+      data.aggregates = null;
+    }
+
+    data.memoryLimit = getMemoryLimit();
+  }
+
+  private long getMemoryLimit() {
+    String limit = resolve(meta.getMemoryLimit());
+    if (!Utils.isEmpty(limit)) {
+      long megabytes = Const.toLong(limit, -1L);
+      if (megabytes > 0) {
+        return megabytes * 1024 * 1024;
+      }
+      logError(BaseMessages.getString(PKG, "MemoryGroupBy.Log.InvalidMemoryLimit", limit));
+    }
+    return Runtime.getRuntime().maxMemory() / 4;
+  }
+
+  private long getEstimatedMemory() {
+    return data.keys.getEstimatedBytes()
+        + (long) data.bytesPerGroup * data.keys.size()
+        + data.aggregateBytes;
+  }
+
   /**
    * Used for junits in MemoryGroupByAggregationNullsTest
    *
@@ -237,160 +328,289 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
    * @throws HopException
    */
   void addToAggregate(Object[] r) throws HopException {
+    int hash = data.keys.hash(r);
+    int group = data.keys.find(hash);
+    if (group < 0) {
+      if (data.spillWriters != null) {
+        // Memory is full, the group is aggregated later on from the partition file
+        //
+        spillRow(r, hash);
+        return;
+      }
+      group = addGroup(r, hash);
+    }
 
-    Object[] groupData = new Object[data.groupMeta.size()];
-    for (int i = 0; i < data.groupnrs.length; i++) {
-      groupData[i] = r[data.groupnrs[i]];
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      AggregateColumn column = data.columns[i];
+      if (column != null) {
+        column.add(group, r[data.subjectnrs[i]]);
+      } else {
+        updateAggregate(data.aggregates[group], i, r);
+      }
     }
-    HashEntry entry = data.getHashEntry(groupData);
 
-    Aggregate aggregate = data.map.get(entry);
-    if (aggregate == null) {
-      // Create a new value...
-      //
-      aggregate = new Aggregate();
+    if (data.spillWriters == null
+        && data.spillLevel < MAX_SPILL_LEVEL
+        && getEstimatedMemory() > data.memoryLimit) {
+      if (log.isBasic()) {
+        logBasic(
+            BaseMessages.getString(
+                PKG,
+                "MemoryGroupBy.Log.SpillingToDisk",
+                Integer.toString(data.keys.size()),
+                Integer.toString(data.spillLevel)));
+      }
+      data.spillFiles = new FileObject[SPILL_PARTITIONS];
+      data.spillWriters = new RowSpillWriter[SPILL_PARTITIONS];
+    }
+  }
+
+  private int addGroup(Object[] r, int hash) throws HopException {
+    int group = data.keys.add(hash);
+    for (AggregateColumn column : data.columns) {
+      if (column != null) {
+        column.ensureCapacity(group);
+      }
+    }
+    if (data.aggregates != null) {
+      if (group >= data.aggregates.length) {
+        data.aggregates = Arrays.copyOf(data.aggregates, data.aggregates.length * 2);
+      }
+      Aggregate aggregate = new Aggregate();
       newAggregate(r, aggregate);
+      data.aggregates[group] = aggregate;
+    }
+    return group;
+  }
 
-      // Store it in the map!
-      //
-      data.map.put(entry, aggregate);
+  /**
+   * Write a row to the partition file for its hash. Every spill level uses the next 4 bits of the
+   * hash so that the groups of a partition are spread over new partitions if they still don't fit
+   * in memory.
+   */
+  private void spillRow(Object[] r, int hash) throws HopException {
+    int partition = (hash >>> (28 - 4 * data.spillLevel)) & (SPILL_PARTITIONS - 1);
+    RowSpillWriter writer = data.spillWriters[partition];
+    if (writer == null) {
+      FileObject file =
+          HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()), this);
+      data.spillFiles[partition] = file;
+      try {
+        writer =
+            new RowSpillWriter(
+                data.inputRowMeta,
+                HopVfs.getOutputStream(file, false),
+                SpillCodec.getCodec(this, false));
+      } catch (IOException e) {
+        throw new HopException("Unable to create temp file " + file, e);
+      }
+      data.spillWriters[partition] = writer;
     }
+    writer.writeRow(r);
+    data.spilledRows++;
+  }
 
-    for (int i = 0; i < data.subjectnrs.length; i++) {
-      Object subj = r[data.subjectnrs[i]];
-      IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
-      Object value = aggregate.agg[i];
-      IValueMeta valueMeta = data.aggMeta.getValueMeta(i);
-      GAggregate agg = meta.getAggregates().get(i);
+  /** Finish writing the partition files and queue them for aggregation. */
+  private void closeSpillPartitions() throws HopException {
+    if (data.spillWriters == null) {
+      return;
+    }
+    for (int partition = 0; partition < SPILL_PARTITIONS; partition++) {
+      RowSpillWriter writer = data.spillWriters[partition];
+      if (writer != null) {
+        try {
+          writer.close();
+        } catch (IOException e) {
+          throw new HopException("Unable to close temp file", e);
+        }
+        data.spilledPartitions.push(
+            new SpillPartition(data.spillFiles[partition], data.spillLevel + 1));
+      }
+    }
+    data.spillWriters = null;
+    data.spillFiles = null;
+  }
 
-      switch (agg.getType()) {
-        case Sum:
+  private void aggregateSpillPartition(SpillPartition partition) throws HopException {
+    data.spillLevel = partition.level;
+    try (RowSpillReader reader =
+        new RowSpillReader(data.inputRowMeta, HopVfs.getInputStream(partition.file))) {
+      Object[] row;
+      while ((row = reader.readRow()) != null && !isStopped()) {
+        addToAggregate(row);
+      }
+    } catch (IOException e) {
+      throw new HopException("Unable to read temp file", e);
+    } finally {
+      deleteFile(partition.file);
+    }
+  }
+
+  private void deleteSpillFiles() {
+    if (data.spillWriters != null) {
+      for (int partition = 0; partition < SPILL_PARTITIONS; partition++) {
+        closeQuietly(data.spillWriters[partition]);
+        deleteFile(data.spillFiles[partition]);
+      }
+      data.spillWriters = null;
+      data.spillFiles = null;
+    }
+    while (!data.spilledPartitions.isEmpty()) {
+      deleteFile(data.spilledPartitions.pop().file);
+    }
+  }
+
+  private void deleteFile(FileObject file) {
+    try {
+      if (file != null && file.exists()) {
+        file.delete();
+      }
+    } catch (FileSystemException e) {
+      logError(e.getLocalizedMessage(), e);
+    }
+  }
+
+  private void updateAggregate(Aggregate aggregate, int i, Object[] r) throws HopException {
+    Object subj = r[data.subjectnrs[i]];
+    IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+    Object value = aggregate.agg[i];
+    IValueMeta valueMeta = data.aggMeta.getValueMeta(i);
+    GAggregate agg = meta.getAggregates().get(i);
+
+    switch (agg.getType()) {
+      case Sum:
+        aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+        break;
+      case Average:
+        if (!subjMeta.isNull(subj)) {
           aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
-          break;
-        case Average:
-          if (!subjMeta.isNull(subj)) {
-            aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
-            aggregate.counts[i]++;
-          }
-          break;
-        case Median, Percentile:
-          if (!subjMeta.isNull(subj)) {
-            ((List<Double>) aggregate.agg[i]).add(subjMeta.getNumber(subj));
-          }
-          break;
-        case StandardDeviation:
-          if (aggregate.mean == null) {
-            aggregate.mean = new double[meta.getAggregates().size()];
-          }
           aggregate.counts[i]++;
-          double n = aggregate.counts[i];
-          double x = subjMeta.getNumber(subj);
-          // for standard deviation null is exact 0
-          double sum = value == null ? Double.valueOf(0) : (Double) value;
-          double mean = aggregate.mean[i];
-
-          double delta = x - mean;
-          mean = mean + (delta / n);
-          sum = sum + delta * (x - mean);
-
-          aggregate.mean[i] = mean;
-          aggregate.agg[i] = sum;
-          break;
-        case CountDistinct:
-          if (aggregate.distinctObjs == null) {
-            aggregate.distinctObjs = new Set[meta.getAggregates().size()];
-          }
-          if (aggregate.distinctObjs[i] == null) {
-            aggregate.distinctObjs[i] = new TreeSet<>();
+        }
+        break;
+      case Median, Percentile:
+        if (!subjMeta.isNull(subj)) {
+          ((List<Double>) aggregate.agg[i]).add(subjMeta.getNumber(subj));
+          data.aggregateBytes += 24;
+        }
+        break;
+      case StandardDeviation:
+        if (aggregate.mean == null) {
+          aggregate.mean = new double[meta.getAggregates().size()];
+        }
+        aggregate.counts[i]++;
+        double n = aggregate.counts[i];
+        double x = subjMeta.getNumber(subj);
+        // for standard deviation null is exact 0
+        double sum = value == null ? Double.valueOf(0) : (Double) value;
+        double mean = aggregate.mean[i];
+
+        double delta = x - mean;
+        mean = mean + (delta / n);
+        sum = sum + delta * (x - mean);
+
+        aggregate.mean[i] = mean;
+        aggregate.agg[i] = sum;
+        break;
+      case CountDistinct:
+        if (aggregate.distinctObjs == null) {
+          aggregate.distinctObjs = new Set[meta.getAggregates().size()];
+        }
+        if (aggregate.distinctObjs[i] == null) {
+          aggregate.distinctObjs[i] = new TreeSet<>();
+        }
+        if (!subjMeta.isNull(subj)) {
+          Object obj = subjMeta.convertToNormalStorageType(subj);
+          // byte [] is not Comparable and can not be added to TreeSet.
+          // For our case it can be binary array. It was typed as String.
+          // So it can be processing (comparing and displaying) correctly as String
+          if (obj instanceof byte[]) {
+            obj = new String((byte[]) obj);
           }
-          if (!subjMeta.isNull(subj)) {
-            Object obj = subjMeta.convertToNormalStorageType(subj);
-            // byte [] is not Comparable and can not be added to TreeSet.
-            // For our case it can be binary array. It was typed as String.
-            // So it can be processing (comparing and displaying) correctly as String
-            if (obj instanceof byte[]) {
-              obj = new String((byte[]) obj);
-            }
-            if (!aggregate.distinctObjs[i].contains(obj)) {
-              aggregate.distinctObjs[i].add(obj);
-            }
+          if (aggregate.distinctObjs[i].add(obj)) {
+            data.aggregateBytes += 64;
           }
-          aggregate.counts[i] = aggregate.distinctObjs[i].size();
-          break;
-        case CountAll:
-          if (!subjMeta.isNull(subj)) {
-            aggregate.counts[i]++;
-          }
-          break;
-        case CountAny:
+        }
+        aggregate.counts[i] = aggregate.distinctObjs[i].size();
+        break;
+      case CountAll:
+        if (!subjMeta.isNull(subj)) {
           aggregate.counts[i]++;
-          break;
-        case Minimum:
-          boolean subjIsNull = subjMeta.isNull(subj);
-          boolean valueIsNull = valueMeta.isNull(value);
-          if (minNullIsValued || (!subjIsNull && !valueIsNull)) {
-            // do not compare null
-            aggregate.agg[i] = subjMeta.compare(subj, valueMeta, value) < 0 ? subj : value;
-          } else if (valueIsNull && !subjIsNull) {
-            // By default set aggregate to first not null value
-            aggregate.agg[i] = subj;
-          }
-          break;
-        case Maximum:
-          if (subjMeta.compare(subj, valueMeta, value) > 0) {
-            aggregate.agg[i] = subj;
-          }
-          break;
-        case First:
-          if (!subjMeta.isNull(subj) && value == null) {
-            aggregate.agg[i] = subj;
-          }
-          break;
-        case Last:
-          if (!subjMeta.isNull(subj)) {
-            aggregate.agg[i] = subj;
-          }
-          break;
-        case FirstIncludingNull:
-          if (aggregate.counts[i] == 0) {
-            aggregate.agg[i] = subj;
-            aggregate.counts[i]++;
-          }
-          break;
-        case LastIncludingNull:
+        }
+        break;
+      case CountAny:
+        aggregate.counts[i]++;
+        break;
+      case Minimum:
+        boolean subjIsNull = subjMeta.isNull(subj);
+        boolean valueIsNull = valueMeta.isNull(value);
+        if (minNullIsValued || (!subjIsNull && !valueIsNull)) {
+          // do not compare null
+          aggregate.agg[i] = subjMeta.compare(subj, valueMeta, value) < 0 ? subj : value;
+        } else if (valueIsNull && !subjIsNull) {
+          // By default set aggregate to first not null value
           aggregate.agg[i] = subj;
-          break;
-        case ConcatComma:
-          if (subj != null) {
-            StringBuilder sb = (StringBuilder) value;
-            if (sb.length() > 0) {
-              sb.append(", ");
-            }
-            sb.append(subjMeta.getString(subj));
+        }
+        break;
+      case Maximum:
+        if (subjMeta.compare(subj, valueMeta, value) > 0) {
+          aggregate.agg[i] = subj;
+        }
+        break;
+      case First:
+        if (!subjMeta.isNull(subj) && value == null) {
+          aggregate.agg[i] = subj;
+        }
+        break;
+      case Last:
+        if (!subjMeta.isNull(subj)) {
+          aggregate.agg[i] = subj;
+        }
+        break;
+      case FirstIncludingNull:
+        if (aggregate.counts[i] == 0) {
+          aggregate.agg[i] = subj;
+          aggregate.counts[i]++;
+        }
+        break;
+      case LastIncludingNull:
+        aggregate.agg[i] = subj;
+        break;
+      case ConcatComma:
+        if (subj != null) {
+          StringBuilder sb = (StringBuilder) value;
+          int length = sb.length();
+          if (length > 0) {
+            sb.append(", ");
           }
-          break;
-        case ConcatString:
-          if (subj != null) {
-            String separator = "";
-            if (!Utils.isEmpty(agg.getValueField())) {
-              separator = resolve(agg.getValueField());
-            }
-            StringBuilder sb = (StringBuilder) value;
-            if (sb.length() > 0) {
-              sb.append(separator);
-            }
-            sb.append(subjMeta.getString(subj));
+          sb.append(subjMeta.getString(subj));
+          data.aggregateBytes += 2L * (sb.length() - length);
+        }
+        break;
+      case ConcatString:
+        if (subj != null) {
+          String separator = "";
+          if (!Utils.isEmpty(agg.getValueField())) {
+            separator = resolve(agg.getValueField());
           }
-          break;
-        case ConcatDistinct:
-          if (subj != null) {
-            SortedSet<Object> set = (SortedSet<Object>) value;
-            set.add(subj);
+          StringBuilder sb = (StringBuilder) value;
+          int length = sb.length();
+          if (length > 0) {
+            sb.append(separator);
           }
-          break;
-        default:
-          break;
-      }
+          sb.append(subjMeta.getString(subj));
+          data.aggregateBytes += 2L * (sb.length() - length);
+        }
+        break;
+      case ConcatDistinct:
+        if (subj != null) {
+          SortedSet<Object> set = (SortedSet<Object>) value;
+          if (set.add(subj)) {
+            data.aggregateBytes += 64;
+          }
+        }
+        break;
+      default:
+        break;
     }
   }
 
@@ -490,94 +710,110 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     Object[] result = new Object[data.subjectnrs.length];
 
     for (int i = 0; i < data.subjectnrs.length; i++) {
-      GAggregate agg = meta.getAggregates().get(i);
-      Object ag = aggregate.agg[i];
-      switch (agg.getType()) {
-        case Sum:
-          break;
-        case Average:
-          ag =
-              ValueDataUtil.divide(
-                  data.aggMeta.getValueMeta(i), ag, new ValueMetaInteger("c"), aggregate.counts[i]);
-          break;
-        case Median, Percentile:
-          double percentile = 50.0;
-          if (agg.getType() == Percentile) {
-            percentile = Double.parseDouble(agg.getValueField());
-          }
-          List<Double> valuesList = (List<Double>) aggregate.agg[i];
-          double[] values = new double[valuesList.size()];
-          for (int v = 0; v < values.length; v++) {
-            values[v] = valuesList.get(v);
-          }
-          ag = new Percentile().evaluate(values, percentile);
-          break;
-        case CountAll, CountAny, CountDistinct:
-          ag = aggregate.counts[i];
-          break;
-        case Minimum:
-          break;
-        case Maximum:
-          break;
-        case StandardDeviation:
-          double sum = (Double) ag / aggregate.counts[i];
-          ag = Math.sqrt(sum);
-          break;
-        case ConcatComma, ConcatString:
-          ag = ((StringBuilder) ag).toString();
-          break;
-        case ConcatDistinct:
-          IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
-          String separator = "";
-          if (!Utils.isEmpty(agg.getValueField())) {
-            separator = resolve(agg.getValueField());
-          }
-          StringJoiner joiner = new StringJoiner(separator);
-          for (Object value : (SortedSet<Object>) ag) {
-            joiner.add(subjMeta.getString(value));
-          }
-          ag = joiner.toString();
-          break;
-        default:
-          break;
-      }
-      if (ag == null && allNullsAreZero) {
-        // seems all rows for min function was nulls...
-        IValueMeta vm = data.aggMeta.getValueMeta(i);
-        ag = ValueDataUtil.getZeroForValueMetaType(vm);
+      result[i] = nullToZero(i, getAggregateValue(aggregate, i));
+    }
+
+    return result;
+  }
+
+  private Object[] getAggregateResult(int group) throws HopValueException {
+    Object[] result = new Object[data.subjectnrs.length];
+
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      Object ag;
+      if (data.columns[i] != null) {
+        ag = data.columns[i].getResult(group);
+      } else {
+        ag = getAggregateValue(data.aggregates[group], i);
       }
-      result[i] = ag;
+      result[i] = nullToZero(i, ag);
     }
 
     return result;
   }
 
-  @Override
-  public boolean init() {
+  private Object nullToZero(int i, Object ag) throws HopValueException {
+    if (ag == null && allNullsAreZero) {
+      // seems all rows for min function was nulls...
+      IValueMeta vm = data.aggMeta.getValueMeta(i);
+      ag = ValueDataUtil.getZeroForValueMetaType(vm);
+    }
+    return ag;
+  }
 
-    if (super.init()) {
-      data.map = new HashMap<>(5000);
-      return true;
+  private Object getAggregateValue(Aggregate aggregate, int i) throws HopValueException {
+    GAggregate agg = meta.getAggregates().get(i);
+    Object ag = aggregate.agg[i];
+    switch (agg.getType()) {
+      case Sum:
+        break;
+      case Average:
+        ag =
+            ValueDataUtil.divide(
+                data.aggMeta.getValueMeta(i), ag, new ValueMetaInteger("c"), aggregate.counts[i]);
+        break;
+      case Median, Percentile:
+        double percentile = 50.0;
+        if (agg.getType() == Percentile) {
+          percentile = Double.parseDouble(agg.getValueField());
+        }
+        List<Double> valuesList = (List<Double>) aggregate.agg[i];
+        double[] values = new double[valuesList.size()];
+        for (int v = 0; v < values.length; v++) {
+          values[v] = valuesList.get(v);
+        }
+        ag = new Percentile().evaluate(values, percentile);
+        break;
+      case CountAll, CountAny, CountDistinct:
+        ag = aggregate.counts[i];
+        break;
+      case Minimum:
+        break;
+      case Maximum:
+        break;
+      case StandardDeviation:
+        double sum = (Double) ag / aggregate.counts[i];
+        ag = Math.sqrt(sum);
+        break;
+      case ConcatComma, ConcatString:
+        ag = ((StringBuilder) ag).toString();
+        break;
+      case ConcatDistinct:
+        IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+        String separator = "";
+        if (!Utils.isEmpty(agg.getValueField())) {
+          separator = resolve(agg.getValueField());
+        }
+        StringJoiner joiner = new StringJoiner(separator);
+        for (Object value : (SortedSet<Object>) ag) {
+          joiner.add(subjMeta.getString(value));
+        }
+        ag = joiner.toString();
+        break;
+      default:
+        break;
     }
-    return false;
+    return ag;
   }
 
   @Override
   public void dispose() {
+    deleteSpillFiles();
+    if (data.spilledRows > 0 && log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG, "MemoryGroupBy.Log.SpilledRows", Long.toString(data.spilledRows)));
+    }
     super.dispose();
     ((MemoryGroupByData) data).clear();
   }
 
   @Override
   public void batchComplete() throws HopException {
-    // Empty the hash table
+    // Empty the hash table, this also clears the complete cache...
     //
     handleLastOfGroup();
 
-    // Clear the complete cache...
-    //
-    data.map.clear();
-
     data.newBatch = true;
   }
 
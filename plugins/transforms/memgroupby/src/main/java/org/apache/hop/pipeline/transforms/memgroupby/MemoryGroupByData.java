@@ -17,55 +17,48 @@
 
 package org.apache.hop.pipeline.transforms.memgroupby;
 
-import java.util.HashMap;
-import org.apache.hop.core.exception.HopValueException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.spill.RowSpillWriter;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
 @SuppressWarnings("java:S1104")
 public class MemoryGroupByData extends BaseTransformData implements ITransformData {
-  public class HashEntry {
-    private Object[] groupData;
+  /** Maps the group keys to dense group numbers */
+  GroupKeyIndex keys;
 
-    public HashEntry(Object[] groupData) {
-      this.groupData = groupData;
-    }
+  /** The aggregates kept in primitive arrays, null for those kept in {@link #aggregates} */
+  AggregateColumn[] columns;
 
-    public Object[] getGroupData() {
-      return groupData;
-    }
+  /** The aggregates without column, by group number. Null if all aggregates have a column. */
+  Aggregate[] aggregates;
 
-    public boolean equals(Object obj) {
-      HashEntry entry = (HashEntry) obj;
+  /** The estimated number of bytes kept for every group by the columns and aggregates */
+  int bytesPerGroup;
 
-      try {
-        return groupMeta.compare(groupData, entry.groupData) == 0;
-      } catch (HopValueException e) {
-        throw new RuntimeException(e);
-      }
-    }
+  /** The estimated number of bytes the aggregates grew with after their creation */
+  long aggregateBytes;
 
-    public int hashCode() {
-      try {
-        return groupMeta.hashCode(getHashValue());
-      } catch (HopValueException e) {
-        throw new RuntimeException(e);
-      }
-    }
+  /** The estimated number of bytes that can be used before rows are spilled to disk */
+  long memoryLimit;
 
-    private Object[] getHashValue() throws HopValueException {
-      Object[] groupDataHash = new Object[groupMeta.size()];
-      for (int i = 0; i < groupMeta.size(); i++) {
-        IValueMeta valueMeta = groupMeta.getValueMeta(i);
-        groupDataHash[i] = valueMeta.convertToNormalStorageType(groupData[i]);
-      }
-      return groupDataHash;
-    }
-  }
+  /** The spill level of the rows being aggregated, 0 for the input rows */
+  int spillLevel;
+
+  /** The partition files rows of new groups are written to, null when not spilling */
+  FileObject[] spillFiles;
+
+  RowSpillWriter[] spillWriters;
 
-  public HashMap<HashEntry, Aggregate> map;
+  /** The partition files still to aggregate */
+  Deque<SpillPartition> spilledPartitions = new ArrayDeque<>();
+
+  /** The number of rows written to partition files */
+  long spilledRows;
 
   public IRowMeta aggMeta;
   public IRowMeta groupMeta;
@@ -93,12 +86,32 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
     super();
   }
 
-  public HashEntry getHashEntry(Object[] groupData) {
-    return new HashEntry(groupData);
-  }
-
   /** Method responsible for clearing out memory hogs */
   public void clear() {
-    map = new HashMap<>();
+    if (keys != null) {
+      keys.clear();
+    }
+    if (columns != null) {
+      for (AggregateColumn column : columns) {
+        if (column != null) {
+          column.clear();
+        }
+      }
+    }
+    if (aggregates != null) {
+      aggregates = new Aggregate[AggregateColumn.INITIAL_CAPACITY];
+    }
+    aggregateBytes = 0;
+  }
+
+  /** A file with the rows of the groups which didn't fit in memory */
+  static final class SpillPartition {
+    final FileObject file;
+    final int level;
+
+    SpillPartition(FileObject file, int level) {
+      this.file = file;
+      this.level = level;
+    }
   }
 }
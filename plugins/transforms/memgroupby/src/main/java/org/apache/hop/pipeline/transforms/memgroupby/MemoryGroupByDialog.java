@@ -33,6 +33,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyListener;
@@ -57,6 +58,12 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
 
   private Button wAlwaysAddResult;
 
+  private TextVar wMemoryLimit;
+
+  private TextVar wSortDir;
+
+  private Text wPrefix;
+
   private final MemoryGroupByMeta input;
 
   private ColumnInfo[] ciKey;
@@ -144,12 +151,87 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     wAlwaysAddResult.setLayoutData(fdAlwaysAddResult);
     wAlwaysAddResult.addSelectionListener(lsSel);
 
+    // Memory limit line...
+    //
+    Label wlMemoryLimit = new Label(shell, SWT.RIGHT);
+    wlMemoryLimit.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.MemoryLimit.Label"));
+    wlMemoryLimit.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MemoryLimit.Tooltip"));
+    PropsUi.setLook(wlMemoryLimit);
+    FormData fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment(0, 0);
+    fdlMemoryLimit.right = new FormAttachment(middle, -margin);
+    fdlMemoryLimit.top = new FormAttachment(wAlwaysAddResult, margin);
+    wlMemoryLimit.setLayoutData(fdlMemoryLimit);
+    wMemoryLimit = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMemoryLimit.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MemoryLimit.Tooltip"));
+    PropsUi.setLook(wMemoryLimit);
+    wMemoryLimit.addModifyListener(lsMod);
+    FormData fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment(middle, 0);
+    fdMemoryLimit.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdMemoryLimit.right = new FormAttachment(100, 0);
+    wMemoryLimit.setLayoutData(fdMemoryLimit);
+
+    // Temp directory line...
+    //
+    Label wlSortDir = new Label(shell, SWT.RIGHT);
+    wlSortDir.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.TempDir.Label"));
+    PropsUi.setLook(wlSortDir);
+    FormData fdlSortDir = new FormData();
+    fdlSortDir.left = new FormAttachment(0, 0);
+    fdlSortDir.right = new FormAttachment(middle, -margin);
+    fdlSortDir.top = new FormAttachment(wMemoryLimit, margin);
+    wlSortDir.setLayoutData(fdlSortDir);
+
+    Button wbSortDir = new Button(shell, SWT.PUSH | SWT.CENTER);
+    PropsUi.setLook(wbSortDir);
+    wbSortDir.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Browse.Button"));
+    FormData fdbSortDir = new FormData();
+    fdbSortDir.right = new FormAttachment(100, 0);
+    fdbSortDir.top = new FormAttachment(wMemoryLimit, margin);
+    wbSortDir.setLayoutData(fdbSortDir);
+
+    wSortDir = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wSortDir);
+    wSortDir.addModifyListener(lsMod);
+    FormData fdSortDir = new FormData();
+    fdSortDir.left = new FormAttachment(middle, 0);
+    fdSortDir.top = new FormAttachment(wMemoryLimit, margin);
+    fdSortDir.right = new FormAttachment(wbSortDir, -margin);
+    wSortDir.setLayoutData(fdSortDir);
+    wbSortDir.addListener(
+        SWT.Selection, e -> BaseDialog.presentDirectoryDialog(shell, wSortDir, variables));
+
+    // Whenever something changes, set the tooltip to the expanded version:
+    wSortDir.addModifyListener(e -> wSortDir.setToolTipText(variables.resolve(wSortDir.getText())));
+
+    // Prefix line...
+    //
+    Label wlPrefix = new Label(shell, SWT.RIGHT);
+    wlPrefix.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.TempFilePrefix.Label"));
+    PropsUi.setLook(wlPrefix);
+    FormData fdlPrefix = new FormData();
+    fdlPrefix.left = new FormAttachment(0, 0);
+    fdlPrefix.right = new FormAttachment(middle, -margin);
+    fdlPrefix.top = new FormAttachment(wbSortDir, margin);
+    wlPrefix.setLayoutData(fdlPrefix);
+    wPrefix = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPrefix);
+    wPrefix.addModifyListener(lsMod);
+    FormData fdPrefix = new FormData();
+    fdPrefix.left = new FormAttachment(middle, 0);
+    fdPrefix.top = new FormAttachment(wbSortDir, margin);
+    fdPrefix.right = new FormAttachment(100, 0);
+    wPrefix.setLayoutData(fdPrefix);
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Group.Label"));
     PropsUi.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlAlwaysAddResult, 2 * margin);
+    fdlGroup.top = new FormAttachment(wPrefix, 2 * margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int groupCols = 1;
@@ -306,6 +388,9 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     logDebug(BaseMessages.getString(PKG, "MemoryGroupByDialog.Log.GettingKeyInfo"));
 
     wAlwaysAddResult.setSelection(input.isAlwaysGivingBackOneRow());
+    wMemoryLimit.setText(Const.NVL(input.getMemoryLimit(), ""));
+    wSortDir.setText(Const.NVL(input.getDirectory(), ""));
+    wPrefix.setText(Const.NVL(input.getPrefix(), ""));
 
     for (int i = 0; i < input.getGroups().size(); i++) {
       TableItem item = wGroup.table.getItem(i);
@@ -342,6 +427,9 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     }
 
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
+    input.setMemoryLimit(wMemoryLimit.getText());
+    input.setDirectory(wSortDir.getText());
+    input.setPrefix(wPrefix.getText());
 
     input.getGroups().clear();
     for (TableItem item : wGroup.getNonEmptyItems()) {
@@ -82,9 +82,33 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       injectionKeyDescription = "MemoryGroupBy.Injection.ALWAYSGIVINGBACKONEROW")
   private boolean alwaysGivingBackOneRow;
 
+  /** Directory to store the temp files with the rows of the groups which don't fit in memory */
+  @HopMetadataProperty(
+      injectionKey = "TEMP_DIRECTORY",
+      injectionKeyDescription = "MemoryGroupBy.Injection.TEMP_DIRECTORY")
+  private String directory;
+
+  /** Temp files prefix... */
+  @HopMetadataProperty(
+      injectionKey = "TEMP_FILE_PREFIX",
+      injectionKeyDescription = "MemoryGroupBy.Injection.TEMP_FILE_PREFIX")
+  private String prefix;
+
+  /**
+   * The memory in MB the groups can use before the rows of new groups are written to temp files.
+   * Empty means a quarter of the maximum heap size.
+   */
+  @HopMetadataProperty(
+      key = "memory_limit",
+      injectionKey = "MEMORY_LIMIT",
+      injectionKeyDescription = "MemoryGroupBy.Injection.MEMORY_LIMIT")
+  private String memoryLimit;
+
   public MemoryGroupByMeta() {
     this.groups = new ArrayList<>();
     this.aggregates = new ArrayList<>();
+    this.directory = "${java.io.tmpdir}";
+    this.prefix = "mgrp";
   }
 
   public MemoryGroupByMeta(MemoryGroupByMeta meta) {
@@ -96,6 +120,9 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       aggregates.add(new GAggregate(aggregate));
     }
     this.alwaysGivingBackOneRow = meta.alwaysGivingBackOneRow;
+    this.directory = meta.directory;
+    this.prefix = meta.prefix;
+    this.memoryLimit = meta.memoryLimit;
   }
 
   @Override
@@ -464,6 +491,60 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * Gets directory
+   *
+   * @return value of directory
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Sets directory
+   *
+   * @param directory value of directory
+   */
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Gets prefix
+   *
+   * @return value of prefix
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * Sets prefix
+   *
+   * @param prefix value of prefix
+   */
+  public void setPrefix(String prefix) {
+    this.prefix = prefix;
+  }
+
+  /**
+   * Gets memoryLimit
+   *
+   * @return value of memoryLimit
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * Sets memoryLimit
+   *
+   * @param memoryLimit value of memoryLimit
+   */
+  public void setMemoryLimit(String memoryLimit) {
+    this.memoryLimit = memoryLimit;
+  }
+
   @Override
   public boolean supportsMultiCopyExecution() {
     return false;
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class GroupKeyIndexTest {
+
+  private static GroupKeyIndex createIndex(IValueMeta... valueMetas) {
+    IRowMeta groupMeta = new RowMeta();
+    int[] groupnrs = new int[valueMetas.length];
+    for (int i = 0; i < valueMetas.length; i++) {
+      groupMeta.addValueMeta(valueMetas[i]);
+      groupnrs[i] = i;
+    }
+    return GroupKeyIndex.create(groupMeta, groupnrs);
+  }
+
+  /** Find the group of a row, adding a new group if needed */
+  private static int lookup(GroupKeyIndex index, Object... row) throws Exception {
+    int hash = index.hash(row);
+    int group = index.find(hash);
+    return group < 0 ? index.add(hash) : group;
+  }
+
+  @Test
+  public void testIntegerKeys() throws Exception {
+    GroupKeyIndex index = createIndex(new ValueMetaInteger("key"));
+    assertTrue(index instanceof GroupKeyIndex.LongKeyIndex);
+
+    assertEquals(0, lookup(index, 5L));
+    assertEquals(1, lookup(index, (Object) null));
+    assertEquals(2, lookup(index, -5L));
+    assertEquals(0, lookup(index, 5L));
+    assertEquals(1, lookup(index, (Object) null));
+    assertEquals(3, index.size());
+
+    assertArrayEquals(new Object[] {5L}, index.getKey(0));
+    assertArrayEquals(new Object[] {null}, index.getKey(1));
+    assertArrayEquals(new Object[] {-5L}, index.getKey(2));
+  }
+
+  @Test
+  public void testNumberKeys() throws Exception {
+    GroupKeyIndex index = createIndex(new ValueMetaNumber("key"));
+
+    // Same as Double.compare(): NaN equals NaN and -0.0 is smaller than 0.0
+    assertEquals(0, lookup(index, Double.NaN));
+    assertEquals(1, lookup(index, 0.0));
+    assertEquals(2, lookup(index, -0.0));
+    assertEquals(0, lookup(index, 0.0 / 0.0));
+    assertEquals(1.5, index.getKey(lookup(index, 1.5))[0]);
+    assertEquals(4, index.size());
+  }
+
+  @Test
+  public void testStringKeys() throws Exception {
+    GroupKeyIndex index = createIndex(new ValueMetaString("key"));
+    assertTrue(index instanceof GroupKeyIndex.StringKeyIndex);
+
+    assertEquals(0, lookup(index, "a"));
+    assertEquals(1, lookup(index, "A"));
+    // An empty string is null
+    assertEquals(2, lookup(index, ""));
+    assertEquals(2, lookup(index, (Object) null));
+    assertEquals(0, lookup(index, "a"));
+    assertArrayEquals(new Object[] {""}, index.getKey(2));
+
+    IValueMeta caseInsensitive = new ValueMetaString("key");
+    caseInsensitive.setCaseInsensitive(true);
+    index = createIndex(caseInsensitive);
+    assertTrue(index instanceof GroupKeyIndex.RowKeyIndex);
+  }
+
+  @Test
+  public void testBinaryStringKeys() throws Exception {
+    IValueMeta valueMeta = new ValueMetaString("key");
+    valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    valueMeta.setStorageMetadata(new ValueMetaString("key"));
+    GroupKeyIndex index = createIndex(valueMeta);
+
+    assertEquals(0, lookup(index, (Object) "key".getBytes()));
+    assertEquals(1, lookup(index, (Object) "other".getBytes()));
+    assertEquals(0, lookup(index, (Object) "key".getBytes()));
+    assertArrayEquals(new Object[] {"key"}, index.getKey(0));
+  }
+
+  @Test
+  public void testRowKeys() throws Exception {
+    GroupKeyIndex index = createIndex(new ValueMetaString("name"), new ValueMetaInteger("id"));
+    assertTrue(index instanceof GroupKeyIndex.RowKeyIndex);
+
+    // Enough groups to grow the hash table a few times
+    for (long i = 0; i < 10000; i++) {
+      assertEquals(i, lookup(index, "name" + (i % 100), i));
+    }
+    for (long i = 0; i < 10000; i++) {
+      assertEquals(i, lookup(index, "name" + (i % 100), i));
+    }
+    assertEquals(10000, index.size());
+    assertArrayEquals(new Object[] {"name42", 142L}, index.getKey(142));
+    assertNotEquals(-1, index.find(index.hash(new Object[] {"name1", 1L})));
+    assertEquals(-1, index.find(index.hash(new Object[] {"name1", 2L})));
+
+    index.clear();
+    assertEquals(0, index.size());
+    assertEquals(0, lookup(index, null, null));
+  }
+}
@@ -21,7 +21,6 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
-import java.util.HashMap;
 import java.util.List;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
@@ -30,7 +29,6 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaString;
-import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry;
 import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType;
 import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
 import org.junit.AfterClass;
@@ -84,22 +82,25 @@ public class MemoryGroupByAggregationNullsTest {
     data.outputRowMeta = rmi;
     data.groupMeta = rmi;
     data.groupnrs = new int[] {};
-    data.map = new HashMap<>();
     when(rmi.getValueMeta(Mockito.anyInt())).thenReturn(vmi);
     data.aggMeta = rmi;
     transform =
         new MemoryGroupBy(
             mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
 
-    // put aggregate into map with default predefined value
+    // add the single group with default predefined value
     aggregate = new Aggregate();
     aggregate.agg = new Object[] {def};
-    data.map.put(getHashEntry(), aggregate);
+    data.keys = GroupKeyIndex.create(data.groupMeta, data.groupnrs);
+    data.keys.add(data.keys.hash(new Object[] {}));
+    data.columns = new AggregateColumn[1];
+    data.aggregates = new Aggregate[] {aggregate};
+    data.memoryLimit = Long.MAX_VALUE;
   }
 
-  // test hash entry
-  HashEntry getHashEntry() {
-    return data.getHashEntry(new Object[data.groupMeta.size()]);
+  // the aggregate of the single group
+  Aggregate getAggregate() {
+    return data.aggregates[0];
   }
 
   /**
@@ -119,7 +120,7 @@ public class MemoryGroupByAggregationNullsTest {
     transform.setMinNullIsValued(true);
     transform.addToAggregate(new Object[] {null});
 
-    Aggregate agg = data.map.get(getHashEntry());
+    Aggregate agg = getAggregate();
     Assert.assertNotNull("Hash code strategy changed?", agg);
 
     Assert.assertNull("Value is set", agg.agg[0]);
@@ -131,7 +132,7 @@ public class MemoryGroupByAggregationNullsTest {
     transform.setMinNullIsValued(false);
     transform.addToAggregate(new Object[] {null});
 
-    Aggregate agg = data.map.get(getHashEntry());
+    Aggregate agg = getAggregate();
     Assert.assertNotNull("Hash code strategy changed?", agg);
 
     Assert.assertEquals("Value is NOT set", def, agg.agg[0]);
@@ -178,7 +179,7 @@ public class MemoryGroupByAggregationNullsTest {
     aggregate.agg = new Object[] {new byte[0]};
     byte[] bytes = {51};
     transform.addToAggregate(new Object[] {bytes});
-    Aggregate result = data.map.get(getHashEntry());
+    Aggregate result = getAggregate();
     Assert.assertEquals("Returns non-null value", bytes, result.agg[0]);
   }
 
@@ -207,7 +208,7 @@ public class MemoryGroupByAggregationNullsTest {
     transform.addToAggregate(new Object[] {binaryData0.getBytes()});
     transform.addToAggregate(new Object[] {binaryData1.getBytes()});
 
-    Object[] distinctObjs = data.map.get(getHashEntry()).distinctObjs[0].toArray();
+    Object[] distinctObjs = getAggregate().distinctObjs[0].toArray();
 
     Assert.assertEquals(binaryData0, distinctObjs[1]);
     Assert.assertEquals(binaryData1, distinctObjs[0]);
@@ -274,7 +274,6 @@ public class MemoryGroupByAggregationTest {
     }
 
     MemoryGroupByData data = new MemoryGroupByData();
-    data.map = Maps.newHashMap();
 
     TransformMeta transformMeta = new TransformMeta(TRANSFORM_NAME, meta);
     PipelineMeta pipelineMeta = Mockito.mock(PipelineMeta.class);
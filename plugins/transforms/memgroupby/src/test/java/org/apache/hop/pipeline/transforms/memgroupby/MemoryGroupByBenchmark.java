@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.Benchmark;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType;
+import org.apache.hop.pipeline.transforms.mock.GeneratedRowSet;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Aggregates generated rows into a growing number of groups. Reports the throughput and the heap
+ * held by the aggregation once all rows are read.
+ */
+public class MemoryGroupByBenchmark {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public Benchmark benchmark = new Benchmark(1, 3);
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final long rows = Benchmark.size("rows", 5_000_000L);
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Test
+  public void thousandIntegerGroups() throws Exception {
+    measure("integer", new ValueMetaInteger("key"), 1_000, key -> key, null);
+  }
+
+  @Test
+  public void millionIntegerGroups() throws Exception {
+    measure("integer", new ValueMetaInteger("key"), 1_000_000, key -> key, null);
+  }
+
+  @Test
+  public void millionNumberGroups() throws Exception {
+    measure("number", new ValueMetaNumber("key"), 1_000_000, key -> key * 0.5, null);
+  }
+
+  @Test
+  public void millionStringGroups() throws Exception {
+    measure("string", new ValueMetaString("key"), 1_000_000, key -> "customer-" + key, null);
+  }
+
+  @Test
+  public void millionIntegerGroupsSpilled() throws Exception {
+    measure("integer", new ValueMetaInteger("key"), 1_000_000, key -> key, "16");
+  }
+
+  private void measure(
+      String keyType,
+      IValueMeta keyMeta,
+      long groups,
+      LongFunction<Object> keyFactory,
+      String memoryLimit)
+      throws Exception {
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(keyMeta);
+    inputRowMeta.addValueMeta(new ValueMetaInteger("amount"));
+    inputRowMeta.addValueMeta(new ValueMetaNumber("price"));
+
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.getGroups().add(new GGroup("key"));
+    meta.getAggregates().add(new GAggregate("amount_sum", "amount", GroupType.Sum, null));
+    meta.getAggregates().add(new GAggregate("price_max", "price", GroupType.Maximum, null));
+    meta.getAggregates().add(new GAggregate("price_avg", "price", GroupType.Average, null));
+    meta.getAggregates().add(new GAggregate("rows", "amount", GroupType.CountAny, null));
+    meta.setMemoryLimit(memoryLimit);
+    meta.setDirectory(tempFolder.getRoot().getAbsolutePath());
+    TransformMeta transformMeta = new TransformMeta("Memory group by", meta);
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.addTransform(transformMeta);
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.setRunning(true);
+
+    LongFunction<Object[]> rowFactory =
+        i -> new Object[] {keyFactory.apply(i % groups), i, i * 0.25};
+    String name =
+        String.format(
+            "%,d %s groups%s", groups, keyType, memoryLimit == null ? "" : ", 16MB limit");
+    benchmark.measure(
+        name,
+        rows,
+        () -> aggregate(transformMeta, pipeline, inputRowMeta, rowFactory, groups, false));
+
+    MeasuredData data = aggregate(transformMeta, pipeline, inputRowMeta, rowFactory, groups, true);
+    Benchmark.report(
+        "  heap after the last row",
+        String.format("%,d bytes, %,d bytes per group", data.heap, data.heap / groups));
+    if (data.spilledRows > 0) {
+      Benchmark.report("  rows spilled to disk", String.format("%,d", data.spilledRows));
+    }
+  }
+
+  private MeasuredData aggregate(
+      TransformMeta transformMeta,
+      Pipeline pipeline,
+      IRowMeta inputRowMeta,
+      LongFunction<Object[]> rowFactory,
+      long groups,
+      boolean measureHeap)
+      throws HopException {
+    long before = measureHeap ? Benchmark.usedMemory() : 0L;
+    MeasuredData measuredData = new MeasuredData();
+    MemoryGroupBy memoryGroupBy =
+        new MemoryGroupBy(
+            transformMeta,
+            (MemoryGroupByMeta) transformMeta.getTransform(),
+            measuredData,
+            0,
+            pipeline.getPipelineMeta(),
+            pipeline) {
+          @Override
+          public Object[] getRow() throws HopException {
+            Object[] row = super.getRow();
+            if (row == null && measureHeap && measuredData.heap == 0) {
+              // All groups are aggregated and none is written yet
+              measuredData.heap = Benchmark.usedMemory() - before;
+            }
+            return row;
+          }
+        };
+    memoryGroupBy.addRowSetToInputRowSets(new GeneratedRowSet(rows, rowFactory));
+    memoryGroupBy.setInputRowMeta(inputRowMeta);
+    memoryGroupBy.init();
+    AtomicLong written = new AtomicLong();
+    memoryGroupBy.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            written.incrementAndGet();
+          }
+        });
+    while (memoryGroupBy.processRow()) {
+      // Aggregate all rows
+    }
+    memoryGroupBy.dispose();
+    assertEquals(groups, written.get());
+    return measuredData;
+  }
+
+  /** Keeps the heap measured by the transform. */
+  private static class MeasuredData extends MemoryGroupByData {
+    long heap;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+/** Aggregates more groups than fit in the memory limit so that rows are spilled to disk. */
+public class MemoryGroupBySpillTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final String TRANSFORM_NAME = "testTransform";
+  private static final int GROUP_COUNT = 20000;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  @Test
+  public void testSpillToDisk() throws Exception {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.getGroups().add(new GGroup("key"));
+    meta.getAggregates().add(new GAggregate("sum", "value", GroupType.Sum, null));
+    meta.getAggregates().add(new GAggregate("count", "value", GroupType.CountAny, null));
+    meta.getAggregates().add(new GAggregate("median", "value", GroupType.Median, null));
+    meta.getAggregates().add(new GAggregate("names", "name", GroupType.ConcatComma, null));
+    meta.setMemoryLimit("1");
+    meta.setDirectory(tempFolder.getRoot().getAbsolutePath());
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("key"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("value"));
+    inputRowMeta.addValueMeta(new ValueMetaString("name"));
+
+    // Every group twice, the second time after all the other groups
+    List<Object[]> rows = new ArrayList<>();
+    for (int pass = 0; pass < 2; pass++) {
+      for (long key = 0; key < GROUP_COUNT; key++) {
+        rows.add(new Object[] {key, key, "name" + key});
+      }
+    }
+
+    MemoryGroupByData data = new MemoryGroupByData();
+    TransformMeta transformMeta = new TransformMeta(TRANSFORM_NAME, meta);
+    PipelineMeta pipelineMeta = Mockito.mock(PipelineMeta.class);
+    Mockito.when(pipelineMeta.findTransform(Mockito.eq(TRANSFORM_NAME))).thenReturn(transformMeta);
+
+    Iterator<Object[]> input = rows.iterator();
+    List<Object[]> output = new ArrayList<>();
+    MemoryGroupBy transform =
+        new MemoryGroupBy(transformMeta, meta, data, 0, pipelineMeta, new LocalPipelineEngine()) {
+          @Override
+          public Object[] getRow() {
+            return input.hasNext() ? input.next() : null;
+          }
+
+          @Override
+          public IRowMeta getInputRowMeta() {
+            return inputRowMeta;
+          }
+
+          @Override
+          public void putRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+            output.add(row);
+          }
+
+          @Override
+          public void setOutputDone() {
+            // Nothing to signal
+          }
+        };
+    transform.copyFrom(new Variables());
+
+    while (transform.processRow()) {
+      // Run transform
+    }
+
+    assertTrue("Rows should have been spilled to disk", data.spilledRows > 0);
+    assertEquals(0, tempFolder.getRoot().list().length);
+
+    assertEquals(GROUP_COUNT, output.size());
+    Map<Long, Object[]> groups = new HashMap<>();
+    for (Object[] row : output) {
+      assertNull("Duplicate group " + row[0], groups.put((Long) row[0], row));
+    }
+    for (long key = 0; key < GROUP_COUNT; key++) {
+      Object[] row = groups.get(key);
+      assertEquals(2 * key, row[1]);
+      assertEquals(2L, row[2]);
+      assertEquals((double) key, (Double) row[3], 0.0);
+      assertEquals("name" + key + ", name" + key, row[4]);
+    }
+  }
+}
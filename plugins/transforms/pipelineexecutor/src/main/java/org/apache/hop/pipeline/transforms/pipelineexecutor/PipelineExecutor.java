@@ -18,12 +18,20 @@
 package org.apache.hop.pipeline.transforms.pipelineexecutor;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.Result;
@@ -40,6 +48,8 @@ import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.TransformWithMappingMeta;
+import org.apache.hop.pipeline.engine.EngineMetric;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engine.PipelineEngineFactory;
 import org.apache.hop.pipeline.transform.BaseTransform;
@@ -50,6 +60,24 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
   private static final Class<?> PKG = PipelineExecutorMeta.class;
 
+  public static final IEngineMetric METRIC_EXECUTIONS =
+      new EngineMetric(
+          "executions", "Executions", "The number of times the pipeline was executed", "110", true);
+  public static final IEngineMetric METRIC_SETUP_TIME =
+      new EngineMetric(
+          "setup_time",
+          "Setup time (ms)",
+          "The time spent creating and preparing the executed pipelines",
+          "120",
+          true);
+  public static final IEngineMetric METRIC_RUN_TIME =
+      new EngineMetric(
+          "run_time",
+          "Run time (ms)",
+          "The time spent running the executed pipelines",
+          "130",
+          true);
+
   public PipelineExecutor(
       TransformMeta transformMeta,
       PipelineExecutorMeta meta,
@@ -75,6 +103,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
       if (row == null) {
         executePipeline(null);
+        collectExecutions(true);
         setOutputDone();
         return false;
       }
@@ -246,30 +275,97 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     getPipeline().addActiveSubPipeline(getTransformName(), executorPipeline);
 
     Result result = new Result();
-    result.setRows(pipelineExecutorData.groupBuffer);
+    result.setRows(new ArrayList<>(pipelineExecutorData.groupBuffer));
     executorPipeline.setPreviousResult(result);
 
+    PipelineExecutorData.Execution execution =
+        new PipelineExecutorData.Execution(
+            executorPipeline, pipelineExecutorData.groupTimeStart, result);
+    execution.setSetupTime(System.currentTimeMillis() - pipelineExecutorData.groupTimeStart);
+
+    pipelineExecutorData.groupBuffer.clear();
+
+    if (pipelineExecutorData.executorService == null) {
+      collectExecution(runPipeline(execution));
+    } else {
+      // Run the pipeline in the background, the results are collected in the order of the groups
+      //
+      pipelineExecutorData.activePipelines.add(executorPipeline);
+      pipelineExecutorData.pendingExecutions.add(
+          pipelineExecutorData.executorService.submit(() -> runPipeline(execution)));
+      collectExecutions(false);
+    }
+  }
+
+  /** Prepares and runs the pipeline of an execution, possibly in a thread of the executor. */
+  private PipelineExecutorData.Execution runPipeline(PipelineExecutorData.Execution execution) {
+    IPipelineEngine<PipelineMeta> executorPipeline = execution.getPipeline();
     try {
+      long prepareStart = System.currentTimeMillis();
       executorPipeline.prepareExecution();
 
+      long runStart = System.currentTimeMillis();
+      execution.setSetupTime(execution.getSetupTime() + runStart - prepareStart);
+
       // run pipeline
       executorPipeline.startThreads();
 
       // Wait a while until we're done with the pipeline
       executorPipeline.waitUntilFinished();
 
-      result = executorPipeline.getResult();
+      execution.setRunTime(System.currentTimeMillis() - runStart);
+      execution.setResult(executorPipeline.getResult());
     } catch (HopException e) {
       log.logError("An error occurred executing the pipeline: ", e);
-      result.setResult(false);
-      result.setNrErrors(1);
+      execution.getResult().setResult(false);
+      execution.getResult().setNrErrors(1);
+    }
+    execution.setEndTime(System.currentTimeMillis());
+    return execution;
+  }
+
+  /**
+   * Collect the results of the executions running in the background, in the order of the groups.
+   * This waits for the oldest executions as long as too many groups are executing.
+   *
+   * @param waitForAll true to wait until all executions are finished
+   * @throws HopException in case the results can't be passed on
+   */
+  private void collectExecutions(boolean waitForAll) throws HopException {
+    PipelineExecutorData pipelineExecutorData = getData();
+    Deque<Future<PipelineExecutorData.Execution>> pendingExecutions =
+        pipelineExecutorData.pendingExecutions;
+    if (pendingExecutions == null) {
+      return;
+    }
+    int maxPending = waitForAll ? 0 : pipelineExecutorData.parallelExecutions;
+    while (!pendingExecutions.isEmpty()
+        && (pendingExecutions.size() > maxPending || pendingExecutions.peek().isDone())) {
+      PipelineExecutorData.Execution execution;
+      try {
+        execution = pendingExecutions.poll().get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException("Interrupted while waiting for a pipeline execution", e);
+      } catch (ExecutionException e) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "PipelineExecutor.UnexpectedError"), e.getCause());
+      }
+      pipelineExecutorData.activePipelines.remove(execution.getPipeline());
+      collectExecution(execution);
     }
+  }
 
+  private void collectExecution(PipelineExecutorData.Execution execution) throws HopException {
+    PipelineExecutorData pipelineExecutorData = getData();
+    pipelineExecutorData.executionCount++;
+    pipelineExecutorData.executionSetupTime += execution.getSetupTime();
+    pipelineExecutorData.executionRunTime += execution.getRunTime();
+
+    Result result = execution.getResult();
     collectPipelineResults(result);
-    collectExecutionResults(result);
+    collectExecutionResults(result, execution.getPipeline(), execution.getExecutionTime());
     collectExecutionResultFiles(result);
-
-    pipelineExecutorData.groupBuffer.clear();
   }
 
   @VisibleForTesting
@@ -420,6 +516,15 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
   @VisibleForTesting
   void collectExecutionResults(Result result) throws HopException {
+    collectExecutionResults(
+        result,
+        getData().getExecutorPipeline(),
+        System.currentTimeMillis() - getData().groupTimeStart);
+  }
+
+  private void collectExecutionResults(
+      Result result, IPipelineEngine<PipelineMeta> executorPipeline, long executionTime)
+      throws HopException {
     IRowSet executionResultsRowSet = getData().getExecutionResultRowSet();
     if (meta.getExecutionResultTargetTransformMeta() != null && executionResultsRowSet != null) {
       Object[] outputRow =
@@ -427,7 +532,7 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
       int idx = 0;
 
       if (!Utils.isEmpty(meta.getExecutionTimeField())) {
-        outputRow[idx++] = Long.valueOf(System.currentTimeMillis() - getData().groupTimeStart);
+        outputRow[idx++] = Long.valueOf(executionTime);
       }
       if (!Utils.isEmpty(meta.getExecutionResultField())) {
         outputRow[idx++] = Boolean.valueOf(result.getResult());
@@ -463,12 +568,12 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
         outputRow[idx++] = Long.valueOf(result.getExitStatus());
       }
       if (!Utils.isEmpty(meta.getExecutionLogTextField())) {
-        String channelId = getData().getExecutorPipeline().getLogChannelId();
+        String channelId = executorPipeline.getLogChannelId();
         String logText = HopLogStore.getAppender().getBuffer(channelId, false).toString();
         outputRow[idx++] = logText;
       }
       if (!Utils.isEmpty(meta.getExecutionLogChannelIdField())) {
-        outputRow[idx++] = getData().getExecutorPipeline().getLogChannelId();
+        outputRow[idx++] = executorPipeline.getLogChannelId();
       }
 
       putRowTo(getData().getExecutionResultsOutputRowMeta(), outputRow, executionResultsRowSet);
@@ -524,6 +629,30 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
         pipelineExecutorData.groupField = resolve(meta.getGroupField());
       }
 
+      // For how many groups do we execute the pipeline at the same time?
+      pipelineExecutorData.parallelExecutions =
+          Math.max(1, Const.toInt(resolve(meta.getParallelExecutions()), 1));
+      if (pipelineExecutorData.parallelExecutions > 1) {
+        AtomicInteger threadNr = new AtomicInteger();
+        pipelineExecutorData.executorService =
+            Executors.newFixedThreadPool(
+                pipelineExecutorData.parallelExecutions,
+                runnable -> {
+                  Thread thread =
+                      new Thread(
+                          runnable,
+                          getTransformName()
+                              + "."
+                              + getCopy()
+                              + " executor "
+                              + threadNr.incrementAndGet());
+                  thread.setDaemon(true);
+                  return thread;
+                });
+        pipelineExecutorData.pendingExecutions = new ArrayDeque<>();
+        pipelineExecutorData.activePipelines = ConcurrentHashMap.newKeySet();
+      }
+
       // First we need to load the mapping (pipeline)
       try {
         if ((!meta.isFilenameInField() && Utils.isEmpty(meta.getFilename()))
@@ -571,14 +700,39 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
   public void dispose() {
     PipelineExecutorData pipelineExecutorData = getData();
     pipelineExecutorData.groupBuffer = null;
+    if (pipelineExecutorData.executorService != null) {
+      stopActivePipelines();
+      pipelineExecutorData.executorService.shutdownNow();
+      pipelineExecutorData.executorService = null;
+    }
+    if (pipelineExecutorData.executionCount > 0 && log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "PipelineExecutor.Log.ExecutionStatistics",
+              String.valueOf(pipelineExecutorData.executionCount),
+              String.valueOf(pipelineExecutorData.executionSetupTime),
+              String.valueOf(pipelineExecutorData.executionRunTime)));
+    }
     super.dispose();
   }
 
+  @Override
+  public Map<IEngineMetric, Long> getTransformMetrics() {
+    PipelineExecutorData pipelineExecutorData = getData();
+    Map<IEngineMetric, Long> metrics = new LinkedHashMap<>();
+    metrics.put(METRIC_EXECUTIONS, pipelineExecutorData.executionCount);
+    metrics.put(METRIC_SETUP_TIME, pipelineExecutorData.executionSetupTime);
+    metrics.put(METRIC_RUN_TIME, pipelineExecutorData.executionRunTime);
+    return metrics;
+  }
+
   @Override
   public void stopRunning() throws HopException {
     if (getData().getExecutorPipeline() != null) {
       getData().getExecutorPipeline().stopAll();
     }
+    stopActivePipelines();
   }
 
   @Override
@@ -587,11 +741,40 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     if (getData().getExecutorPipeline() != null) {
       getData().getExecutorPipeline().stopAll();
     }
+    stopActivePipelines();
 
     // Also stop this transform
     super.stopAll();
   }
 
+  /** Stop the pipelines which are executing in the background */
+  private void stopActivePipelines() {
+    Set<IPipelineEngine<PipelineMeta>> activePipelines = getData().activePipelines;
+    if (activePipelines != null) {
+      for (IPipelineEngine<PipelineMeta> activePipeline : activePipelines) {
+        activePipeline.stopAll();
+      }
+    }
+  }
+
+  /**
+   * Gets the total time in ms spent creating and preparing the executed pipelines
+   *
+   * @return value of executionSetupTime
+   */
+  public long getExecutionSetupTime() {
+    return getData().executionSetupTime;
+  }
+
+  /**
+   * Gets the total time in ms spent running the transforms of the executed pipelines
+   *
+   * @return value of executionRunTime
+   */
+  public long getExecutionRunTime() {
+    return getData().executionRunTime;
+  }
+
   public IPipelineEngine<PipelineMeta> getExecutorPipeline() {
     return getData().getExecutorPipeline();
   }
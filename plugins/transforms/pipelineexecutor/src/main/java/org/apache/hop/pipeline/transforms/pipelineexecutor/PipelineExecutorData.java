@@ -17,8 +17,13 @@
 
 package org.apache.hop.pipeline.transforms.pipelineexecutor;
 
+import java.util.Deque;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.Result;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
@@ -29,6 +34,96 @@ import org.apache.hop.pipeline.transform.ITransformData;
 
 @SuppressWarnings("java:S1104")
 public class PipelineExecutorData extends BaseTransformData implements ITransformData {
+
+  /** A single execution of the pipeline for a group of rows */
+  public static class Execution {
+    private final IPipelineEngine<PipelineMeta> pipeline;
+    private final long startTime;
+    private Result result;
+    private long setupTime;
+    private long runTime;
+    private long endTime;
+
+    public Execution(IPipelineEngine<PipelineMeta> pipeline, long startTime, Result result) {
+      this.pipeline = pipeline;
+      this.startTime = startTime;
+      this.result = result;
+    }
+
+    /**
+     * Gets pipeline
+     *
+     * @return value of pipeline
+     */
+    public IPipelineEngine<PipelineMeta> getPipeline() {
+      return pipeline;
+    }
+
+    /**
+     * Gets the result of the execution, or the result with the input rows if the execution failed
+     *
+     * @return value of result
+     */
+    public Result getResult() {
+      return result;
+    }
+
+    /**
+     * @param result The result to set
+     */
+    public void setResult(Result result) {
+      this.result = result;
+    }
+
+    /**
+     * Gets the time in ms spent creating and preparing the pipeline
+     *
+     * @return value of setupTime
+     */
+    public long getSetupTime() {
+      return setupTime;
+    }
+
+    /**
+     * @param setupTime The setupTime to set
+     */
+    public void setSetupTime(long setupTime) {
+      this.setupTime = setupTime;
+    }
+
+    /**
+     * Gets the time in ms spent running the transforms of the pipeline
+     *
+     * @return value of runTime
+     */
+    public long getRunTime() {
+      return runTime;
+    }
+
+    /**
+     * @param runTime The runTime to set
+     */
+    public void setRunTime(long runTime) {
+      this.runTime = runTime;
+    }
+
+    /**
+     * Gets the time in ms between the start and the end of the execution
+     *
+     * @return the execution time
+     */
+    public long getExecutionTime() {
+      return endTime - startTime;
+    }
+
+    /**
+     * @param endTime The time the execution ended
+     */
+    public void setEndTime(long endTime) {
+      this.endTime = endTime;
+    }
+  }
+
   private IPipelineEngine<PipelineMeta> executorPipeline;
   private PipelineMeta executorPipelineMeta;
 
@@ -50,6 +145,23 @@ public class PipelineExecutorData extends BaseTransformData implements ITransfor
 
   public Object prevGroupFieldData;
 
+  /** The number of groups for which the pipeline is executed at the same time */
+  public int parallelExecutions;
+
+  /** Executes the pipelines when more than one group is executed at the same time */
+  public ExecutorService executorService;
+
+  /** The executions which are submitted, in the order of the groups */
+  public Deque<Future<Execution>> pendingExecutions;
+
+  /** The pipelines which are executing right now */
+  public Set<IPipelineEngine<PipelineMeta>> activePipelines;
+
+  // Execution statistics, these are read by the engine metrics from another thread
+  public volatile long executionCount;
+  public volatile long executionSetupTime;
+  public volatile long executionRunTime;
+
   private IRowSet executorTransformOutputRowSet;
   private IRowSet resultRowsRowSet;
   private IRowSet resultFilesRowSet;
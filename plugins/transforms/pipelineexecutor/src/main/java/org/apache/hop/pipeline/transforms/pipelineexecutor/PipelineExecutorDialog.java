@@ -109,6 +109,7 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private TextVar wParallelExecutions;
 
   private CCombo wExecutionResultTarget;
   private TableItem tiExecutionTimeField;
@@ -506,6 +507,7 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
 
     wGroupSize.setText(Const.NVL(pipelineExecutorMeta.getGroupSize(), ""));
     wGroupTime.setText(Const.NVL(pipelineExecutorMeta.getGroupTime(), ""));
+    wParallelExecutions.setText(Const.NVL(pipelineExecutorMeta.getParallelExecutions(), ""));
     wGroupField.setText(Const.NVL(pipelineExecutorMeta.getGroupField(), ""));
 
     wExecutionResultTarget.setText(
@@ -868,6 +870,29 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     fdGroupTime.left = new FormAttachment(wlGroupTime, margin);
     wGroupTime.setLayoutData(fdGroupTime);
 
+    // Parallel executions
+    //
+    Label wlParallelExecutions = new Label(wInputComposite, SWT.RIGHT);
+    PropsUi.setLook(wlParallelExecutions);
+    wlParallelExecutions.setText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ParallelExecutions.Label"));
+    wlParallelExecutions.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ParallelExecutions.Tooltip"));
+    FormData fdlParallelExecutions = new FormData();
+    fdlParallelExecutions.top = new FormAttachment(wGroupTime, 10);
+    fdlParallelExecutions.left = new FormAttachment(0, 0);
+    fdlParallelExecutions.right = new FormAttachment(middle, -margin);
+    wlParallelExecutions.setLayoutData(fdlParallelExecutions);
+
+    wParallelExecutions =
+        new TextVar(variables, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wParallelExecutions);
+    FormData fdParallelExecutions = new FormData();
+    fdParallelExecutions.right = new FormAttachment(100);
+    fdParallelExecutions.top = new FormAttachment(wlParallelExecutions, 0, SWT.CENTER);
+    fdParallelExecutions.left = new FormAttachment(middle, margin);
+    wParallelExecutions.setLayoutData(fdParallelExecutions);
+
     wTab.setControl(wInputComposite);
     wTabFolder.setSelection(wTab);
   }
@@ -1285,6 +1310,7 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     pipelineExecutorMeta.setGroupSize(wGroupSize.getText());
     pipelineExecutorMeta.setGroupField(wGroupField.getText());
     pipelineExecutorMeta.setGroupTime(wGroupTime.getText());
+    pipelineExecutorMeta.setParallelExecutions(wParallelExecutions.getText());
 
     pipelineExecutorMeta.setExecutionResultTargetTransform(wExecutionResultTarget.getText());
     pipelineExecutorMeta.setExecutionResultTargetTransformMeta(
@@ -100,6 +100,12 @@ public class PipelineExecutorMeta
    */
   private String groupTime;
 
+  /**
+   * The number of groups of rows for which the pipeline is executed at the same time, defaults to
+   * "1"
+   */
+  private String parallelExecutions;
+
   private PipelineExecutorParameters parameters;
 
   private String executionResultTargetTransform;
@@ -238,6 +244,7 @@ public class PipelineExecutorMeta
     retval.append("    ").append(XmlHandler.addTagValue("group_size", groupSize));
     retval.append("    ").append(XmlHandler.addTagValue("group_field", groupField));
     retval.append("    ").append(XmlHandler.addTagValue("group_time", groupTime));
+    retval.append("    ").append(XmlHandler.addTagValue("parallel_executions", parallelExecutions));
 
     // Add the mapping parameters too
     //
@@ -359,6 +366,7 @@ public class PipelineExecutorMeta
       groupSize = XmlHandler.getTagValue(transformNode, "group_size");
       groupField = XmlHandler.getTagValue(transformNode, "group_field");
       groupTime = XmlHandler.getTagValue(transformNode, "group_time");
+      parallelExecutions = XmlHandler.getTagValue(transformNode, "parallel_executions");
 
       // Load the mapping parameters too..
       //
@@ -434,6 +442,7 @@ public class PipelineExecutorMeta
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    parallelExecutions = "1";
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -969,6 +978,21 @@ public class PipelineExecutorMeta
     this.groupTime = groupTime;
   }
 
+  /**
+   * @return the number of groups of rows for which the pipeline is executed at the same time
+   */
+  public String getParallelExecutions() {
+    return parallelExecutions;
+  }
+
+  /**
+   * @param parallelExecutions the number of groups of rows for which the pipeline is executed at
+   *     the same time
+   */
+  public void setParallelExecutions(String parallelExecutions) {
+    this.parallelExecutions = parallelExecutions;
+  }
+
   @Override
   public boolean excludeFromCopyDistributeVerification() {
     return true;
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pipelineexecutor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.Result;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineMetric;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PipelineExecutorTest {
+  private static final String RESULT_ROWS_TRANSFORM = "Result rows";
+
+  private TransformMockHelper<PipelineExecutorMeta, PipelineExecutorData> transformMockHelper;
+  private PipelineExecutorData data;
+  private QueueRowSet resultRowSet;
+  private Set<String> executorThreadNames;
+
+  @Before
+  public void setup() {
+    transformMockHelper =
+        new TransformMockHelper<>(
+            "Pipeline executor", PipelineExecutorMeta.class, PipelineExecutorData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+    when(transformMockHelper.pipeline.isRunning()).thenReturn(true);
+
+    TransformMeta resultRowsTransformMeta = mock(TransformMeta.class);
+    when(resultRowsTransformMeta.getName()).thenReturn(RESULT_ROWS_TRANSFORM);
+    when(transformMockHelper.pipelineMeta.findTransform(RESULT_ROWS_TRANSFORM))
+        .thenReturn(resultRowsTransformMeta);
+
+    PipelineExecutorMeta meta = transformMockHelper.iTransformMeta;
+    when(meta.getFilename()).thenReturn("executed.hpl");
+    when(meta.getGroupSize()).thenReturn("1");
+    when(meta.getParallelExecutions()).thenReturn("3");
+    when(meta.getParameters()).thenReturn(new PipelineExecutorParameters());
+    when(meta.getOutputRowsSourceTransformMeta()).thenReturn(resultRowsTransformMeta);
+
+    data = new PipelineExecutorData();
+    resultRowSet = new QueueRowSet();
+    resultRowSet.setThreadNameFromToCopy("Pipeline executor", 0, RESULT_ROWS_TRANSFORM, 0);
+    executorThreadNames = ConcurrentHashMap.newKeySet();
+  }
+
+  @After
+  public void tearDown() {
+    transformMockHelper.cleanUp();
+  }
+
+  @Test
+  public void testParallelExecutionsPassResultsInGroupOrder() throws HopException {
+    int nrRows = 10;
+    PipelineExecutor pipelineExecutor = createPipelineExecutor();
+    assertTrue(pipelineExecutor.init());
+
+    QueueRowSet inputRowSet = new QueueRowSet();
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    for (long id = 0; id < nrRows; id++) {
+      inputRowSet.putRow(inputRowMeta, new Object[] {id});
+    }
+    inputRowSet.setDone();
+    pipelineExecutor.addRowSetToInputRowSets(inputRowSet);
+    pipelineExecutor.addRowSetToOutputRowSets(resultRowSet);
+
+    while (pipelineExecutor.processRow()) {
+      // Keep sending rows to the executed pipelines
+    }
+    pipelineExecutor.dispose();
+
+    for (long id = 0; id < nrRows; id++) {
+      Object[] resultRow = resultRowSet.getRow();
+      assertEquals(id, resultRow[0]);
+    }
+    assertNull(resultRowSet.getRow());
+
+    // Every thread of the executor has its own name
+    assertEquals(3, executorThreadNames.size());
+    for (String threadName : executorThreadNames) {
+      assertTrue(threadName, threadName.startsWith("Pipeline executor.0 executor "));
+    }
+
+    Map<IEngineMetric, Long> metrics = pipelineExecutor.getTransformMetrics();
+    assertEquals(Long.valueOf(nrRows), metrics.get(PipelineExecutor.METRIC_EXECUTIONS));
+    assertTrue(metrics.get(PipelineExecutor.METRIC_RUN_TIME) > 0);
+  }
+
+  private PipelineExecutor createPipelineExecutor() {
+    List<IPipelineEngine<PipelineMeta>> executedPipelines = new ArrayList<>();
+    return new PipelineExecutor(
+        transformMockHelper.transformMeta,
+        transformMockHelper.iTransformMeta,
+        data,
+        0,
+        transformMockHelper.pipelineMeta,
+        transformMockHelper.pipeline) {
+      @Override
+      PipelineMeta loadExecutorPipelineMeta() {
+        return mock(PipelineMeta.class);
+      }
+
+      @Override
+      IPipelineEngine<PipelineMeta> createInternalPipeline() throws HopException {
+        executedPipelines.add(createExecutedPipeline(executedPipelines.size()));
+        return executedPipelines.get(executedPipelines.size() - 1);
+      }
+    };
+  }
+
+  /** The pipelines of the first groups take the longest so they finish last. */
+  @SuppressWarnings("unchecked")
+  private IPipelineEngine<PipelineMeta> createExecutedPipeline(int groupNr) throws HopException {
+    IPipelineEngine<PipelineMeta> executedPipeline = mock(IPipelineEngine.class);
+    when(executedPipeline.listParameters()).thenReturn(new String[0]);
+
+    AtomicReference<Result> previousResult = new AtomicReference<>();
+    doAnswer(
+            invocation -> {
+              previousResult.set(invocation.getArgument(0));
+              return null;
+            })
+        .when(executedPipeline)
+        .setPreviousResult(any(Result.class));
+    doAnswer(
+            invocation -> {
+              executorThreadNames.add(Thread.currentThread().getName());
+              Thread.sleep(10L * (10 - groupNr % 10));
+              return null;
+            })
+        .when(executedPipeline)
+        .waitUntilFinished();
+    when(executedPipeline.getResult()).thenAnswer(invocation -> previousResult.get());
+    return executedPipeline;
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.selectvalues;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.Benchmark;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.apache.hop.pipeline.transforms.mock.GeneratedRowSet;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Sends generated rows through an Injector and a chain of Select Values transforms, once fused into
+ * the thread of the Injector and once with a thread per transform.
+ */
+public class TransformFusionBenchmark {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public Benchmark benchmark = new Benchmark();
+
+  private final long rows = Benchmark.size("rows", 2_000_000L);
+  private final int transforms = (int) Benchmark.size("transforms", 5);
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Test
+  public void threadedTransforms() throws Exception {
+    measure(false);
+  }
+
+  @Test
+  public void fusedTransforms() throws Exception {
+    measure(true);
+  }
+
+  private void measure(boolean fusing) throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    TransformMeta previous = new TransformMeta("injector", new InjectorMeta());
+    pipelineMeta.addTransform(previous);
+    for (int i = 1; i <= transforms; i++) {
+      SelectValuesMeta selectValuesMeta = new SelectValuesMeta();
+      selectValuesMeta.allocate(2, 0, 0);
+      selectValuesMeta.setSelectName(new String[] {"id", "name"});
+      TransformMeta selectValues = new TransformMeta("select " + i, selectValuesMeta);
+      pipelineMeta.addTransform(selectValues);
+      pipelineMeta.addPipelineHop(new PipelineHopMeta(previous, selectValues));
+      previous = selectValues;
+    }
+    String last = previous.getName();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("amount"));
+    String name = "Apache Hop";
+
+    benchmark.measure(
+        String.format("%d Select Values, %s", transforms, fusing ? "fused" : "threaded"),
+        rows,
+        () -> {
+          Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+          pipeline.setLogChannel(Mockito.mock(ILogChannel.class));
+          LocalPipelineRunConfiguration runConfiguration =
+              (LocalPipelineRunConfiguration)
+                  pipeline.getPipelineRunConfiguration().getEngineRunConfiguration();
+          runConfiguration.setFusingTransforms(fusing);
+          pipeline.prepareExecution();
+          GeneratedRowSet input = new GeneratedRowSet(rows, seq -> new Object[] {seq, name, seq});
+          input.setRowMeta(rowMeta);
+          pipeline.getTransform("injector", 0).addRowSetToInputRowSets(input);
+          AtomicLong written = new AtomicLong();
+          pipeline
+              .getTransform(last, 0)
+              .addRowListener(
+                  new RowAdapter() {
+                    @Override
+                    public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+                      written.incrementAndGet();
+                    }
+                  });
+          pipeline.startThreads();
+          pipeline.waitUntilFinished();
+          assertEquals(0, pipeline.getErrors());
+          assertEquals(rows, written.get());
+        });
+  }
+}
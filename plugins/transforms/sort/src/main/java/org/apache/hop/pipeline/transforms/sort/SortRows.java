@@ -17,20 +17,17 @@
 
 package org.apache.hop.pipeline.transforms.sort;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
@@ -40,6 +37,9 @@ import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.spill.RowSpillReader;
+import org.apache.hop.core.row.spill.RowSpillWriter;
+import org.apache.hop.core.row.spill.SpillCodec;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -52,6 +52,9 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
   private static final Class<?> PKG = SortRows.class;
 
+  /** Buffers are only sorted in parallel when every task gets at least this many rows. */
+  static final int PARALLEL_SORT_MIN_CHUNK = 8192;
+
   public SortRows(
       TransformMeta transformMeta,
       SortRowsMeta meta,
@@ -94,6 +97,17 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       }
     }
 
+    // When the amount of free memory is limited, the rows of the run which is being written still
+    // count. Wait for it before the new buffer grows any further.
+    //
+    if (data.pendingRun != null
+        && data.sortSize <= 0
+        && data.freeMemoryPctLimit > 0
+        && data.freeMemoryPct < data.freeMemoryPctLimit) {
+      waitForPendingRun();
+      data.freeMemoryPct = Const.getPercentageFreeMemory();
+    }
+
     // Buffer is full: sort & dump to disk
     boolean doSort = data.buffer.size() == data.sortSize;
     doSort |=
@@ -119,109 +133,124 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       return;
     }
 
-    // First sort the rows in buffer[]
-    quickSort(data.buffer);
-
-    // Then write them to disk...
-    DataOutputStream dos;
-    GZIPOutputStream gzos;
-    int p;
+    // Only one run is sorted and written in the background at any time.
+    // This limits the memory used to 2 buffers.
+    //
+    waitForPendingRun();
 
+    FileObject fileObject;
     try {
-      FileObject fileObject =
+      fileObject =
           HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()), variables);
+    } catch (Exception e) {
+      throw new HopException("Error processing temp-file!", e);
+    }
+    data.files.add(fileObject); // Remember the files!
 
-      data.files.add(fileObject); // Remember the files!
-      OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
-      if (data.compressFiles) {
-        gzos = new GZIPOutputStream(new BufferedOutputStream(outputStream));
-        dos = new DataOutputStream(gzos);
-      } else {
-        dos = new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
-        gzos = null;
-      }
+    final List<Object[]> rows = data.buffer;
+    if (data.sortSize < 0 && rows.size() > data.minSortSize) {
+      data.minSortSize = rows.size(); // if we did it once, we can do
+      // it again.
 
-      // Just write the data, nothing else
-      List<Integer> duplicates = new ArrayList<>();
-      Object[] previousRow = null;
-      if (meta.isOnlyPassingUniqueRows()) {
-        int index = 0;
-        while (index < data.buffer.size()) {
-          Object[] row = data.buffer.get(index);
-          if (previousRow != null) {
-            int result = data.outputRowMeta.compare(row, previousRow, data.fieldnrs);
-            if (result == 0) {
-              duplicates.add(index);
-              if (log.isRowLevel()) {
-                logRowlevel(
-                    BaseMessages.getString(
-                        PKG,
-                        "SortRows.RowLevel.DuplicateRowRemoved",
-                        data.outputRowMeta.getString(row)));
-              }
-            }
-          }
-          index++;
-          previousRow = row;
-        }
-      }
-
-      // How many records do we have left?
-      data.bufferSizes.add(data.buffer.size() - duplicates.size());
+      // Memory usage goes up over time, even with garbage collection
+      // We need pointers, file handles, etc.
+      // As such, we're going to lower the min sort size a bit
+      //
+      data.minSortSize = (int) Math.round(data.minSortSize * 0.90);
+    }
 
-      int duplicatesIndex = 0;
-      for (p = 0; p < data.buffer.size(); p++) {
-        boolean skip = false;
-        if (duplicatesIndex < duplicates.size() && p == duplicates.get(duplicatesIndex)) {
-          skip = true;
-          duplicatesIndex++;
-        }
-        if (!skip) {
-          data.outputRowMeta.writeData(dos, data.buffer.get(p));
-        }
-      }
+    // Sort the rows and write them to disk in the background while we continue to fill a new
+    // buffer. Writing blocks on file I/O, so it gets its own thread.
+    //
+    if (data.runWriter == null) {
+      String threadName = getTransformName() + "." + getCopy() + " - sort run writer";
+      data.runWriter =
+          Executors.newSingleThreadExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+    data.pendingRun = data.runWriter.submit(() -> writeSortedRun(rows, fileObject));
+    data.buffer = new ArrayList<>(Math.max(5000, rows.size()));
 
-      if (data.sortSize < 0 && data.buffer.size() > data.minSortSize) {
-        data.minSortSize = data.buffer.size(); // if we did it once, we can do
-        // it again.
+    // How much memory do we have left?
+    //
+    data.freeMemoryPct = Const.getPercentageFreeMemory();
+    data.freeCounter = 0;
+    if (data.sortSize <= 0 && log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "SortRows.Detailed.AvailableMemory", data.freeMemoryPct));
+    }
 
-        // Memory usage goes up over time, even with garbage collection
-        // We need pointers, file handles, etc.
-        // As such, we're going to lower the min sort size a bit
-        //
-        data.minSortSize = (int) Math.round(data.minSortSize * 0.90);
-      }
+    data.getBufferIndex = 0;
+  }
 
-      // Clear the list
-      data.buffer.clear();
+  /**
+   * Wait until the run which is being sorted and written in the background is on disk.
+   *
+   * @throws HopException in case writing the temp-file failed
+   */
+  void waitForPendingRun() throws HopException {
+    if (data.pendingRun == null) {
+      return;
+    }
+    try {
+      // How many records do we have in the file?
+      data.bufferSizes.add(data.pendingRun.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while writing temp-file!", e);
+    } catch (ExecutionException e) {
+      throw new HopException("Error processing temp-file!", e.getCause());
+    } finally {
+      data.pendingRun = null;
+    }
+  }
 
-      // Close temp-file
-      dos.close(); // close data stream
-      if (gzos != null) {
-        gzos.close(); // close gzip stream
-      }
-      outputStream.close(); // close file stream
+  /**
+   * Sort a run of rows and write it to a temp-file. This is executed in the background.
+   *
+   * @param rows the rows to sort
+   * @param fileObject the temp-file to write to
+   * @return the number of rows written to the file
+   */
+  private int writeSortedRun(List<Object[]> rows, FileObject fileObject) throws Exception {
+    // First sort the rows in the buffer
+    quickSort(rows);
 
-      // How much memory do we have left?
-      //
-      data.freeMemoryPct = Const.getPercentageFreeMemory();
-      data.freeCounter = 0;
-      if (data.sortSize <= 0 && log.isDetailed()) {
-        logDetailed(
-            BaseMessages.getString(PKG, "SortRows.Detailed.AvailableMemory", data.freeMemoryPct));
+    // Then write them to disk...
+    OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
+    int written = 0;
+    try (RowSpillWriter writer =
+        new RowSpillWriter(
+            data.outputRowMeta, outputStream, SpillCodec.getCodec(this, data.compressFiles))) {
+      // Just write the data, skipping duplicates if needed
+      Object[] previousRow = null;
+      for (Object[] row : rows) {
+        if (meta.isOnlyPassingUniqueRows()
+            && previousRow != null
+            && data.outputRowMeta.compare(row, previousRow, data.fieldnrs) == 0) {
+          if (log.isRowLevel()) {
+            logRowlevel(
+                BaseMessages.getString(
+                    PKG,
+                    "SortRows.RowLevel.DuplicateRowRemoved",
+                    data.outputRowMeta.getString(row)));
+          }
+        } else {
+          writer.writeRow(row);
+          written++;
+        }
+        previousRow = row;
       }
-
-    } catch (Exception e) {
-      throw new HopException("Error processing temp-file!", e);
     }
 
-    data.getBufferIndex = 0;
-  }
+    // Clear the list
+    rows.clear();
 
-  private DataInputStream getDataInputStream(GZIPInputStream gzipInputStream) {
-    DataInputStream result = new DataInputStream(gzipInputStream);
-    data.gzis.add(gzipInputStream);
-    return result;
+    return written;
   }
 
   // get sorted rows from available files in iterative manner.
@@ -231,7 +260,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     Object[] retval;
 
     // Open all files at once and read one row from each file...
-    if (CollectionUtils.isNotEmpty(data.files) && (data.dis.isEmpty() || data.fis.isEmpty())) {
+    if (CollectionUtils.isNotEmpty(data.files) && data.readers.isEmpty()) {
       if (log.isBasic()) {
         logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
       }
@@ -243,15 +272,10 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           if (log.isDetailed()) {
             logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.OpeningTempFile", filename));
           }
-          InputStream fi = HopVfs.getInputStream(fileObject);
-          DataInputStream di;
-          data.fis.add(fi);
-          if (data.compressFiles) {
-            di = getDataInputStream(new GZIPInputStream(new BufferedInputStream(fi)));
-          } else {
-            di = new DataInputStream(new BufferedInputStream(fi, 50000));
-          }
-          data.dis.add(di);
+          // The codec of the file is stored in its header
+          RowSpillReader reader =
+              new RowSpillReader(data.outputRowMeta, HopVfs.getInputStream(fileObject));
+          data.readers.add(reader);
 
           // How long is the buffer?
           int buffersize = data.bufferSizes.get(f);
@@ -262,15 +286,14 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
                     PKG, "SortRows.Detailed.FromFileExpectingRows", filename, buffersize));
           }
 
-          if (buffersize > 0) {
-            Object[] row = data.outputRowMeta.readData(di);
-            data.rowbuffer.add(row); // new row from input stream
+          Object[] row = reader.readRow();
+          if (row != null) {
             data.tempRows.add(new RowTempFile(row, f));
           }
         }
-
-        // Sort the data row buffer
-        Collections.sort(data.tempRows, data.comparator);
+        data.mergeFileCount = data.files.size();
+        data.mergeRowCount = 0L;
+        data.mergeStartTime = System.currentTimeMillis();
       } catch (Exception e) {
         logError(BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
       }
@@ -288,48 +311,36 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     } else {
       // read from disk processing
 
-      if (data.rowbuffer.isEmpty()) {
+      if (data.tempRows.isEmpty()) {
         retval = null;
       } else {
-        // We now have "filenr" rows waiting: which one is the smallest?
+        // The head of the heap holds the smallest row
         //
-        if (log.isRowLevel()) {
-          for (int i = 0; i < data.rowbuffer.size() && !isStopped(); i++) {
-            Object[] b = data.rowbuffer.get(i);
-            logRowlevel(
-                BaseMessages.getString(
-                    PKG, "SortRows.RowLevel.PrintRow", i, data.outputRowMeta.getString(b)));
-          }
-        }
-
-        RowTempFile rowTempFile = data.tempRows.remove(0);
+        RowTempFile rowTempFile = data.tempRows.poll();
         retval = rowTempFile.row;
         int smallest = rowTempFile.fileNumber;
+        data.mergeRowCount++;
 
         // now get another Row for position smallest
 
         FileObject file = data.files.get(smallest);
-        DataInputStream di = data.dis.get(smallest);
-        InputStream fi = data.fis.get(smallest);
+        RowSpillReader reader = data.readers.get(smallest);
 
+        // Re-use the holder for the next row of the same file
+        //
+        Object[] next;
         try {
-          Object[] row2 = data.outputRowMeta.readData(di);
-          RowTempFile extra = new RowTempFile(row2, smallest);
-
-          int index = Collections.binarySearch(data.tempRows, extra, data.comparator);
-          if (index < 0) {
-            data.tempRows.add(index * (-1) - 1, extra);
-          } else {
-            data.tempRows.add(index, extra);
-          }
-        } catch (HopFileException fe) { // empty file or EOF mostly
-          GZIPInputStream gzfi = (data.compressFiles) ? data.gzis.get(smallest) : null;
+          next = reader.readRow();
+        } catch (HopFileException e) {
+          throw new HopValueException(e);
+        }
+        if (next != null) {
+          rowTempFile.row = next;
+          data.tempRows.add(rowTempFile);
+        } else {
+          // End of this file
           try {
-            di.close();
-            fi.close();
-            if (gzfi != null) {
-              gzfi.close();
-            }
+            reader.close();
             file.delete();
           } catch (IOException e) {
             logError(
@@ -341,23 +352,16 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           }
 
           data.files.remove(smallest);
-          data.dis.remove(smallest);
-          data.fis.remove(smallest);
-
-          if (gzfi != null) {
-            data.gzis.remove(smallest);
-          }
+          data.readers.remove(smallest);
 
           // Also update all file numbers in in data.tempRows if they are larger
-          // than smallest.
+          // than smallest. This keeps the relative order of the files in the heap intact.
           //
           for (RowTempFile rtf : data.tempRows) {
             if (rtf.fileNumber > smallest) {
               rtf.fileNumber--;
             }
           }
-        } catch (SocketTimeoutException e) {
-          throw new HopValueException(e); // should never happen on local files
         }
       }
     }
@@ -418,6 +422,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       data.outputRowMeta = inputRowMeta.clone();
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
       data.comparator = new RowTemapFileComparator(data.outputRowMeta, data.fieldnrs);
+      data.tempRows = new PriorityQueue<>(data.comparator);
 
       for (int i = 0; i < meta.getSortFields().size(); i++) {
         data.fieldnrs[i] = inputRowMeta.indexOfValue(meta.getSortFields().get(i).getFieldName());
@@ -542,6 +547,18 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     if (log.isDebug() && !data.files.isEmpty()) {
       this.logDebug(BaseMessages.getString(PKG, "SortRows.Debug.ExternalMergeFinished"));
     }
+    if (data.mergeFileCount > 0 && log.isDetailed()) {
+      long duration = Math.max(1L, System.currentTimeMillis() - data.mergeStartTime);
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "SortRows.Detailed.ExternalMergeStatistics",
+              data.mergeRowCount,
+              data.mergeFileCount,
+              duration,
+              data.mergeRowCount * 1000L / duration));
+    }
+    data.mergeFileCount = 0;
 
     // Clear out the buffer for the next batch
     //
@@ -567,15 +584,9 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     //
     data.buffer = new ArrayList<>(5000);
 
-    // Buffer for reading from disk
-    //
-    data.rowbuffer = new ArrayList<>(5000);
-
     data.compressFiles =
         getVariableBoolean(meta.getCompressFilesVariable(), meta.isCompressFiles());
 
-    data.tempRows = new ArrayList<>();
-
     data.minSortSize = 5000;
 
     return true;
@@ -584,28 +595,33 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
   @Override
   public void dispose() {
     clearBuffers();
+    if (data.runWriter != null) {
+      data.runWriter.shutdown();
+      data.runWriter = null;
+    }
     super.dispose();
   }
 
   private void clearBuffers() {
 
+    // Don't remove a temp file while it's being written
+    if (data.pendingRun != null) {
+      try {
+        waitForPendingRun();
+      } catch (HopException e) {
+        logError(e.getLocalizedMessage(), e);
+      }
+    }
+
     // Clean out the sort buffer
     data.buffer.clear();
     data.getBufferIndex = 0;
-    data.rowbuffer.clear();
 
-    // close any open DataInputStream objects
-    if (CollectionUtils.isNotEmpty(data.dis)) {
-      for (DataInputStream dis : data.dis) {
-        BaseTransform.closeQuietly(dis);
-      }
-    }
-    // close any open InputStream objects
-    if (CollectionUtils.isNotEmpty(data.fis)) {
-      for (InputStream is : data.fis) {
-        BaseTransform.closeQuietly(is);
-      }
+    // close any open temp-file readers
+    for (RowSpillReader reader : data.readers) {
+      BaseTransform.closeQuietly(reader);
     }
+    data.readers.clear();
     // remove temp files
     for (int f = 0; f < data.files.size(); f++) {
       FileObject fileToDelete = data.files.get(f);
@@ -622,12 +638,18 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
   /** Sort the entire vector, if it is not empty. */
   void quickSort(List<Object[]> elements) {
     if (CollectionUtils.isNotEmpty(elements)) {
-      Collections.sort(elements, data.rowComparator);
+      Object[][] rows = elements.toArray(new Object[elements.size()][]);
+      List<IRowMeta> rowMetas = sortRows(rows, ForkJoinPool.getCommonPoolParallelism());
+      for (int i = 0; i < rows.length; i++) {
+        elements.set(i, rows[i]);
+      }
 
       long nrConversions = 0L;
-      for (IValueMeta valueMeta : data.outputRowMeta.getValueMetaList()) {
-        nrConversions += valueMeta.getNumberOfBinaryStringConversions();
-        valueMeta.setNumberOfBinaryStringConversions(0L);
+      for (IRowMeta rowMeta : rowMetas) {
+        for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+          nrConversions += valueMeta.getNumberOfBinaryStringConversions();
+          valueMeta.setNumberOfBinaryStringConversions(0L);
+        }
       }
       if (log.isDetailed()) {
         logDetailed(
@@ -637,6 +659,101 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
   }
 
+  /**
+   * Sort rows, in parallel on the fork-join pool if there are enough of them. The rows are split
+   * into one chunk per task, the chunks are sorted and then merged pairwise. Value metadata keeps
+   * state while comparing (formats, collators, conversion counters), so every task compares with
+   * its own copy of the row metadata. Like a single threaded sort, the result is stable.
+   *
+   * @param rows the rows to sort
+   * @param parallelism the maximum number of tasks to sort with
+   * @return the row metadata used to compare, the output row metadata first
+   */
+  List<IRowMeta> sortRows(Object[][] rows, int parallelism) {
+    List<IRowMeta> rowMetas = new ArrayList<>();
+    rowMetas.add(data.outputRowMeta);
+
+    int chunks = Math.min(parallelism, rows.length / PARALLEL_SORT_MIN_CHUNK);
+    if (chunks <= 1) {
+      Arrays.sort(rows, data.rowComparator);
+      return rowMetas;
+    }
+
+    // The chunk boundaries, chunk c holds the rows from bounds[c] up to bounds[c+1]
+    //
+    int[] bounds = new int[chunks + 1];
+    for (int c = 0; c <= chunks; c++) {
+      bounds[c] = (int) ((long) rows.length * c / chunks);
+    }
+    List<Comparator<Object[]>> comparators = new ArrayList<>();
+    for (int c = 0; c < chunks; c++) {
+      IRowMeta rowMeta = data.outputRowMeta.clone();
+      rowMetas.add(rowMeta);
+      comparators.add(new RowObjectArrayComparator(rowMeta, data.fieldnrs));
+    }
+
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int c = 0; c < chunks; c++) {
+      int from = bounds[c];
+      int to = bounds[c + 1];
+      Comparator<Object[]> comparator = comparators.get(c);
+      tasks.add(ForkJoinPool.commonPool().submit(() -> Arrays.sort(rows, from, to, comparator)));
+    }
+    tasks.forEach(ForkJoinTask::join);
+
+    // Merge neighbouring chunks until one is left
+    //
+    Object[][] source = rows;
+    Object[][] target = new Object[rows.length][];
+    for (int width = 1; width < chunks; width *= 2) {
+      tasks.clear();
+      for (int c = 0; c < chunks; c += 2 * width) {
+        int from = bounds[c];
+        int middle = bounds[Math.min(c + width, chunks)];
+        int to = bounds[Math.min(c + 2 * width, chunks)];
+        Comparator<Object[]> comparator = comparators.get(c / (2 * width));
+        Object[][] in = source;
+        Object[][] out = target;
+        tasks.add(
+            ForkJoinPool.commonPool().submit(() -> merge(in, out, from, middle, to, comparator)));
+      }
+      tasks.forEach(ForkJoinTask::join);
+      Object[][] swap = source;
+      source = target;
+      target = swap;
+    }
+    if (source != rows) {
+      System.arraycopy(source, 0, rows, 0, rows.length);
+    }
+    return rowMetas;
+  }
+
+  /** Merge two sorted ranges, taking the left row first when keys are equal. */
+  private static void merge(
+      Object[][] in,
+      Object[][] out,
+      int from,
+      int middle,
+      int to,
+      Comparator<Object[]> comparator) {
+    int left = from;
+    int right = middle;
+    int index = from;
+    while (left < middle && right < to) {
+      if (comparator.compare(in[left], in[right]) <= 0) {
+        out[index++] = in[left++];
+      } else {
+        out[index++] = in[right++];
+      }
+    }
+    while (left < middle) {
+      out[index++] = in[left++];
+    }
+    while (right < to) {
+      out[index++] = in[right++];
+    }
+  }
+
   @Override
   public void startBundle() throws HopException {
     // Do nothing
@@ -668,6 +785,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     if (!data.files.isEmpty()) {
       // dump to dist and then read from disk
       sortExternalRows();
+      waitForPendingRun();
     } else {
       // sort in memory
       quickSort(data.buffer);
@@ -710,7 +828,12 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     @Override
     public int compare(RowTempFile o1, RowTempFile o2) {
       try {
-        return rowMeta.compare(o1.row, o2.row, fieldNrs);
+        int cmp = rowMeta.compare(o1.row, o2.row, fieldNrs);
+        if (cmp == 0) {
+          // Rows with equal keys come out in the order the files were written
+          cmp = Integer.compare(o1.fileNumber, o2.fileNumber);
+        }
+        return cmp;
       } catch (HopValueException e) {
         logError("Error comparing rows: " + e.toString());
         return 0;
@@ -17,14 +17,15 @@
 
 package org.apache.hop.pipeline.transforms.sort;
 
-import java.io.DataInputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.spill.RowSpillReader;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -34,14 +35,20 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public List<Object[]> buffer;
   public int getBufferIndex;
 
-  public List<InputStream> fis;
-  public List<GZIPInputStream> gzis;
-  public List<DataInputStream> dis;
-  public List<Object[]> rowbuffer;
+  public List<RowSpillReader> readers;
   public List<Integer> bufferSizes;
 
-  // To store rows and file references
-  public List<RowTempFile> tempRows;
+  // To store rows and file references, the smallest row first
+  public PriorityQueue<RowTempFile> tempRows;
+
+  // The run which is being sorted and written to disk in the background
+  public ExecutorService runWriter;
+  public Future<Integer> pendingRun;
+
+  // Statistics of the external merge
+  public int mergeFileCount;
+  public long mergeRowCount;
+  public long mergeStartTime;
 
   public int[] fieldnrs; // the corresponding field numbers
   public FileObject fil;
@@ -71,9 +78,7 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
     super();
 
     files = new ArrayList<>();
-    fis = new ArrayList<>();
-    gzis = new ArrayList<>();
-    dis = new ArrayList<>();
+    readers = new ArrayList<>();
     bufferSizes = new ArrayList<>();
 
     previous = null; // Heroic
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.Benchmark;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mock.GeneratedRowSet;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Sorts generated rows on disk and reports the throughput and the number of spill files. */
+public class SortRowsBenchmark {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public Benchmark benchmark = new Benchmark(1, 3);
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final long rows = Benchmark.size("rows", 2_000_000L);
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Test
+  public void externalSortWithFewSpillFiles() throws Exception {
+    measure(100_000);
+  }
+
+  @Test
+  public void externalSortWithManySpillFiles() throws Exception {
+    measure(10_000);
+  }
+
+  private void measure(int sortSize) throws Exception {
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("key"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("seq"));
+    inputRowMeta.addValueMeta(new ValueMetaString("name"));
+
+    SortRowsMeta meta = new SortRowsMeta();
+    meta.setDefault();
+    meta.setDirectory(tempFolder.getRoot().getAbsolutePath());
+    meta.setSortSize(Integer.toString(sortSize));
+    List<SortRowsField> sortFields = new ArrayList<>();
+    sortFields.add(new SortRowsField("key", true, true, false, 0, false));
+    meta.setSortFields(sortFields);
+    TransformMeta transformMeta = new TransformMeta("Sort rows", meta);
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.addTransform(transformMeta);
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.setRunning(true);
+
+    AtomicLong spillFiles = new AtomicLong();
+    benchmark.measure(
+        "Sort rows, sort size " + sortSize,
+        rows,
+        () -> {
+          Random random = new Random(42);
+          SortRowsData data = new SortRowsData();
+          SortRows sortRows = new SortRows(transformMeta, meta, data, 0, pipelineMeta, pipeline);
+          sortRows.addRowSetToInputRowSets(
+              new GeneratedRowSet(
+                  rows, seq -> new Object[] {(long) random.nextInt(1_000_000), seq, "row " + seq}));
+          sortRows.setInputRowMeta(inputRowMeta);
+          sortRows.init();
+          AtomicLong written = new AtomicLong();
+          sortRows.addRowListener(
+              new RowAdapter() {
+                @Override
+                public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+                  written.incrementAndGet();
+                }
+              });
+          while (sortRows.processRow()) {
+            // Sort all rows
+          }
+          sortRows.dispose();
+          assertEquals(rows, written.get());
+          spillFiles.set(data.bufferSizes.size());
+        });
+    Benchmark.report("  spill files", String.format("%,d", spillFiles.get()));
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SortRowsTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private TransformMockHelper<SortRowsMeta, SortRowsData> smh;
+  private IRowMeta inputRowMeta;
+  private SortRowsMeta meta;
+  private SortRowsData data;
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    smh = new TransformMockHelper<>("Sort rows", SortRowsMeta.class, SortRowsData.class);
+    when(smh.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(smh.iLogChannel);
+    when(smh.pipeline.isRunning()).thenReturn(true);
+
+    inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("key"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("seq"));
+    inputRowMeta.addValueMeta(new ValueMetaString("name"));
+
+    meta = new SortRowsMeta();
+    meta.setDefault();
+    meta.setDirectory(tempFolder.getRoot().getAbsolutePath());
+    List<SortRowsField> sortFields = new ArrayList<>();
+    sortFields.add(new SortRowsField("key", true, true, false, 0, false));
+    meta.setSortFields(sortFields);
+    data = new SortRowsData();
+  }
+
+  @After
+  public void cleanUp() {
+    smh.cleanUp();
+  }
+
+  private static List<Object[]> createRows(int count, int keys) {
+    Random random = new Random(42);
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      long key = random.nextInt(keys);
+      rows.add(new Object[] {key, (long) i, "row " + i});
+    }
+    return rows;
+  }
+
+  private SortRows createTransform(List<Object[]> rows) {
+    SortRows sortRows =
+        new SortRows(smh.transformMeta, meta, data, 0, smh.pipelineMeta, smh.pipeline);
+    // The transform also reads with getRowImmediate() after every block of rows
+    //
+    IRowSet rowSet = smh.getMockInputRowSet(rows);
+    when(rowSet.getRowImmediate()).thenAnswer(invocation -> rowSet.getRow());
+    sortRows.addRowSetToInputRowSets(rowSet);
+    sortRows.setInputRowMeta(inputRowMeta);
+    sortRows.init();
+    return sortRows;
+  }
+
+  private List<Object[]> sort(List<Object[]> rows) throws HopException {
+    SortRows sortRows = createTransform(rows);
+    List<Object[]> result = new ArrayList<>();
+    sortRows.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            result.add(row);
+          }
+        });
+    while (sortRows.processRow()) {
+      // Process all rows
+    }
+    sortRows.dispose();
+    return result;
+  }
+
+  /** Rows are sorted on the key, rows with the same key keep their input order. */
+  private static void assertStableOrder(List<Object[]> rows) {
+    for (int i = 1; i < rows.size(); i++) {
+      long previousKey = (Long) rows.get(i - 1)[0];
+      long key = (Long) rows.get(i)[0];
+      assertTrue("Row " + i, previousKey <= key);
+      if (previousKey == key) {
+        assertTrue("Row " + i, (Long) rows.get(i - 1)[1] < (Long) rows.get(i)[1]);
+      }
+    }
+  }
+
+  @Test
+  public void testExternalSortWritesAndMergesRuns() throws Exception {
+    meta.setSortSize("100");
+    List<Object[]> rows = createRows(1234, 50);
+
+    List<Object[]> result = sort(rows);
+
+    assertEquals(rows.size(), result.size());
+    assertStableOrder(result);
+    // 12 full buffers and the remaining 34 rows were written as separate runs
+    assertEquals(13, data.bufferSizes.size());
+    assertEquals(0, tempFolder.getRoot().listFiles().length);
+  }
+
+  @Test
+  public void testExternalSortWithCompressionAndUniqueRows() throws Exception {
+    meta.setSortSize("100");
+    meta.setCompressFiles(true);
+    meta.setOnlyPassingUniqueRows(true);
+    List<Object[]> rows = createRows(1000, 50);
+
+    List<Object[]> result = sort(rows);
+
+    assertEquals(50, result.size());
+    for (int i = 0; i < result.size(); i++) {
+      assertEquals((long) i, result.get(i)[0]);
+    }
+    assertEquals(0, tempFolder.getRoot().listFiles().length);
+  }
+
+  @Test
+  public void testInMemorySort() throws Exception {
+    List<Object[]> rows = createRows(1000, 50);
+
+    List<Object[]> result = sort(rows);
+
+    assertEquals(rows.size(), result.size());
+    assertStableOrder(result);
+    assertTrue(data.bufferSizes.isEmpty());
+  }
+
+  @Test
+  public void testParallelSortIsStable() throws Exception {
+    List<Object[]> rows = createRows(5 * SortRows.PARALLEL_SORT_MIN_CHUNK + 17, 1000);
+
+    // Process a first row to set up the row metadata and comparators
+    //
+    SortRows sortRows = createTransform(rows.subList(0, 1));
+    assertTrue(sortRows.processRow());
+
+    Object[][] sorted = rows.toArray(new Object[0][]);
+    List<IRowMeta> rowMetas = sortRows.sortRows(sorted, 4);
+
+    // The output row metadata and a copy for each of the 4 chunks
+    assertEquals(5, rowMetas.size());
+    List<Object[]> expected = new ArrayList<>(rows);
+    expected.sort((a, b) -> Long.compare((Long) a[0], (Long) b[0]));
+    assertArrayEquals(expected.toArray(), sorted);
+    sortRows.dispose();
+  }
+}
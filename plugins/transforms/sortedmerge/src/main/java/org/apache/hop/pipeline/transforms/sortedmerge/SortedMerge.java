@@ -17,13 +17,10 @@
 
 package org.apache.hop.pipeline.transforms.sortedmerge;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
-import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -48,8 +45,8 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
    * We read from all streams in the partition merge mode For that we need at least one row on all
    * input rowsets... If we don't have a row, we wait for one.
    *
-   * <p>TODO: keep the inputRowSets() list sorted and go from there. That should dramatically
-   * improve speed as you only need half as many comparisons.
+   * <p>The current rows of the input rowsets are kept in a tree of losers: finding the next row
+   * takes log2(k) comparisons for k input rowsets.
    *
    * @return the next row
    */
@@ -59,25 +56,20 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
 
       // Read one row from all rowsets...
       //
-      data.sortedBuffer = new ArrayList<>();
       data.rowMeta = null;
 
-      // If one of the inputRowSets holds a null row (the input yields
-      // 0 rows), then the null rowSet is removed from the InputRowSet buffer..
-      // (BaseTransform.getRowFrom())
-      // which throws this loop off by one (the next set never gets processed).
-      // Instead of modifying BaseTransform, I figure reversing the loop here would
-      // effect change in less areas. If the reverse loop causes a problem, please
+      // If one of the inputRowSets holds a null row (the input yields 0 rows), then the rowSet is
+      // removed from the input row sets (BaseTransform.getRowFrom()). Work on a copy to visit
+      // every row set.
+      //
       List<IRowSet> inputRowSets = getInputRowSets();
-      for (int i = inputRowSets.size() - 1; i >= 0 && !isStopped(); i--) {
-
-        IRowSet rowSet = inputRowSets.get(i);
+      data.rowSets = inputRowSets.toArray(new IRowSet[0]);
+      Object[][] firstRows = new Object[data.rowSets.length][];
+      for (int i = 0; i < data.rowSets.length && !isStopped(); i++) {
+        IRowSet rowSet = data.rowSets[i];
         Object[] row = getRowFrom(rowSet);
         if (row != null) {
-          // Add this row to the sortedBuffer...
-          // Which is not yet sorted, we'll get to that later.
-          //
-          data.sortedBuffer.add(new RowSetRow(rowSet, rowSet.getRowMeta(), row));
+          firstRows[i] = row;
           if (data.rowMeta == null) {
             data.rowMeta = rowSet.getRowMeta().clone();
           }
@@ -106,55 +98,34 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
             }
           }
         }
+      }
 
-        data.comparator =
-            (o1, o2) -> {
-              try {
-                return o1.getRowMeta().compare(o1.getRowData(), o2.getRowData(), data.fieldIndices);
-              } catch (HopValueException e) {
-                return 0; // TODO see if we should fire off alarms over here... Perhaps throw a
-                // RuntimeException.
-              }
-            };
-
-        // Now sort the sortedBuffer for the first time.
-        //
-        Collections.sort(data.sortedBuffer, data.comparator);
+      // If no input has rows, we're done...
+      //
+      if (data.rowMeta == null) {
+        return null;
       }
+      data.merger = new SortedRowMerger(data.rowMeta, data.fieldIndices, firstRows);
     }
 
-    // If our sorted buffer is empty, it means we're done...
-    //
-    if (data.sortedBuffer.isEmpty()) {
+    if (data.merger == null) {
       return null;
     }
 
-    // now that we have all rows sorted, all we need to do is find out what the smallest row is.
-    // The smallest row is the first in our case...
+    // The smallest row is the winner of the tree
+    // If there is no winner, it means we're done...
     //
-    RowSetRow smallestRow = data.sortedBuffer.get(0);
-    data.sortedBuffer.remove(0);
-    Object[] outputRowData = smallestRow.getRowData();
+    int winner = data.merger.getWinner();
+    if (winner < 0) {
+      return null;
+    }
+    Object[] outputRowData = data.merger.getWinnerRow();
+    IRowSet rowSet = data.rowSets[winner];
 
     // We read another row from the row set where the smallest row came from.
-    // That we we exhaust all row sets.
-    //
-    Object[] extraRow = getRowFrom(smallestRow.getRowSet());
-
-    // Add it to the sorted buffer in the right position...
+    // That way we exhaust all row sets. This waits for a row if the row set is empty.
     //
-    if (extraRow != null) {
-      // Add this one to the sortedBuffer
-      //
-      RowSetRow add =
-          new RowSetRow(smallestRow.getRowSet(), smallestRow.getRowSet().getRowMeta(), extraRow);
-      int index = Collections.binarySearch(data.sortedBuffer, add, data.comparator);
-      if (index < 0) {
-        data.sortedBuffer.add(-index - 1, add);
-      } else {
-        data.sortedBuffer.add(index, add);
-      }
-    }
+    data.merger.replaceWinnerRow(getRowFrom(rowSet));
 
     // This concludes the regular program...
     //
@@ -164,7 +135,7 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
     if (getPipeline().isSafeModeEnabled()) {
       // for checking we need to get data and meta
       //
-      safeModeChecking(smallestRow.getRowMeta());
+      safeModeChecking(rowSet.getRowMeta());
     }
 
     return outputRowData;
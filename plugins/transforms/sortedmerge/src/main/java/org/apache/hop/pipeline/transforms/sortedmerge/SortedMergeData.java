@@ -17,8 +17,7 @@
 
 package org.apache.hop.pipeline.transforms.sortedmerge;
 
-import java.util.Comparator;
-import java.util.List;
+import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -27,8 +26,8 @@ import org.apache.hop.pipeline.transform.ITransformData;
 public class SortedMergeData extends BaseTransformData implements ITransformData {
   public int[] fieldIndices;
   public IRowMeta rowMeta;
-  public List<RowSetRow> sortedBuffer;
-  public Comparator<RowSetRow> comparator;
+  public IRowSet[] rowSets;
+  public SortedRowMerger merger;
 
   public SortedMergeData() {
     super();
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sortedmerge;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Merges the rows of several sorted inputs with a tree of losers. Every inner node of the tree
+ * keeps the input which lost the comparison at that node, the overall winner is the input with the
+ * smallest row. When the next row of the winning input replaces its previous row, only the nodes on
+ * the path from that input to the root are compared again: log2(k) comparisons for k inputs.
+ *
+ * <p>Inputs which have no more rows are larger than any row. Rows with the same sort keys are
+ * returned in the order of the inputs.
+ */
+public class SortedRowMerger {
+  private final int[] keyIndexes;
+  private final IValueMeta[] keyMetas;
+
+  /** The current row of every input, null if the input has no more rows */
+  private final Object[][] rows;
+
+  /** The losers of the inner nodes 1..k-1, the winner in position 0 */
+  private final int[] tree;
+
+  /**
+   * @param rowMeta the metadata of the rows, the sort direction of the key fields is taken from it
+   * @param keyIndexes the indexes of the fields to sort on
+   * @param firstRows the first row of every input, null for an input without rows
+   * @throws HopValueException in case two rows can't be compared
+   */
+  public SortedRowMerger(IRowMeta rowMeta, int[] keyIndexes, Object[][] firstRows)
+      throws HopValueException {
+    this.keyIndexes = keyIndexes;
+    this.keyMetas = new IValueMeta[keyIndexes.length];
+    for (int i = 0; i < keyIndexes.length; i++) {
+      keyMetas[i] = rowMeta.getValueMeta(keyIndexes[i]);
+    }
+    this.rows = firstRows.clone();
+    this.tree = new int[Math.max(1, rows.length)];
+    build();
+  }
+
+  /** Play all the matches bottom up, the leaves of input i are at position k + i */
+  private void build() throws HopValueException {
+    int k = rows.length;
+    if (k <= 1) {
+      tree[0] = 0;
+      return;
+    }
+    int[] winners = new int[2 * k];
+    for (int i = 0; i < k; i++) {
+      winners[k + i] = i;
+    }
+    for (int node = k - 1; node > 0; node--) {
+      int left = winners[2 * node];
+      int right = winners[2 * node + 1];
+      if (less(right, left)) {
+        winners[node] = right;
+        tree[node] = left;
+      } else {
+        winners[node] = left;
+        tree[node] = right;
+      }
+    }
+    tree[0] = winners[1];
+  }
+
+  /**
+   * @return the index of the input with the smallest row or -1 if no input has rows left
+   */
+  public int getWinner() {
+    if (rows.length == 0 || rows[tree[0]] == null) {
+      return -1;
+    }
+    return tree[0];
+  }
+
+  /**
+   * @return the smallest row or null if no input has rows left
+   */
+  public Object[] getWinnerRow() {
+    return rows.length == 0 ? null : rows[tree[0]];
+  }
+
+  /**
+   * Replace the row of the winning input by its next row and find the new winner
+   *
+   * @param nextRow the next row of the winning input, null if it has no more rows
+   * @throws HopValueException in case two rows can't be compared
+   */
+  public void replaceWinnerRow(Object[] nextRow) throws HopValueException {
+    int k = rows.length;
+    int winner = tree[0];
+    rows[winner] = nextRow;
+    for (int node = (winner + k) >> 1; node > 0; node >>= 1) {
+      if (less(tree[node], winner)) {
+        int loser = winner;
+        winner = tree[node];
+        tree[node] = loser;
+      }
+    }
+    tree[0] = winner;
+  }
+
+  /** Is the row of input a smaller than the row of input b? */
+  private boolean less(int a, int b) throws HopValueException {
+    Object[] rowA = rows[a];
+    Object[] rowB = rows[b];
+    if (rowA == null) {
+      return false;
+    }
+    if (rowB == null) {
+      return true;
+    }
+    for (int i = 0; i < keyIndexes.length; i++) {
+      int index = keyIndexes[i];
+      int cmp = keyMetas[i].compare(rowA[index], rowB[index]);
+      if (cmp != 0) {
+        return cmp < 0;
+      }
+    }
+    return a < b;
+  }
+}
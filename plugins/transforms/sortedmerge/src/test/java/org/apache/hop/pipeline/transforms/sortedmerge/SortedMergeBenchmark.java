@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sortedmerge;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.Benchmark;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mock.GeneratedRowSet;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Merges the sorted output of k transform copies, for k = 2 to 128. The keys of the inputs are
+ * interleaved so the smallest row comes from another input every time.
+ */
+public class SortedMergeBenchmark {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public Benchmark benchmark = new Benchmark();
+
+  private final long rows = Benchmark.size("rows", 2_000_000L);
+
+  private IRowMeta rowMeta;
+  private SortedMergeMeta meta;
+  private TransformMeta transformMeta;
+  private PipelineMeta pipelineMeta;
+  private Pipeline pipeline;
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("key"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    meta = new SortedMergeMeta();
+    meta.setFieldName(new String[] {"key"});
+    meta.setAscending(new boolean[] {true});
+    transformMeta = new TransformMeta("Sorted merge", meta);
+    pipelineMeta = new PipelineMeta();
+    pipelineMeta.addTransform(transformMeta);
+    pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.setRunning(true);
+  }
+
+  @Test
+  public void inputs() throws Exception {
+    for (int k = 2; k <= 128; k *= 2) {
+      measure(k);
+    }
+  }
+
+  private void measure(int k) throws Exception {
+    long perInput = rows / k;
+    benchmark.measure(
+        String.format("Sorted merge, %d inputs", k),
+        perInput * k,
+        () -> {
+          SortedMerge merge =
+              new SortedMerge(
+                  transformMeta, meta, new SortedMergeData(), 0, pipelineMeta, pipeline);
+          for (int i = 0; i < k; i++) {
+            long input = i;
+            GeneratedRowSet rowSet =
+                new GeneratedRowSet(perInput, seq -> new Object[] {seq * k + input, "Apache Hop"});
+            rowSet.setRowMeta(rowMeta);
+            merge.addRowSetToInputRowSets(rowSet);
+          }
+          merge.init();
+          while (merge.processRow()) {
+            // Merge all rows
+          }
+          merge.dispose();
+          assertEquals(perInput * k, merge.getLinesWritten());
+        });
+  }
+}
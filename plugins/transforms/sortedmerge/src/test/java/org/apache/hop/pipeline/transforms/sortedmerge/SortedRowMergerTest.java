@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sortedmerge;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class SortedRowMergerTest {
+
+  private static IRowMeta createRowMeta(boolean descending) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("input"));
+    ValueMetaInteger key = new ValueMetaInteger("key");
+    key.setSortedDescending(descending);
+    rowMeta.addValueMeta(key);
+    return rowMeta;
+  }
+
+  /** Merge the inputs and return the keys in the order of the merged rows. */
+  private static List<Long> merge(IRowMeta rowMeta, List<List<Object[]>> inputs) throws Exception {
+    Object[][] firstRows = new Object[inputs.size()][];
+    int[] positions = new int[inputs.size()];
+    for (int i = 0; i < inputs.size(); i++) {
+      firstRows[i] = inputs.get(i).isEmpty() ? null : inputs.get(i).get(0);
+      positions[i] = 1;
+    }
+    SortedRowMerger merger = new SortedRowMerger(rowMeta, new int[] {1}, firstRows);
+
+    List<Long> keys = new ArrayList<>();
+    int winner;
+    while ((winner = merger.getWinner()) >= 0) {
+      Object[] row = merger.getWinnerRow();
+      assertSame(inputs.get(winner).get(positions[winner] - 1), row);
+      keys.add((Long) row[1]);
+
+      List<Object[]> input = inputs.get(winner);
+      merger.replaceWinnerRow(
+          positions[winner] < input.size() ? input.get(positions[winner]++) : null);
+    }
+    assertNull(merger.getWinnerRow());
+    return keys;
+  }
+
+  private static List<List<Object[]>> createInputs(int k, Random random, boolean descending) {
+    List<List<Object[]>> inputs = new ArrayList<>();
+    for (int i = 0; i < k; i++) {
+      List<Long> keys = new ArrayList<>();
+      int size = random.nextInt(50);
+      for (int r = 0; r < size; r++) {
+        keys.add((long) random.nextInt(100));
+      }
+      Collections.sort(keys);
+      if (descending) {
+        Collections.reverse(keys);
+      }
+      List<Object[]> rows = new ArrayList<>();
+      for (Long key : keys) {
+        rows.add(new Object[] {"input " + i, key});
+      }
+      inputs.add(rows);
+    }
+    return inputs;
+  }
+
+  private static List<Long> expectedKeys(List<List<Object[]>> inputs, boolean descending) {
+    List<Long> keys = new ArrayList<>();
+    for (List<Object[]> input : inputs) {
+      for (Object[] row : input) {
+        keys.add((Long) row[1]);
+      }
+    }
+    Collections.sort(keys);
+    if (descending) {
+      Collections.reverse(keys);
+    }
+    return keys;
+  }
+
+  @Test
+  public void testMergeManyInputs() throws Exception {
+    Random random = new Random(123);
+    for (int k = 1; k <= 128; k *= 2) {
+      for (boolean descending : new boolean[] {false, true}) {
+        List<List<Object[]>> inputs = createInputs(k, random, descending);
+        assertEquals(
+            "k=" + k, expectedKeys(inputs, descending), merge(createRowMeta(descending), inputs));
+      }
+    }
+  }
+
+  @Test
+  public void testUnevenNumberOfInputs() throws Exception {
+    Random random = new Random(456);
+    for (int k : new int[] {3, 5, 7, 31, 33}) {
+      List<List<Object[]>> inputs = createInputs(k, random, false);
+      assertEquals("k=" + k, expectedKeys(inputs, false), merge(createRowMeta(false), inputs));
+    }
+  }
+
+  @Test
+  public void testEqualKeysInInputOrder() throws Exception {
+    IRowMeta rowMeta = createRowMeta(false);
+    Object[][] firstRows = {{"a", 1L}, null, {"c", 1L}, {"d", 0L}};
+    SortedRowMerger merger = new SortedRowMerger(rowMeta, new int[] {1}, firstRows);
+
+    assertEquals(3, merger.getWinner());
+    merger.replaceWinnerRow(null);
+    assertEquals(0, merger.getWinner());
+    merger.replaceWinnerRow(new Object[] {"a", 1L});
+    assertEquals(0, merger.getWinner());
+    merger.replaceWinnerRow(null);
+    assertEquals(2, merger.getWinner());
+    assertArrayEquals(new Object[] {"c", 1L}, merger.getWinnerRow());
+    merger.replaceWinnerRow(null);
+    assertEquals(-1, merger.getWinner());
+  }
+
+  @Test
+  public void testNoInputs() throws Exception {
+    SortedRowMerger merger =
+        new SortedRowMerger(createRowMeta(false), new int[] {1}, new Object[0][]);
+    assertEquals(-1, merger.getWinner());
+    assertNull(merger.getWinnerRow());
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.streamlookup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.hop.core.cache.RowKeyEncoder;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+
+/**
+ * A lookup table which is built once and probed by all copies of a Stream Lookup transform. Every
+ * copy adds the lookup rows it reads to the same table concurrently and waits until all copies are
+ * done before it starts looking up rows.
+ *
+ * <p>Keys are stored in the compact form of a {@link RowKeyEncoder}. Values are serialized to a
+ * byte array when memory preservation is active.
+ */
+public class SharedLookupTable {
+  private static final String EXTENSION_DATA_PREFIX = "StreamLookup.SharedTable.";
+
+  private final Map<Object, Object> map = new ConcurrentHashMap<>();
+  private final boolean serializeValues;
+  private final AtomicInteger builders;
+  private final AtomicInteger references = new AtomicInteger();
+  private final CountDownLatch built = new CountDownLatch(1);
+  private final LongAdder rows = new LongAdder();
+  private final LongAdder estimatedBytes = new LongAdder();
+  private final AtomicLong startTime = new AtomicLong();
+  private volatile long buildTime;
+
+  private volatile IRowMeta infoMeta;
+  private volatile IRowMeta keyTypes;
+  private volatile IRowMeta keyMeta;
+  private volatile IRowMeta valueMeta;
+  private volatile RowKeyEncoder keyEncoder;
+
+  /**
+   * @param builders the number of transform copies adding rows to the table
+   * @param serializeValues true if the values are stored as bytes to preserve memory
+   */
+  public SharedLookupTable(int builders, boolean serializeValues) {
+    this.builders = new AtomicInteger(Math.max(1, builders));
+    this.serializeValues = serializeValues;
+  }
+
+  /**
+   * Get the table shared by the copies of a transform, creating it for the first copy.
+   *
+   * @param pipeline the running pipeline
+   * @param transformName the name of the transform
+   * @param copies the number of copies of the transform
+   * @param serializeValues true if the values are stored as bytes to preserve memory
+   * @return the shared table
+   */
+  public static SharedLookupTable acquire(
+      IPipelineEngine<?> pipeline, String transformName, int copies, boolean serializeValues) {
+    Map<String, Object> extensionDataMap = pipeline.getExtensionDataMap();
+    synchronized (extensionDataMap) {
+      String key = EXTENSION_DATA_PREFIX + transformName;
+      SharedLookupTable table = (SharedLookupTable) extensionDataMap.get(key);
+      if (table == null) {
+        table = new SharedLookupTable(copies, serializeValues);
+        extensionDataMap.put(key, table);
+      }
+      table.references.incrementAndGet();
+      return table;
+    }
+  }
+
+  /**
+   * Release the table for one copy of the transform. The table is removed from the pipeline and
+   * cleared when the last copy releases it.
+   *
+   * @param pipeline the running pipeline
+   * @param transformName the name of the transform
+   */
+  public void release(IPipelineEngine<?> pipeline, String transformName) {
+    Map<String, Object> extensionDataMap = pipeline.getExtensionDataMap();
+    synchronized (extensionDataMap) {
+      if (references.decrementAndGet() == 0) {
+        extensionDataMap.remove(EXTENSION_DATA_PREFIX + transformName, this);
+        map.clear();
+      }
+    }
+  }
+
+  /**
+   * Set the metadata of the lookup rows. Only the metadata of the first copy to read a lookup row
+   * is kept, the other copies read rows with the same layout.
+   *
+   * @param infoMeta the metadata of the lookup stream
+   * @param keyTypes the metadata of the keys as they arrive in the lookup stream
+   * @param keyMeta the metadata of the keys in normal storage
+   * @param valueMeta the metadata of the values
+   */
+  public synchronized void setMetadata(
+      IRowMeta infoMeta, IRowMeta keyTypes, IRowMeta keyMeta, IRowMeta valueMeta) {
+    if (this.keyMeta != null) {
+      return;
+    }
+    this.infoMeta = infoMeta;
+    this.keyTypes = keyTypes;
+    this.valueMeta = valueMeta;
+    this.keyEncoder = new RowKeyEncoder(keyMeta);
+    this.keyMeta = keyMeta;
+  }
+
+  /**
+   * Add a lookup row to the table, replacing the value of an existing key.
+   *
+   * @param keyData the key values in normal storage
+   * @param valueData the values to return for the key
+   * @throws HopValueException in case a key value can't be converted
+   */
+  public void put(Object[] keyData, Object[] valueData) throws HopValueException {
+    startTime.compareAndSet(0L, System.currentTimeMillis());
+    Object key = encodeKey(keyData);
+    Object value = serializeValues ? RowMeta.extractData(valueMeta, valueData) : valueData;
+    if (map.put(key, value) == null) {
+      estimatedBytes.add(
+          RowKeyEncoder.estimateBytes(key) + RowKeyEncoder.estimateBytes(value) + 32L);
+    }
+    rows.increment();
+  }
+
+  /**
+   * Look up the values of a key
+   *
+   * @param keyData the key values in normal storage, converted to the key types of the table
+   * @return the values or null if the key isn't in the table
+   * @throws HopValueException in case a key value can't be converted
+   */
+  public Object[] get(Object[] keyData) throws HopValueException {
+    Object value = map.get(encodeKey(keyData));
+    if (value == null) {
+      return null;
+    }
+    if (serializeValues) {
+      return RowMeta.getRow(valueMeta, (byte[]) value);
+    }
+    return (Object[]) value;
+  }
+
+  /**
+   * Signal that one of the copies has added all its lookup rows
+   *
+   * @return true if this was the last copy, the table is then complete
+   */
+  public boolean builderDone() {
+    if (builders.decrementAndGet() == 0) {
+      long start = startTime.get();
+      buildTime = start == 0L ? 0L : System.currentTimeMillis() - start;
+      built.countDown();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Wait until all the copies have added their lookup rows
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   * @return true if the table is complete, false if the timeout elapsed
+   * @throws InterruptedException in case the thread was interrupted while waiting
+   */
+  public boolean awaitBuilt(long timeout, TimeUnit unit) throws InterruptedException {
+    return built.await(timeout, unit);
+  }
+
+  Object encodeKey(Object[] keyData) throws HopValueException {
+    return keyEncoder.encode(keyData);
+  }
+
+  /**
+   * @return the number of distinct keys in the table
+   */
+  public int size() {
+    return map.size();
+  }
+
+  /**
+   * @return the number of lookup rows added to the table
+   */
+  public long getRows() {
+    return rows.sum();
+  }
+
+  /**
+   * @return the estimated number of bytes used by the keys and values of the table
+   */
+  public long getEstimatedBytes() {
+    return estimatedBytes.sum();
+  }
+
+  /**
+   * @return the number of milliseconds between the first lookup row and the completion of the table
+   */
+  public long getBuildTime() {
+    return buildTime;
+  }
+
+  /**
+   * @return the metadata of the lookup stream or null if no lookup rows were read
+   */
+  public IRowMeta getInfoMeta() {
+    return infoMeta;
+  }
+
+  /**
+   * @return the metadata of the keys as they arrive in the lookup stream
+   */
+  public IRowMeta getKeyTypes() {
+    return keyTypes;
+  }
+
+  /**
+   * @return the metadata of the keys in normal storage
+   */
+  public IRowMeta getKeyMeta() {
+    return keyMeta;
+  }
+
+  /**
+   * @return the metadata of the values
+   */
+  public IRowMeta getValueMeta() {
+    return valueMeta;
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.streamlookup;
 import java.math.BigDecimal;
 import java.text.DateFormat;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
@@ -36,6 +37,7 @@ import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.ITransformIOMeta;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
 /**
@@ -194,29 +196,80 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
 
         data.cacheKeyMeta = cacheKeyMeta;
         data.cacheValueMeta = cacheValueMeta;
-      }
 
-      Object[] keyData = new Object[keyNrs.length];
-      for (int i = 0; i < keyNrs.length; i++) {
-        IValueMeta keyMeta = data.keyTypes.getValueMeta(i);
-        // Convert keys to normal storage type
-        keyData[i] = keyMeta.convertToNormalStorageType(rowData[keyNrs[i]]);
+        if (data.sharedTable != null) {
+          data.sharedTable.setMetadata(
+              data.infoMeta, data.keyTypes, data.cacheKeyMeta, data.cacheValueMeta);
+        }
       }
 
-      Object[] valueData = new Object[valueNrs.length];
-      for (int i = 0; i < valueNrs.length; i++) {
-        // Store value as is, avoid preliminary binary->normal storage type conversion
-        valueData[i] = rowData[valueNrs[i]];
-      }
+      // When every copy receives all lookup rows only one of them fills the shared table
+      //
+      if (data.sharedTable == null || data.sharedTableBuilder) {
+        Object[] keyData = new Object[keyNrs.length];
+        for (int i = 0; i < keyNrs.length; i++) {
+          IValueMeta keyMeta = data.keyTypes.getValueMeta(i);
+          // Convert keys to normal storage type
+          keyData[i] = keyMeta.convertToNormalStorageType(rowData[keyNrs[i]]);
+        }
+
+        Object[] valueData = new Object[valueNrs.length];
+        for (int i = 0; i < valueNrs.length; i++) {
+          // Store value as is, avoid preliminary binary->normal storage type conversion
+          valueData[i] = rowData[valueNrs[i]];
+        }
 
-      addToCache(data.cacheKeyMeta, keyData, data.cacheValueMeta, valueData);
+        addToCache(data.cacheKeyMeta, keyData, data.cacheValueMeta, valueData);
+      }
 
       rowData = getRowFrom(rowSet);
     }
 
+    if (data.sharedTable != null) {
+      waitForSharedTable();
+    }
+
     return true;
   }
 
+  /**
+   * Wait until all copies of the transform have added their lookup rows to the shared table, then
+   * take over the metadata of the table. A copy which didn't receive any lookup rows itself still
+   * needs it to look up rows.
+   */
+  private void waitForSharedTable() throws HopException {
+    SharedLookupTable table = data.sharedTable;
+    if (table.builderDone() && log.isBasic()) {
+      logBasic(
+          BaseMessages.getString(
+              PKG,
+              "StreamLookup.Log.SharedTableBuilt",
+              Integer.toString(table.size()),
+              Long.toString(table.getRows()),
+              Long.toString(table.getEstimatedBytes() / 1024),
+              Long.toString(table.getBuildTime())));
+    }
+
+    try {
+      while (!table.awaitBuilt(100, TimeUnit.MILLISECONDS)) {
+        if (isStopped()) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(e);
+    }
+
+    if (table.getInfoMeta() != null) {
+      data.hasLookupRows = true;
+      data.infoMeta = table.getInfoMeta();
+      data.keyTypes = table.getKeyTypes();
+      data.cacheKeyMeta = table.getKeyMeta();
+      data.cacheValueMeta = table.getValueMeta();
+    }
+  }
+
   private Object[] lookupValues(IRowMeta rowMeta, Object[] row) throws HopException {
     // See if we need to stop.
     if (isStopped()) {
@@ -296,7 +349,9 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
   private void addToCache(
       IRowMeta keyMeta, Object[] keyData, IRowMeta valueMeta, Object[] valueData)
       throws HopValueException {
-    if (meta.isMemoryPreservationActive()) {
+    if (data.sharedTable != null) {
+      data.sharedTable.put(keyData, valueData);
+    } else if (meta.isMemoryPreservationActive()) {
       if (meta.isUsingSortedList()) {
         KeyValue keyValue = new KeyValue(keyData, valueData);
         int idx = Collections.binarySearch(data.list, keyValue, data.comparator);
@@ -340,7 +395,9 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
   }
 
   private Object[] getFromCache(IRowMeta keyMeta, Object[] keyData) throws HopValueException {
-    if (meta.isMemoryPreservationActive()) {
+    if (data.sharedTable != null) {
+      return data.sharedTable.get(keyData);
+    } else if (meta.isMemoryPreservationActive()) {
       if (meta.isUsingSortedList()) {
         KeyValue keyValue = new KeyValue(keyData, null);
         int idx = Collections.binarySearch(data.list, keyValue, data.comparator);
@@ -484,16 +541,46 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     if (super.init()) {
       data.readLookupValues = true;
 
+      // Sharing the table needs all copies running side by side in the same pipeline
+      //
+      if (meta.isUsingSharedTable()
+          && getPipelineMeta().getPipelineType() == PipelineMeta.PipelineType.Normal) {
+        int copies = getTransformMeta().getCopies(this);
+        data.sharedTable =
+            SharedLookupTable.acquire(
+                getPipeline(), getTransformName(), copies, meta.isMemoryPreservationActive());
+        data.sharedTableBuilder = isSharedTableBuilder(copies);
+      }
+
       return true;
     }
 
     return false;
   }
 
+  /**
+   * The copies of the transform all add rows to the shared table when the lookup rows are spread
+   * over them. When every copy receives all lookup rows only the first copy adds them.
+   */
+  private boolean isSharedTableBuilder(int copies) {
+    if (getCopy() == 0) {
+      return true;
+    }
+    ITransformIOMeta ioMeta = meta.getTransformIOMeta();
+    TransformMeta infoTransformMeta = ioMeta.getInfoStreams().get(0).getTransformMeta();
+    return infoTransformMeta == null
+        || infoTransformMeta.isDistributes()
+        || infoTransformMeta.getCopies(this) == copies;
+  }
+
   @Override
   public void dispose() {
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
+    if (data.sharedTable != null) {
+      data.sharedTable.release(getPipeline(), getTransformName());
+      data.sharedTable = null;
+    }
     data.look = null;
     data.list = null;
     data.hashIndex = null;
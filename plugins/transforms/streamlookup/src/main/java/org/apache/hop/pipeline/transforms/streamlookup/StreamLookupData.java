@@ -81,6 +81,12 @@ public class StreamLookupData extends BaseTransformData implements ITransformDat
 
   public IStream infoStream;
 
+  /** The lookup table shared by all copies of the transform, null if every copy has its own */
+  public SharedLookupTable sharedTable;
+
+  /** True if this copy adds the lookup rows it reads to the shared table */
+  public boolean sharedTableBuilder;
+
   public StreamLookupData() {
     super();
     look = new HashMap<>();
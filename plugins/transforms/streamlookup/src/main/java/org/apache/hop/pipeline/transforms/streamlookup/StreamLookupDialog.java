@@ -64,6 +64,8 @@ public class StreamLookupDialog extends BaseTransformDialog {
 
   private Button wIntegerPair;
 
+  private Button wSharedTable;
+
   private final StreamLookupMeta input;
 
   private ColumnInfo[] ciKey;
@@ -274,6 +276,27 @@ public class StreamLookupDialog extends BaseTransformDialog {
           wIntegerPair.setEnabled(selection);
         });
 
+    Label wlSharedTable = new Label(shell, SWT.RIGHT);
+    wlSharedTable.setText(BaseMessages.getString(PKG, "StreamLookupDialog.SharedTable.Label"));
+    wlSharedTable.setToolTipText(
+        BaseMessages.getString(PKG, "StreamLookupDialog.SharedTable.Tooltip"));
+    PropsUi.setLook(wlSharedTable);
+    FormData fdlSharedTable = new FormData();
+    fdlSharedTable.left = new FormAttachment(0, 0);
+    fdlSharedTable.bottom = new FormAttachment(wlPreserveMemory, -margin);
+    fdlSharedTable.right = new FormAttachment(middle, -margin);
+    wlSharedTable.setLayoutData(fdlSharedTable);
+    wSharedTable = new Button(shell, SWT.CHECK);
+    wSharedTable.setToolTipText(
+        BaseMessages.getString(PKG, "StreamLookupDialog.SharedTable.Tooltip"));
+    PropsUi.setLook(wSharedTable);
+    FormData fdSharedTable = new FormData();
+    fdSharedTable.left = new FormAttachment(middle, 0);
+    fdSharedTable.top = new FormAttachment(wlSharedTable, 0, SWT.CENTER);
+    fdSharedTable.right = new FormAttachment(100, 0);
+    wSharedTable.setLayoutData(fdSharedTable);
+    wSharedTable.addListener(SWT.Selection, e -> input.setChanged());
+
     // THE UPDATE/INSERT TABLE
     Label wlReturn = new Label(shell, SWT.NONE);
     wlReturn.setText(BaseMessages.getString(PKG, "StreamLookupDialog.ReturnFields.Label"));
@@ -323,7 +346,7 @@ public class StreamLookupDialog extends BaseTransformDialog {
     fdReturn.left = new FormAttachment(0, 0);
     fdReturn.top = new FormAttachment(wlReturn, margin);
     fdReturn.right = new FormAttachment(100, 0);
-    fdReturn.bottom = new FormAttachment(wlPreserveMemory, -2 * margin);
+    fdReturn.bottom = new FormAttachment(wlSharedTable, -2 * margin);
     wReturn.setLayoutData(fdReturn);
 
     getData();
@@ -446,6 +469,7 @@ public class StreamLookupDialog extends BaseTransformDialog {
     // but user will be forced to choose only one option later.
     wSortedList.setSelection(input.isUsingSortedList());
     wIntegerPair.setSelection(input.isUsingIntegerPair());
+    wSharedTable.setSelection(input.isUsingSharedTable());
 
     wKey.setRowNums();
     wKey.optWidth(true);
@@ -473,6 +497,7 @@ public class StreamLookupDialog extends BaseTransformDialog {
     input.setMemoryPreservationActive(wPreserveMemory.getSelection());
     input.setUsingSortedList(wSortedList.getSelection());
     input.setUsingIntegerPair(wIntegerPair.getSelection());
+    input.setUsingSharedTable(wSharedTable.getSelection());
 
     if (log.isDebug()) {
       logDebug(BaseMessages.getString(PKG, "StreamLookupDialog.Log.FoundKeys", nrkeys + ""));
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.streamlookup;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.junit.Test;
+
+public class SharedLookupTableTest {
+
+  private SharedLookupTable createTable(IRowMeta keyMeta, boolean serializeValues) {
+    IRowMeta valueMeta = new RowMeta();
+    valueMeta.addValueMeta(new ValueMetaString("value"));
+    SharedLookupTable table = new SharedLookupTable(1, serializeValues);
+    table.setMetadata(new RowMeta(), keyMeta, keyMeta, valueMeta);
+    return table;
+  }
+
+  @Test
+  public void testIntegerKey() throws Exception {
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    SharedLookupTable table = createTable(keyMeta, false);
+
+    table.put(new Object[] {1L}, new Object[] {"one"});
+    table.put(new Object[] {2L}, new Object[] {"two"});
+    table.put(new Object[] {null}, new Object[] {"null"});
+    table.put(new Object[] {2L}, new Object[] {"TWO"});
+
+    assertTrue(table.encodeKey(new Object[] {1L}) instanceof Long);
+    assertEquals("one", table.get(new Object[] {1L})[0]);
+    assertEquals("TWO", table.get(new Object[] {2L})[0]);
+    assertEquals("null", table.get(new Object[] {null})[0]);
+    assertNull(table.get(new Object[] {3L}));
+    assertEquals(3, table.size());
+    assertEquals(4, table.getRows());
+    assertTrue(table.getEstimatedBytes() > 0);
+  }
+
+  @Test
+  public void testEncodedKey() throws Exception {
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaString("code"));
+    keyMeta.addValueMeta(new ValueMetaNumber("amount"));
+    SharedLookupTable table = createTable(keyMeta, true);
+
+    table.put(new Object[] {"a", 1.5}, new Object[] {"a-1.5"});
+    table.put(new Object[] {"a", 2.5}, new Object[] {"a-2.5"});
+    table.put(new Object[] {"", null}, new Object[] {"empty"});
+
+    assertFalse(table.encodeKey(new Object[] {"a", 1.5}) instanceof RowMetaAndData);
+    assertArrayEquals(new Object[] {"a-1.5"}, table.get(new Object[] {"a", 1.5}));
+    assertArrayEquals(new Object[] {"a-2.5"}, table.get(new Object[] {"a", 2.5}));
+    // Empty strings are null values
+    assertArrayEquals(new Object[] {"empty"}, table.get(new Object[] {null, null}));
+    assertNull(table.get(new Object[] {"A", 1.5}));
+    assertNull(table.get(new Object[] {"a", null}));
+  }
+
+  @Test
+  public void testRowKey() throws Exception {
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+    SharedLookupTable table = createTable(keyMeta, false);
+
+    table.put(new Object[] {new BigDecimal("12.50")}, new Object[] {"found"});
+
+    assertTrue(table.encodeKey(new Object[] {BigDecimal.ONE}) instanceof RowMetaAndData);
+    assertEquals("found", table.get(new Object[] {new BigDecimal("12.50")})[0]);
+    assertNull(table.get(new Object[] {BigDecimal.ONE}));
+  }
+
+  @Test
+  public void testConcurrentBuild() throws Exception {
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    IRowMeta valueMeta = new RowMeta();
+    valueMeta.addValueMeta(new ValueMetaString("value"));
+
+    int copies = 4;
+    int rowsPerCopy = 10000;
+    SharedLookupTable table = new SharedLookupTable(copies, false);
+    table.setMetadata(new RowMeta(), keyMeta, keyMeta, valueMeta);
+
+    List<Thread> threads = new ArrayList<>();
+    for (int c = 0; c < copies; c++) {
+      final int copy = c;
+      threads.add(
+          new Thread(
+              () -> {
+                try {
+                  for (long i = copy; i < (long) copies * rowsPerCopy; i += copies) {
+                    table.put(new Object[] {i}, new Object[] {"value " + i});
+                  }
+                } catch (Exception e) {
+                  throw new RuntimeException(e);
+                }
+                table.builderDone();
+              }));
+    }
+    assertFalse(table.awaitBuilt(1, TimeUnit.MILLISECONDS));
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    assertTrue(table.awaitBuilt(30, TimeUnit.SECONDS));
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(copies * rowsPerCopy, table.size());
+    for (long i = 0; i < copies * rowsPerCopy; i++) {
+      assertEquals("value " + i, table.get(new Object[] {i})[0]);
+    }
+  }
+
+  @Test
+  public void testAcquireRelease() {
+    Map<String, Object> extensionDataMap = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    IPipelineEngine<PipelineMeta> pipeline = mock(IPipelineEngine.class);
+    when(pipeline.getExtensionDataMap()).thenReturn(extensionDataMap);
+
+    SharedLookupTable first = SharedLookupTable.acquire(pipeline, "lookup", 2, false);
+    SharedLookupTable second = SharedLookupTable.acquire(pipeline, "lookup", 2, false);
+    SharedLookupTable other = SharedLookupTable.acquire(pipeline, "other", 1, false);
+    assertSame(first, second);
+    assertEquals(2, extensionDataMap.size());
+
+    first.release(pipeline, "lookup");
+    assertEquals(2, extensionDataMap.size());
+    second.release(pipeline, "lookup");
+    other.release(pipeline, "other");
+    assertTrue(extensionDataMap.isEmpty());
+  }
+}
@@ -59,6 +59,7 @@ public class StreamLookupMetaTest implements IInitializer<ITransformMeta> {
             "memoryPreservationActive",
             "usingSortedList",
             "usingIntegerPair",
+            "usingSharedTable",
             "keystream",
             "keylookup",
             "value",
@@ -30,6 +30,7 @@ import org.apache.hop.core.exception.HopDatabaseBatchException;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -46,6 +47,9 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
   private static final Class<?> PKG = TableOutputMeta.class;
 
+  /** The number of batches which can be on their way to the database while the next one fills */
+  private static final int MAX_PENDING_BATCHES = 2;
+
   public TableOutput(
       TransformMeta transformMeta,
       TableOutputMeta meta,
@@ -239,6 +243,11 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       data.preparedStatements.put(tableName, insertStatement);
     }
 
+    if (data.asyncBatches) {
+      writeToBatch(insertStatement, tableName, insertRowData, outputRowData);
+      return null;
+    }
+
     try {
       // For PG & GP, we add a savepoint before the row.
       // Then revert to the savepoint afterwards... (not a transaction, so hopefully still fast)
@@ -326,17 +335,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       } else {
         data.db.clearBatch(insertStatement);
         data.db.rollback();
-        StringBuilder msg =
-            new StringBuilder("Error batch inserting rows into table [" + tableName + "].");
-        msg.append(Const.CR);
-        msg.append("Errors encountered (first 10):").append(Const.CR);
-        for (int x = 0; x < be.getExceptionsList().size() && x < 10; x++) {
-          Exception exception = be.getExceptionsList().get(x);
-          if (exception.getMessage() != null) {
-            msg.append(exception.getMessage()).append(Const.CR);
-          }
-        }
-        throw new HopException(msg.toString(), be);
+        throw createBatchException(tableName, be);
       }
     } catch (HopDatabaseException dbe) {
       if (getTransformMeta().isDoingErrorHandling()) {
@@ -356,22 +355,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         errorMessage = dbe.toString();
       } else {
         if (meta.isIgnoreErrors()) {
-          if (data.warnings < 20) {
-            if (log.isBasic()) {
-              logBasic(
-                  "WARNING: Couldn't insert row into table: "
-                      + rowMeta.getString(r)
-                      + Const.CR
-                      + dbe.getMessage());
-            }
-          } else if (data.warnings == 20 && log.isBasic()) {
-            logBasic(
-                "FINAL WARNING (no more then 20 displayed): Couldn't insert row into table: "
-                    + rowMeta.getString(r)
-                    + Const.CR
-                    + dbe.getMessage());
-          }
-          data.warnings++;
+          logIgnoredError(rowMeta, r, dbe);
         } else {
           setErrors(getErrors() + 1);
           data.db.rollback();
@@ -426,6 +410,104 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
     return outputRowData;
   }
 
+  /**
+   * Add a row to the batch which is filled while the previous batches are written on the batch
+   * writer thread. The rows of the batches which are written are passed on to the next transforms.
+   */
+  private void writeToBatch(
+      PreparedStatement insertStatement,
+      String tableName,
+      Object[] insertRowData,
+      Object[] outputRowData)
+      throws HopException {
+    if (data.batchWriter == null) {
+      data.batchWriter =
+          new TableOutputBatchWriter(
+              data.db,
+              data.insertRowMeta,
+              insertStatement,
+              tableName,
+              getTransformMeta().isDoingErrorHandling(),
+              meta.isIgnoreErrors(),
+              MAX_PENDING_BATCHES,
+              getPipelineMeta().getName() + " - " + getTransformName() + " batch writer");
+    }
+    data.batchWriter.addRow(insertRowData, outputRowData);
+    if (isRowLevel()) {
+      logRowlevel("Batched row: " + data.insertRowMeta.getString(insertRowData));
+    }
+    if (data.batchWriter.getRowCount() >= data.commitSize) {
+      data.batchWriter.submit();
+    }
+    processWrittenBatches(tableName, data.batchWriter.takeExecutedBatches(false));
+  }
+
+  private void processWrittenBatches(String tableName, List<TableOutputBatchWriter.Batch> batches)
+      throws HopException {
+    for (TableOutputBatchWriter.Batch batch : batches) {
+      if (batch.getFailure() != null) {
+        setErrors(getErrors() + 1);
+        throw batch.getFailure();
+      }
+      HopDatabaseBatchException be = batch.getBatchException();
+      if (be == null) {
+        for (Object[] row : batch.getBatchedRows()) {
+          putRow(data.outputRowMeta, row);
+          incrementLinesOutput();
+        }
+      } else if (getTransformMeta().isDoingErrorHandling()) {
+        processBatchException(
+            batch.getBatchedRows(), be.toString(), be.getUpdateCounts(), be.getExceptionsList());
+      } else {
+        setErrors(getErrors() + 1);
+        throw createBatchException(tableName, be);
+      }
+      for (int i = 0; i < batch.getErrorRows().size(); i++) {
+        Object[] row = batch.getErrorRows().get(i);
+        HopDatabaseException dbe = batch.getErrors().get(i);
+        if (getTransformMeta().isDoingErrorHandling()) {
+          putError(data.outputRowMeta, row, 1L, dbe.toString(), null, "TOP001");
+        } else {
+          logIgnoredError(data.outputRowMeta, row, dbe);
+        }
+      }
+    }
+  }
+
+  private HopException createBatchException(String tableName, HopDatabaseBatchException be) {
+    StringBuilder msg =
+        new StringBuilder("Error batch inserting rows into table [" + tableName + "].");
+    msg.append(Const.CR);
+    msg.append("Errors encountered (first 10):").append(Const.CR);
+    for (int x = 0; x < be.getExceptionsList().size() && x < 10; x++) {
+      Exception exception = be.getExceptionsList().get(x);
+      if (exception.getMessage() != null) {
+        msg.append(exception.getMessage()).append(Const.CR);
+      }
+    }
+    return new HopException(msg.toString(), be);
+  }
+
+  private void logIgnoredError(IRowMeta rowMeta, Object[] r, HopDatabaseException dbe)
+      throws HopValueException {
+    if (data.warnings < 20) {
+      if (log.isBasic()) {
+        logBasic(
+            "WARNING: Couldn't insert row into table: "
+                + rowMeta.getString(r)
+                + Const.CR
+                + dbe.getMessage());
+      }
+    } else if (data.warnings == 20 && log.isBasic()) {
+      logBasic(
+          "FINAL WARNING (no more then 20 displayed): Couldn't insert row into table: "
+              + rowMeta.getString(r)
+              + Const.CR
+              + dbe.getMessage());
+    }
+    data.warnings++;
+  }
+
   @Override
   public boolean isRowLevel() {
     return log.isRowLevel();
@@ -433,13 +515,19 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
   private void processBatchException(
       String errorMessage, int[] updateCounts, List<Exception> exceptionsList) throws HopException {
+    processBatchException(data.batchBuffer, errorMessage, updateCounts, exceptionsList);
+  }
+
+  private void processBatchException(
+      List<Object[]> rows, String errorMessage, int[] updateCounts, List<Exception> exceptionsList)
+      throws HopException {
     // There was an error with the commit
     // We should put all the failing rows out there...
     //
     if (updateCounts != null) {
       int errNr = 0;
       for (int i = 0; i < updateCounts.length; i++) {
-        Object[] row = data.batchBuffer.get(i);
+        Object[] row = rows.get(i);
         if (updateCounts[i] > 0) {
           // send the error foward
           putRow(data.outputRowMeta, row);
@@ -458,14 +546,14 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       // If we don't have update counts, it probably means the DB doesn't support it.
       // In this case we don't have a choice but to consider all inserted rows to be error rows.
       //
-      for (int i = 0; i < data.batchBuffer.size(); i++) {
-        Object[] row = data.batchBuffer.get(i);
+      for (int i = 0; i < rows.size(); i++) {
+        Object[] row = rows.get(i);
         putError(data.outputRowMeta, row, 1L, errorMessage, null, "TOP0003");
       }
     }
 
     // Clear the buffer afterwards...
-    data.batchBuffer.clear();
+    rows.clear();
   }
 
   @Override
@@ -540,6 +628,19 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
         }
         data.db.setCommit(data.commitSize);
 
+        // Write the batches on a separate thread while the next batch is being filled.
+        // The writer uses the connection of this transform so only one table can be written.
+        //
+        data.asyncBatches =
+            meta.isAsyncBatches()
+                && data.batchMode
+                && !meta.isPartitioningEnabled()
+                && !meta.isTableNameInField()
+                && data.db.getUseBatchInsert(true);
+        if (meta.isAsyncBatches() && !data.asyncBatches) {
+          logBasic(BaseMessages.getString(PKG, "TableOutput.Log.AsyncBatchesNotUsed"));
+        }
+
         if (!meta.isPartitioningEnabled() && !meta.isTableNameInField()) {
           data.tableName = resolve(meta.getTableName());
         }
@@ -594,6 +695,10 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
   private void emptyAndCommitBatchBuffers(boolean dispose) {
     try {
+      if (data.batchWriter != null && getErrors() == 0) {
+        data.batchWriter.submit();
+        processWrittenBatches(data.tableName, data.batchWriter.takeExecutedBatches(true));
+      }
       for (String schemaTable : data.preparedStatements.keySet()) {
         // Get a commit counter per prepared statement to keep track of separate tables, etc.
         //
@@ -635,6 +740,12 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       setErrors(1);
       stopAll();
     } finally {
+      // The connection is ours again once the batch writer is stopped
+      //
+      if (data.batchWriter != null) {
+        data.batchWriter.close();
+        data.batchWriter = null;
+      }
       setOutputDone();
 
       if (getErrors() > 0) {
@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * Executes the insert batches of Table Output on a separate thread. While the database works on a
+ * batch the transform fills the next one. The batches are executed one after the other, in the
+ * order they were submitted, on the database connection of the transform. The transform doesn't use
+ * the connection itself while the writer is active.
+ *
+ * <p>The writer never passes rows to other transforms: the executed batches are handed back to the
+ * transform thread which sends the rows to the next transforms or the error hop.
+ */
+public class TableOutputBatchWriter {
+
+  /** A batch of rows and the result of executing it */
+  public static class Batch {
+    private final List<Object[]> insertRows = new ArrayList<>();
+    private final List<Object[]> outputRows = new ArrayList<>();
+
+    /** The output rows which were added to the JDBC batch */
+    private final List<Object[]> batchedRows = new ArrayList<>();
+
+    /** The rows which couldn't be added to the JDBC batch, with their error */
+    private final List<Object[]> errorRows = new ArrayList<>();
+
+    private final List<HopDatabaseException> errors = new ArrayList<>();
+
+    private HopDatabaseBatchException batchException;
+
+    private HopException failure;
+
+    /**
+     * Gets the output rows which were added to the JDBC batch
+     *
+     * @return value of batchedRows
+     */
+    public List<Object[]> getBatchedRows() {
+      return batchedRows;
+    }
+
+    /**
+     * Gets the output rows which couldn't be added to the JDBC batch
+     *
+     * @return value of errorRows
+     */
+    public List<Object[]> getErrorRows() {
+      return errorRows;
+    }
+
+    /**
+     * Gets the errors of the error rows
+     *
+     * @return value of errors
+     */
+    public List<HopDatabaseException> getErrors() {
+      return errors;
+    }
+
+    /**
+     * Gets the exception of executing the batch. The batch was committed when error handling is
+     * active and rolled back otherwise.
+     *
+     * @return value of batchException or null if the batch was executed without problems
+     */
+    public HopDatabaseBatchException getBatchException() {
+      return batchException;
+    }
+
+    /**
+     * Gets the failure which stops the transform. The transaction was rolled back.
+     *
+     * @return value of failure or null if the transform can continue
+     */
+    public HopException getFailure() {
+      return failure;
+    }
+  }
+
+  private final Database db;
+  private final IRowMeta insertRowMeta;
+  private final PreparedStatement insertStatement;
+  private final String tableName;
+  private final boolean doingErrorHandling;
+  private final boolean ignoringErrors;
+  private final int maxPendingBatches;
+
+  private final ExecutorService executor;
+  private final Deque<Future<Batch>> pendingBatches;
+  private Batch batch;
+
+  /** Set by the writer thread after a failure: the batches after it are not executed anymore */
+  private volatile boolean failed;
+
+  /**
+   * @param db The connected database, used by the writer thread only
+   * @param insertRowMeta The metadata of the rows to insert
+   * @param insertStatement The prepared insert statement
+   * @param tableName The name of the table, used in error messages
+   * @param doingErrorHandling true if the rows which fail go to the error hop
+   * @param ignoringErrors true if the rows which can't be inserted are ignored
+   * @param maxPendingBatches The maximum number of batches submitted and not yet handed back
+   * @param threadName The name of the writer thread
+   */
+  public TableOutputBatchWriter(
+      Database db,
+      IRowMeta insertRowMeta,
+      PreparedStatement insertStatement,
+      String tableName,
+      boolean doingErrorHandling,
+      boolean ignoringErrors,
+      int maxPendingBatches,
+      String threadName) {
+    this.db = db;
+    this.insertRowMeta = insertRowMeta;
+    this.insertStatement = insertStatement;
+    this.tableName = tableName;
+    this.doingErrorHandling = doingErrorHandling;
+    this.ignoringErrors = ignoringErrors;
+    this.maxPendingBatches = maxPendingBatches;
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, threadName);
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.pendingBatches = new ArrayDeque<>();
+    this.batch = new Batch();
+  }
+
+  /**
+   * Add a row to the batch which is being filled
+   *
+   * @param insertRow The values to insert
+   * @param outputRow The row to pass on once it's written
+   */
+  public void addRow(Object[] insertRow, Object[] outputRow) {
+    batch.insertRows.add(insertRow);
+    batch.outputRows.add(outputRow);
+  }
+
+  /**
+   * @return The number of rows in the batch which is being filled
+   */
+  public int getRowCount() {
+    return batch.insertRows.size();
+  }
+
+  /** Hand the batch which is being filled to the writer thread and start a new one */
+  public void submit() {
+    if (batch.insertRows.isEmpty()) {
+      return;
+    }
+    Batch submitted = batch;
+    pendingBatches.add(executor.submit(() -> execute(submitted)));
+    batch = new Batch();
+  }
+
+  /**
+   * Take the batches which were executed, in the order they were submitted. This waits for the
+   * oldest batches as long as there are too many pending batches.
+   *
+   * @param waitForAll true to wait until all submitted batches are executed
+   * @return the executed batches
+   * @throws HopException in case waiting for a batch failed
+   */
+  public List<Batch> takeExecutedBatches(boolean waitForAll) throws HopException {
+    List<Batch> batches = new ArrayList<>();
+    int maxPending = waitForAll ? 0 : maxPendingBatches;
+    while (!pendingBatches.isEmpty()
+        && (pendingBatches.size() > maxPending || pendingBatches.peek().isDone())) {
+      try {
+        batches.add(pendingBatches.poll().get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException("Interrupted while waiting for a batch to be written", e);
+      } catch (ExecutionException e) {
+        throw new HopException("Unexpected error writing a batch", e.getCause());
+      }
+    }
+    return batches;
+  }
+
+  /**
+   * Stop the writer thread. Batches which are still pending are not executed anymore. This waits
+   * for the batch which is being executed so the connection can be used again afterwards.
+   */
+  public void close() {
+    failed = true;
+    executor.shutdown();
+    try {
+      while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+        // Wait for the database to finish the batch
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Runs on the writer thread */
+  Batch execute(Batch batch) {
+    if (failed) {
+      batch.failure = new HopException("Batch not written because of a previous error");
+      return batch;
+    }
+    try {
+      for (int i = 0; i < batch.insertRows.size(); i++) {
+        Object[] insertRow = batch.insertRows.get(i);
+        try {
+          db.setValues(insertRowMeta, insertRow, insertStatement);
+          db.insertRow(insertStatement, true, false);
+          batch.batchedRows.add(batch.outputRows.get(i));
+        } catch (HopDatabaseBatchException e) {
+          throw e;
+        } catch (HopDatabaseException e) {
+          if (!doingErrorHandling && !ignoringErrors) {
+            throw new HopException(
+                "Error inserting row into table ["
+                    + tableName
+                    + "] with values: "
+                    + insertRowMeta.getString(insertRow),
+                e);
+          }
+          batch.errorRows.add(batch.outputRows.get(i));
+          batch.errors.add(e);
+        }
+      }
+      if (!batch.batchedRows.isEmpty()) {
+        executeBatch();
+      }
+    } catch (HopDatabaseBatchException e) {
+      batch.batchException = e;
+      try {
+        db.clearBatch(insertStatement);
+        if (doingErrorHandling) {
+          db.commit(true);
+        } else {
+          db.rollback();
+          failed = true;
+        }
+      } catch (HopException ce) {
+        fail(batch, ce);
+      }
+    } catch (HopException e) {
+      fail(batch, e);
+    } catch (RuntimeException e) {
+      fail(batch, new HopException("Unexpected error writing a batch", e));
+    }
+    return batch;
+  }
+
+  private void executeBatch() throws HopException {
+    try {
+      insertStatement.executeBatch();
+      db.commit();
+      insertStatement.clearBatch();
+    } catch (SQLException ex) {
+      throw Database.createHopDatabaseBatchException("Error updating batch", ex);
+    }
+  }
+
+  private void fail(Batch batch, HopException e) {
+    failed = true;
+    batch.failure = e;
+    try {
+      db.clearBatch(insertStatement);
+      db.rollback();
+    } catch (HopException re) {
+      e.addSuppressed(re);
+    }
+  }
+}
@@ -53,6 +53,11 @@ public class TableOutputData extends BaseTransformData implements ITransformData
   /** Use batch mode or not? */
   public boolean batchMode;
 
+  /** Write the batches on a separate thread? */
+  public boolean asyncBatches;
+
+  public TableOutputBatchWriter batchWriter;
+
   public int indexOfTableNameField;
 
   public List<Object[]> batchBuffer;
@@ -101,6 +101,9 @@ public class TableOutputDialog extends BaseTransformDialog {
   private Label wlBatch;
   private Button wBatch;
 
+  private Label wlAsyncBatches;
+  private Button wAsyncBatches;
+
   private Button wUsePart;
 
   private Label wlPartField;
@@ -548,13 +551,35 @@ public class TableOutputDialog extends BaseTransformDialog {
           }
         });
 
+    // Write batches asynchronously
+    wlAsyncBatches = new Label(wMainComp, SWT.RIGHT);
+    wlAsyncBatches.setText(BaseMessages.getString(PKG, "TableOutputDialog.AsyncBatches.Label"));
+    wlAsyncBatches.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.AsyncBatches.Tooltip"));
+    PropsUi.setLook(wlAsyncBatches);
+    FormData fdlAsyncBatches = new FormData();
+    fdlAsyncBatches.left = new FormAttachment(0, 0);
+    fdlAsyncBatches.top = new FormAttachment(wBatch, margin);
+    fdlAsyncBatches.right = new FormAttachment(middle, -margin);
+    wlAsyncBatches.setLayoutData(fdlAsyncBatches);
+    wAsyncBatches = new Button(wMainComp, SWT.CHECK);
+    wAsyncBatches.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.AsyncBatches.Tooltip"));
+    PropsUi.setLook(wAsyncBatches);
+    FormData fdAsyncBatches = new FormData();
+    fdAsyncBatches.left = new FormAttachment(middle, 0);
+    fdAsyncBatches.top = new FormAttachment(wlAsyncBatches, 0, SWT.CENTER);
+    fdAsyncBatches.right = new FormAttachment(100, 0);
+    wAsyncBatches.setLayoutData(fdAsyncBatches);
+    wAsyncBatches.addSelectionListener(lsSelMod);
+
     // NameInField
     Label wlNameInField = new Label(wMainComp, SWT.RIGHT);
     wlNameInField.setText(BaseMessages.getString(PKG, "TableOutputDialog.NameInField.Label"));
     PropsUi.setLook(wlNameInField);
     FormData fdlNameInField = new FormData();
     fdlNameInField.left = new FormAttachment(0, 0);
-    fdlNameInField.top = new FormAttachment(wBatch, margin * 5);
+    fdlNameInField.top = new FormAttachment(wAsyncBatches, margin * 5);
     fdlNameInField.right = new FormAttachment(middle, -margin);
     wlNameInField.setLayoutData(fdlNameInField);
     wNameInField = new Button(wMainComp, SWT.CHECK);
@@ -1215,6 +1240,11 @@ public class TableOutputDialog extends BaseTransformDialog {
     wlBatch.setEnabled(enableBatch);
     wBatch.setEnabled(enableBatch);
 
+    // Asynchronous batches need batch updates and a single table
+    boolean enableAsyncBatches = useBatch && !usePartitioning && !isTableNameInField;
+    wlAsyncBatches.setEnabled(enableAsyncBatches);
+    wAsyncBatches.setEnabled(enableAsyncBatches);
+
     boolean specifyFields = wSpecifyFields.getSelection();
     wFields.setEnabled(specifyFields);
     wGetFields.setEnabled(specifyFields);
@@ -1259,6 +1289,7 @@ public class TableOutputDialog extends BaseTransformDialog {
     wOnlyWhenHaveRows.setSelection(input.isOnlyWhenHaveRows());
     wIgnore.setSelection(input.isIgnoreErrors());
     wBatch.setSelection(input.isUseBatchUpdate());
+    wAsyncBatches.setSelection(input.isAsyncBatches());
 
     wCommit.setText(input.getCommitSize());
 
@@ -1315,6 +1346,7 @@ public class TableOutputDialog extends BaseTransformDialog {
     info.setOnlyWhenHaveRows(wOnlyWhenHaveRows.getSelection());
     info.setIgnoreErrors(wIgnore.getSelection());
     info.setUseBatchUpdate(wBatch.getSelection());
+    info.setAsyncBatches(wAsyncBatches.getSelection());
     info.setPartitioningEnabled(wUsePart.getSelection());
     info.setPartitioningField(wPartField.getText());
     info.setPartitioningDaily(wPartDaily.getSelection());
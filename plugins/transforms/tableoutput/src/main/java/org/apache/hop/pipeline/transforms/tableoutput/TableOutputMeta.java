@@ -111,6 +111,12 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
       injectionKeyDescription = "TableOutputMeta.Injection.UseBatch.Field")
   private boolean useBatchUpdate;
 
+  @HopMetadataProperty(
+      key = "async_batches",
+      injectionKey = "ASYNC_BATCHES",
+      injectionKeyDescription = "TableOutputMeta.Injection.AsyncBatches.Field")
+  private boolean asyncBatches;
+
   @HopMetadataProperty(
       key = "partitioning_enabled",
       injectionKey = "PARTITION_OVER_TABLES",
@@ -462,6 +468,20 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
     return useBatchUpdate;
   }
 
+  /**
+   * @param asyncBatches The asyncBatches flag to set.
+   */
+  public void setAsyncBatches(boolean asyncBatches) {
+    this.asyncBatches = asyncBatches;
+  }
+
+  /**
+   * @return Returns the asyncBatches flag: write the batches on a separate thread.
+   */
+  public boolean isAsyncBatches() {
+    return asyncBatches;
+  }
+
   @Override
   public void setDefault() {
     tableName = "";
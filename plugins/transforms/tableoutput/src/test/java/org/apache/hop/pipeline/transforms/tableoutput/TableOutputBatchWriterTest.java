@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.util.List;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TableOutputBatchWriterTest {
+  private Database db;
+  private PreparedStatement insertStatement;
+  private IRowMeta rowMeta;
+  private TableOutputBatchWriter writer;
+
+  @Before
+  public void setUp() {
+    db = mock(Database.class);
+    insertStatement = mock(PreparedStatement.class);
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+  }
+
+  @After
+  public void tearDown() {
+    if (writer != null) {
+      writer.close();
+    }
+  }
+
+  private TableOutputBatchWriter createWriter(boolean doingErrorHandling) {
+    writer =
+        new TableOutputBatchWriter(
+            db, rowMeta, insertStatement, "table", doingErrorHandling, false, 1, "writer");
+    return writer;
+  }
+
+  private void addRows(int from, int to) {
+    for (long i = from; i < to; i++) {
+      Object[] row = new Object[] {i};
+      writer.addRow(row, row);
+    }
+  }
+
+  @Test
+  public void testBatchesAreWrittenInOrder() throws Exception {
+    createWriter(false);
+    addRows(0, 3);
+    assertEquals(3, writer.getRowCount());
+    writer.submit();
+    assertEquals(0, writer.getRowCount());
+    addRows(3, 5);
+    writer.submit();
+    // An empty batch isn't submitted
+    writer.submit();
+
+    List<TableOutputBatchWriter.Batch> batches = writer.takeExecutedBatches(true);
+    assertEquals(2, batches.size());
+    assertEquals(3, batches.get(0).getBatchedRows().size());
+    assertEquals(2, batches.get(1).getBatchedRows().size());
+    assertEquals(3L, batches.get(1).getBatchedRows().get(0)[0]);
+    assertNull(batches.get(1).getBatchException());
+    assertNull(batches.get(1).getFailure());
+
+    verify(db, times(5)).insertRow(insertStatement, true, false);
+    verify(insertStatement, times(2)).executeBatch();
+    verify(db, times(2)).commit();
+  }
+
+  @Test
+  public void testBatchErrorWithErrorHandling() throws Exception {
+    createWriter(true);
+    doThrow(new BatchUpdateException(new int[] {1, 0})).when(insertStatement).executeBatch();
+    addRows(0, 2);
+    writer.submit();
+
+    TableOutputBatchWriter.Batch batch = writer.takeExecutedBatches(true).get(0);
+    assertNotNull(batch.getBatchException());
+    assertEquals(2, batch.getBatchException().getUpdateCounts().length);
+    assertNull(batch.getFailure());
+    verify(db).commit(true);
+    verify(db, never()).rollback();
+  }
+
+  @Test
+  public void testRowErrorWithErrorHandling() throws Exception {
+    createWriter(true);
+    Object[] badRow = new Object[] {-1L};
+    HopDatabaseException error = new HopDatabaseException("bad row");
+    doThrow(error).when(db).setValues(any(IRowMeta.class), eq(badRow), eq(insertStatement));
+    addRows(0, 1);
+    writer.addRow(badRow, badRow);
+    writer.submit();
+
+    TableOutputBatchWriter.Batch batch = writer.takeExecutedBatches(true).get(0);
+    assertEquals(1, batch.getBatchedRows().size());
+    assertSame(badRow, batch.getErrorRows().get(0));
+    assertSame(error, batch.getErrors().get(0));
+    verify(insertStatement).executeBatch();
+  }
+
+  @Test
+  public void testFailureStopsWriting() throws Exception {
+    createWriter(false);
+    doThrow(new BatchUpdateException(new int[] {0})).when(insertStatement).executeBatch();
+    addRows(0, 1);
+    writer.submit();
+    addRows(1, 2);
+    writer.submit();
+
+    List<TableOutputBatchWriter.Batch> batches = writer.takeExecutedBatches(true);
+    assertNotNull(batches.get(0).getBatchException());
+    assertNotNull(batches.get(1).getFailure());
+    verify(db).rollback();
+    verify(insertStatement, times(1)).executeBatch();
+  }
+}
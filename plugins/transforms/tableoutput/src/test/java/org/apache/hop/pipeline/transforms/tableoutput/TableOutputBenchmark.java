@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.NoneDatabaseMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.Benchmark;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.metadata.serializer.memory.MemoryMetadataProvider;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mock.GeneratedRowSet;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Writes rows with Table Output, with the batches executed on the transform thread and on the batch
+ * writer thread. The target is a JDBC driver which only waits for a fixed time when a batch is
+ * executed, like a database round trip, so the numbers show how much of that wait is hidden.
+ */
+public class TableOutputBenchmark {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public Benchmark benchmark = new Benchmark(1, 3);
+
+  private final long rows = Benchmark.size("rows", 1_000_000L);
+  private final int commitSize = (int) Benchmark.size("commitSize", 1000);
+  private static final long batchLatency = Benchmark.size("batchLatency", 5);
+
+  @BeforeClass
+  public static void init() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Test
+  public void synchronousBatches() throws Exception {
+    measure(false);
+  }
+
+  @Test
+  public void asynchronousBatches() throws Exception {
+    measure(true);
+  }
+
+  private void measure(boolean asyncBatches) throws Exception {
+    NoneDatabaseMeta databaseType = new NoneDatabaseMeta();
+    databaseType.setDriverClass(WaitingDriver.class.getName());
+    DatabaseMeta databaseMeta = new DatabaseMeta();
+    databaseMeta.setName("target");
+    databaseMeta.setIDatabase(databaseType);
+    MemoryMetadataProvider metadataProvider = new MemoryMetadataProvider();
+    metadataProvider.getSerializer(DatabaseMeta.class).save(databaseMeta);
+
+    TableOutputMeta meta = new TableOutputMeta();
+    meta.setDefault();
+    meta.setConnection("target");
+    meta.setTableName("target");
+    meta.setCommitSize(commitSize);
+    meta.setUseBatchUpdate(true);
+    meta.setAsyncBatches(asyncBatches);
+    TransformMeta transformMeta = new TransformMeta("Table output", meta);
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setMetadataProvider(metadataProvider);
+    pipelineMeta.addTransform(transformMeta);
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.setMetadataProvider(metadataProvider);
+    pipeline.setRunning(true);
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    inputRowMeta.addValueMeta(new ValueMetaString("name"));
+    inputRowMeta.addValueMeta(new ValueMetaNumber("amount"));
+
+    benchmark.measure(
+        String.format(
+            "Table output, %s batches of %d, %d ms per batch",
+            asyncBatches ? "asynchronous" : "synchronous", commitSize, batchLatency),
+        rows,
+        () -> {
+          TableOutput tableOutput =
+              new TableOutput(
+                  transformMeta, meta, new TableOutputData(), 0, pipelineMeta, pipeline);
+          tableOutput.setMetadataProvider(metadataProvider);
+          tableOutput.addRowSetToInputRowSets(
+              new GeneratedRowSet(rows, seq -> new Object[] {seq, "row " + seq, seq * 0.5}));
+          tableOutput.setInputRowMeta(inputRowMeta);
+          assertEquals(true, tableOutput.init());
+          AtomicLong written = new AtomicLong();
+          tableOutput.addRowListener(
+              new RowAdapter() {
+                @Override
+                public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+                  written.incrementAndGet();
+                }
+              });
+          while (tableOutput.processRow()) {
+            // Write all rows
+          }
+          tableOutput.dispose();
+          assertEquals(0, tableOutput.getErrors());
+          assertEquals(rows, written.get());
+        });
+  }
+
+  /** A JDBC driver whose statements accept everything and wait when a batch is executed */
+  public static class WaitingDriver implements Driver {
+    static {
+      try {
+        DriverManager.registerDriver(new WaitingDriver());
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) {
+      return acceptsURL(url) ? proxy(Connection.class, WaitingDriver::connection) : null;
+    }
+
+    private static Object connection(Object proxy, Method method, Object[] args) {
+      switch (method.getName()) {
+        case "getMetaData":
+          return proxy(DatabaseMetaData.class, WaitingDriver::databaseMetaData);
+        case "prepareStatement":
+          return proxy(PreparedStatement.class, new Statement());
+        default:
+          return defaultValue(method);
+      }
+    }
+
+    private static Object databaseMetaData(Object proxy, Method method, Object[] args) {
+      return method.getName().startsWith("supports") ? Boolean.TRUE : defaultValue(method);
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+      return "jdbc://none".equals(url);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+      return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+      return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+      return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+      return false;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+      return Logger.getGlobal();
+    }
+  }
+
+  private static class Statement implements InvocationHandler {
+    private int batchSize;
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+      switch (method.getName()) {
+        case "addBatch":
+          batchSize++;
+          return null;
+        case "clearBatch":
+          batchSize = 0;
+          return null;
+        case "executeBatch":
+          Thread.sleep(batchLatency);
+          int[] updateCounts = new int[batchSize];
+          Arrays.fill(updateCounts, 1);
+          batchSize = 0;
+          return updateCounts;
+        default:
+          return defaultValue(method);
+      }
+    }
+  }
+
+  private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            TableOutputBenchmark.class.getClassLoader(), new Class<?>[] {type}, handler));
+  }
+
+  private static Object defaultValue(Method method) {
+    Class<?> type = method.getReturnType();
+    if (type == boolean.class) {
+      return false;
+    } else if (type == int.class) {
+      return 0;
+    } else if (type == long.class) {
+      return 0L;
+    } else if (type.isPrimitive() && type != void.class) {
+      throw new UnsupportedOperationException(method.getName());
+    }
+    return null;
+  }
+}
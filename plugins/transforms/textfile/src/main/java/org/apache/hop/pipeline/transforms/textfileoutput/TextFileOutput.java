@@ -21,6 +21,8 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -194,7 +196,7 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
           }
 
           BufferedOutputStream bufferedOutputStream =
-              new BufferedOutputStream(compressionOutputStream, 5000);
+              createBufferedOutputStream(compressionOutputStream);
 
           fileStreams =
               data.new FileStream(fileOutputStream, compressionOutputStream, bufferedOutputStream);
@@ -218,7 +220,7 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
               compressionProvider.createOutputStream(fileOutputStream);
           compressionOutputStream.addEntry(filename, resolve(meta.getExtension()));
           BufferedOutputStream bufferedOutputStream =
-              new BufferedOutputStream(compressionOutputStream, 5000);
+              createBufferedOutputStream(compressionOutputStream);
 
           fileStreams.setFileOutputStream(fileOutputStream);
           fileStreams.setCompressedOutputStream(compressionOutputStream);
@@ -577,6 +579,24 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
     }
   }
 
+  /**
+   * Create the buffered stream the values are written to. The values are encoded straight into its
+   * buffer when the encoding is known to Java.
+   */
+  private BufferedOutputStream createBufferedOutputStream(OutputStream outputStream) {
+    Charset charset;
+    try {
+      charset =
+          Utils.isEmpty(meta.getEncoding())
+              ? Charset.defaultCharset()
+              : Charset.forName(meta.getEncoding());
+    } catch (IllegalArgumentException e) {
+      // The error is reported when the separator and enclosure are encoded
+      return new BufferedOutputStream(outputStream, TextFileOutputStream.DEFAULT_BUFFER_SIZE);
+    }
+    return new TextFileOutputStream(outputStream, charset);
+  }
+
   private byte[] getBinaryString(String string) throws HopTransformException {
     try {
       if (data.hasEncoding) {
@@ -592,6 +612,12 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
   private void writeField(IValueMeta v, Object valueData, byte[] nullString)
       throws HopTransformException {
     try {
+      if (data.writer instanceof TextFileOutputStream textFileOutputStream
+          && (nullString == null || !v.isNull(valueData))
+          && writeFieldDirect(textFileOutputStream, v, valueData)) {
+        return;
+      }
+
       byte[] str;
 
       // First check whether or not we have a null string set
@@ -889,6 +915,10 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
         }
       }
 
+      data.separatorString = Utils.isEmpty(meta.getSeparator()) ? "" : resolve(meta.getSeparator());
+      data.enclosureString = Utils.isEmpty(meta.getEnclosure()) ? "" : resolve(meta.getEnclosure());
+      data.directStringEncoding = isDirectStringEncodingPossible();
+
       data.binaryNullValue = new byte[meta.getOutputFields().length][];
       for (int i = 0; i < meta.getOutputFields().length; i++) {
         data.binaryNullValue[i] = null;
@@ -907,6 +937,25 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
     }
   }
 
+  /**
+   * Strings can be checked for the separator and enclosure before they are encoded when every
+   * character is encoded on its own: in UTF-8 and in single byte character sets. Unmappable
+   * characters become '?' in the latter so a separator or enclosure containing it is excluded.
+   */
+  private boolean isDirectStringEncodingPossible() {
+    if (data.separatorString.contains("?") || data.enclosureString.contains("?")) {
+      return false;
+    }
+    try {
+      Charset charset =
+          data.hasEncoding ? Charset.forName(meta.getEncoding()) : Charset.defaultCharset();
+      return StandardCharsets.UTF_8.equals(charset)
+          || (charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
   protected void close() throws IOException {
     if (!meta.isServletOutput()) {
       data.getFileStreamsCollection().flushOpenFiles(true);
@@ -929,6 +978,67 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
     super.dispose();
   }
 
+  /**
+   * Encode a value straight into the buffer of the output stream. This covers integers in fast dump
+   * mode and strings without a length. The other values and strings with enclosures to double are
+   * converted to bytes first.
+   *
+   * @return true if the value was written, false if it needs to be written the regular way
+   */
+  private boolean writeFieldDirect(TextFileOutputStream writer, IValueMeta v, Object valueData)
+      throws IOException {
+    String string;
+    if (meta.isFastDump()) {
+      if (valueData instanceof Long && !v.isString() && writer.isAsciiCompatible()) {
+        writer.writeLong((Long) valueData);
+        return true;
+      }
+      if (!(valueData instanceof String)) {
+        return false;
+      }
+      string = (String) valueData;
+    } else if (v.isString()
+        && v.isStorageNormal()
+        && v.getLength() < 0
+        && valueData instanceof String) {
+      string = Const.trimToType((String) valueData, v.getTrimType());
+    } else {
+      return false;
+    }
+    if (!data.directStringEncoding) {
+      return false;
+    }
+    if (string.isEmpty()) {
+      return true;
+    }
+
+    boolean writeEnclosures = false;
+    if (v.isString()) {
+      boolean containsEnclosure =
+          !data.enclosureString.isEmpty() && string.contains(data.enclosureString);
+      if (meta.isEnclosureForced() && !meta.isPadded()) {
+        writeEnclosures = true;
+      } else if (!meta.isEnclosureFixDisabled()
+          && (containsEnclosure
+              || (!data.separatorString.isEmpty() && string.contains(data.separatorString)))) {
+        writeEnclosures = true;
+      }
+      if (writeEnclosures && containsEnclosure) {
+        // The enclosures in the value are doubled the regular way
+        return false;
+      }
+    }
+
+    if (writeEnclosures) {
+      writer.write(data.binaryEnclosure);
+    }
+    writer.writeString(string);
+    if (writeEnclosures) {
+      writer.write(data.binaryEnclosure);
+    }
+    return true;
+  }
+
   public boolean containsSeparatorOrEnclosure(byte[] source, byte[] separator, byte[] enclosure) {
     boolean result = false;
 
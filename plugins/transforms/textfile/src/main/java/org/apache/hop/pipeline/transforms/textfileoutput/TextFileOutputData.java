@@ -423,6 +423,14 @@ public class TextFileOutputData extends BaseTransformData implements ITransformD
   public byte[] binaryEnclosure;
   public byte[] binaryNewline;
 
+  /** The resolved separator and enclosure, to check the string values before encoding them */
+  public String separatorString;
+
+  public String enclosureString;
+
+  /** True if string values can be encoded straight into the buffer of the output stream */
+  public boolean directStringEncoding;
+
   public boolean hasEncoding;
 
   public byte[][] binaryNullValue;
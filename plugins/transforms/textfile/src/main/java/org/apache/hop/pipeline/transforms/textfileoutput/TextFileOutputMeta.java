@@ -27,6 +27,8 @@ import org.apache.hop.core.CheckResult;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.ICheckResult;
 import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.compress.ICompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopXmlException;
@@ -1375,6 +1377,16 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
       }
       if ("GZip".equals(meta.getFileCompression())) {
         retval += ".gz";
+      } else if (!Utils.isEmpty(meta.getFileCompression())
+          && !"None".equals(meta.getFileCompression())) {
+        // The other compression providers add their default extension, if they have one
+        ICompressionProvider compressionProvider =
+            CompressionProviderFactory.getInstance()
+                .getCompressionProviderByName(meta.getFileCompression());
+        if (compressionProvider != null
+            && !Utils.isEmpty(compressionProvider.getDefaultExtension())) {
+          retval += "." + compressionProvider.getDefaultExtension();
+        }
       }
     }
     return retval;
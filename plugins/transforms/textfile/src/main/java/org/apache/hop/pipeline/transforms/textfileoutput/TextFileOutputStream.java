@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.textfileoutput;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A buffered output stream which encodes strings and integers straight into its buffer. Text File
+ * Output writes the field values through it without converting every value to a byte array first.
+ * The encoded bytes are the same as the ones of {@link String#getBytes(Charset)}.
+ */
+public class TextFileOutputStream extends BufferedOutputStream {
+
+  /** The default size of the buffer: large enough to write many rows in one go */
+  public static final int DEFAULT_BUFFER_SIZE = 128 * 1024;
+
+  private static final int MAX_LONG_DIGITS = 20;
+
+  private final CharsetEncoder encoder;
+  private final boolean asciiCompatible;
+  private final ByteBuffer byteBuffer;
+  private char[] chars = new char[0];
+  private CharBuffer charBuffer = CharBuffer.wrap(chars);
+
+  /**
+   * @param out the stream to write the buffer to
+   * @param charset the character set to encode strings with
+   */
+  public TextFileOutputStream(OutputStream out, Charset charset) {
+    this(out, DEFAULT_BUFFER_SIZE, charset);
+  }
+
+  /**
+   * @param out the stream to write the buffer to
+   * @param size the size of the buffer
+   * @param charset the character set to encode strings with
+   */
+  public TextFileOutputStream(OutputStream out, int size, Charset charset) {
+    super(out, Math.max(size, MAX_LONG_DIGITS));
+    this.encoder =
+        charset
+            .newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.asciiCompatible = isAsciiCompatible(charset);
+    this.byteBuffer = ByteBuffer.wrap(buf);
+  }
+
+  /**
+   * @param charset the character set to check
+   * @return true if the characters 0-127 are encoded as a single byte with the same value
+   */
+  public static boolean isAsciiCompatible(Charset charset) {
+    if (!charset.canEncode()) {
+      return false;
+    }
+    byte[] ascii = new byte[128];
+    for (int i = 0; i < ascii.length; i++) {
+      ascii[i] = (byte) i;
+    }
+    return Arrays.equals(ascii, new String(ascii, StandardCharsets.US_ASCII).getBytes(charset));
+  }
+
+  /**
+   * @return true if the characters 0-127 are written as a single byte with the same value
+   */
+  public boolean isAsciiCompatible() {
+    return asciiCompatible;
+  }
+
+  /**
+   * Encode a string into the buffer. ASCII characters are copied as they are when the character set
+   * allows it, the rest of the string goes through the encoder.
+   *
+   * @param string the string to write
+   * @throws IOException in case the buffer can't be written to the underlying stream
+   */
+  public void writeString(String string) throws IOException {
+    int length = string.length();
+    if (!asciiCompatible) {
+      encode(string, 0);
+      return;
+    }
+    int index = 0;
+    while (index < length) {
+      if (count == buf.length) {
+        drain();
+      }
+      int end = Math.min(length, index + buf.length - count);
+      for (; index < end; index++) {
+        char c = string.charAt(index);
+        if (c >= 0x80) {
+          encode(string, index);
+          return;
+        }
+        buf[count++] = (byte) c;
+      }
+    }
+  }
+
+  /**
+   * Write the decimal digits of an integer into the buffer. This requires an ASCII compatible
+   * character set.
+   *
+   * @param value the integer to write
+   * @throws IOException in case the buffer can't be written to the underlying stream
+   */
+  public void writeLong(long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      writeString(Long.toString(value));
+      return;
+    }
+    if (buf.length - count < MAX_LONG_DIGITS) {
+      drain();
+    }
+    if (value < 0) {
+      buf[count++] = '-';
+      value = -value;
+    }
+    int start = count;
+    do {
+      buf[count++] = (byte) ('0' + (int) (value % 10));
+      value /= 10;
+    } while (value != 0);
+
+    // The digits were written from the least significant one, reverse them
+    for (int i = start, j = count - 1; i < j; i++, j--) {
+      byte digit = buf[i];
+      buf[i] = buf[j];
+      buf[j] = digit;
+    }
+  }
+
+  private void encode(String string, int from) throws IOException {
+    int length = string.length() - from;
+    if (chars.length < length) {
+      chars = new char[Math.max(length, chars.length * 2)];
+      charBuffer = CharBuffer.wrap(chars);
+    }
+    string.getChars(from, string.length(), chars, 0);
+    charBuffer.clear().limit(length);
+
+    encoder.reset();
+    CoderResult result;
+    do {
+      byteBuffer.limit(buf.length).position(count);
+      result = encoder.encode(charBuffer, byteBuffer, true);
+      count = byteBuffer.position();
+      if (result.isOverflow()) {
+        drain();
+      }
+    } while (result.isOverflow());
+    do {
+      byteBuffer.limit(buf.length).position(count);
+      result = encoder.flush(byteBuffer);
+      count = byteBuffer.position();
+      if (result.isOverflow()) {
+        drain();
+      }
+    } while (result.isOverflow());
+  }
+
+  /** Write the buffer to the underlying stream without flushing it */
+  private void drain() throws IOException {
+    if (count > 0) {
+      out.write(buf, 0, count);
+      count = 0;
+    }
+  }
+}
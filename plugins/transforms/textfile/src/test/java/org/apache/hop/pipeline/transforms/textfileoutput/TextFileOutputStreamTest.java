@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.textfileoutput;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class TextFileOutputStreamTest {
+
+  private static final String[] STRINGS = {
+    "", "a", "plain ascii text", "café crème", "€ 12,50", "😀 smile", "中文"
+  };
+
+  private byte[] writeStrings(Charset charset, int bufferSize, String... strings) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (TextFileOutputStream out = new TextFileOutputStream(bytes, bufferSize, charset)) {
+      for (String string : strings) {
+        out.writeString(string);
+        out.write(';');
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private byte[] getBytes(Charset charset, String... strings) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    for (String string : strings) {
+      bytes.writeBytes(string.getBytes(charset));
+      bytes.write(';');
+    }
+    return bytes.toByteArray();
+  }
+
+  @Test
+  public void testSameBytesAsGetBytes() throws Exception {
+    Charset[] charsets = {
+      StandardCharsets.UTF_8,
+      StandardCharsets.ISO_8859_1,
+      StandardCharsets.US_ASCII,
+      StandardCharsets.UTF_16,
+      Charset.forName("windows-1252")
+    };
+    for (Charset charset : charsets) {
+      for (int bufferSize : new int[] {20, 23, 1024}) {
+        assertArrayEquals(
+            charset + " with buffer " + bufferSize,
+            getBytes(charset, STRINGS),
+            writeStrings(charset, bufferSize, STRINGS));
+      }
+    }
+  }
+
+  @Test
+  public void testWideRow() throws Exception {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      builder.append(i % 10 == 0 ? 'é' : (char) ('a' + i % 26));
+    }
+    String wide = builder.toString();
+    // Strings longer than the buffer are written in several parts
+    assertArrayEquals(
+        getBytes(StandardCharsets.UTF_8, wide, "x", wide),
+        writeStrings(StandardCharsets.UTF_8, 100, wide, "x", wide));
+    assertArrayEquals(
+        getBytes(StandardCharsets.ISO_8859_1, wide),
+        writeStrings(StandardCharsets.ISO_8859_1, 100, wide));
+  }
+
+  @Test
+  public void testWriteLong() throws Exception {
+    long[] values = {0L, 7L, -7L, 10L, 1234567890L, -987654321012L, Long.MAX_VALUE, Long.MIN_VALUE};
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    StringBuilder expected = new StringBuilder();
+    // A small buffer makes most of the values overflow it
+    try (TextFileOutputStream out = new TextFileOutputStream(bytes, 25, StandardCharsets.UTF_8)) {
+      for (long value : values) {
+        out.writeLong(value);
+        out.write(',');
+        expected.append(value).append(',');
+      }
+    }
+    assertArrayEquals(expected.toString().getBytes(StandardCharsets.US_ASCII), bytes.toByteArray());
+  }
+
+  @Test
+  public void testAsciiCompatible() {
+    assertTrue(TextFileOutputStream.isAsciiCompatible(StandardCharsets.UTF_8));
+    assertTrue(TextFileOutputStream.isAsciiCompatible(StandardCharsets.ISO_8859_1));
+    assertTrue(TextFileOutputStream.isAsciiCompatible(Charset.forName("windows-1252")));
+    assertFalse(TextFileOutputStream.isAsciiCompatible(StandardCharsets.UTF_16));
+    assertFalse(TextFileOutputStream.isAsciiCompatible(StandardCharsets.UTF_16LE));
+  }
+}